@@ -0,0 +1,179 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.monitoring.batch.internal.rest;
+
+import org.springframework.batch.admin.service.ExecutionState;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.Entity;
+import org.springframework.batch.core.JobExecution;
+
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Request;
+import javax.ws.rs.core.Response;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Validators of the representations of finished executions, derived from the versions and last update times of
+ * the executions, so that the clients polling them get a 304 Not Modified after a cheap probe of their states
+ * instead of a full response. The representations of running executions show durations computed at each request
+ * and are never validated.
+ * <p>
+ * A finished execution can still change, a failed or stopped one being abandoned later, so the representations are
+ * revalidated on each use. Only those of completed or abandoned executions, which never change again, are cached
+ * for the time configured in the {@link ResponsePolicy}. The executions represented are read after their states,
+ * possibly from a cache, so they are checked against the versions tagged before being sent with the validators.
+ */
+public final class ExecutionEntityTag {
+
+    private static final String REVALIDATED = "private, no-cache";
+
+    /**
+     * No validators, for the representations which are always sent in full.
+     */
+    public static final ExecutionEntityTag NONE = new ExecutionEntityTag(0, null, false,
+            Collections.<String, Integer>emptyMap());
+
+    private final long hash;
+
+    private final EntityTag entityTag;
+
+    private final Date lastModified;
+
+    private final boolean unchangeable;
+
+    private final Map<String, Integer> versions;
+
+    private ExecutionEntityTag(long hash, Date lastModified, boolean unchangeable, Map<String, Integer> versions) {
+        this.hash = hash;
+        // weak, the representation being equivalent but not byte for byte identical across encodings
+        this.entityTag = lastModified != null ? new EntityTag(Long.toHexString(hash), true) : null;
+        this.lastModified = lastModified;
+        this.unchangeable = unchangeable;
+        this.versions = versions;
+    }
+
+    /**
+     * Creates the validators of a representation of some executions.
+     *
+     * @param states   the states of the executions represented
+     * @param variants the other values the representation depends on, like its query parameters
+     * @return the validators, without entity tag if one of the executions is running
+     */
+    public static ExecutionEntityTag of(Collection<ExecutionState> states, Object... variants) {
+        long hash = 17;
+        Date lastModified = null;
+        boolean unchangeable = !states.isEmpty();
+        Map<String, Integer> versions = new HashMap<String, Integer>();
+        for (ExecutionState state : states) {
+            if (state.getEndTime() == null) {
+                return NONE;
+            }
+            versions.put(state.isJobExecution() ? getKey(true, state.getJobExecutionId())
+                    : getKey(false, state.getStepExecutionId()), state.getVersion());
+            unchangeable &= state.getStatus() == BatchStatus.COMPLETED || state.getStatus() == BatchStatus.ABANDONED;
+            Date updated = state.getLastUpdated() != null ? state.getLastUpdated() : state.getEndTime();
+            hash = 31 * hash + (state.isJobExecution() ? state.getJobExecutionId() : state.getStepExecutionId());
+            hash = 31 * hash + (state.getVersion() != null ? state.getVersion() : -1);
+            hash = 31 * hash + updated.getTime();
+            hash = 31 * hash + state.getStatus().ordinal();
+            if (lastModified == null || updated.after(lastModified)) {
+                lastModified = updated;
+            }
+        }
+        for (Object variant : variants) {
+            hash = 31 * hash + (variant != null ? variant.hashCode() : 0);
+        }
+        return lastModified != null ? new ExecutionEntityTag(hash, lastModified, unchangeable, versions) : NONE;
+    }
+
+    /**
+     * Adds to the validators a count the representation shows, which also depends on executions not represented,
+     * like the total number of executions of a list. Such a representation is always revalidated.
+     *
+     * @param count the count
+     * @return the validators of the representation with the count
+     */
+    public ExecutionEntityTag withCount(long count) {
+        if (entityTag == null) {
+            return this;
+        }
+        return new ExecutionEntityTag(31 * hash + count, lastModified, false, versions);
+    }
+
+    /**
+     * Checks that executions read after the states are at the versions tagged. They may be newer if they changed in
+     * the meantime, or older if they were read from a stale cache.
+     *
+     * @param executions the job and step executions represented, those without id being ignored
+     * @return true if there is no entity tag or if all the executions are at the versions tagged
+     */
+    public boolean isVersionOf(Collection<? extends Entity> executions) {
+        if (entityTag == null) {
+            return true;
+        }
+        for (Entity execution : executions) {
+            if (execution.getId() == null) {
+                continue;
+            }
+            String key = getKey(execution instanceof JobExecution, execution.getId());
+            Integer version = versions.get(key);
+            if (!versions.containsKey(key)
+                    || (version == null ? execution.getVersion() != null : !version.equals(execution.getVersion()))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Evaluates the conditional headers of a request.
+     *
+     * @param request the request
+     * @param policy  the policy giving the time during which unchangeable representations are cached
+     * @return a 304 Not Modified response if the client has the current representation, otherwise null
+     */
+    public Response evaluate(Request request, ResponsePolicy policy) {
+        if (entityTag == null) {
+            return null;
+        }
+        Response.ResponseBuilder builder = request.evaluatePreconditions(lastModified, entityTag);
+        return builder != null ? builder.header(HttpHeaders.CACHE_CONTROL, getCacheControl(policy)).build() : null;
+    }
+
+    /**
+     * Creates a 200 OK response with the validators.
+     *
+     * @param entity the representation
+     * @param policy the policy giving the time during which unchangeable representations are cached
+     * @return the response builder
+     */
+    public Response.ResponseBuilder ok(Object entity, ResponsePolicy policy) {
+        Response.ResponseBuilder builder = Response.ok(entity);
+        if (entityTag != null) {
+            builder.tag(entityTag).lastModified(lastModified)
+                    .header(HttpHeaders.CACHE_CONTROL, getCacheControl(policy));
+        }
+        return builder;
+    }
+
+    private static String getKey(boolean jobExecution, Long id) {
+        return (jobExecution ? "job:" : "step:") + id;
+    }
+
+    private String getCacheControl(ResponsePolicy policy) {
+        if (unchangeable && policy.getFinishedMaxAge() > 0) {
+            return "private, max-age=" + policy.getFinishedMaxAge();
+        }
+        return REVALIDATED;
+    }
+}
@@ -0,0 +1,108 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.monitoring.batch.internal.rest;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.StreamingOutput;
+import javax.ws.rs.ext.ContextResolver;
+import javax.ws.rs.ext.Providers;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Streaming output writing a JSON document with a Jackson generator, so that large listings are written
+ * while they are read from the repository instead of being built in memory first. The values are written with
+ * the {@link ObjectMapper} of the JAX-RS application when it provides one, so that they are serialized like the
+ * entities of the other responses.
+ */
+public abstract class JsonStreamingOutput implements StreamingOutput {
+
+    private static final ObjectMapper DEFAULT_OBJECT_MAPPER = new ObjectMapper();
+
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Creates a streaming output writing with the object mapper resolved from the providers.
+     *
+     * @param providers the JAX-RS providers, or null to use a default object mapper
+     */
+    protected JsonStreamingOutput(Providers providers) {
+        this.objectMapper = resolveObjectMapper(providers);
+    }
+
+    @Override
+    public void write(OutputStream output) throws IOException {
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(output, JsonEncoding.UTF8);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        try {
+            write(generator);
+        } catch (StreamingException e) {
+            throw e.getCause();
+        } finally {
+            generator.close();
+        }
+    }
+
+    /**
+     * Writes the JSON document.
+     *
+     * @param generator the generator
+     * @throws IOException if the document cannot be written
+     */
+    protected abstract void write(JsonGenerator generator) throws IOException;
+
+    /**
+     * Writes a value with the generator from code which cannot throw checked exceptions, like the
+     * callbacks receiving the executions read from the repository.
+     *
+     * @param generator the generator
+     * @param value     the value to write
+     */
+    protected static void writeObject(JsonGenerator generator, Object value) {
+        try {
+            generator.writeObject(value);
+        } catch (IOException e) {
+            throw new StreamingException(e);
+        }
+    }
+
+    private static ObjectMapper resolveObjectMapper(Providers providers) {
+        if (providers != null) {
+            ContextResolver<ObjectMapper> resolver = providers.getContextResolver(ObjectMapper.class,
+                    MediaType.APPLICATION_JSON_TYPE);
+            if (resolver != null) {
+                ObjectMapper objectMapper = resolver.getContext(Object.class);
+                if (objectMapper != null) {
+                    return objectMapper;
+                }
+            }
+        }
+        return DEFAULT_OBJECT_MAPPER;
+    }
+
+    /**
+     * Carries the {@link IOException} thrown while writing a value out of the callbacks.
+     */
+    private static class StreamingException extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        StreamingException(IOException cause) {
+            super(cause);
+        }
+
+        @Override
+        public synchronized IOException getCause() {
+            return (IOException) super.getCause();
+        }
+    }
+}
@@ -0,0 +1,127 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.monitoring.batch.internal.rest;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.ws.rs.HttpMethod;
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerResponseContext;
+import javax.ws.rs.container.ContainerResponseFilter;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.ext.Provider;
+
+/**
+ * Filter applying the {@link ResponsePolicy} to the responses of the monitoring resources. The representations are
+ * revalidated on each use unless the resource set their caching, as {@link ExecutionEntityTag} does for the
+ * executions which never change again. The content coding accepted by the client for the textual responses is
+ * selected here and applied by the {@link ResponseCompressionInterceptor}.
+ */
+@Provider
+public class MonitoringResponseFilter implements ContainerResponseFilter {
+
+    /**
+     * Request property holding the content coding selected for the response.
+     */
+    static final String CONTENT_CODING_PROPERTY = MonitoringResponseFilter.class.getName() + ".contentCoding";
+
+    static final String GZIP = "gzip";
+
+    static final String DEFLATE = "deflate";
+
+    private static final String MONITORING_PATH = "seed-monitoring/";
+
+    private static final String CONTENT_ENCODING = "Content-Encoding";
+
+    private static final String ACCEPT_ENCODING = "Accept-Encoding";
+
+    private static final String VARY = "Vary";
+
+    @Inject
+    @Named("batchMonitoringResponsePolicy")
+    private ResponsePolicy policy;
+
+    @Override
+    public void filter(ContainerRequestContext requestContext, ContainerResponseContext responseContext) {
+        String path = requestContext.getUriInfo().getPath();
+        if (!path.startsWith(MONITORING_PATH) && !path.startsWith("/" + MONITORING_PATH)) {
+            return;
+        }
+        MultivaluedMap<String, Object> headers = responseContext.getHeaders();
+
+        String method = requestContext.getMethod();
+        if ((HttpMethod.GET.equals(method) || HttpMethod.HEAD.equals(method))
+                && !headers.containsKey(HttpHeaders.CACHE_CONTROL)) {
+            headers.putSingle(HttpHeaders.CACHE_CONTROL, "private, no-cache");
+        }
+
+        if (responseContext.hasEntity() && policy.getCompressionThreshold() >= 0
+                && !headers.containsKey(CONTENT_ENCODING) && isCompressible(responseContext.getMediaType())) {
+            headers.add(VARY, ACCEPT_ENCODING);
+            String contentCoding = selectContentCoding(requestContext.getHeaderString(ACCEPT_ENCODING));
+            if (contentCoding != null) {
+                requestContext.setProperty(CONTENT_CODING_PROPERTY, contentCoding);
+            }
+        }
+    }
+
+    /**
+     * Textual media types only, the Server-Sent Events excepted as they must reach the client without delay.
+     */
+    private static boolean isCompressible(MediaType mediaType) {
+        if (mediaType == null) {
+            return false;
+        }
+        String subtype = mediaType.getSubtype();
+        if ("text".equals(mediaType.getType())) {
+            return !"event-stream".equals(subtype);
+        }
+        return "json".equals(subtype) || subtype.endsWith("+json") || "xml".equals(subtype)
+                || subtype.endsWith("+xml");
+    }
+
+    /**
+     * @return gzip or deflate, preferably gzip, or null if the client accepts neither
+     */
+    private static String selectContentCoding(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return null;
+        }
+        boolean deflate = false;
+        for (String element : acceptEncoding.split(",")) {
+            String[] parts = element.split(";");
+            String coding = parts[0].trim().toLowerCase();
+            if (isRefused(parts)) {
+                continue;
+            }
+            if (GZIP.equals(coding) || "x-gzip".equals(coding) || "*".equals(coding)) {
+                return GZIP;
+            }
+            if (DEFLATE.equals(coding)) {
+                deflate = true;
+            }
+        }
+        return deflate ? DEFLATE : null;
+    }
+
+    private static boolean isRefused(String[] parts) {
+        for (int i = 1; i < parts.length; i++) {
+            String parameter = parts[i].trim();
+            if (parameter.startsWith("q=")) {
+                try {
+                    return Double.parseDouble(parameter.substring(2)) <= 0;
+                } catch (NumberFormatException e) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
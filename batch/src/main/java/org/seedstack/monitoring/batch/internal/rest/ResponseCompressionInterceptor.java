@@ -0,0 +1,142 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.monitoring.batch.internal.rest;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.ext.Provider;
+import javax.ws.rs.ext.WriterInterceptor;
+import javax.ws.rs.ext.WriterInterceptorContext;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Interceptor compressing the responses of the monitoring resources with the content coding selected by the
+ * {@link MonitoringResponseFilter}, once they reach the compression threshold of the {@link ResponsePolicy}. The
+ * beginning of a response is held back until then, and sent as is if the response is shorter.
+ */
+@Provider
+public class ResponseCompressionInterceptor implements WriterInterceptor {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    @Inject
+    @Named("batchMonitoringResponsePolicy")
+    private ResponsePolicy policy;
+
+    @Override
+    public void aroundWriteTo(WriterInterceptorContext context) throws IOException {
+        Object contentCoding = context.getProperty(MonitoringResponseFilter.CONTENT_CODING_PROPERTY);
+        if (contentCoding == null) {
+            context.proceed();
+            return;
+        }
+        ThresholdOutputStream outputStream = new ThresholdOutputStream(context.getOutputStream(),
+                context.getHeaders(), (String) contentCoding, policy.getCompressionThreshold());
+        context.setOutputStream(outputStream);
+        context.proceed();
+        outputStream.finish();
+    }
+
+    /**
+     * Stream buffering the beginning of a response, then compressing it when it reaches the threshold. The
+     * headers are changed before anything is written to the response, which commits them.
+     */
+    private static class ThresholdOutputStream extends OutputStream {
+
+        private final OutputStream target;
+
+        private final MultivaluedMap<String, Object> headers;
+
+        private final String contentCoding;
+
+        private final int threshold;
+
+        private ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+
+        private OutputStream output;
+
+        private boolean finished;
+
+        ThresholdOutputStream(OutputStream target, MultivaluedMap<String, Object> headers, String contentCoding,
+                              int threshold) {
+            this.target = target;
+            this.headers = headers;
+            this.contentCoding = contentCoding;
+            this.threshold = threshold;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            if (output != null) {
+                output.write(b);
+            } else {
+                buffer.write(b);
+                compressIfReached();
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (output != null) {
+                output.write(b, off, len);
+            } else {
+                buffer.write(b, off, len);
+                compressIfReached();
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            // nothing is sent while the size of the response is unknown
+            if (output != null) {
+                output.flush();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            finish();
+            target.close();
+        }
+
+        void finish() throws IOException {
+            if (finished) {
+                return;
+            }
+            finished = true;
+            if (output == null) {
+                buffer.writeTo(target);
+                buffer = null;
+            } else if (output instanceof DeflaterOutputStream) {
+                ((DeflaterOutputStream) output).finish();
+            }
+            target.flush();
+        }
+
+        private void compressIfReached() throws IOException {
+            if (buffer.size() < threshold) {
+                return;
+            }
+            headers.putSingle("Content-Encoding", contentCoding);
+            headers.remove(HttpHeaders.CONTENT_LENGTH);
+            if (MonitoringResponseFilter.GZIP.equals(contentCoding)) {
+                output = new GZIPOutputStream(target, BUFFER_SIZE);
+            } else {
+                output = new DeflaterOutputStream(target);
+            }
+            buffer.writeTo(output);
+            buffer = null;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.monitoring.batch.internal.rest;
+
+/**
+ * Compression, caching and streaming policy of the responses of the monitoring resources, configured under
+ * <code>monitoring.batch.rest</code>.
+ *
+ * @see MonitoringResponseFilter
+ * @see ResponseCompressionInterceptor
+ * @see org.seedstack.monitoring.batch.internal.rest.event.ExecutionEventResource
+ */
+public class ResponsePolicy {
+
+    /**
+     * Default minimum size of the compressed responses, in bytes.
+     */
+    public static final int DEFAULT_COMPRESSION_THRESHOLD = 1024;
+
+    /**
+     * Default time during which the representations of completed or abandoned executions are cached, in seconds.
+     */
+    public static final int DEFAULT_FINISHED_MAX_AGE = 3600;
+
+    /**
+     * Default maximum number of concurrent streams of execution events.
+     */
+    public static final int DEFAULT_MAX_EVENT_STREAMS = 16;
+
+    private int compressionThreshold = DEFAULT_COMPRESSION_THRESHOLD;
+
+    private int finishedMaxAge = DEFAULT_FINISHED_MAX_AGE;
+
+    private int maxEventStreams = DEFAULT_MAX_EVENT_STREAMS;
+
+    /**
+     * @return the minimum size of the compressed responses, in bytes, negative if the responses are never
+     * compressed
+     */
+    public int getCompressionThreshold() {
+        return compressionThreshold;
+    }
+
+    /**
+     * @param compressionThreshold the minimum size of the compressed responses, in bytes, a negative value
+     *                             disabling the compression
+     */
+    public void setCompressionThreshold(int compressionThreshold) {
+        this.compressionThreshold = compressionThreshold;
+    }
+
+    /**
+     * @return the time during which the representations of completed or abandoned executions are cached, in
+     * seconds
+     */
+    public int getFinishedMaxAge() {
+        return finishedMaxAge;
+    }
+
+    /**
+     * @param finishedMaxAge the time during which the representations of completed or abandoned executions are
+     *                       cached, in seconds, 0 having them revalidated on each use
+     */
+    public void setFinishedMaxAge(int finishedMaxAge) {
+        this.finishedMaxAge = finishedMaxAge;
+    }
+
+    /**
+     * @return the maximum number of concurrent streams of execution events, each holding a request thread
+     */
+    public int getMaxEventStreams() {
+        return maxEventStreams;
+    }
+
+    /**
+     * @param maxEventStreams the maximum number of concurrent streams of execution events, the viewers beyond
+     *                        being answered 503 Service Unavailable
+     */
+    public void setMaxEventStreams(int maxEventStreams) {
+        this.maxEventStreams = maxEventStreams;
+    }
+}
@@ -0,0 +1,42 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.monitoring.batch.internal.rest.cache;
+
+import org.seedstack.seed.security.RequiresPermissions;
+import org.springframework.batch.admin.service.JobService;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+
+/**
+ * Resource exposing the statistics of the cache of finished executions, to size it with
+ * <code>monitoring.batch.cache.maxEntries</code> and <code>monitoring.batch.cache.maxWeight</code>.
+ */
+@Path("/seed-monitoring/cache")
+public class ExecutionCacheResource {
+    @Inject
+    @Named("batchMonitoringJobService")
+    private JobService jobService;
+
+    /**
+     * Retrieves the size, hit rate and eviction count of the execution cache.
+     *
+     * @return the response
+     */
+    @GET
+    @Produces(MediaType.APPLICATION_JSON)
+    @RequiresPermissions("seed:monitoring:batch:read")
+    public Response statistics() {
+        return Response.ok(jobService.getExecutionCacheStatistics()).build();
+    }
+}
@@ -0,0 +1,154 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.monitoring.batch.internal.rest.context;
+
+import org.springframework.batch.item.ExecutionContext;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Representation of the execution context of a job or step execution, either deserialized (<code>full</code>
+ * view), or as the serialized text stored by the job repository (<code>short</code> and <code>truncated</code>
+ * views), which is not deserialized.
+ */
+public class ExecutionContextRepresentation {
+
+    /**
+     * The view of the deserialized context entries.
+     */
+    public static final String FULL = "full";
+
+    /**
+     * The view of the short context, truncated by the job repository when the context is long.
+     */
+    public static final String SHORT = "short";
+
+    /**
+     * The view of the serialized context truncated to a maximum length.
+     */
+    public static final String TRUNCATED = "truncated";
+
+    /**
+     * The view.
+     */
+    private final String view;
+
+    /**
+     * The context entries, for the full view.
+     */
+    private Map<String, Object> entries;
+
+    /**
+     * The serialized context, for the short and truncated views.
+     */
+    private String serializedContext;
+
+    /**
+     * The length of the serialized context before it was truncated.
+     */
+    private int length;
+
+    /**
+     * Whether the serialized context was truncated to the maximum length.
+     */
+    private boolean truncated;
+
+    private ExecutionContextRepresentation(String view) {
+        this.view = view;
+    }
+
+    /**
+     * Instantiates the full view of a context.
+     *
+     * @param executionContext the execution context
+     * @return the representation
+     */
+    public static ExecutionContextRepresentation full(ExecutionContext executionContext) {
+        ExecutionContextRepresentation representation = new ExecutionContextRepresentation(FULL);
+        representation.entries = new LinkedHashMap<String, Object>();
+        for (Map.Entry<String, Object> entry : executionContext.entrySet()) {
+            representation.entries.put(entry.getKey(), entry.getValue());
+        }
+        return representation;
+    }
+
+    /**
+     * Instantiates the short or truncated view of a context.
+     *
+     * @param view              the view
+     * @param serializedContext the serialized context, or null
+     * @param maxLength         the maximum length of the serialized context
+     * @return the representation
+     */
+    public static ExecutionContextRepresentation serialized(String view, String serializedContext, int maxLength) {
+        ExecutionContextRepresentation representation = new ExecutionContextRepresentation(view);
+        if (serializedContext != null) {
+            representation.length = serializedContext.length();
+            representation.truncated = serializedContext.length() > maxLength;
+            representation.serializedContext = representation.truncated
+                    ? serializedContext.substring(0, maxLength) : serializedContext;
+        }
+        return representation;
+    }
+
+    /**
+     * Checks if a view is supported.
+     *
+     * @param view the view
+     * @return true for the full, short and truncated views
+     */
+    public static boolean isSupported(String view) {
+        return FULL.equals(view) || SHORT.equals(view) || TRUNCATED.equals(view);
+    }
+
+    /**
+     * Gets the view.
+     *
+     * @return the view
+     */
+    public String getView() {
+        return view;
+    }
+
+    /**
+     * Gets the context entries, null except for the full view.
+     *
+     * @return the entries
+     */
+    public Map<String, Object> getEntries() {
+        return entries;
+    }
+
+    /**
+     * Gets the serialized context, null for the full view.
+     *
+     * @return the serialized context
+     */
+    public String getSerializedContext() {
+        return serializedContext;
+    }
+
+    /**
+     * Gets the length of the serialized context before it was truncated.
+     *
+     * @return the length
+     */
+    public int getLength() {
+        return length;
+    }
+
+    /**
+     * Checks if the serialized context was truncated to the maximum length.
+     *
+     * @return true if truncated
+     */
+    public boolean isTruncated() {
+        return truncated;
+    }
+}
@@ -0,0 +1,214 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.monitoring.batch.internal.rest.event;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.admin.service.ExecutionChangeDetector;
+import org.springframework.batch.admin.service.ExecutionChangeListener;
+import org.springframework.batch.admin.service.ExecutionState;
+import org.springframework.batch.admin.service.JobService;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single poller of the execution changes shared by all the connected viewers: the repository is polled once per
+ * interval whatever the number of viewers, and only while at least one of them is connected. The changes are
+ * detected by the {@link ExecutionChangeDetector} of the job service, shared with its other consumers.
+ */
+@Singleton
+public class ExecutionEventPoller {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ExecutionEventPoller.class);
+
+    /**
+     * The time between two polls of the repository, in milliseconds.
+     */
+    static final long POLL_INTERVAL = 2000;
+
+    /**
+     * The maximum number of states waiting to be sent to a viewer.
+     */
+    static final int SUBSCRIPTION_CAPACITY = 10000;
+
+    /**
+     * The time after which a subscription which is not polled any more is closed, in milliseconds.
+     */
+    static final long SUBSCRIPTION_TIMEOUT = 60000;
+
+    @Inject
+    @Named("batchMonitoringJobService")
+    private JobService jobService;
+
+    private final List<Subscription> subscriptions = new ArrayList<Subscription>();
+
+    private ScheduledExecutorService executor;
+
+    public ExecutionEventPoller() {
+    }
+
+    ExecutionEventPoller(JobService jobService) {
+        this.jobService = jobService;
+    }
+
+    /**
+     * Subscribes to the execution changes, starting the polling for the first subscription. The subscription
+     * first receives the states of the running executions read by the last poll, if any.
+     *
+     * @param maxSubscriptions the maximum number of concurrent subscriptions
+     * @return the subscription, or null if there are already as many subscriptions as allowed
+     */
+    public synchronized Subscription subscribe(int maxSubscriptions) {
+        expireSubscriptions(System.currentTimeMillis());
+        if (subscriptions.size() >= maxSubscriptions) {
+            return null;
+        }
+        Subscription subscription = new Subscription();
+        jobService.getExecutionChangeDetector().addListener(subscription);
+        subscriptions.add(subscription);
+        if (executor == null) {
+            executor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable runnable) {
+                    Thread thread = new Thread(runnable, "batch-monitoring-execution-events");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+            executor.scheduleWithFixedDelay(new Runnable() {
+                @Override
+                public void run() {
+                    poll();
+                }
+            }, 0, POLL_INTERVAL, TimeUnit.MILLISECONDS);
+        }
+        return subscription;
+    }
+
+    /**
+     * Cancels a subscription, stopping the polling after the last one.
+     *
+     * @param subscription the subscription
+     */
+    public synchronized void unsubscribe(Subscription subscription) {
+        subscription.close();
+        if (subscriptions.remove(subscription)) {
+            jobService.getExecutionChangeDetector().removeListener(subscription);
+        }
+        if (subscriptions.isEmpty() && executor != null) {
+            executor.shutdown();
+            executor = null;
+        }
+    }
+
+    /**
+     * @return the number of subscriptions
+     */
+    synchronized int getSubscriptionCount() {
+        return subscriptions.size();
+    }
+
+    void poll() {
+        expireSubscriptions(System.currentTimeMillis());
+        try {
+            // the changes are passed to the subscriptions by the detector
+            jobService.getExecutionChangeDetector().detectChanges();
+        } catch (RuntimeException e) {
+            // an exception would cancel the next polls
+            LOGGER.warn("Unable to detect the changes of the batch executions", e);
+        }
+    }
+
+    /**
+     * Cancels the subscriptions whose viewer is gone without unsubscribing, e.g. when the response was never
+     * written, so that they do not count against the maximum.
+     */
+    synchronized void expireSubscriptions(long now) {
+        for (Subscription subscription : new ArrayList<Subscription>(subscriptions)) {
+            if (now - subscription.lastPolled > SUBSCRIPTION_TIMEOUT) {
+                unsubscribe(subscription);
+            }
+        }
+    }
+
+    /**
+     * States of the executions waiting to be sent to a viewer. A subscription which does not keep up with the
+     * changes is marked as overflowed and stops receiving them, so that the viewer reconnects and starts again
+     * from the current states.
+     */
+    public static class Subscription implements ExecutionChangeListener {
+
+        private final BlockingQueue<ExecutionState> states = new LinkedBlockingQueue<ExecutionState>(
+                SUBSCRIPTION_CAPACITY);
+
+        private volatile boolean overflowed;
+
+        private volatile boolean closed;
+
+        private volatile long lastPolled = System.currentTimeMillis();
+
+        @Override
+        public void onChanges(List<ExecutionState> changes) {
+            if (isClosed()) {
+                return;
+            }
+            for (ExecutionState state : changes) {
+                if (!states.offer(state)) {
+                    overflowed = true;
+                    return;
+                }
+            }
+        }
+
+        /**
+         * @param timeout the maximum time to wait, in milliseconds
+         * @return the next state, or null if none was received before the timeout
+         * @throws InterruptedException if interrupted while waiting
+         */
+        public ExecutionState poll(long timeout) throws InterruptedException {
+            lastPolled = System.currentTimeMillis();
+            return states.poll(timeout, TimeUnit.MILLISECONDS);
+        }
+
+        /**
+         * @return the next state, or null if none is waiting
+         */
+        public ExecutionState poll() {
+            return states.poll();
+        }
+
+        /**
+         * @return true if changes were lost because too many were waiting
+         */
+        public boolean isOverflowed() {
+            return overflowed;
+        }
+
+        /**
+         * @return true if the subscription does not receive the changes any more, because it overflowed or was
+         * cancelled
+         */
+        public boolean isClosed() {
+            return closed || overflowed;
+        }
+
+        void close() {
+            closed = true;
+        }
+    }
+}
@@ -0,0 +1,139 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.monitoring.batch.internal.rest.event;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.seedstack.monitoring.batch.internal.rest.ResponsePolicy;
+import org.seedstack.seed.security.RequiresPermissions;
+import org.springframework.batch.admin.service.ExecutionState;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.ws.rs.DefaultValue;
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+
+/**
+ * Resource streaming the changes of the running job and step executions as Server-Sent Events, instead of having
+ * each viewer poll the executions and the step progress. The changes are detected by a single
+ * {@link ExecutionEventPoller} shared by all the viewers. Each stream holds a request thread while it is open, so
+ * their number is bounded by <code>monitoring.batch.rest.maxEventStreams</code> and their duration by
+ * {@link #MAX_TIMEOUT}.
+ */
+@Path("/seed-monitoring/jobs/executions/events")
+public class ExecutionEventResource {
+
+    /**
+     * The media type of Server-Sent Events.
+     */
+    static final String SERVER_SENT_EVENTS = "text/event-stream";
+
+    /**
+     * The time after which a comment is sent when no change occurred, to detect the disconnected viewers.
+     */
+    private static final long HEARTBEAT_INTERVAL = 15000;
+
+    /**
+     * The time after which the viewers reconnect when the stream ends.
+     */
+    private static final long RETRY_INTERVAL = 3000;
+
+    /**
+     * The time after which the viewers refused for lack of streams may retry, in seconds.
+     */
+    private static final int RETRY_AFTER = 30;
+
+    /**
+     * The maximum duration of a stream, in seconds.
+     */
+    static final int MAX_TIMEOUT = 300;
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper()
+            .configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+
+    @Inject
+    private ExecutionEventPoller poller;
+
+    @Inject
+    @Named("batchMonitoringResponsePolicy")
+    private ResponsePolicy policy;
+
+    /**
+     * Streams the current states of the running executions, then their changes. Each event is named
+     * <code>job-execution</code> or <code>step-execution</code>, with the state as JSON data. The stream ends after
+     * the timeout, or as soon as the viewer does not keep up with the changes, the viewer then reconnecting. When
+     * the maximum number of streams is reached, the viewer is answered 503 Service Unavailable.
+     *
+     * @param timeout the time after which the stream ends, in seconds, at most {@link #MAX_TIMEOUT}
+     * @return the response
+     */
+    @GET
+    @Produces(SERVER_SENT_EVENTS)
+    @RequiresPermissions("seed:monitoring:batch:read")
+    public Response events(@DefaultValue("300") @QueryParam("timeout") int timeout) {
+        final ExecutionEventPoller.Subscription subscription = poller.subscribe(policy.getMaxEventStreams());
+        if (subscription == null) {
+            return Response.status(Response.Status.SERVICE_UNAVAILABLE)
+                    .header("Retry-After", RETRY_AFTER)
+                    .entity("Too many execution event streams").type(MediaType.TEXT_PLAIN).build();
+        }
+        final long deadline = System.currentTimeMillis() + Math.min(timeout, MAX_TIMEOUT) * 1000L;
+        return Response.ok(new StreamingOutput() {
+            @Override
+            public void write(OutputStream output) throws IOException {
+                try {
+                    writeEvents(new OutputStreamWriter(output, "UTF-8"), subscription, deadline);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    poller.unsubscribe(subscription);
+                }
+            }
+        }).header("Cache-Control", "no-cache").build();
+    }
+
+    /**
+     * Writes the states received by a subscription as events until a deadline, or until the subscription is
+     * closed, with a comment as heartbeat when no change occurred.
+     */
+    static void writeEvents(Writer writer, ExecutionEventPoller.Subscription subscription, long deadline)
+            throws IOException, InterruptedException {
+        writer.write("retry: " + RETRY_INTERVAL + "\n\n");
+        writer.flush();
+        long remaining = deadline - System.currentTimeMillis();
+        while (remaining > 0 && !subscription.isClosed()) {
+            ExecutionState state = subscription.poll(Math.min(remaining, HEARTBEAT_INTERVAL));
+            if (state == null) {
+                writer.write(":\n\n");
+            }
+            while (state != null) {
+                writeEvent(writer, state);
+                state = subscription.poll();
+            }
+            writer.flush();
+            remaining = deadline - System.currentTimeMillis();
+        }
+    }
+
+    private static void writeEvent(Writer writer, ExecutionState state) throws IOException {
+        writer.write(state.isJobExecution() ? "event: job-execution\n" : "event: step-execution\n");
+        writer.write("data: ");
+        OBJECT_MAPPER.writeValue(writer, state);
+        writer.write("\n\n");
+    }
+}
@@ -0,0 +1,189 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.monitoring.batch.internal.rest.export;
+
+import org.seedstack.seed.security.RequiresPermissions;
+import org.springframework.batch.admin.service.ExecutionCallback;
+import org.springframework.batch.admin.service.JobService;
+import org.springframework.batch.core.StepExecution;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.ws.rs.DefaultValue;
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.Date;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Resource exporting the step executions of a job as gzipped CSV, for the analysis of whole histories. The rows are
+ * written while they are read from the repository in chunks, so that an export of any size is done with constant
+ * memory on the server, whatever the database and its driver.
+ */
+@Path("/seed-monitoring/jobs/step-executions/export")
+public class StepExecutionExportResource {
+
+    /**
+     * The media type of the export.
+     */
+    static final String GZIP = "application/gzip";
+
+    private static final String HEADER = "stepExecutionId,jobExecutionId,jobName,stepName,status,exitCode,"
+            + "startTime,endTime,duration,readCount,writeCount,filterCount,commitCount,rollbackCount,"
+            + "readSkipCount,writeSkipCount,processSkipCount,lastUpdated";
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    @Inject
+    @Named("batchMonitoringJobService")
+    private JobService jobService;
+
+    /**
+     * Exports the step executions matching a job and step name, started in a time range, in ascending order of id.
+     * The times are epoch milliseconds and the durations are in milliseconds.
+     *
+     * @param jobName  the job name, or a pattern with '*' wildcards
+     * @param stepName the step name, or a pattern with '*' wildcards
+     * @param from     the lowest start time, in epoch milliseconds, inclusive
+     * @param to       the highest start time, in epoch milliseconds, exclusive
+     * @return the response
+     */
+    @GET
+    @Produces(GZIP)
+    @RequiresPermissions("seed:monitoring:batch:read")
+    public Response export(@DefaultValue("*") @QueryParam("jobName") final String jobName,
+                           @DefaultValue("*") @QueryParam("stepName") final String stepName,
+                           @QueryParam("from") Long from,
+                           @QueryParam("to") Long to) {
+        final Date startedAfter = from != null ? new Date(from) : null;
+        final Date startedBefore = to != null ? new Date(to) : null;
+
+        return Response.ok(new StreamingOutput() {
+            @Override
+            public void write(OutputStream output) throws IOException {
+                GZIPOutputStream gzip = new GZIPOutputStream(output, BUFFER_SIZE);
+                final Writer writer = new BufferedWriter(new OutputStreamWriter(gzip, "UTF-8"), BUFFER_SIZE);
+                writer.write(HEADER);
+                writer.write('\n');
+                try {
+                    jobService.streamStepExecutions(jobName, stepName, startedAfter, startedBefore,
+                            new ExecutionCallback<StepExecution>() {
+                                @Override
+                                public void handle(StepExecution stepExecution) {
+                                    try {
+                                        writeRow(writer, stepExecution);
+                                    } catch (IOException e) {
+                                        throw new ExportException(e);
+                                    }
+                                }
+                            });
+                } catch (ExportException e) {
+                    throw e.getCause();
+                }
+                writer.flush();
+                gzip.finish();
+            }
+        }).header("Content-Disposition", "attachment; filename=\"step-executions.csv.gz\"").build();
+    }
+
+    private static void writeRow(Writer writer, StepExecution stepExecution) throws IOException {
+        Date startTime = stepExecution.getStartTime();
+        Date endTime = stepExecution.getEndTime();
+        writer.write(String.valueOf(stepExecution.getId()));
+        writer.write(',');
+        writer.write(String.valueOf(stepExecution.getJobExecutionId()));
+        writer.write(',');
+        writeText(writer, stepExecution.getJobExecution().getJobInstance().getJobName());
+        writer.write(',');
+        writeText(writer, stepExecution.getStepName());
+        writer.write(',');
+        writer.write(stepExecution.getStatus().name());
+        writer.write(',');
+        writeText(writer, stepExecution.getExitStatus().getExitCode());
+        writer.write(',');
+        writeTime(writer, startTime);
+        writer.write(',');
+        writeTime(writer, endTime);
+        writer.write(',');
+        if (startTime != null && endTime != null) {
+            writer.write(Long.toString(endTime.getTime() - startTime.getTime()));
+        }
+        writer.write(',');
+        writer.write(Integer.toString(stepExecution.getReadCount()));
+        writer.write(',');
+        writer.write(Integer.toString(stepExecution.getWriteCount()));
+        writer.write(',');
+        writer.write(Integer.toString(stepExecution.getFilterCount()));
+        writer.write(',');
+        writer.write(Integer.toString(stepExecution.getCommitCount()));
+        writer.write(',');
+        writer.write(Integer.toString(stepExecution.getRollbackCount()));
+        writer.write(',');
+        writer.write(Integer.toString(stepExecution.getReadSkipCount()));
+        writer.write(',');
+        writer.write(Integer.toString(stepExecution.getWriteSkipCount()));
+        writer.write(',');
+        writer.write(Integer.toString(stepExecution.getProcessSkipCount()));
+        writer.write(',');
+        writeTime(writer, stepExecution.getLastUpdated());
+        writer.write('\n');
+    }
+
+    private static void writeTime(Writer writer, Date date) throws IOException {
+        if (date != null) {
+            writer.write(Long.toString(date.getTime()));
+        }
+    }
+
+    /**
+     * Writes a text field, quoted only when it contains a separator, a quote or a line break.
+     */
+    private static void writeText(Writer writer, String text) throws IOException {
+        if (text == null) {
+            return;
+        }
+        boolean quoted = false;
+        for (int i = 0; i < text.length() && !quoted; i++) {
+            char c = text.charAt(i);
+            quoted = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (quoted) {
+            writer.write('"');
+            writer.write(text.replace("\"", "\"\""));
+            writer.write('"');
+        } else {
+            writer.write(text);
+        }
+    }
+
+    /**
+     * Carries the {@link IOException} thrown while writing a row out of the callback.
+     */
+    private static class ExportException extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        ExportException(IOException cause) {
+            super(cause);
+        }
+
+        @Override
+        public synchronized IOException getCause() {
+            return (IOException) super.getCause();
+        }
+    }
+}
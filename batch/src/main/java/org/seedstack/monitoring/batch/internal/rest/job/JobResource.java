@@ -7,33 +7,40 @@
  */
 package org.seedstack.monitoring.batch.internal.rest.job;
 
-import com.google.common.base.Predicates;
-import com.google.common.collect.Collections2;
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.seedstack.monitoring.batch.internal.rest.JsonStreamingOutput;
+import org.seedstack.monitoring.batch.internal.rest.jobexecution.CompactJobExecutionRepresentation;
 import org.seedstack.monitoring.batch.internal.rest.jobexecution.JobExecutionRepresentation;
 import org.seedstack.seed.security.RequiresPermissions;
+import org.springframework.batch.admin.service.ExecutionCallback;
 import org.springframework.batch.admin.service.JobService;
+import org.springframework.batch.admin.service.JobSummary;
 import org.springframework.batch.admin.web.JobExecutionInfo;
 import org.springframework.batch.admin.web.JobInfo;
 import org.springframework.batch.core.JobExecution;
 import org.springframework.batch.core.StepExecution;
 import org.springframework.batch.core.launch.NoSuchJobException;
-import org.springframework.batch.core.launch.NoSuchJobExecutionException;
 
 import javax.inject.Inject;
 import javax.inject.Named;
 import javax.ws.rs.DefaultValue;
 import javax.ws.rs.GET;
+import javax.ws.rs.HeaderParam;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
 import javax.ws.rs.QueryParam;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.ext.Providers;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.GregorianCalendar;
 import java.util.List;
-import java.util.regex.Pattern;
+import java.util.TimeZone;
 
 /**
  * Resource for listing jobs and job executions by jobName.
@@ -60,6 +67,12 @@ public class JobResource {
     @Named("batchMonitoringJobService")
     private JobService jobService;
 
+    /**
+     * The JAX-RS providers, resolving the object mapper of the streamed responses.
+     */
+    @Context
+    private Providers providers;
+
     /**
      * The Constant TREE_URL_BATCH_JOBS_LIST.
      */
@@ -73,8 +86,9 @@ public class JobResource {
     /**
      * Retrieves the list of jobs.
      *
-     * @param pageIndex the page index
-     * @param pageSize  the page size
+     * @param pageIndex   the page index
+     * @param pageSize    the page size
+     * @param searchedJob the text searched in the job names, ignoring case
      * @return the response
      */
 
@@ -86,34 +100,20 @@ public class JobResource {
             @DefaultValue("20") @QueryParam("pageSize") int pageSize,
             @QueryParam("searchedJob") String searchedJob) {
 
-        Collection<String> names;
-        int totalItems = jobService.countJobs();
-
+        int startJob = (pageIndex - 1) * pageSize;
+        int totalItems;
+        Collection<JobSummary> summaries;
         if (searchedJob != null) {
-            names = Collections2.filter(jobService.listJobs(0, totalItems), Predicates.contains(Pattern.compile(searchedJob, Pattern.CASE_INSENSITIVE)));
-            totalItems = names.size();
+            totalItems = jobService.countJobs(searchedJob);
+            summaries = jobService.listJobSummaries(searchedJob, startJob, pageSize);
         } else {
-            int startJob = (pageIndex - 1) * pageSize;
-            names = jobService.listJobs(startJob, pageSize);
+            totalItems = jobService.countJobs();
+            summaries = jobService.listJobSummaries(startJob, pageSize);
         }
 
         ArrayList<JobInfo> jobs = new ArrayList<JobInfo>();
-
-        for (String name : names) {
-            int count;
-            try {
-                count = jobService.countJobExecutionsForJob(name);
-            } catch (NoSuchJobException e) {
-                return Response.status(Response.Status.BAD_REQUEST)
-                        .entity("There is no such jobs ")
-                        .type(MediaType.TEXT_PLAIN).build();
-            }
-            boolean launchable = jobService.isLaunchable(name);
-            boolean incrementable = jobService.isIncrementable(name);
-            JobInfo jobsInfo = new JobInfo(name, count, null, launchable,
-                    incrementable);
-            jobs.add(jobsInfo);
-
+        for (JobSummary summary : summaries) {
+            jobs.add(new JobInfo(summary));
         }
         JobRepresentation jobRepresentation = new JobRepresentation(pageIndex,
                 pageSize, totalItems, jobs);
@@ -121,118 +121,222 @@ public class JobResource {
     }
 
     /**
-     * Retrieves the list of all job executions.
+     * Retrieves the list of all job executions. Pages can be addressed by index or, for deep
+     * pages, with the cursors returned in the previous response. The representation depends on the Accept
+     * header, as told to the caches by {@code Vary: Accept}.
      *
-     * @param pageIndex the page index
-     * @param pageSize  the page size
+     * @param pageIndex    the page index
+     * @param pageSize     the page size
+     * @param afterCursor  the id of the last execution of the current page, to get the next (older) page
+     * @param beforeCursor the id of the first execution of the current page, to get the previous (more recent)
+     *                     page
+     * @param view         {@code compact} for the {@link CompactJobExecutionRepresentation}
+     * @param accept       the accepted media types, {@link CompactJobExecutionRepresentation#MEDIA_TYPE} also
+     *                     selecting the compact representation
      * @return JobExecutionRepresentation
      */
     @GET
-    @Produces(MediaType.APPLICATION_JSON)
+    @Produces({MediaType.APPLICATION_JSON, CompactJobExecutionRepresentation.MEDIA_TYPE})
     @Path("/executions")
     @RequiresPermissions("seed:monitoring:batch:read")
     public Response jobExecutions(
             @DefaultValue("1") @QueryParam("pageIndex") int pageIndex,
-            @DefaultValue("20") @QueryParam("pageSize") int pageSize) {
+            @DefaultValue("20") @QueryParam("pageSize") int pageSize,
+            @QueryParam("afterCursor") Long afterCursor,
+            @QueryParam("beforeCursor") Long beforeCursor,
+            @QueryParam("view") String view,
+            @HeaderParam(HttpHeaders.ACCEPT) String accept) {
 
-        int startJobExecution = (pageIndex - 1) * pageSize;
-        ArrayList<JobExecutionInfo> jobExecutionInfos = new ArrayList<JobExecutionInfo>();
         int totalItems;
 
         totalItems = jobService.countJobExecutions();
+        TimeZone timeZone = TimeZone.getDefault();
+
+        // one more execution is read to know if there is a page beyond the one requested
+        List<JobExecution> jobExecutions;
+        boolean firstPage;
+        boolean lastPage;
+        if (afterCursor != null) {
+            jobExecutions = new ArrayList<JobExecution>(jobService.listJobExecutionsAfter(afterCursor, pageSize + 1));
+            lastPage = removeExtraExecution(jobExecutions, pageSize, jobExecutions.size() - 1);
+            firstPage = jobExecutions.isEmpty()
+                    || jobService.listJobExecutionsBefore(jobExecutions.get(0).getId(), 1).isEmpty();
+        } else if (beforeCursor != null) {
+            jobExecutions = new ArrayList<JobExecution>(jobService.listJobExecutionsBefore(beforeCursor, pageSize + 1));
+            firstPage = removeExtraExecution(jobExecutions, pageSize, 0);
+            lastPage = jobExecutions.isEmpty() || jobService.listJobExecutionsAfter(
+                    jobExecutions.get(jobExecutions.size() - 1).getId(), 1).isEmpty();
+        } else {
+            int startJobExecution = (pageIndex - 1) * pageSize;
+            jobExecutions = new ArrayList<JobExecution>(jobService.listJobExecutions(startJobExecution, pageSize + 1));
+            lastPage = removeExtraExecution(jobExecutions, pageSize, jobExecutions.size() - 1);
+            firstPage = startJobExecution <= 0;
+        }
 
-        for (JobExecution jobExecution : jobService.listJobExecutions(
-                startJobExecution, pageSize)) {
+        if (CompactJobExecutionRepresentation.isRequested(view, accept)) {
+            List<CompactJobExecutionRepresentation> compactJobExecutions =
+                    new ArrayList<CompactJobExecutionRepresentation>();
+            for (JobExecution jobExecution : jobExecutions) {
+                compactJobExecutions.add(new CompactJobExecutionRepresentation(jobExecution));
+            }
+            return Response.ok(JobExecutionRepresentation.compact(
+                    pageIndex, pageSize, totalItems, compactJobExecutions, firstPage, lastPage))
+                    .header(HttpHeaders.VARY, HttpHeaders.ACCEPT).build();
+        }
+
+        ArrayList<JobExecutionInfo> jobExecutionInfos = new ArrayList<JobExecutionInfo>();
+        for (JobExecution jobExecution : jobExecutions) {
             JobExecutionInfo jobExecutionInfo = new JobExecutionInfo(
-                    jobExecution, new GregorianCalendar().getTimeZone());
+                    jobExecution, timeZone);
             jobExecutionInfos.add(jobExecutionInfo);
         }
         JobExecutionRepresentation jobExecutionRepresentation = new JobExecutionRepresentation(
-                pageIndex, pageSize, totalItems, jobExecutionInfos);
-        return Response.ok(jobExecutionRepresentation).build();
+                pageIndex, pageSize, totalItems, jobExecutionInfos, firstPage, lastPage);
+        return Response.ok(jobExecutionRepresentation).header(HttpHeaders.VARY, HttpHeaders.ACCEPT).build();
     }
 
     /**
-     * Retrieves the jobs tree.
+     * Removes the execution read beyond a page, if any.
+     *
+     * @param jobExecutions the executions read, up to one more than the page size
+     * @param pageSize      the page size
+     * @param index         the index of the execution beyond the page, at either end
+     * @return true if there was no execution beyond the page
+     */
+    private static boolean removeExtraExecution(List<JobExecution> jobExecutions, int pageSize, int index) {
+        if (jobExecutions.size() <= pageSize) {
+            return true;
+        }
+        jobExecutions.remove(index);
+        return false;
+    }
+
+    /**
+     * Retrieves the jobs tree. The job executions are read in chunks, each with a single query for their
+     * steps, bounded by the depth of the tree (1 for the job executions only, 2 to include their steps)
+     * and the maximum number of job executions.
      *
      * @param jobName the job name
+     * @param depth   the depth of the tree below the job node
+     * @param limit   the maximum number of job executions
+     * @param stream  true to write the job executions while they are read instead of building the tree first
      * @return the response
      */
     @GET
     @Produces(MediaType.APPLICATION_JSON)
     @Path("/jobs-tree/{jobName}")
     @RequiresPermissions("seed:monitoring:batch:read")
-    public Response jobsTree(@PathParam("jobName") String jobName) {
+    public Response jobsTree(@PathParam("jobName") String jobName,
+                             @DefaultValue("2") @QueryParam("depth") int depth,
+                             @DefaultValue("1000") @QueryParam("limit") int limit,
+                             @DefaultValue("false") @QueryParam("stream") boolean stream) {
 
-        int countJobInstances;
+        if (stream) {
+            return streamJobsTree(jobName, depth, limit);
+        }
+
+        Collection<JobExecution> listJobExecutionsForJob;
         try {
-            countJobInstances = jobService.countJobExecutionsForJob(jobName);
-        } catch (NoSuchJobException e1) {
+            listJobExecutionsForJob = jobService.listJobExecutionTree(jobName, limit, depth > 1);
+        } catch (NoSuchJobException e) {
             return Response.status(Response.Status.BAD_REQUEST)
                     .entity("There is no such jobs ")
                     .type(MediaType.TEXT_PLAIN).build();
         }
 
-        if (countJobInstances == 0) {
+        if (listJobExecutionsForJob.isEmpty()) {
             String error = "wrong job name " + jobName;
             return Response.status(Response.Status.BAD_REQUEST).entity(error)
                     .type(MediaType.TEXT_PLAIN).build();
         }
 
-        JobsTreeRepresentation jobsTreeRepresentation = new JobsTreeRepresentation();
+        JobsTreeRepresentation jobsTreeRepresentation = jobTreeNode(jobName);
 
-        int countJobs = jobService.countJobs();
+		/* list of job execution by job */
+        List<JobsTreeRepresentation> childrenJobExecution = new ArrayList<JobsTreeRepresentation>();
 
-        Collection<String> listJobs = jobService.listJobs(0, countJobs);
-        jobsTreeRepresentation.setJobNameList(listJobs);
-        jobsTreeRepresentation.setName(jobName);
-        jobsTreeRepresentation.setStatus(TREE_MAINNODE);
-        jobsTreeRepresentation.setLink(TREE_URL_BATCH_JOBS_LIST);
+        for (JobExecution jobExecution : listJobExecutionsForJob) {
+            childrenJobExecution.add(jobExecutionTreeNode(jobName, jobExecution, depth));
+        }
+        jobsTreeRepresentation.setChildren(childrenJobExecution);
 
-        Collection<JobExecution> listJobExecutionsForJob;
+        return Response.ok(jobsTreeRepresentation).build();
+    }
+
+    private Response streamJobsTree(final String jobName, final int depth, final int limit) {
+        int countJobExecutions;
         try {
-            listJobExecutionsForJob = jobService.listJobExecutionsForJob(
-                    jobName, 0, countJobInstances);
+            countJobExecutions = jobService.countJobExecutionsForJob(jobName);
         } catch (NoSuchJobException e) {
-            return Response
-                    .status(Response.Status.BAD_REQUEST)
-                    .entity("There is no such job execution by jobname  ("
-                            + jobName + ")").type(MediaType.TEXT_PLAIN).build();
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity("There is no such jobs ")
+                    .type(MediaType.TEXT_PLAIN).build();
         }
 
-		/* list of job execution by job */
-        List<JobsTreeRepresentation> childrenJobExecution = new ArrayList<JobsTreeRepresentation>();
-
-        for (JobExecution jobExecution : listJobExecutionsForJob) {
+        if (countJobExecutions == 0) {
+            String error = "wrong job name " + jobName;
+            return Response.status(Response.Status.BAD_REQUEST).entity(error)
+                    .type(MediaType.TEXT_PLAIN).build();
+        }
 
-            JobsTreeRepresentation jobExecTreeRepresentation = new JobsTreeRepresentation();
-
-            jobExecTreeRepresentation.setName("[id= "
-                    + jobExecution.getId()
-                    + "];"
-                    + jobExecution.getJobParameters().getParameters()
-                    .toString());
-            jobExecTreeRepresentation.setLink(TREE_URL_BATCH_JOBS_LIST + "/"
-                    + jobName);
-            jobExecTreeRepresentation.setSize(TREE_SIZE_JOBEXECUTION);
-            jobExecTreeRepresentation.setStatus(jobExecution.getExitStatus()
-                    .getExitCode());
-
-            Collection<StepExecution> stepExecutions;
-            try {
-                stepExecutions = jobService.getStepExecutions(jobExecution
-                        .getId());
-            } catch (NoSuchJobExecutionException e) {
-                return Response
-                        .status(Response.Status.BAD_REQUEST)
-                        .entity("There is no such job execution ("
-                                + jobExecution.getId() + ")")
-                        .type(MediaType.TEXT_PLAIN).build();
+        final JobsTreeRepresentation jobsTreeRepresentation = jobTreeNode(jobName);
+
+        return Response.ok(new JsonStreamingOutput(providers) {
+            @Override
+            protected void write(final JsonGenerator generator) throws IOException {
+                generator.writeStartObject();
+                generator.writeStringField("name", jobsTreeRepresentation.getName());
+                generator.writeStringField("link", jobsTreeRepresentation.getLink());
+                generator.writeStringField("status", jobsTreeRepresentation.getStatus());
+                generator.writeObjectField("jobNameList", jobsTreeRepresentation.getJobNameList());
+                generator.writeArrayFieldStart("children");
+                try {
+                    jobService.streamJobExecutionTree(jobName, limit, depth > 1, new ExecutionCallback<JobExecution>() {
+                        @Override
+                        public void handle(JobExecution jobExecution) {
+                            writeObject(generator, jobExecutionTreeNode(jobName, jobExecution, depth));
+                        }
+                    });
+                } catch (NoSuchJobException e) {
+                    throw new WebApplicationException(e);
+                }
+                generator.writeEndArray();
+                generator.writeEndObject();
             }
+        }).build();
+    }
+
+    private JobsTreeRepresentation jobTreeNode(String jobName) {
+        JobsTreeRepresentation jobsTreeRepresentation = new JobsTreeRepresentation();
 
-			/* list of step by job execution */
+        int countJobs = jobService.countJobs();
+
+        Collection<String> listJobs = jobService.listJobs(0, countJobs);
+        jobsTreeRepresentation.setJobNameList(listJobs);
+        jobsTreeRepresentation.setName(jobName);
+        jobsTreeRepresentation.setStatus(TREE_MAINNODE);
+        jobsTreeRepresentation.setLink(TREE_URL_BATCH_JOBS_LIST);
+        return jobsTreeRepresentation;
+    }
+
+    private JobsTreeRepresentation jobExecutionTreeNode(String jobName, JobExecution jobExecution, int depth) {
+        JobsTreeRepresentation jobExecTreeRepresentation = new JobsTreeRepresentation();
+
+        jobExecTreeRepresentation.setName("[id= "
+                + jobExecution.getId()
+                + "];"
+                + jobExecution.getJobParameters().getParameters()
+                .toString());
+        jobExecTreeRepresentation.setLink(TREE_URL_BATCH_JOBS_LIST + "/"
+                + jobName);
+        jobExecTreeRepresentation.setSize(TREE_SIZE_JOBEXECUTION);
+        jobExecTreeRepresentation.setStatus(jobExecution.getExitStatus()
+                .getExitCode());
+
+        if (depth > 1) {
+            /* list of step by job execution */
             List<JobsTreeRepresentation> childrenStep = new ArrayList<JobsTreeRepresentation>();
-            for (StepExecution stepExecution : stepExecutions) {
+            for (StepExecution stepExecution : jobExecution.getStepExecutions()) {
 
                 JobsTreeRepresentation stepTreeRepresentation = new JobsTreeRepresentation();
                 stepTreeRepresentation.setName(stepExecution.getStepName());
@@ -244,10 +348,7 @@ public class JobResource {
                 childrenStep.add(stepTreeRepresentation);
             }
             jobExecTreeRepresentation.setChildren(childrenStep);
-            childrenJobExecution.add(jobExecTreeRepresentation);
         }
-        jobsTreeRepresentation.setChildren(childrenJobExecution);
-
-        return Response.ok(jobsTreeRepresentation).build();
+        return jobExecTreeRepresentation;
     }
 }
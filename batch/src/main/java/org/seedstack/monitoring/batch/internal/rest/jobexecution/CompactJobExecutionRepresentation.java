@@ -0,0 +1,127 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.monitoring.batch.internal.rest.jobexecution;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import org.springframework.batch.admin.web.JobParametersExtractor;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobExecution;
+
+import java.util.Date;
+import java.util.Properties;
+
+/**
+ * Compact representation of a job execution in the lists of executions, selected with {@code view=compact}
+ * or by accepting {@link #MEDIA_TYPE}. Dates are sent as epoch milliseconds, the duration in milliseconds, the
+ * status as the ordinal of its {@link BatchStatus} and the job parameters only once, leaving their
+ * formatting to the client. The null fields are omitted.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class CompactJobExecutionRepresentation {
+
+    /**
+     * Value of the {@code view} parameter selecting the compact representation.
+     */
+    public static final String VIEW = "compact";
+
+    /**
+     * Media type selecting the compact representation.
+     */
+    public static final String MEDIA_TYPE = "application/vnd.seedstack.batch.compact+json";
+
+    private static final JobParametersExtractor JOB_PARAMETERS_EXTRACTOR = new JobParametersExtractor();
+
+    private final Long id;
+    private final Long jobInstanceId;
+    private final String jobName;
+    private final int status;
+    private final String exitCode;
+    private final Long startTime;
+    private final Long endTime;
+    private final Long duration;
+    private final int stepExecutionCount;
+    private final Properties jobParameters;
+
+    /**
+     * Creates the compact representation of a job execution.
+     *
+     * @param jobExecution the job execution
+     */
+    public CompactJobExecutionRepresentation(JobExecution jobExecution) {
+        this.id = jobExecution.getId();
+        this.jobInstanceId = jobExecution.getJobId();
+        this.jobName = jobExecution.getJobInstance() != null ? jobExecution.getJobInstance().getJobName() : null;
+        this.status = jobExecution.getStatus().ordinal();
+        this.exitCode = jobExecution.getExitStatus().getExitCode();
+        this.startTime = toMillis(jobExecution.getStartTime());
+        this.endTime = toMillis(jobExecution.getEndTime());
+        if (startTime != null) {
+            this.duration = (endTime != null ? endTime : System.currentTimeMillis()) - startTime;
+        } else {
+            this.duration = null;
+        }
+        this.stepExecutionCount = jobExecution.getStepExecutions().size();
+        Properties properties = JOB_PARAMETERS_EXTRACTOR.toProperties(jobExecution.getJobParameters());
+        this.jobParameters = properties.isEmpty() ? null : properties;
+    }
+
+    /**
+     * Tells if the compact representation is requested.
+     *
+     * @param view   the requested view, or null
+     * @param accept the accepted media types, or null
+     * @return true if the compact representation is requested
+     */
+    public static boolean isRequested(String view, String accept) {
+        return VIEW.equalsIgnoreCase(view) || accept != null && accept.contains(MEDIA_TYPE);
+    }
+
+    private static Long toMillis(Date date) {
+        return date != null ? date.getTime() : null;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getJobInstanceId() {
+        return jobInstanceId;
+    }
+
+    public String getJobName() {
+        return jobName;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public String getExitCode() {
+        return exitCode;
+    }
+
+    public Long getStartTime() {
+        return startTime;
+    }
+
+    public Long getEndTime() {
+        return endTime;
+    }
+
+    public Long getDuration() {
+        return duration;
+    }
+
+    public int getStepExecutionCount() {
+        return stepExecutionCount;
+    }
+
+    public Properties getJobParameters() {
+        return jobParameters;
+    }
+}
@@ -10,6 +10,7 @@ package org.seedstack.monitoring.batch.internal.rest.jobexecution;
 import org.springframework.batch.admin.web.JobExecutionInfo;
 
 import java.util.ArrayList;
+import java.util.List;
 
 /**
  * The Class JobExecutionRepresentation.
@@ -22,10 +23,12 @@ public class JobExecutionRepresentation {
     private int pageSize;
 
     private int totalItems;
-    private ArrayList<JobExecutionInfo> results;
+    private List<?> results;
+    private Long previousCursor;
+    private Long nextCursor;
 
     public JobExecutionRepresentation(int pageIndex, int pageSize,
-                                      int totalItems, ArrayList<JobExecutionInfo> results) {
+                                      int totalItems, List<?> results) {
         super();
         this.pageIndex = pageIndex;
         this.pageSize = pageSize;
@@ -33,6 +36,56 @@ public class JobExecutionRepresentation {
         this.results = results;
     }
 
+    /**
+     * Creates a page that also carries the cursors to reach the adjacent pages.
+     *
+     * @param pageIndex  the page index
+     * @param pageSize   the page size
+     * @param totalItems the total number of items
+     * @param results    the page content
+     * @param firstPage  true if no item precedes this page
+     * @param lastPage   true if no item follows this page
+     */
+    public JobExecutionRepresentation(int pageIndex, int pageSize, int totalItems,
+                                      ArrayList<JobExecutionInfo> results, boolean firstPage, boolean lastPage) {
+        this(pageIndex, pageSize, totalItems, results);
+        if (!results.isEmpty()) {
+            setCursors(results.get(0).getId(), results.get(results.size() - 1).getId(), firstPage, lastPage);
+        }
+    }
+
+    /**
+     * Creates a page of compact job executions, with the cursors to reach the adjacent pages.
+     *
+     * @param pageIndex  the page index
+     * @param pageSize   the page size
+     * @param totalItems the total number of items
+     * @param results    the page content
+     * @param firstPage  true if no item precedes this page
+     * @param lastPage   true if no item follows this page
+     * @return the page
+     */
+    public static JobExecutionRepresentation compact(int pageIndex, int pageSize, int totalItems,
+                                                     List<CompactJobExecutionRepresentation> results,
+                                                     boolean firstPage, boolean lastPage) {
+        JobExecutionRepresentation representation = new JobExecutionRepresentation(pageIndex, pageSize,
+                totalItems, results);
+        if (!results.isEmpty()) {
+            representation.setCursors(results.get(0).getId(), results.get(results.size() - 1).getId(),
+                    firstPage, lastPage);
+        }
+        return representation;
+    }
+
+    private void setCursors(Long firstId, Long lastId, boolean firstPage, boolean lastPage) {
+        if (!firstPage) {
+            this.previousCursor = firstId;
+        }
+        if (!lastPage) {
+            this.nextCursor = lastId;
+        }
+    }
+
     public int getPageSize() {
         return pageSize;
     }
@@ -45,8 +98,26 @@ public class JobExecutionRepresentation {
         return totalItems;
     }
 
-    public ArrayList<JobExecutionInfo> getResults() {
+    public List<?> getResults() {
         return results;
     }
 
+    /**
+     * Gets the cursor to pass as <code>beforeCursor</code> to get the previous page.
+     *
+     * @return the id of the first execution of the page or null if there is no previous page
+     */
+    public Long getPreviousCursor() {
+        return previousCursor;
+    }
+
+    /**
+     * Gets the cursor to pass as <code>afterCursor</code> to get the next page.
+     *
+     * @return the id of the last execution of the page or null if there is no next page
+     */
+    public Long getNextCursor() {
+        return nextCursor;
+    }
+
 }
\ No newline at end of file
@@ -7,9 +7,16 @@
  */
 package org.seedstack.monitoring.batch.internal.rest.jobexecution;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.seedstack.monitoring.batch.internal.rest.ExecutionEntityTag;
+import org.seedstack.monitoring.batch.internal.rest.ResponsePolicy;
+import org.seedstack.monitoring.batch.internal.rest.JsonStreamingOutput;
+import org.seedstack.monitoring.batch.internal.rest.context.ExecutionContextRepresentation;
 import org.seedstack.seed.security.RequiresPermissions;
+import org.springframework.batch.admin.service.ExecutionCallback;
 import org.springframework.batch.admin.service.JobService;
 import org.springframework.batch.admin.web.JobExecutionInfo;
+import org.springframework.batch.core.Entity;
 import org.springframework.batch.core.JobExecution;
 import org.springframework.batch.core.launch.NoSuchJobException;
 import org.springframework.batch.core.launch.NoSuchJobExecutionException;
@@ -18,15 +25,23 @@ import javax.inject.Inject;
 import javax.inject.Named;
 import javax.ws.rs.DefaultValue;
 import javax.ws.rs.GET;
+import javax.ws.rs.HeaderParam;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
 import javax.ws.rs.QueryParam;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Request;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.ext.Providers;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.GregorianCalendar;
+import java.util.List;
+import java.util.TimeZone;
 
 /**
  * Resource for job executions.
@@ -39,34 +54,58 @@ public class JobExecutionResource {
     @Named("batchMonitoringJobService")
     private JobService jobService;
 
+    @Inject
+    @Named("batchMonitoringResponsePolicy")
+    private ResponsePolicy policy;
+
+    @Context
+    private Providers providers;
+
     /**
      * Retrieves the list of job executions by job name.
      *
+     * In stream mode, the whole history of the job is written as a single page while it is read, with
+     * constant memory on the server. The representation depends on the Accept header, as told to the caches by
+     * {@code Vary: Accept}.
+     *
      * @param jobName  the job name
      * @param pageSize the size of the result page
+     * @param stream   true to stream all the job executions of the job
+     * @param view     {@code compact} for the {@link CompactJobExecutionRepresentation}
+     * @param accept   the accepted media types, {@link CompactJobExecutionRepresentation#MEDIA_TYPE} also selecting
+     *                 the compact representation
      * @return the list of {@link JobExecutionInfo}
      */
     @GET
-    @Produces(MediaType.APPLICATION_JSON)
+    @Produces({MediaType.APPLICATION_JSON, CompactJobExecutionRepresentation.MEDIA_TYPE})
     @RequiresPermissions("seed:monitoring:batch:read")
     public Response jobExecutionsByJobName(
             @PathParam("jobName") String jobName,
             @DefaultValue("1") @QueryParam("pageIndex") int pageIndex,
-            @DefaultValue("1000") @QueryParam("pageSize") int pageSize) {
+            @DefaultValue("1000") @QueryParam("pageSize") int pageSize,
+            @DefaultValue("false") @QueryParam("stream") boolean stream,
+            @QueryParam("view") String view,
+            @HeaderParam(HttpHeaders.ACCEPT) String accept) {
+
+        boolean compact = CompactJobExecutionRepresentation.isRequested(view, accept);
+        if (stream) {
+            return streamJobExecutionsByJobName(jobName, compact);
+        }
 
         int startJob = (pageIndex - 1) * pageSize;
-        ArrayList<JobExecutionInfo> jobExecutionInfos = new ArrayList<JobExecutionInfo>();
+        List<Object> jobExecutionInfos = new ArrayList<Object>();
         int totalItems;
         try {
             totalItems = jobService.countJobExecutionsForJob(jobName);
             Collection<JobExecution> jobExecutions = jobService
                     .listJobExecutionsForJob(jobName, startJob, pageSize);
+            TimeZone timeZone = TimeZone.getDefault();
             for (JobExecution jobExecution : jobExecutions) {
-
-                JobExecutionInfo jobExecutionInfo = new JobExecutionInfo(
-                        jobExecution, new GregorianCalendar().getTimeZone());
-                jobExecutionInfos.add(jobExecutionInfo);
-
+                if (compact) {
+                    jobExecutionInfos.add(new CompactJobExecutionRepresentation(jobExecution));
+                } else {
+                    jobExecutionInfos.add(new JobExecutionInfo(jobExecution, timeZone));
+                }
             }
 
         } catch (NoSuchJobException e) {
@@ -74,13 +113,52 @@ public class JobExecutionResource {
         }
         JobExecutionRepresentation jobExecutionRepresentation = new JobExecutionRepresentation(
                 pageIndex, pageSize, totalItems, jobExecutionInfos);
-        return Response.ok(jobExecutionRepresentation).build();
+        return Response.ok(jobExecutionRepresentation).header(HttpHeaders.VARY, HttpHeaders.ACCEPT).build();
+    }
+
+    private Response streamJobExecutionsByJobName(final String jobName, final boolean compact) {
+        final int totalItems;
+        try {
+            totalItems = jobService.countJobExecutionsForJob(jobName);
+        } catch (NoSuchJobException e) {
+            return Response.status(Response.Status.BAD_REQUEST).entity("There is no such job (" + jobName + ") ").type(MediaType.TEXT_PLAIN).build();
+        }
+        final TimeZone timeZone = TimeZone.getDefault();
+
+        return Response.ok(new JsonStreamingOutput(providers) {
+            @Override
+            protected void write(final JsonGenerator generator) throws IOException {
+                generator.writeStartObject();
+                generator.writeNumberField("pageIndex", 1);
+                generator.writeNumberField("pageSize", totalItems);
+                generator.writeNumberField("totalItems", totalItems);
+                generator.writeArrayFieldStart("results");
+                try {
+                    jobService.streamJobExecutionsForJob(jobName, new ExecutionCallback<JobExecution>() {
+                        @Override
+                        public void handle(JobExecution jobExecution) {
+                            if (compact) {
+                                writeObject(generator, new CompactJobExecutionRepresentation(jobExecution));
+                            } else {
+                                writeObject(generator, new JobExecutionInfo(jobExecution, timeZone));
+                            }
+                        }
+                    });
+                } catch (NoSuchJobException e) {
+                    throw new WebApplicationException(e);
+                }
+                generator.writeEndArray();
+                generator.writeEndObject();
+            }
+        }).header(HttpHeaders.VARY, HttpHeaders.ACCEPT).build();
     }
 
     /**
-     * Retrieves the job execution by id.
+     * Retrieves the job execution by id. A finished job execution is answered with an entity tag and a last
+     * modification time, and with 304 Not Modified when the client already has it.
      *
      * @param jobExecutionId the job execution id
+     * @param request        the request, with its conditional headers
      * @return JobExecutionRepresentation
      */
     @GET
@@ -88,13 +166,26 @@ public class JobExecutionResource {
     @Path("/{jobExecutionId}")
     @RequiresPermissions("seed:monitoring:batch:read")
     public Response jobExecutionById(
-            @PathParam("jobExecutionId") long jobExecutionId) {
+            @PathParam("jobExecutionId") long jobExecutionId,
+            @Context Request request) {
 
         JobExecution jobExecution;
         int totalItems;
+        ExecutionEntityTag entityTag;
         try {
             totalItems = jobService.countJobExecutions();
-            jobExecution = jobService.getJobExecution(jobExecutionId);
+            entityTag = ExecutionEntityTag.of(jobService.getJobExecutionStates(jobExecutionId)).withCount(totalItems);
+            Response notModified = entityTag.evaluate(request, policy);
+            if (notModified != null) {
+                return notModified;
+            }
+            jobExecution = jobService.getJobExecution(jobExecutionId, false);
+            if (!entityTag.isVersionOf(getExecutions(jobExecution))) {
+                // a stale cached copy is read again, and an execution changed since its states is not tagged
+                jobService.evictJobExecution(jobExecutionId);
+                jobExecution = jobService.getJobExecution(jobExecutionId, false);
+                entityTag = ExecutionEntityTag.NONE;
+            }
 
         } catch (NoSuchJobExecutionException e) {
             return Response.status(Response.Status.BAD_REQUEST).entity("There is no such job execution (" + jobExecutionId + ")").type(MediaType.TEXT_PLAIN).build();
@@ -102,10 +193,54 @@ public class JobExecutionResource {
 
         ArrayList<JobExecutionInfo> executionInfos = new ArrayList<JobExecutionInfo>();
         executionInfos.add(new JobExecutionInfo(jobExecution,
-                new GregorianCalendar().getTimeZone()));
+                TimeZone.getDefault()));
 
         JobExecutionRepresentation jobExecutionRepresentation = new JobExecutionRepresentation(
                 0, 0, totalItems, executionInfos);
-        return Response.ok(jobExecutionRepresentation).build();
+        return entityTag.ok(jobExecutionRepresentation, policy).build();
+    }
+
+    private static List<Entity> getExecutions(JobExecution jobExecution) {
+        List<Entity> executions = new ArrayList<Entity>(jobExecution.getStepExecutions());
+        executions.add(jobExecution);
+        return executions;
+    }
+
+    /**
+     * Retrieves the execution context of a job execution, deserialized or as serialized by the job repository.
+     *
+     * @param jobExecutionId the job execution id
+     * @param view           <code>full</code> for the deserialized entries, <code>short</code> for the short
+     *                       context or <code>truncated</code> for the serialized context cut to maxLength
+     * @param maxLength      the maximum length of the truncated view
+     * @return the response
+     */
+    @GET
+    @Produces(MediaType.APPLICATION_JSON)
+    @Path("/{jobExecutionId}/context")
+    @RequiresPermissions("seed:monitoring:batch:read")
+    public Response context(
+            @PathParam("jobExecutionId") long jobExecutionId,
+            @DefaultValue(ExecutionContextRepresentation.FULL) @QueryParam("view") String view,
+            @DefaultValue("10000") @QueryParam("maxLength") int maxLength) {
+
+        if (!ExecutionContextRepresentation.isSupported(view)) {
+            return Response.status(Response.Status.BAD_REQUEST).entity("Unsupported execution context view (" + view + ")").type(MediaType.TEXT_PLAIN).build();
+        }
+        ExecutionContextRepresentation executionContextRepresentation;
+        try {
+            if (ExecutionContextRepresentation.FULL.equals(view)) {
+                executionContextRepresentation = ExecutionContextRepresentation.full(
+                        jobService.getJobExecution(jobExecutionId).getExecutionContext());
+            } else {
+                boolean shortContext = ExecutionContextRepresentation.SHORT.equals(view);
+                executionContextRepresentation = ExecutionContextRepresentation.serialized(view,
+                        jobService.getSerializedExecutionContext(jobExecutionId, shortContext),
+                        shortContext ? Integer.MAX_VALUE : maxLength);
+            }
+        } catch (NoSuchJobExecutionException e) {
+            return Response.status(Response.Status.BAD_REQUEST).entity("There is no such job execution (" + jobExecutionId + ")").type(MediaType.TEXT_PLAIN).build();
+        }
+        return Response.ok(executionContextRepresentation).build();
     }
 }
@@ -10,7 +10,6 @@ package org.seedstack.monitoring.batch.internal.rest.jobinstance;
 import org.springframework.batch.admin.web.JobExecutionInfo;
 import org.springframework.batch.admin.web.JobParametersExtractor;
 import org.springframework.batch.core.JobParameters;
-import org.springframework.batch.core.converter.DefaultJobParametersConverter;
 
 import java.util.ArrayList;
 import java.util.Collection;
@@ -23,6 +22,11 @@ import java.util.Properties;
  */
 public class JobInstanceRepresentation {
 
+    /**
+     * The job parameters extractor, shared by all the representations.
+     */
+    private static final JobParametersExtractor JOB_PARAMETERS_EXTRACTOR = new JobParametersExtractor();
+
     /**
      * The job name.
      */
@@ -63,10 +67,8 @@ public class JobInstanceRepresentation {
         this.jobExecutionsInfos = jobExecutions != null ? jobExecutions
                 : new ArrayList<JobExecutionInfo>();
         this.id = jobInstanceId;
-        this.jobParameters = new DefaultJobParametersConverter()
-                .getProperties(jobParameters);
-        this.jobParametersString = new JobParametersExtractor()
-                .fromJobParameters(jobParameters);
+        this.jobParameters = JOB_PARAMETERS_EXTRACTOR.toProperties(jobParameters);
+        this.jobParametersString = JOB_PARAMETERS_EXTRACTOR.fromProperties(this.jobParameters);
     }
 
     /**
@@ -25,9 +25,7 @@ import javax.ws.rs.QueryParam;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import java.util.ArrayList;
-import java.util.Calendar;
 import java.util.Collection;
-import java.util.GregorianCalendar;
 import java.util.TimeZone;
 
 /**
@@ -64,6 +62,7 @@ public class JobInstanceResource {
             Collection<JobInstance> result = jobService.listJobInstances(
                     jobName, startJob, pageSize);
             Collection<JobInstanceRepresentation> jobInstancesRepresentations = new ArrayList<JobInstanceRepresentation>();
+            TimeZone timeZone = TimeZone.getDefault();
             for (JobInstance jobInstance : result) {
                 Collection<JobExecutionInfo> executionRepresentations = new ArrayList<JobExecutionInfo>();
 
@@ -73,8 +72,7 @@ public class JobInstanceResource {
 
                 for (JobExecution jobExecution : jobExecutionsForJobInstance) {
                     executionRepresentations
-                            .add(new JobExecutionInfo(jobExecution,
-                                    new GregorianCalendar().getTimeZone()));
+                            .add(new JobExecutionInfo(jobExecution, timeZone));
                     jobInstancesRepresentations
                             .add(new JobInstanceRepresentation(jobInstance
                                     .getJobName(), jobInstance.getId(),
@@ -106,8 +104,7 @@ public class JobInstanceResource {
                             @PathParam("jobInstanceId") long jobInstanceId) {
 
         JobInstance jobInstance;
-        Calendar calendar = new GregorianCalendar();
-        TimeZone timeZone = calendar.getTimeZone();
+        TimeZone timeZone = TimeZone.getDefault();
         try {
             jobInstance = jobService.getJobInstance(jobInstanceId);
             if (!jobInstance.getJobName().equals(jobName)) {
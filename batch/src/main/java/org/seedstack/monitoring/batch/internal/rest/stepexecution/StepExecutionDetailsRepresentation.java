@@ -7,12 +7,12 @@
  */
 package org.seedstack.monitoring.batch.internal.rest.stepexecution;
 
+import org.springframework.batch.admin.web.ExecutionTimeFormat;
 import org.springframework.batch.core.BatchStatus;
 import org.springframework.batch.core.StepExecution;
 import org.springframework.batch.item.ExecutionContext;
 import org.springframework.util.Assert;
 
-import java.text.SimpleDateFormat;
 import java.util.List;
 import java.util.concurrent.CopyOnWriteArrayList;
 
@@ -33,16 +33,6 @@ public class StepExecutionDetailsRepresentation {
      */
     private BatchStatus status = BatchStatus.STARTING;
 
-    /**
-     * The date format.
-     */
-    private SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd");
-
-    /**
-     * The time format.
-     */
-    private SimpleDateFormat timeFormat = new SimpleDateFormat("HH:mm:ss");
-
     /**
      * The read count.
      */
@@ -131,10 +121,11 @@ public class StepExecutionDetailsRepresentation {
     public StepExecutionDetailsRepresentation(StepExecution stepExecution) {
         Assert.notNull(stepExecution.getId(),
                 "The entity Id must be provided to re-hydrate an existing StepExecution");
+        ExecutionTimeFormat timeFormat = ExecutionTimeFormat.getDefault();
         this.stepName = stepExecution.getStepName();
         this.commitCount = stepExecution.getCommitCount();
         this.endTime = stepExecution.getEndTime() == null ? "" : timeFormat
-                .format(stepExecution.getEndTime());
+                .formatTime(stepExecution.getEndTime());
         this.executionContext = stepExecution.getExecutionContext();
 
         this.statusExitCode = stepExecution.getExitStatus() != null ? stepExecution
@@ -144,12 +135,12 @@ public class StepExecutionDetailsRepresentation {
         this.failureExceptions = stepExecution.getFailureExceptions();
         this.filterCount = stepExecution.getFilterCount();
         this.lastUpdated = stepExecution.getLastUpdated() == null ? ""
-                : dateFormat.format(stepExecution.getLastUpdated());
+                : timeFormat.formatDate(stepExecution.getLastUpdated());
         this.processSkipCount = stepExecution.getProcessSkipCount();
         this.readCount = stepExecution.getReadCount();
         this.readSkipCount = stepExecution.getReadSkipCount();
         this.rollbackCount = stepExecution.getRollbackCount();
-        this.startTime = timeFormat.format(stepExecution.getStartTime());
+        this.startTime = timeFormat.formatTime(stepExecution.getStartTime());
         this.status = stepExecution.getStatus();
         this.stepName = stepExecution.getStepName();
         this.terminateOnly = stepExecution.isTerminateOnly();
@@ -7,8 +7,8 @@
  */
 package org.seedstack.monitoring.batch.internal.rest.stepexecution;
 
-import org.springframework.batch.admin.history.CumulativeHistory;
 import org.springframework.batch.admin.history.StepExecutionHistory;
+import org.springframework.batch.admin.history.ValueHistory;
 import org.springframework.batch.core.StepExecution;
 import org.springframework.context.MessageSourceResolvable;
 import org.springframework.context.support.DefaultMessageSourceResolvable;
@@ -286,7 +286,7 @@ public class StepExecutionProgressPresentation {
             return 0.5;
         }
 
-        CumulativeHistory readHistory = stepExecutionHistory.getReadCount();
+        ValueHistory readHistory = stepExecutionHistory.getReadCount();
 
         if (readHistory.getMean() == 0) {
             percentCompleteBasis = PercentCompleteBasis.DURATION;
@@ -306,7 +306,7 @@ public class StepExecutionProgressPresentation {
      */
     private double getDurationBasedEstimate(double duration) {
 
-        CumulativeHistory durationHistory = stepExecutionHistory.getDuration();
+        ValueHistory durationHistory = stepExecutionHistory.getDuration();
         if (durationHistory.getMean() == 0) {
             percentCompleteBasis = PercentCompleteBasis.NOINFORMATION;
             return 0.5;
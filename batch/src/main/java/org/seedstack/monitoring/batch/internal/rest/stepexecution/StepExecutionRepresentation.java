@@ -7,10 +7,9 @@
  */
 package org.seedstack.monitoring.batch.internal.rest.stepexecution;
 
+import org.springframework.batch.admin.web.ExecutionTimeFormat;
 import org.springframework.batch.core.StepExecution;
 
-import java.text.SimpleDateFormat;
-import java.util.Date;
 import java.util.TimeZone;
 
 /**
@@ -20,21 +19,6 @@ import java.util.TimeZone;
  */
 public class StepExecutionRepresentation {
 
-    /**
-     * The date format.
-     */
-    private SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd");
-
-    /**
-     * The time format.
-     */
-    private SimpleDateFormat timeFormat = new SimpleDateFormat("HH:mm:ss");
-
-    /**
-     * The duration format.
-     */
-    private SimpleDateFormat durationFormat = new SimpleDateFormat("HH:mm:ss");
-
     /**
      * The id.
      */
@@ -102,21 +86,19 @@ public class StepExecutionRepresentation {
                 : stepExecution.getJobExecution().getJobInstance().getJobName();
         this.jobExecutionId = stepExecution.getJobExecutionId();
         // Duration is always in GMT
-        durationFormat.setTimeZone(TimeZone.getTimeZone("GMT"));
-        timeFormat.setTimeZone(timeZone);
-        dateFormat.setTimeZone(timeZone);
+        ExecutionTimeFormat timeFormat = ExecutionTimeFormat.getInstance(timeZone);
         if (stepExecution.getStartTime() != null) {
-            this.startDate = dateFormat.format(stepExecution.getStartTime());
-            this.startTime = timeFormat.format(stepExecution.getStartTime());
-            Date endTime = stepExecution.getEndTime() != null ? stepExecution
-                    .getEndTime() : new Date();
+            this.startDate = timeFormat.formatDate(stepExecution.getStartTime());
+            this.startTime = timeFormat.formatTime(stepExecution.getStartTime());
+            long endTime = stepExecution.getEndTime() != null ? stepExecution
+                    .getEndTime().getTime() : System.currentTimeMillis();
 
-            this.durationMillis = endTime.getTime()
+            this.durationMillis = endTime
                     - stepExecution.getStartTime().getTime();
-            this.duration = durationFormat.format(new Date(durationMillis));
+            this.duration = ExecutionTimeFormat.formatDuration(durationMillis);
         }
         if (stepExecution.getEndTime() != null) {
-            this.endTime = timeFormat.format(stepExecution.getEndTime());
+            this.endTime = timeFormat.formatTime(stepExecution.getEndTime());
         }
 
     }
@@ -7,8 +7,12 @@
  */
 package org.seedstack.monitoring.batch.internal.rest.stepexecution;
 
+import org.seedstack.monitoring.batch.internal.rest.ExecutionEntityTag;
+import org.seedstack.monitoring.batch.internal.rest.ResponsePolicy;
+import org.seedstack.monitoring.batch.internal.rest.context.ExecutionContextRepresentation;
 import org.seedstack.seed.security.RequiresPermissions;
 import org.springframework.batch.admin.history.StepExecutionHistory;
+import org.springframework.batch.admin.service.ExecutionState;
 import org.springframework.batch.admin.service.JobService;
 import org.springframework.batch.admin.service.NoSuchStepExecutionException;
 import org.springframework.batch.core.StepExecution;
@@ -16,14 +20,20 @@ import org.springframework.batch.core.launch.NoSuchJobExecutionException;
 
 import javax.inject.Inject;
 import javax.inject.Named;
+import javax.ws.rs.DefaultValue;
 import javax.ws.rs.GET;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.Context;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Request;
 import javax.ws.rs.core.Response;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 import java.util.TimeZone;
 
 /**
@@ -37,21 +47,38 @@ public class StepExecutionResource {
     @Named("batchMonitoringJobService")
     private JobService jobService;
 
+    @Inject
+    @Named("batchMonitoringResponsePolicy")
+    private ResponsePolicy policy;
+
     /**
-     * Retrieves the list of all steps by job execution id.
+     * Retrieves the list of all steps by job execution id, with an entity tag and a last modification time when the
+     * job execution is finished.
      *
      * @param jobExecutionId the job execution id
+     * @param request        the request, with its conditional headers
      * @return the response
      */
     @GET
     @Produces(MediaType.APPLICATION_JSON)
     @RequiresPermissions("seed:monitoring:batch:read")
-    public Response list(@PathParam("jobExecutionId") long jobExecutionId) {
+    public Response list(@PathParam("jobExecutionId") long jobExecutionId,
+                         @Context Request request) {
 
         Collection<StepExecutionRepresentation> stepExecutionRepresentations = new ArrayList<StepExecutionRepresentation>();
+        ExecutionEntityTag entityTag;
         try {
-            for (StepExecution stepExecution : jobService
-                    .getStepExecutions(jobExecutionId)) {
+            entityTag = ExecutionEntityTag.of(jobService.getJobExecutionStates(jobExecutionId));
+            Response notModified = entityTag.evaluate(request, policy);
+            if (notModified != null) {
+                return notModified;
+            }
+            Collection<StepExecution> stepExecutions = jobService.getStepExecutions(jobExecutionId);
+            if (!entityTag.isVersionOf(stepExecutions)) {
+                // changed since their states were read
+                entityTag = ExecutionEntityTag.NONE;
+            }
+            for (StepExecution stepExecution : stepExecutions) {
                 if (stepExecution.getId() != null) {
                     stepExecutionRepresentations
                             .add(new StepExecutionRepresentation(stepExecution,
@@ -65,15 +92,19 @@ public class StepExecutionResource {
                     .entity("There is no such job execution (" + jobExecutionId
                             + ")").type(MediaType.TEXT_PLAIN).build();
         }
-        return Response.ok(stepExecutionRepresentations).build();
+        return entityTag.ok(stepExecutionRepresentations, policy).build();
 
     }
 
     /**
-     * Retrieves the detail of a step by id.
+     * Retrieves the detail of a step by id, with an entity tag and a last modification time when the step execution
+     * is finished.
      *
      * @param jobExecutionId  the job execution id
      * @param stepExecutionId the step execution id
+     * @param context         true to include the execution context, otherwise available at
+     *                        <code>/{stepExecutionId}/context</code>
+     * @param request         the request, with its conditional headers
      * @return the response
      */
     @GET
@@ -81,14 +112,31 @@ public class StepExecutionResource {
     @Path("/{stepExecutionId}")
     @RequiresPermissions("seed:monitoring:batch:read")
     public Response detail(@PathParam("jobExecutionId") long jobExecutionId,
-                           @PathParam("stepExecutionId") long stepExecutionId) {
+                           @PathParam("stepExecutionId") long stepExecutionId,
+                           @DefaultValue("false") @QueryParam("context") boolean context,
+                           @Context Request request) {
 
         StepExecutionRepresentation stepExecutionRepresentation;
+        ExecutionEntityTag entityTag;
         try {
+            entityTag = ExecutionEntityTag.of(getStepExecutionStates(jobExecutionId, stepExecutionId), context);
+            Response notModified = entityTag.evaluate(request, policy);
+            if (notModified != null) {
+                return notModified;
+            }
             StepExecution stepExecution = jobService.getStepExecution(
-                    jobExecutionId, stepExecutionId);
+                    jobExecutionId, stepExecutionId, context);
+            if (!entityTag.isVersionOf(Collections.singletonList(stepExecution))) {
+                // a stale cached copy is read again, and an execution changed since its state is not tagged
+                jobService.evictJobExecution(jobExecutionId);
+                stepExecution = jobService.getStepExecution(jobExecutionId, stepExecutionId, context);
+                entityTag = ExecutionEntityTag.NONE;
+            }
             stepExecutionRepresentation = new StepExecutionRepresentation(
                     stepExecution, TimeZone.getTimeZone("GMT"));
+            if (!context) {
+                stepExecutionRepresentation.getStepExecutionDetailsRepresentation().setExecutionContext(null);
+            }
         } catch (NoSuchStepExecutionException e) {
             return Response
                     .status(Response.Status.BAD_REQUEST)
@@ -102,7 +150,68 @@ public class StepExecutionResource {
                             + ")").type(MediaType.TEXT_PLAIN).build();
         }
 
-        return Response.ok(stepExecutionRepresentation).build();
+        return entityTag.ok(stepExecutionRepresentation, policy).build();
+    }
+
+    private List<ExecutionState> getStepExecutionStates(long jobExecutionId, long stepExecutionId)
+            throws NoSuchJobExecutionException, NoSuchStepExecutionException {
+        for (ExecutionState state : jobService.getJobExecutionStates(jobExecutionId)) {
+            if (Long.valueOf(stepExecutionId).equals(state.getStepExecutionId())) {
+                return Collections.singletonList(state);
+            }
+        }
+        throw new NoSuchStepExecutionException("There is no StepExecution with jobExecutionId=" + jobExecutionId
+                + " and id=" + stepExecutionId);
+    }
+
+    /**
+     * Retrieves the execution context of a step, deserialized or as serialized by the job repository.
+     *
+     * @param jobExecutionId  the job execution id
+     * @param stepExecutionId the step execution id
+     * @param view            <code>full</code> for the deserialized entries, <code>short</code> for the short
+     *                        context or <code>truncated</code> for the serialized context cut to maxLength
+     * @param maxLength       the maximum length of the truncated view
+     * @return the response
+     */
+    @GET
+    @Produces(MediaType.APPLICATION_JSON)
+    @Path("/{stepExecutionId}/context")
+    @RequiresPermissions("seed:monitoring:batch:read")
+    public Response context(@PathParam("jobExecutionId") long jobExecutionId,
+                            @PathParam("stepExecutionId") long stepExecutionId,
+                            @DefaultValue(ExecutionContextRepresentation.FULL) @QueryParam("view") String view,
+                            @DefaultValue("10000") @QueryParam("maxLength") int maxLength) {
+
+        if (!ExecutionContextRepresentation.isSupported(view)) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity("Unsupported execution context view (" + view + ")")
+                    .type(MediaType.TEXT_PLAIN).build();
+        }
+        ExecutionContextRepresentation executionContextRepresentation;
+        try {
+            if (ExecutionContextRepresentation.FULL.equals(view)) {
+                executionContextRepresentation = ExecutionContextRepresentation.full(
+                        jobService.getStepExecution(jobExecutionId, stepExecutionId).getExecutionContext());
+            } else {
+                boolean shortContext = ExecutionContextRepresentation.SHORT.equals(view);
+                executionContextRepresentation = ExecutionContextRepresentation.serialized(view,
+                        jobService.getSerializedExecutionContext(jobExecutionId, stepExecutionId, shortContext),
+                        shortContext ? Integer.MAX_VALUE : maxLength);
+            }
+        } catch (NoSuchStepExecutionException e) {
+            return Response
+                    .status(Response.Status.BAD_REQUEST)
+                    .entity("There is no such step execution ("
+                            + stepExecutionId + ")").type(MediaType.TEXT_PLAIN)
+                    .build();
+        } catch (NoSuchJobExecutionException e) {
+            return Response
+                    .status(Response.Status.BAD_REQUEST)
+                    .entity("There is no such job execution (" + jobExecutionId
+                            + ")").type(MediaType.TEXT_PLAIN).build();
+        }
+        return Response.ok(executionContextRepresentation).build();
     }
 
     /**
@@ -122,7 +231,7 @@ public class StepExecutionResource {
         StepExecutionProgressPresentation stepExecutionProgress;
         try {
             StepExecution stepExecution = jobService.getStepExecution(
-                    jobExecutionId, stepExecutionId);
+                    jobExecutionId, stepExecutionId, false);
 
             String stepName = stepExecution.getStepName();
             if (stepName.contains(":partition")) {
@@ -153,23 +262,15 @@ public class StepExecutionResource {
     }
 
     /**
-     * Compute history.
+     * Compute history. Only the step executions created or finished since the previous computation for
+     * the same step are read.
      *
      * @param jobName  the job name
      * @param stepName the step name
      * @return the step execution history
      */
     private StepExecutionHistory computeHistory(String jobName, String stepName) {
-        int total = jobService.countStepExecutionsForStep(jobName, stepName);
-        StepExecutionHistory stepExecutionHistory = new StepExecutionHistory(
-                stepName);
-        for (int i = 0; i < total; i += 1000) {
-            for (StepExecution stepExecution : jobService
-                    .listStepExecutionsForStep(jobName, stepName, i, 1000)) {
-                stepExecutionHistory.append(stepExecution);
-            }
-        }
-        return stepExecutionHistory;
+        return jobService.getStepExecutionHistory(jobName, stepName);
     }
 
 }
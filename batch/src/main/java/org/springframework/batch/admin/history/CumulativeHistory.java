@@ -15,53 +15,162 @@
  */
 package org.springframework.batch.admin.history;
 
-public class CumulativeHistory {
+/**
+ * Count, mean, standard deviation, min and max of all the values appended. The
+ * mean and variance are updated with Welford's algorithm, which keeps its
+ * precision for large values unlike a sum of squares. Histories can be merged,
+ * for example to combine the histories of several partitions or nodes.
+ *
+ */
+public class CumulativeHistory extends ValueHistory {
+
+	static final int SIZE = 5;
+
+	private static final int COUNT = 0;
+
+	private static final int MEAN = 1;
+
+	private static final int M2 = 2;
 
-	private int count;
+	private static final int MIN = 3;
 
-	private double sum;
+	private static final int MAX = 4;
 
-	private double sumSquares;
+	/**
+	 * The count, mean, sum of squared differences from the mean, min and max,
+	 * possibly a slice of an array shared with other histories.
+	 */
+	private final double[] state;
 
-	private double min;
+	private final int offset;
 
-	private double max;
+	public CumulativeHistory() {
+		this(new double[SIZE], 0);
+	}
+
+	/**
+	 * @param count the number of values
+	 * @param sum the sum of the values
+	 * @param m2 the sum of the squared differences from the mean, i.e. the
+	 * population variance times the count
+	 * @param min the smallest value
+	 * @param max the largest value
+	 */
+	public CumulativeHistory(int count, double sum, double m2, double min, double max) {
+		this();
+		state[COUNT] = count;
+		state[MEAN] = count > 0 ? sum / count : 0;
+		state[M2] = count > 0 ? Math.max(0, m2) : 0;
+		state[MIN] = min;
+		state[MAX] = max;
+	}
 
-	public void append(double value) {
-		if (value > max || count == 0)
-			max = value;
-		if (value < min || count == 0)
-			min = value;
-		sum += value;
-		sumSquares += value * value;
+	/**
+	 * @param other the history to copy
+	 */
+	public CumulativeHistory(CumulativeHistory other) {
+		super(other);
+		this.state = new double[SIZE];
+		this.offset = 0;
+		System.arraycopy(other.state, other.offset, state, 0, SIZE);
+	}
+
+	/**
+	 * A view of the statistics kept in a slice of a shared array.
+	 *
+	 * @param state the shared array
+	 * @param offset the start of the slice, of length {@link #SIZE}
+	 */
+	CumulativeHistory(double[] state, int offset) {
+		this.state = state;
+		this.offset = offset;
+	}
+
+	/**
+	 * Update the statistics kept in a slice of an array with a new value.
+	 *
+	 * @param state the array
+	 * @param offset the start of the slice, of length {@link #SIZE}
+	 * @param value the value appended
+	 */
+	static void append(double[] state, int offset, double value) {
+		double count = state[offset + COUNT];
+		if (value > state[offset + MAX] || count == 0)
+			state[offset + MAX] = value;
+		if (value < state[offset + MIN] || count == 0)
+			state[offset + MIN] = value;
 		count++;
+		state[offset + COUNT] = count;
+		double mean = state[offset + MEAN];
+		double delta = value - mean;
+		mean += delta / count;
+		state[offset + MEAN] = mean;
+		state[offset + M2] += delta * (value - mean);
+	}
+
+	@Override
+	protected void appendValue(double value) {
+		append(state, offset, value);
+	}
+
+	/**
+	 * Add the values of another history to this one, for example to combine
+	 * the histories of several partitions or nodes.
+	 *
+	 * @param other the history to merge
+	 */
+	public void merge(CumulativeHistory other) {
+		double otherCount = other.state[other.offset + COUNT];
+		if (otherCount > 0) {
+			double count = state[offset + COUNT];
+			if (count == 0) {
+				state[offset + MIN] = other.state[other.offset + MIN];
+				state[offset + MAX] = other.state[other.offset + MAX];
+			}
+			else {
+				state[offset + MIN] = Math.min(state[offset + MIN], other.state[other.offset + MIN]);
+				state[offset + MAX] = Math.max(state[offset + MAX], other.state[other.offset + MAX]);
+			}
+			double total = count + otherCount;
+			double delta = other.state[other.offset + MEAN] - state[offset + MEAN];
+			state[offset + M2] += other.state[other.offset + M2] + delta * delta * count * otherCount / total;
+			state[offset + MEAN] += delta * otherCount / total;
+			state[offset + COUNT] = total;
+		}
+		if (getSketch() != null && other.getSketch() != null) {
+			getSketch().merge(other.getSketch());
+		}
 	}
 
+	@Override
 	public int getCount() {
-		return count;
+		return (int) state[offset + COUNT];
 	}
 
+	@Override
 	public double getMean() {
-		return count > 0 ? sum / count : 0;
+		return state[offset + MEAN];
 	}
 
+	@Override
 	public double getStandardDeviation() {
-		double mean = getMean();
-		return count > 0 ? Math.sqrt(sumSquares / count - mean * mean) : 0;
+		double count = state[offset + COUNT];
+		return count > 0 ? Math.sqrt(state[offset + M2] / count) : 0;
 	}
 
+	@Override
 	public double getMax() {
-		return max;
+		return state[offset + MAX];
 	}
 
+	@Override
 	public double getMin() {
-		return min;
+		return state[offset + MIN];
 	}
 
 	@Override
-	public String toString() {
-		return String.format("[N=%d, min=%f, max=%f, mean=%f, sigma=%f]", count, min, max, getMean(),
-				getStandardDeviation());
+	public CumulativeHistory copy() {
+		return new CumulativeHistory(this);
 	}
 
 }
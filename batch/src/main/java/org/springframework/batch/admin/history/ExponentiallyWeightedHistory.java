@@ -0,0 +1,113 @@
+/*
+ * Copyright 2009-2010 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.batch.admin.history;
+
+/**
+ * Exponentially weighted mean and variance of the values appended, so that
+ * recent values weigh more than old ones. The count, min, max and quantiles
+ * still cover all the values.
+ *
+ */
+public class ExponentiallyWeightedHistory extends ValueHistory {
+
+	private final double alpha;
+
+	private int count;
+
+	private double mean;
+
+	private double variance;
+
+	private double min;
+
+	private double max;
+
+	/**
+	 * @param alpha the weight of a new value, between 0 (excluded) and 1
+	 */
+	public ExponentiallyWeightedHistory(double alpha) {
+		if (alpha <= 0 || alpha > 1) {
+			throw new IllegalArgumentException("The weight must be in ]0, 1]: " + alpha);
+		}
+		this.alpha = alpha;
+	}
+
+	/**
+	 * @param other the history to copy
+	 */
+	public ExponentiallyWeightedHistory(ExponentiallyWeightedHistory other) {
+		super(other);
+		this.alpha = other.alpha;
+		this.count = other.count;
+		this.mean = other.mean;
+		this.variance = other.variance;
+		this.min = other.min;
+		this.max = other.max;
+	}
+
+	@Override
+	protected void appendValue(double value) {
+		if (count == 0) {
+			mean = value;
+			min = value;
+			max = value;
+		}
+		else {
+			double diff = value - mean;
+			double increment = alpha * diff;
+			mean += increment;
+			variance = (1 - alpha) * (variance + diff * increment);
+			if (value > max) {
+				max = value;
+			}
+			if (value < min) {
+				min = value;
+			}
+		}
+		count++;
+	}
+
+	@Override
+	public int getCount() {
+		return count;
+	}
+
+	@Override
+	public double getMean() {
+		return mean;
+	}
+
+	@Override
+	public double getStandardDeviation() {
+		return Math.sqrt(variance);
+	}
+
+	@Override
+	public double getMax() {
+		return max;
+	}
+
+	@Override
+	public double getMin() {
+		return min;
+	}
+
+	@Override
+	public ExponentiallyWeightedHistory copy() {
+		return new ExponentiallyWeightedHistory(this);
+	}
+
+}
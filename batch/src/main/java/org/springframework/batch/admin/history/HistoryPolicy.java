@@ -0,0 +1,122 @@
+/*
+ * Copyright 2009-2010 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.batch.admin.history;
+
+/**
+ * Chooses the statistics kept for each value of a {@link StepExecutionHistory}:
+ * <ul>
+ * <li><code>cumulative</code>: all the values since the first execution,</li>
+ * <li><code>window:N</code>: the last N values,</li>
+ * <li><code>ewma:A</code>: exponentially weighted, a new value weighing A.</li>
+ * </ul>
+ *
+ */
+public abstract class HistoryPolicy {
+
+	public static final HistoryPolicy CUMULATIVE = new HistoryPolicy("cumulative", Integer.MAX_VALUE) {
+		@Override
+		public ValueHistory createHistory() {
+			return new CumulativeHistory();
+		}
+	};
+
+	private final String name;
+
+	private final int depth;
+
+	private HistoryPolicy(String name, int depth) {
+		this.name = name;
+		this.depth = depth;
+	}
+
+	/**
+	 * @param size the number of values kept
+	 * @return a policy keeping the statistics of the last values
+	 */
+	public static HistoryPolicy window(final int size) {
+		if (size <= 0) {
+			throw new IllegalArgumentException("The window size must be positive: " + size);
+		}
+		return new HistoryPolicy("window:" + size, size) {
+			@Override
+			public ValueHistory createHistory() {
+				return new WindowedHistory(size);
+			}
+		};
+	}
+
+	/**
+	 * @param alpha the weight of a new value
+	 * @return a policy keeping exponentially weighted statistics
+	 */
+	public static HistoryPolicy exponentiallyWeighted(final double alpha) {
+		if (alpha <= 0 || alpha > 1) {
+			throw new IllegalArgumentException("The weight must be in ]0, 1]: " + alpha);
+		}
+		// older values weigh less than 0.1% of the mean
+		int depth = alpha == 1 ? 1 : (int) Math.min(Integer.MAX_VALUE - 1,
+				Math.ceil(Math.log(0.001) / Math.log(1 - alpha)));
+		return new HistoryPolicy("ewma:" + alpha, depth) {
+			@Override
+			public ValueHistory createHistory() {
+				return new ExponentiallyWeightedHistory(alpha);
+			}
+		};
+	}
+
+	/**
+	 * @param value <code>cumulative</code>, <code>window:N</code> or
+	 * <code>ewma:A</code>
+	 * @return the policy
+	 */
+	public static HistoryPolicy valueOf(String value) {
+		String trimmed = value.trim();
+		try {
+			if (trimmed.equals("cumulative")) {
+				return CUMULATIVE;
+			}
+			if (trimmed.startsWith("window:")) {
+				return window(Integer.parseInt(trimmed.substring("window:".length())));
+			}
+			if (trimmed.startsWith("ewma:")) {
+				return exponentiallyWeighted(Double.parseDouble(trimmed.substring("ewma:".length())));
+			}
+		}
+		catch (NumberFormatException e) {
+			throw new IllegalArgumentException("Invalid history policy: " + value, e);
+		}
+		throw new IllegalArgumentException("Invalid history policy: " + value);
+	}
+
+	/**
+	 * @return new statistics for one value
+	 */
+	public abstract ValueHistory createHistory();
+
+	/**
+	 * @return the number of most recent values the statistics depend on,
+	 * {@link Integer#MAX_VALUE} if they depend on all the values
+	 */
+	public int getDepth() {
+		return depth;
+	}
+
+	@Override
+	public String toString() {
+		return name;
+	}
+
+}
@@ -29,6 +29,15 @@ public class JobExecutionHistory {
 		this.jobName = jobName;
 	}
 
+	/**
+	 * Create a history from aggregates computed elsewhere, e.g. by the
+	 * database.
+	 */
+	public JobExecutionHistory(String jobName, CumulativeHistory duration) {
+		this.jobName = jobName;
+		this.duration = duration;
+	}
+
 	public String getJobName() {
 		return jobName;
 	}
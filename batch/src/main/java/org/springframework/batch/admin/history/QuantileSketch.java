@@ -0,0 +1,254 @@
+/*
+ * Copyright 2009-2010 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.batch.admin.history;
+
+/**
+ * Mergeable quantile sketch with a relative accuracy guarantee: values are
+ * counted in buckets whose bounds grow geometrically, so that the value
+ * returned for a quantile is within the relative accuracy of the exact one.
+ * The number of buckets is bounded; when it is reached, the lowest buckets are
+ * collapsed, so only the accuracy of the lowest quantiles degrades. Sketches
+ * with the same relative accuracy can be merged, for example across
+ * partitions or nodes.
+ *
+ * The counts of the buckets are kept in an array of primitives covering the
+ * range of the buckets used, so that adding a value only allocates when this
+ * range grows or moves.
+ *
+ */
+public class QuantileSketch {
+
+	public static final double DEFAULT_RELATIVE_ACCURACY = 0.01;
+
+	public static final int DEFAULT_MAX_BUCKETS = 2048;
+
+	private static final int INITIAL_CAPACITY = 64;
+
+	private final double relativeAccuracy;
+
+	private final double logGamma;
+
+	private final int maxBuckets;
+
+	/** the counts of the buckets, the first one being the bucket at offset */
+	private long[] counts = new long[0];
+
+	private int offset;
+
+	/** the lowest and highest buckets used, when there are values above 0 */
+	private int minIndex;
+
+	private int maxIndex;
+
+	private long zeroCount;
+
+	private long count;
+
+	public QuantileSketch() {
+		this(DEFAULT_RELATIVE_ACCURACY, DEFAULT_MAX_BUCKETS);
+	}
+
+	/**
+	 * @param relativeAccuracy the relative accuracy of the quantiles, between
+	 * 0 and 1 (excluded)
+	 * @param maxBuckets the maximum number of buckets
+	 */
+	public QuantileSketch(double relativeAccuracy, int maxBuckets) {
+		if (relativeAccuracy <= 0 || relativeAccuracy >= 1) {
+			throw new IllegalArgumentException("The relative accuracy must be in ]0, 1[: " + relativeAccuracy);
+		}
+		if (maxBuckets <= 0) {
+			throw new IllegalArgumentException("The maximum number of buckets must be positive: " + maxBuckets);
+		}
+		this.relativeAccuracy = relativeAccuracy;
+		this.logGamma = Math.log(getGamma(relativeAccuracy));
+		this.maxBuckets = maxBuckets;
+	}
+
+	/**
+	 * @param other the sketch to copy
+	 */
+	public QuantileSketch(QuantileSketch other) {
+		this.relativeAccuracy = other.relativeAccuracy;
+		this.logGamma = other.logGamma;
+		this.maxBuckets = other.maxBuckets;
+		this.counts = other.counts.clone();
+		this.offset = other.offset;
+		this.minIndex = other.minIndex;
+		this.maxIndex = other.maxIndex;
+		this.zeroCount = other.zeroCount;
+		this.count = other.count;
+	}
+
+	/**
+	 * @param relativeAccuracy the relative accuracy of a sketch
+	 * @return the ratio between the bounds of a bucket
+	 */
+	public static double getGamma(double relativeAccuracy) {
+		return (1 + relativeAccuracy) / (1 - relativeAccuracy);
+	}
+
+	/**
+	 * @param value a value, values lower than or equal to 0 being counted as 0
+	 */
+	public void add(double value) {
+		if (value <= 0) {
+			addZeros(1);
+		}
+		else {
+			add((int) Math.ceil(Math.log(value) / logGamma), 1);
+		}
+	}
+
+	/**
+	 * Count values in a bucket directly, for example from a histogram computed
+	 * by a database.
+	 *
+	 * @param index the index of the bucket, <code>ceil(log(value) / log(gamma))</code>
+	 * @param valueCount the number of values in the bucket
+	 */
+	public void add(int index, long valueCount) {
+		if (count == zeroCount) {
+			minIndex = index;
+			maxIndex = index;
+		}
+		else if (index < minIndex) {
+			// values below the lowest bucket kept are counted in it
+			index = Math.max(index, maxIndex - maxBuckets + 1);
+			minIndex = index;
+		}
+		else if (index > maxIndex) {
+			collapseBelow(index - maxBuckets + 1);
+			maxIndex = index;
+		}
+		ensureCapacity();
+		counts[index - offset] += valueCount;
+		count += valueCount;
+	}
+
+	/**
+	 * @param valueCount the number of values lower than or equal to 0
+	 */
+	public void addZeros(long valueCount) {
+		zeroCount += valueCount;
+		count += valueCount;
+	}
+
+	/**
+	 * @param other a sketch with the same relative accuracy
+	 */
+	public void merge(QuantileSketch other) {
+		if (other.relativeAccuracy != relativeAccuracy) {
+			throw new IllegalArgumentException("Cannot merge sketches with different relative accuracies: "
+					+ relativeAccuracy + " and " + other.relativeAccuracy);
+		}
+		if (other.count > other.zeroCount) {
+			for (int index = other.minIndex; index <= other.maxIndex; index++) {
+				long bucketCount = other.counts[index - other.offset];
+				if (bucketCount > 0) {
+					add(index, bucketCount);
+				}
+			}
+		}
+		addZeros(other.zeroCount);
+	}
+
+	/**
+	 * @return the number of values
+	 */
+	public long getCount() {
+		return count;
+	}
+
+	/**
+	 * @param quantile the quantile, between 0 and 1
+	 * @return the value at this quantile, or {@link Double#NaN} without values
+	 */
+	public double getQuantile(double quantile) {
+		if (quantile < 0 || quantile > 1) {
+			throw new IllegalArgumentException("The quantile must be in [0, 1]: " + quantile);
+		}
+		if (count == 0) {
+			return Double.NaN;
+		}
+		long rank = (long) (quantile * (count - 1));
+		if (rank < zeroCount) {
+			return 0;
+		}
+		long seen = zeroCount;
+		for (int index = minIndex; index < maxIndex; index++) {
+			seen += counts[index - offset];
+			if (seen > rank) {
+				return getValue(index);
+			}
+		}
+		return getValue(maxIndex);
+	}
+
+	/**
+	 * @return the value representing a bucket, within the relative accuracy of
+	 * all the values it counts
+	 */
+	private double getValue(int index) {
+		return 2 * Math.exp(index * logGamma) / (1 + Math.exp(logGamma));
+	}
+
+	/**
+	 * Collapse the buckets lower than a bucket into it, if there are any.
+	 */
+	private void collapseBelow(int lowest) {
+		if (lowest <= minIndex) {
+			return;
+		}
+		long collapsed = 0;
+		for (int index = minIndex; index < lowest && index <= maxIndex; index++) {
+			collapsed += counts[index - offset];
+			counts[index - offset] = 0;
+		}
+		minIndex = lowest;
+		if (lowest > maxIndex) {
+			maxIndex = lowest;
+		}
+		ensureCapacity();
+		counts[lowest - offset] += collapsed;
+	}
+
+	/**
+	 * Grow or move the array of counts so that it covers the buckets from
+	 * minIndex to maxIndex.
+	 */
+	private void ensureCapacity() {
+		if (minIndex >= offset && maxIndex < offset + counts.length) {
+			return;
+		}
+		int range = maxIndex - minIndex + 1;
+		int capacity = counts.length;
+		if (range > capacity) {
+			capacity = Math.min(maxBuckets, Math.max(range, Math.max(INITIAL_CAPACITY, 2 * capacity)));
+		}
+		// leave the same room for new buckets on both sides
+		int newOffset = minIndex - (capacity - range) / 2;
+		long[] newCounts = new long[capacity];
+		int from = Math.max(offset, newOffset);
+		int to = Math.min(offset + counts.length, newOffset + capacity);
+		if (from < to) {
+			System.arraycopy(counts, from - offset, newCounts, from - newOffset, to - from);
+		}
+		counts = newCounts;
+		offset = newOffset;
+	}
+
+}
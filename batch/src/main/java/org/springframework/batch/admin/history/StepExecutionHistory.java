@@ -19,24 +19,107 @@ import java.util.Date;
 
 import org.springframework.batch.core.StepExecution;
 
-
+/**
+ * Statistics of the executions of a step. With the cumulative policy the
+ * statistics of all the values are kept in a single array of primitives, and
+ * the {@link CumulativeHistory} returned by the getters are views of it
+ * created on first use. The quantile sketches of the durations also count
+ * them in arrays of primitives, so that appending an execution only
+ * allocates when the range of the durations grows or moves.
+ *
+ */
 public class StepExecutionHistory {
 
+	private static final int COMMIT_COUNT = 0;
+	private static final int ROLLBACK_COUNT = 1;
+	private static final int READ_COUNT = 2;
+	private static final int WRITE_COUNT = 3;
+	private static final int FILTER_COUNT = 4;
+	private static final int READ_SKIP_COUNT = 5;
+	private static final int WRITE_SKIP_COUNT = 6;
+	private static final int PROCESS_SKIP_COUNT = 7;
+	private static final int DURATION = 8;
+	private static final int DURATION_PER_READ = 9;
+	private static final int VALUES = 10;
+
 	private final String stepName;
 	private int count = 0;
-	private CumulativeHistory commitCount = new CumulativeHistory();
-	private CumulativeHistory rollbackCount = new CumulativeHistory();
-	private CumulativeHistory readCount = new CumulativeHistory();
-	private CumulativeHistory writeCount = new CumulativeHistory();
-	private CumulativeHistory filterCount = new CumulativeHistory();
-	private CumulativeHistory readSkipCount = new CumulativeHistory();
-	private CumulativeHistory writeSkipCount = new CumulativeHistory();
-	private CumulativeHistory processSkipCount = new CumulativeHistory();
-	private CumulativeHistory duration = new CumulativeHistory();
-	private CumulativeHistory durationPerRead = new CumulativeHistory();
+	/** the state of all the values with the cumulative policy, null otherwise */
+	private final double[] state;
+	private final QuantileSketch durationSketch;
+	private final QuantileSketch durationPerReadSketch;
+	private final ValueHistory[] histories = new ValueHistory[VALUES];
 
 	public StepExecutionHistory(String stepName) {
+		this(stepName, HistoryPolicy.CUMULATIVE);
+	}
+
+	/**
+	 * @param stepName the step name
+	 * @param policy the policy creating the statistics of each value
+	 */
+	public StepExecutionHistory(String stepName, HistoryPolicy policy) {
 		this.stepName = stepName;
+		this.durationSketch = new QuantileSketch();
+		this.durationPerReadSketch = new QuantileSketch();
+		if (policy == HistoryPolicy.CUMULATIVE) {
+			this.state = new double[VALUES * CumulativeHistory.SIZE];
+		}
+		else {
+			this.state = null;
+			for (int i = 0; i < VALUES; i++) {
+				histories[i] = policy.createHistory();
+			}
+			histories[DURATION].setSketch(durationSketch);
+			histories[DURATION_PER_READ].setSketch(durationPerReadSketch);
+		}
+	}
+
+	/**
+	 * Create a history from aggregates computed elsewhere, e.g. by the
+	 * database.
+	 */
+	public StepExecutionHistory(String stepName, int count, CumulativeHistory commitCount,
+			CumulativeHistory rollbackCount, CumulativeHistory readCount, CumulativeHistory writeCount,
+			CumulativeHistory filterCount, CumulativeHistory readSkipCount, CumulativeHistory writeSkipCount,
+			CumulativeHistory processSkipCount, CumulativeHistory duration, CumulativeHistory durationPerRead) {
+		this.stepName = stepName;
+		this.count = count;
+		this.state = null;
+		this.durationSketch = null;
+		this.durationPerReadSketch = null;
+		histories[COMMIT_COUNT] = commitCount;
+		histories[ROLLBACK_COUNT] = rollbackCount;
+		histories[READ_COUNT] = readCount;
+		histories[WRITE_COUNT] = writeCount;
+		histories[FILTER_COUNT] = filterCount;
+		histories[READ_SKIP_COUNT] = readSkipCount;
+		histories[WRITE_SKIP_COUNT] = writeSkipCount;
+		histories[PROCESS_SKIP_COUNT] = processSkipCount;
+		histories[DURATION] = duration;
+		histories[DURATION_PER_READ] = durationPerRead;
+	}
+
+	/**
+	 * @param other the history to copy, which is not changed by appending to
+	 * the copy
+	 */
+	public StepExecutionHistory(StepExecutionHistory other) {
+		this.stepName = other.stepName;
+		this.count = other.count;
+		if (other.state != null) {
+			this.state = other.state.clone();
+			this.durationSketch = new QuantileSketch(other.durationSketch);
+			this.durationPerReadSketch = new QuantileSketch(other.durationPerReadSketch);
+		}
+		else {
+			this.state = null;
+			this.durationSketch = null;
+			this.durationPerReadSketch = null;
+			for (int i = 0; i < VALUES; i++) {
+				histories[i] = other.histories[i].copy();
+			}
+		}
 	}
 
 	public void append(StepExecution stepExecution) {
@@ -47,19 +130,48 @@ public class StepExecutionHistory {
 		Date startTime = stepExecution.getStartTime();
 		Date endTime = stepExecution.getEndTime();
 		long time = endTime.getTime()-startTime.getTime();
-		duration.append(time);
+		append(DURATION, time);
 		if (stepExecution.getReadCount()>0) {
-			durationPerRead.append(time/stepExecution.getReadCount());
+			append(DURATION_PER_READ, time/stepExecution.getReadCount());
 		}
 		count++;
-		commitCount.append(stepExecution.getCommitCount());
-		rollbackCount.append(stepExecution.getRollbackCount());
-		readCount.append(stepExecution.getReadCount());
-		writeCount.append(stepExecution.getWriteCount());
-		filterCount.append(stepExecution.getFilterCount());
-		readSkipCount.append(stepExecution.getReadSkipCount());
-		writeSkipCount.append(stepExecution.getWriteSkipCount());
-		processSkipCount.append(stepExecution.getProcessSkipCount());
+		append(COMMIT_COUNT, stepExecution.getCommitCount());
+		append(ROLLBACK_COUNT, stepExecution.getRollbackCount());
+		append(READ_COUNT, stepExecution.getReadCount());
+		append(WRITE_COUNT, stepExecution.getWriteCount());
+		append(FILTER_COUNT, stepExecution.getFilterCount());
+		append(READ_SKIP_COUNT, stepExecution.getReadSkipCount());
+		append(WRITE_SKIP_COUNT, stepExecution.getWriteSkipCount());
+		append(PROCESS_SKIP_COUNT, stepExecution.getProcessSkipCount());
+	}
+
+	private void append(int value, double amount) {
+		if (state == null) {
+			histories[value].append(amount);
+			return;
+		}
+		CumulativeHistory.append(state, value * CumulativeHistory.SIZE, amount);
+		if (value == DURATION) {
+			durationSketch.add(amount);
+		}
+		else if (value == DURATION_PER_READ) {
+			durationPerReadSketch.add(amount);
+		}
+	}
+
+	private ValueHistory getHistory(int value) {
+		ValueHistory history = histories[value];
+		if (history == null) {
+			history = new CumulativeHistory(state, value * CumulativeHistory.SIZE);
+			if (value == DURATION) {
+				history.setSketch(durationSketch);
+			}
+			else if (value == DURATION_PER_READ) {
+				history.setSketch(durationPerReadSketch);
+			}
+			histories[value] = history;
+		}
+		return history;
 	}
 
 	public String getStepName() {
@@ -70,44 +182,44 @@ public class StepExecutionHistory {
 		return count;
 	}
 
-	public CumulativeHistory getCommitCount() {
-		return commitCount;
+	public ValueHistory getCommitCount() {
+		return getHistory(COMMIT_COUNT);
 	}
 
-	public CumulativeHistory getRollbackCount() {
-		return rollbackCount;
+	public ValueHistory getRollbackCount() {
+		return getHistory(ROLLBACK_COUNT);
 	}
 
-	public CumulativeHistory getReadCount() {
-		return readCount;
+	public ValueHistory getReadCount() {
+		return getHistory(READ_COUNT);
 	}
 
-	public CumulativeHistory getWriteCount() {
-		return writeCount;
+	public ValueHistory getWriteCount() {
+		return getHistory(WRITE_COUNT);
 	}
 
-	public CumulativeHistory getFilterCount() {
-		return filterCount;
+	public ValueHistory getFilterCount() {
+		return getHistory(FILTER_COUNT);
 	}
 
-	public CumulativeHistory getReadSkipCount() {
-		return readSkipCount;
+	public ValueHistory getReadSkipCount() {
+		return getHistory(READ_SKIP_COUNT);
 	}
 
-	public CumulativeHistory getWriteSkipCount() {
-		return writeSkipCount;
+	public ValueHistory getWriteSkipCount() {
+		return getHistory(WRITE_SKIP_COUNT);
 	}
 
-	public CumulativeHistory getProcessSkipCount() {
-		return processSkipCount;
+	public ValueHistory getProcessSkipCount() {
+		return getHistory(PROCESS_SKIP_COUNT);
 	}
 
-	public CumulativeHistory getDuration() {
-		return duration;
+	public ValueHistory getDuration() {
+		return getHistory(DURATION);
 	}
 	
-	public CumulativeHistory getDurationPerRead() {
-		return durationPerRead;
+	public ValueHistory getDurationPerRead() {
+		return getHistory(DURATION_PER_READ);
 	}
 	
 }
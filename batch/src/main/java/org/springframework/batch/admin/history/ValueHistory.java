@@ -0,0 +1,113 @@
+/*
+ * Copyright 2009-2010 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.batch.admin.history;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Statistics of one value of the executions of a step, such as their duration
+ * or read count, kept as chosen by a {@link HistoryPolicy}. An optional
+ * {@link QuantileSketch} gives the percentiles of the values.
+ *
+ * Only the {@link CumulativeHistory cumulative} statistics can be merged.
+ *
+ */
+public abstract class ValueHistory {
+
+	private QuantileSketch sketch;
+
+	protected ValueHistory() {
+	}
+
+	/**
+	 * @param other the history whose sketch is copied
+	 */
+	protected ValueHistory(ValueHistory other) {
+		this.sketch = other.sketch == null ? null : new QuantileSketch(other.sketch);
+	}
+
+	/**
+	 * @param sketch the sketch receiving the values appended from now on, to
+	 * compute their percentiles
+	 */
+	public void setSketch(QuantileSketch sketch) {
+		this.sketch = sketch;
+	}
+
+	QuantileSketch getSketch() {
+		return sketch;
+	}
+
+	public void append(double value) {
+		appendValue(value);
+		if (sketch != null) {
+			sketch.add(value);
+		}
+	}
+
+	/**
+	 * Update the statistics with a new value.
+	 *
+	 * @param value the value appended
+	 */
+	protected abstract void appendValue(double value);
+
+	public abstract int getCount();
+
+	public abstract double getMean();
+
+	public abstract double getStandardDeviation();
+
+	public abstract double getMax();
+
+	public abstract double getMin();
+
+	/**
+	 * @param quantile the quantile, between 0 and 1
+	 * @return the value at this quantile, or {@link Double#NaN} without sketch
+	 */
+	public double getQuantile(double quantile) {
+		return sketch == null ? Double.NaN : sketch.getQuantile(quantile);
+	}
+
+	/**
+	 * @return the median, 95th and 99th percentiles, or null without sketch
+	 */
+	public Map<String, Double> getPercentiles() {
+		if (sketch == null) {
+			return null;
+		}
+		Map<String, Double> percentiles = new LinkedHashMap<String, Double>();
+		percentiles.put("p50", getQuantile(0.5));
+		percentiles.put("p95", getQuantile(0.95));
+		percentiles.put("p99", getQuantile(0.99));
+		return percentiles;
+	}
+
+	/**
+	 * @return a copy of this history, which is not changed by appending to
+	 * this one
+	 */
+	public abstract ValueHistory copy();
+
+	@Override
+	public String toString() {
+		return String.format("[N=%d, min=%f, max=%f, mean=%f, sigma=%f]", getCount(), getMin(), getMax(), getMean(),
+				getStandardDeviation());
+	}
+
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright 2009-2010 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.batch.admin.history;
+
+import java.util.Arrays;
+
+/**
+ * Statistics of the last values appended only, kept in a fixed size ring
+ * buffer, so that a change of volume is reflected once the window has been
+ * renewed. The mean and variance are updated with Welford's algorithm, a
+ * value leaving the window being removed as the new one is added.
+ *
+ */
+public class WindowedHistory extends ValueHistory {
+
+	private final double[] values;
+
+	private int size;
+
+	private int next;
+
+	private double mean;
+
+	private double m2;
+
+	/**
+	 * @param capacity the number of values kept
+	 */
+	public WindowedHistory(int capacity) {
+		if (capacity <= 0) {
+			throw new IllegalArgumentException("The window capacity must be positive: " + capacity);
+		}
+		this.values = new double[capacity];
+	}
+
+	/**
+	 * @param other the history to copy
+	 */
+	public WindowedHistory(WindowedHistory other) {
+		super(other);
+		this.values = other.values.clone();
+		this.size = other.size;
+		this.next = other.next;
+		this.mean = other.mean;
+		this.m2 = other.m2;
+	}
+
+	@Override
+	protected void appendValue(double value) {
+		if (size == values.length) {
+			double oldest = values[next];
+			double oldMean = mean;
+			mean += (value - oldest) / size;
+			m2 += (value - oldest) * (value - mean + oldest - oldMean);
+		}
+		else {
+			size++;
+			double delta = value - mean;
+			mean += delta / size;
+			m2 += delta * (value - mean);
+		}
+		values[next] = value;
+		next = (next + 1) % values.length;
+		if (next == 0) {
+			// recompute the statistics once per renewal of the window so that
+			// rounding errors of the removals do not accumulate
+			double sum = 0;
+			for (double v : values) {
+				sum += v;
+			}
+			mean = sum / size;
+			m2 = 0;
+			for (double v : values) {
+				m2 += (v - mean) * (v - mean);
+			}
+		}
+	}
+
+	@Override
+	public int getCount() {
+		return size;
+	}
+
+	@Override
+	public double getMean() {
+		return mean;
+	}
+
+	@Override
+	public double getStandardDeviation() {
+		return size > 0 ? Math.sqrt(Math.max(0, m2) / size) : 0;
+	}
+
+	@Override
+	public double getMax() {
+		double max = 0;
+		for (int i = 0; i < size; i++) {
+			if (i == 0 || values[i] > max) {
+				max = values[i];
+			}
+		}
+		return max;
+	}
+
+	@Override
+	public double getMin() {
+		double min = 0;
+		for (int i = 0; i < size; i++) {
+			if (i == 0 || values[i] < min) {
+				min = values[i];
+			}
+		}
+		return min;
+	}
+
+	/**
+	 * The quantiles are computed exactly from the values of the window, not
+	 * from the sketch which counts all the values appended.
+	 */
+	@Override
+	public double getQuantile(double quantile) {
+		if (quantile < 0 || quantile > 1) {
+			throw new IllegalArgumentException("The quantile must be in [0, 1]: " + quantile);
+		}
+		if (size == 0) {
+			return Double.NaN;
+		}
+		double[] sorted = Arrays.copyOf(values, size);
+		Arrays.sort(sorted);
+		return sorted[(int) (quantile * (size - 1))];
+	}
+
+	@Override
+	public WindowedHistory copy() {
+		return new WindowedHistory(this);
+	}
+
+}
@@ -0,0 +1,339 @@
+/*
+ * Copyright 2006-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.batch.admin.service;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParameter;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.item.ExecutionContext;
+
+/**
+ * Bounded cache of completed or abandoned job executions (with their
+ * instance, step executions and, unless they were read without it, execution
+ * context) and of their finished step executions (with their execution
+ * context). A job execution read without its context is cached apart from the
+ * complete one, so that each is only returned to the readers asking for it. A
+ * completed or abandoned execution can neither be restarted nor abandoned, so
+ * it is not changed any more by the job repository and does not need to be
+ * read again each time it is displayed. Running, stopped and failed
+ * executions are never cached, as another process may still abandon them.
+ *
+ * The least recently used executions are evicted when the cache holds more
+ * than a maximum number of executions, or when their estimated size exceeds a
+ * maximum number of bytes. The executions returned are shared, and must not be
+ * modified: an execution about to change is evicted and read again from the
+ * repository instead.
+ *
+ */
+public class ExecutionCache {
+
+	/**
+	 * Default maximum number of executions.
+	 */
+	public static final int DEFAULT_MAX_ENTRIES = 1000;
+
+	/**
+	 * Default maximum estimated size of the executions, in bytes.
+	 */
+	public static final long DEFAULT_MAX_WEIGHT = 16 * 1024 * 1024;
+
+	private static final int JOB_EXECUTION_WEIGHT = 512;
+
+	private static final int STEP_EXECUTION_WEIGHT = 384;
+
+	private static final int ENTRY_WEIGHT = 64;
+
+	private final int maxEntries;
+
+	private final long maxWeight;
+
+	private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<Key, Entry>(16, 0.75f, true);
+
+	private final Map<Long, Set<Long>> stepExecutionIds = new HashMap<Long, Set<Long>>();
+
+	private long weight;
+
+	private long hits;
+
+	private long misses;
+
+	private long evictions;
+
+	public ExecutionCache() {
+		this(DEFAULT_MAX_ENTRIES, DEFAULT_MAX_WEIGHT);
+	}
+
+	/**
+	 * @param maxEntries the maximum number of executions, 0 disabling the
+	 * cache
+	 * @param maxWeight the maximum estimated size of the executions, in bytes
+	 */
+	public ExecutionCache(int maxEntries, long maxWeight) {
+		this.maxEntries = maxEntries;
+		this.maxWeight = maxWeight;
+	}
+
+	/**
+	 * @param jobExecutionId the id of a job execution
+	 * @param withContext false for the job execution read without its
+	 * execution context
+	 * @return the cached job execution, or null
+	 */
+	public JobExecution getJobExecution(Long jobExecutionId, boolean withContext) {
+		return (JobExecution) get(new Key(true, withContext, jobExecutionId));
+	}
+
+	/**
+	 * @param stepExecutionId the id of a step execution
+	 * @return the cached step execution, or null
+	 */
+	public StepExecution getStepExecution(Long stepExecutionId) {
+		return (StepExecution) get(new Key(false, true, stepExecutionId));
+	}
+
+	/**
+	 * Cache a job execution if it is completed or abandoned and all its step
+	 * executions are finished.
+	 *
+	 * @param jobExecution a job execution loaded with its instance and step
+	 * executions
+	 * @param withContext false if the execution context was not read
+	 */
+	public void putJobExecution(JobExecution jobExecution, boolean withContext) {
+		if (maxEntries <= 0 || !isUnchangeable(jobExecution)) {
+			return;
+		}
+		put(new Key(true, withContext, jobExecution.getId()), jobExecution, estimateWeight(jobExecution));
+	}
+
+	/**
+	 * Cache a step execution if it is finished and its job execution is
+	 * completed or abandoned.
+	 *
+	 * @param stepExecution a step execution fully loaded
+	 */
+	public void putStepExecution(StepExecution stepExecution) {
+		if (maxEntries <= 0 || stepExecution.getEndTime() == null || !isUnchangeable(stepExecution.getJobExecution())) {
+			return;
+		}
+		put(new Key(false, true, stepExecution.getId()), stepExecution, estimateWeight(stepExecution));
+	}
+
+	/**
+	 * Remove a job execution which is about to change, and its step
+	 * executions.
+	 *
+	 * @param jobExecutionId the id of the job execution
+	 */
+	public synchronized void evictJobExecution(Long jobExecutionId) {
+		remove(new Key(true, true, jobExecutionId));
+		remove(new Key(true, false, jobExecutionId));
+		Set<Long> ids = stepExecutionIds.get(jobExecutionId);
+		if (ids != null) {
+			for (Long stepExecutionId : ids.toArray(new Long[ids.size()])) {
+				remove(new Key(false, true, stepExecutionId));
+			}
+		}
+	}
+
+	public synchronized void clear() {
+		entries.clear();
+		stepExecutionIds.clear();
+		weight = 0;
+	}
+
+	/**
+	 * @return the current size and the hit, miss and eviction counts since the
+	 * cache was created
+	 */
+	public synchronized ExecutionCacheStatistics getStatistics() {
+		return new ExecutionCacheStatistics(entries.size(), weight, maxEntries, maxWeight, hits, misses, evictions);
+	}
+
+	private synchronized Object get(Key key) {
+		Entry entry = entries.get(key);
+		if (entry == null) {
+			misses++;
+			return null;
+		}
+		hits++;
+		return entry.execution;
+	}
+
+	private synchronized void put(Key key, Object execution, long executionWeight) {
+		if (executionWeight > maxWeight) {
+			return;
+		}
+		remove(key);
+		Entry entry = new Entry(execution, executionWeight);
+		entries.put(key, entry);
+		weight += executionWeight;
+		link(key, entry);
+		for (Iterator<Map.Entry<Key, Entry>> iterator = entries.entrySet().iterator(); iterator.hasNext()
+				&& (entries.size() > maxEntries || weight > maxWeight);) {
+			Map.Entry<Key, Entry> eldest = iterator.next();
+			weight -= eldest.getValue().weight;
+			iterator.remove();
+			unlink(eldest.getKey(), eldest.getValue());
+			evictions++;
+		}
+	}
+
+	private void remove(Key key) {
+		Entry previous = entries.remove(key);
+		if (previous != null) {
+			weight -= previous.weight;
+			unlink(key, previous);
+		}
+	}
+
+	/**
+	 * Index a cached step execution by the id of its job execution, so that
+	 * evicting a job execution does not scan the whole cache.
+	 */
+	private void link(Key key, Entry entry) {
+		if (key.job) {
+			return;
+		}
+		Long jobExecutionId = ((StepExecution) entry.execution).getJobExecutionId();
+		Set<Long> ids = stepExecutionIds.get(jobExecutionId);
+		if (ids == null) {
+			ids = new HashSet<Long>();
+			stepExecutionIds.put(jobExecutionId, ids);
+		}
+		ids.add(key.id);
+	}
+
+	private void unlink(Key key, Entry entry) {
+		if (key.job) {
+			return;
+		}
+		Long jobExecutionId = ((StepExecution) entry.execution).getJobExecutionId();
+		Set<Long> ids = stepExecutionIds.get(jobExecutionId);
+		if (ids != null && ids.remove(key.id) && ids.isEmpty()) {
+			stepExecutionIds.remove(jobExecutionId);
+		}
+	}
+
+	private static boolean isUnchangeable(JobExecution jobExecution) {
+		if (jobExecution == null || jobExecution.getEndTime() == null
+				|| (jobExecution.getStatus() != BatchStatus.COMPLETED
+						&& jobExecution.getStatus() != BatchStatus.ABANDONED)) {
+			return false;
+		}
+		for (StepExecution stepExecution : jobExecution.getStepExecutions()) {
+			if (stepExecution.getEndTime() == null) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static long estimateWeight(JobExecution jobExecution) {
+		long weight = JOB_EXECUTION_WEIGHT + estimateWeight(jobExecution.getExecutionContext())
+				+ estimateWeight(jobExecution.getExitStatus().getExitDescription());
+		for (Map.Entry<String, JobParameter> parameter : jobExecution.getJobParameters().getParameters().entrySet()) {
+			weight += ENTRY_WEIGHT + estimateWeight(parameter.getKey())
+					+ estimateWeight(parameter.getValue().getValue());
+		}
+		for (StepExecution stepExecution : jobExecution.getStepExecutions()) {
+			weight += estimateWeight(stepExecution);
+		}
+		return weight;
+	}
+
+	private static long estimateWeight(StepExecution stepExecution) {
+		return STEP_EXECUTION_WEIGHT + estimateWeight(stepExecution.getStepName())
+				+ estimateWeight(stepExecution.getExitStatus().getExitDescription())
+				+ estimateWeight(stepExecution.getExecutionContext());
+	}
+
+	private static long estimateWeight(ExecutionContext executionContext) {
+		long weight = ENTRY_WEIGHT;
+		if (executionContext != null) {
+			for (Map.Entry<String, Object> entry : executionContext.entrySet()) {
+				weight += ENTRY_WEIGHT + estimateWeight(entry.getKey()) + estimateWeight(entry.getValue());
+			}
+		}
+		return weight;
+	}
+
+	private static long estimateWeight(Object value) {
+		if (value == null) {
+			return 0;
+		}
+		if (value instanceof String) {
+			return 40 + 2L * ((String) value).length();
+		}
+		if (value instanceof Number || value instanceof Boolean || value instanceof Date) {
+			return 24;
+		}
+		return ENTRY_WEIGHT;
+	}
+
+	private static class Key {
+
+		private final boolean job;
+
+		private final boolean context;
+
+		private final Long id;
+
+		Key(boolean job, boolean context, Long id) {
+			this.job = job;
+			this.context = context;
+			this.id = id;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof Key)) {
+				return false;
+			}
+			Key other = (Key) obj;
+			return job == other.job && context == other.context && (id == null ? other.id == null : id.equals(other.id));
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * (id == null ? 0 : id.hashCode()) + (job ? 1 : 0) + (context ? 2 : 0);
+		}
+
+	}
+
+	private static class Entry {
+
+		private final Object execution;
+
+		private final long weight;
+
+		Entry(Object execution, long weight) {
+			this.execution = execution;
+			this.weight = weight;
+		}
+
+	}
+
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2006-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.batch.admin.service;
+
+/**
+ * Size and efficiency of an {@link ExecutionCache}, to choose its bounds.
+ *
+ */
+public class ExecutionCacheStatistics {
+
+	private final int entries;
+
+	private final long weight;
+
+	private final int maxEntries;
+
+	private final long maxWeight;
+
+	private final long hits;
+
+	private final long misses;
+
+	private final long evictions;
+
+	public ExecutionCacheStatistics(int entries, long weight, int maxEntries, long maxWeight, long hits, long misses,
+			long evictions) {
+		this.entries = entries;
+		this.weight = weight;
+		this.maxEntries = maxEntries;
+		this.maxWeight = maxWeight;
+		this.hits = hits;
+		this.misses = misses;
+		this.evictions = evictions;
+	}
+
+	/**
+	 * @return the number of executions cached
+	 */
+	public int getEntries() {
+		return entries;
+	}
+
+	/**
+	 * @return the estimated size of the executions cached, in bytes
+	 */
+	public long getWeight() {
+		return weight;
+	}
+
+	public int getMaxEntries() {
+		return maxEntries;
+	}
+
+	public long getMaxWeight() {
+		return maxWeight;
+	}
+
+	public long getHits() {
+		return hits;
+	}
+
+	public long getMisses() {
+		return misses;
+	}
+
+	/**
+	 * @return the number of executions removed to respect the bounds
+	 */
+	public long getEvictions() {
+		return evictions;
+	}
+
+	/**
+	 * @return the ratio of the lookups finding their execution, 0 without
+	 * lookups
+	 */
+	public double getHitRate() {
+		long lookups = hits + misses;
+		return lookups == 0 ? 0 : (double) hits / lookups;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("[entries=%d, weight=%d, hits=%d, misses=%d, evictions=%d]", entries, weight, hits,
+				misses, evictions);
+	}
+
+}
@@ -0,0 +1,36 @@
+/*
+ * Copyright 2006-2007 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.batch.admin.service;
+
+/**
+ * Callback receiving executions one at a time while they are read from the
+ * repository, so that a whole history can be processed without holding it in
+ * memory.
+ *
+ * @param <T> the type of the executions
+ */
+public interface ExecutionCallback<T> {
+
+	/**
+	 * Process the next execution read. A runtime exception thrown here stops
+	 * the processing of the remaining executions and is propagated to the
+	 * caller.
+	 *
+	 * @param execution the next execution read
+	 */
+	void handle(T execution);
+
+}
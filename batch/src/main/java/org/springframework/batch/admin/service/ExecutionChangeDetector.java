@@ -0,0 +1,133 @@
+/*
+ * Copyright 2006-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.batch.admin.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Detects the changes of the running job and step executions by comparing
+ * their version with the one read by the previous detection. Each detection
+ * reads the lightweight states of the running executions, and of the
+ * executions updated since the most recent last updated date already seen
+ * (the watermark), so that the final state of the executions which finished
+ * meanwhile is detected too.
+ *
+ * A detector remembers the states it has read, and is meant to be shared by
+ * all the consumers of the changes instead of polling the repository for each
+ * of them. Since a change is only reported by the detection that found it,
+ * the consumers receive the changes through listeners, whichever of them
+ * triggered the detection.
+ *
+ */
+public class ExecutionChangeDetector {
+
+	private final JobService jobService;
+
+	private Map<Long, Integer> jobExecutionVersions = new HashMap<Long, Integer>();
+
+	private Map<Long, Integer> stepExecutionVersions = new HashMap<Long, Integer>();
+
+	private Date watermark;
+
+	private volatile List<ExecutionState> states = Collections.emptyList();
+
+	private final List<ExecutionChangeListener> listeners = new CopyOnWriteArrayList<ExecutionChangeListener>();
+
+	/**
+	 * @param jobService the service reading the execution states
+	 */
+	public ExecutionChangeDetector(JobService jobService) {
+		this.jobService = jobService;
+	}
+
+	/**
+	 * Read the current states and compare them with the previous ones, and
+	 * pass the changes to the listeners. The first detection reports all the
+	 * running executions as changed.
+	 *
+	 * @return the states of the new and changed executions, in the order of
+	 * {@link JobService#getExecutionStates(Date)}
+	 */
+	public synchronized List<ExecutionState> detectChanges() {
+		List<ExecutionState> current = new ArrayList<ExecutionState>(jobService.getExecutionStates(watermark));
+		Map<Long, Integer> currentJobExecutionVersions = new HashMap<Long, Integer>();
+		Map<Long, Integer> currentStepExecutionVersions = new HashMap<Long, Integer>();
+		List<ExecutionState> changes = new ArrayList<ExecutionState>();
+		for (ExecutionState state : current) {
+			Integer previous;
+			if (state.isJobExecution()) {
+				previous = jobExecutionVersions.get(state.getJobExecutionId());
+				currentJobExecutionVersions.put(state.getJobExecutionId(), state.getVersion());
+			}
+			else {
+				previous = stepExecutionVersions.get(state.getStepExecutionId());
+				currentStepExecutionVersions.put(state.getStepExecutionId(), state.getVersion());
+			}
+			if (previous == null || !previous.equals(state.getVersion())) {
+				changes.add(state);
+			}
+			if (state.getLastUpdated() != null && (watermark == null || state.getLastUpdated().after(watermark))) {
+				watermark = state.getLastUpdated();
+			}
+		}
+		// the executions not read any more are finished and older than the
+		// watermark, so they will not be read again
+		jobExecutionVersions = currentJobExecutionVersions;
+		stepExecutionVersions = currentStepExecutionVersions;
+		states = Collections.unmodifiableList(current);
+		if (!changes.isEmpty()) {
+			for (ExecutionChangeListener listener : listeners) {
+				listener.onChanges(changes);
+			}
+		}
+		return changes;
+	}
+
+	/**
+	 * Register a listener of the changes. The listener first receives the
+	 * states read by the last detection, if any, so that these states followed
+	 * by the changes of the next detections are always the current ones.
+	 *
+	 * @param listener the listener
+	 */
+	public synchronized void addListener(ExecutionChangeListener listener) {
+		if (!states.isEmpty()) {
+			listener.onChanges(states);
+		}
+		listeners.add(listener);
+	}
+
+	/**
+	 * @param listener a listener registered before
+	 */
+	public void removeListener(ExecutionChangeListener listener) {
+		listeners.remove(listener);
+	}
+
+	/**
+	 * @return the states read by the last detection
+	 */
+	public List<ExecutionState> getStates() {
+		return states;
+	}
+
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright 2006-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.batch.admin.service;
+
+import java.util.List;
+
+/**
+ * Listener of the changes found by an {@link ExecutionChangeDetector},
+ * whichever consumer triggered the detection.
+ *
+ * @see ExecutionChangeDetector#addListener(ExecutionChangeListener)
+ */
+public interface ExecutionChangeListener {
+
+	/**
+	 * Receive the states of the new and changed executions. Called while the
+	 * detector is locked, so it must not block.
+	 *
+	 * @param states the states, in the order of
+	 * {@link JobService#getExecutionStates(java.util.Date)}
+	 */
+	void onChanges(List<ExecutionState> states);
+
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright 2006-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.batch.admin.service;
+
+import java.util.Date;
+
+import org.springframework.batch.core.BatchStatus;
+
+/**
+ * Lightweight state of a job execution or of a step execution, read without
+ * parameters nor execution contexts, to detect and report the changes of
+ * running executions. The counts of a job execution state are 0.
+ *
+ */
+public class ExecutionState {
+
+	private final Long jobExecutionId;
+
+	private final Long stepExecutionId;
+
+	private final String name;
+
+	private final Integer version;
+
+	private final BatchStatus status;
+
+	private final String exitCode;
+
+	private final Date startTime;
+
+	private final Date endTime;
+
+	private final Date lastUpdated;
+
+	private final int readCount;
+
+	private final int writeCount;
+
+	private final int commitCount;
+
+	private final int rollbackCount;
+
+	private final int skipCount;
+
+	private final int filterCount;
+
+	public ExecutionState(Long jobExecutionId, Long stepExecutionId, String name, Integer version,
+			BatchStatus status, String exitCode, Date startTime, Date endTime, Date lastUpdated, int readCount,
+			int writeCount, int commitCount, int rollbackCount, int skipCount, int filterCount) {
+		this.jobExecutionId = jobExecutionId;
+		this.stepExecutionId = stepExecutionId;
+		this.name = name;
+		this.version = version;
+		this.status = status;
+		this.exitCode = exitCode;
+		this.startTime = startTime;
+		this.endTime = endTime;
+		this.lastUpdated = lastUpdated;
+		this.readCount = readCount;
+		this.writeCount = writeCount;
+		this.commitCount = commitCount;
+		this.rollbackCount = rollbackCount;
+		this.skipCount = skipCount;
+		this.filterCount = filterCount;
+	}
+
+	/**
+	 * @return true for the state of a job execution, false for the state of a
+	 * step execution
+	 */
+	public boolean isJobExecution() {
+		return stepExecutionId == null;
+	}
+
+	public Long getJobExecutionId() {
+		return jobExecutionId;
+	}
+
+	/**
+	 * @return the id of the step execution, or null for a job execution
+	 */
+	public Long getStepExecutionId() {
+		return stepExecutionId;
+	}
+
+	/**
+	 * @return the job name of a job execution, or the step name of a step
+	 * execution
+	 */
+	public String getName() {
+		return name;
+	}
+
+	public Integer getVersion() {
+		return version;
+	}
+
+	public BatchStatus getStatus() {
+		return status;
+	}
+
+	public String getExitCode() {
+		return exitCode;
+	}
+
+	public Date getStartTime() {
+		return startTime;
+	}
+
+	public Date getEndTime() {
+		return endTime;
+	}
+
+	public Date getLastUpdated() {
+		return lastUpdated;
+	}
+
+	public int getReadCount() {
+		return readCount;
+	}
+
+	public int getWriteCount() {
+		return writeCount;
+	}
+
+	public int getCommitCount() {
+		return commitCount;
+	}
+
+	public int getRollbackCount() {
+		return rollbackCount;
+	}
+
+	public int getSkipCount() {
+		return skipCount;
+	}
+
+	public int getFilterCount() {
+		return filterCount;
+	}
+
+	@Override
+	public String toString() {
+		return (isJobExecution() ? "JobExecution: id=" + jobExecutionId : "StepExecution: id=" + stepExecutionId)
+				+ ", name=" + name + ", version=" + version + ", status=" + status;
+	}
+
+}
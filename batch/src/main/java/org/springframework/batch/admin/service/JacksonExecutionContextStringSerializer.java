@@ -0,0 +1,192 @@
+/*
+ * Copyright 2006-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.batch.admin.service;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.batch.core.repository.ExecutionContextSerializer;
+import org.springframework.util.StreamUtils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * {@link ExecutionContextSerializer} reading the execution contexts with
+ * Jackson instead of XStream. It reads the contexts written by the XStream
+ * serializer of Spring Batch (XML mapped to JSON by Jettison, as
+ * <code>{"map":[{"entry":[{"string":["key","value"]}, ...]}]}</code>), where
+ * the type of each value is named.
+ *
+ * Only the entries with a string key and a value of a simple type (string,
+ * number, boolean) are read by Jackson. Any other context is handed over to a
+ * fallback serializer, which also serializes the contexts, so that their
+ * format does not change.
+ *
+ */
+public class JacksonExecutionContextStringSerializer implements ExecutionContextSerializer {
+
+	private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+	private final ExecutionContextSerializer fallback;
+
+	/**
+	 * @param fallback the serializer writing the contexts and reading those
+	 * with values of other types, usually an
+	 * {@link org.springframework.batch.core.repository.dao.XStreamExecutionContextStringSerializer}
+	 */
+	public JacksonExecutionContextStringSerializer(ExecutionContextSerializer fallback) {
+		this.fallback = fallback;
+	}
+
+	@Override
+	public void serialize(Map<String, Object> context, OutputStream out) throws IOException {
+		fallback.serialize(context, out);
+	}
+
+	@Override
+	public Map<String, Object> deserialize(InputStream in) throws IOException {
+		byte[] bytes = StreamUtils.copyToByteArray(in);
+		Map<String, Object> context = null;
+		try {
+			context = read(OBJECT_MAPPER.readTree(bytes));
+		}
+		catch (IOException e) {
+			// not JSON, left to the fallback serializer
+		}
+		return context == null ? fallback.deserialize(new ByteArrayInputStream(bytes)) : context;
+	}
+
+	/**
+	 * @return the context, or null if it is not read by this serializer
+	 */
+	private static Map<String, Object> read(JsonNode root) {
+		if (root == null || !root.isObject()) {
+			return null;
+		}
+		if (root.size() != 1 || !root.has("map")) {
+			// any other layout does not name the types of the values
+			return null;
+		}
+		return readMap(root.get("map"));
+	}
+
+	private static Map<String, Object> readMap(JsonNode map) {
+		Map<String, Object> context = new HashMap<String, Object>();
+		for (JsonNode element : asList(map)) {
+			if (element.isTextual() && element.asText().isEmpty()) {
+				// empty map, written as {"map":[""]}
+				continue;
+			}
+			if (!element.isObject() || element.size() != 1 || !element.has("entry")) {
+				return null;
+			}
+			for (JsonNode entry : asList(element.get("entry"))) {
+				if (!readEntry(entry, context)) {
+					return null;
+				}
+			}
+		}
+		return context;
+	}
+
+	/**
+	 * Read an entry such as <code>{"string":["key","value"]}</code> or
+	 * <code>{"string":"key","long":5}</code>, where the names are the XStream
+	 * aliases of the types and the key comes first.
+	 */
+	private static boolean readEntry(JsonNode entry, Map<String, Object> context) {
+		if (!entry.isObject()) {
+			return false;
+		}
+		List<String> types = new ArrayList<String>(2);
+		List<JsonNode> values = new ArrayList<JsonNode>(2);
+		for (Iterator<Map.Entry<String, JsonNode>> fields = entry.fields(); fields.hasNext();) {
+			Map.Entry<String, JsonNode> field = fields.next();
+			for (JsonNode value : asList(field.getValue())) {
+				if (!value.isValueNode()) {
+					return false;
+				}
+				types.add(field.getKey());
+				values.add(value);
+			}
+		}
+		if (values.size() != 2 || !"string".equals(types.get(0))) {
+			return false;
+		}
+		String type = types.get(1);
+		String text = values.get(1).asText();
+		Object value;
+		if ("string".equals(type)) {
+			value = text;
+		}
+		else if ("int".equals(type)) {
+			value = Integer.valueOf(text);
+		}
+		else if ("long".equals(type)) {
+			value = Long.valueOf(text);
+		}
+		else if ("double".equals(type)) {
+			value = Double.valueOf(text);
+		}
+		else if ("float".equals(type)) {
+			value = Float.valueOf(text);
+		}
+		else if ("boolean".equals(type)) {
+			value = Boolean.valueOf(text);
+		}
+		else if ("short".equals(type)) {
+			value = Short.valueOf(text);
+		}
+		else if ("byte".equals(type)) {
+			value = Byte.valueOf(text);
+		}
+		else if ("big-decimal".equals(type)) {
+			value = new BigDecimal(text);
+		}
+		else if ("big-int".equals(type)) {
+			value = new BigInteger(text);
+		}
+		else {
+			return false;
+		}
+		context.put(values.get(0).asText(), value);
+		return true;
+	}
+
+	private static List<JsonNode> asList(JsonNode node) {
+		List<JsonNode> nodes = new ArrayList<JsonNode>();
+		if (node.isArray()) {
+			for (JsonNode element : node) {
+				nodes.add(element);
+			}
+		}
+		else {
+			nodes.add(node);
+		}
+		return nodes;
+	}
+
+}
@@ -17,27 +17,44 @@ package org.springframework.batch.admin.service;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Date;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
 import javax.sql.DataSource;
 
+import org.springframework.batch.admin.history.CumulativeHistory;
+import org.springframework.batch.admin.history.JobExecutionHistory;
 import org.springframework.batch.core.BatchStatus;
 import org.springframework.batch.core.ExitStatus;
 import org.springframework.batch.core.JobExecution;
 import org.springframework.batch.core.JobInstance;
+import org.springframework.batch.core.JobParameter;
+import org.springframework.batch.core.JobParameter.ParameterType;
 import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.StepExecution;
 import org.springframework.batch.core.repository.dao.JdbcJobExecutionDao;
 import org.springframework.batch.item.database.Order;
 import org.springframework.batch.item.database.PagingQueryProvider;
 import org.springframework.batch.item.database.support.SqlPagingQueryProviderFactoryBean;
+import org.springframework.batch.support.DatabaseType;
 import org.springframework.dao.IncorrectResultSizeDataAccessException;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.support.MetaDataAccessException;
 import org.springframework.jdbc.support.incrementer.AbstractDataFieldMaxValueIncrementer;
+import org.springframework.jdbc.support.lob.DefaultLobHandler;
+import org.springframework.jdbc.support.lob.LobHandler;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.util.Assert;
 
 /**
@@ -52,6 +69,17 @@ public class JdbcSearchableJobExecutionDao extends JdbcJobExecutionDao implement
 	private static final String GET_COUNT_BY_JOB_NAME = "SELECT COUNT(1) from %PREFIX%JOB_EXECUTION E, %PREFIX%JOB_INSTANCE I "
 			+ "where E.JOB_INSTANCE_ID=I.JOB_INSTANCE_ID and I.JOB_NAME=?";
 
+	private static final String COUNT_BY_JOB_NAME_AFTER_ID = "SELECT I.JOB_NAME, COUNT(1), MAX(E.JOB_EXECUTION_ID) "
+			+ "from %PREFIX%JOB_EXECUTION E, %PREFIX%JOB_INSTANCE I "
+			+ "where E.JOB_INSTANCE_ID=I.JOB_INSTANCE_ID and E.JOB_EXECUTION_ID > ? group by I.JOB_NAME";
+
+	private static final String GET_JOB_SUMMARIES = "SELECT C.JOB_NAME, C.INSTANCE_COUNT, C.EXECUTION_COUNT,"
+			+ " L.JOB_EXECUTION_ID, L.STATUS, L.START_TIME, L.END_TIME from (SELECT I.JOB_NAME,"
+			+ " COUNT(DISTINCT I.JOB_INSTANCE_ID) as INSTANCE_COUNT, COUNT(E.JOB_EXECUTION_ID) as EXECUTION_COUNT,"
+			+ " MAX(E.JOB_EXECUTION_ID) as LAST_ID from %PREFIX%JOB_INSTANCE I left outer join %PREFIX%JOB_EXECUTION E"
+			+ " on E.JOB_INSTANCE_ID=I.JOB_INSTANCE_ID where I.JOB_NAME in (%NAMES%) group by I.JOB_NAME) C"
+			+ " left outer join %PREFIX%JOB_EXECUTION L on L.JOB_EXECUTION_ID=C.LAST_ID";
+
 	private static final String FIELDS = "E.JOB_EXECUTION_ID, E.START_TIME, E.END_TIME, E.STATUS, E.EXIT_CODE, E.EXIT_MESSAGE, "
 			+ "E.CREATE_TIME, E.LAST_UPDATED, E.VERSION, I.JOB_INSTANCE_ID, I.JOB_NAME";
 
@@ -59,10 +87,76 @@ public class JdbcSearchableJobExecutionDao extends JdbcJobExecutionDao implement
 			+ " from %PREFIX%JOB_EXECUTION E, %PREFIX%JOB_INSTANCE I "
 			+ "where E.JOB_INSTANCE_ID=I.JOB_INSTANCE_ID and E.END_TIME is NULL";
 
+	private static final String GET_EXECUTION_STATES = "SELECT E.JOB_EXECUTION_ID, I.JOB_NAME, E.VERSION, E.STATUS,"
+			+ " E.EXIT_CODE, E.START_TIME, E.END_TIME, E.LAST_UPDATED, S.STEP_EXECUTION_ID, S.STEP_NAME, S.VERSION,"
+			+ " S.STATUS, S.EXIT_CODE, S.START_TIME, S.END_TIME, S.LAST_UPDATED, S.READ_COUNT, S.WRITE_COUNT,"
+			+ " S.COMMIT_COUNT, S.ROLLBACK_COUNT, S.READ_SKIP_COUNT + S.PROCESS_SKIP_COUNT + S.WRITE_SKIP_COUNT,"
+			+ " S.FILTER_COUNT from %PREFIX%JOB_INSTANCE I join %PREFIX%JOB_EXECUTION E"
+			+ " on E.JOB_INSTANCE_ID=I.JOB_INSTANCE_ID"
+			+ " left outer join %PREFIX%STEP_EXECUTION S on S.JOB_EXECUTION_ID=E.JOB_EXECUTION_ID"
+			+ " where E.END_TIME is NULL%UPDATED_SINCE% order by E.JOB_EXECUTION_ID, S.STEP_EXECUTION_ID";
+
+	private static final String GET_EXECUTION_STATES_BY_ID = GET_EXECUTION_STATES.replace(
+			"E.END_TIME is NULL%UPDATED_SINCE%", "E.JOB_EXECUTION_ID = ?");
+
+	private static final String GET_STEP_SUMMARIES_FROM_IDS = "SELECT S.JOB_EXECUTION_ID, S.STEP_EXECUTION_ID,"
+			+ " S.STEP_NAME, S.STATUS, S.EXIT_CODE, S.EXIT_MESSAGE from %PREFIX%STEP_EXECUTION S"
+			+ " where S.JOB_EXECUTION_ID in (%IDS%) order by S.STEP_EXECUTION_ID";
+
+	private static final String JOB_DURATION_HISTORY = "SELECT COUNT(*), SUM(%DURATION%), %VAR_POP%(%DURATION%) * COUNT(*),"
+			+ " MIN(%DURATION%), MAX(%DURATION%) from %PREFIX%JOB_EXECUTION E, %PREFIX%JOB_INSTANCE I"
+			+ " where E.JOB_INSTANCE_ID=I.JOB_INSTANCE_ID and I.JOB_NAME=?"
+			+ " and E.START_TIME is not NULL and E.END_TIME is not NULL";
+
+	private static final String GET_SHORT_CONTEXT = "SELECT SHORT_CONTEXT from %PREFIX%JOB_EXECUTION_CONTEXT"
+			+ " where JOB_EXECUTION_ID = ?";
+
+	private static final String GET_SERIALIZED_CONTEXT = "SELECT SHORT_CONTEXT, SERIALIZED_CONTEXT"
+			+ " from %PREFIX%JOB_EXECUTION_CONTEXT where JOB_EXECUTION_ID = ?";
+
+	private static final LobHandler LOB_HANDLER = new DefaultLobHandler();
+
+	/**
+	 * Maps the SHORT_CONTEXT column, or the SERIALIZED_CONTEXT column when it
+	 * is selected and not null (the short context being then truncated).
+	 */
+	static final RowMapper<String> SERIALIZED_CONTEXT_ROW_MAPPER = new RowMapper<String>() {
+		@Override
+		public String mapRow(ResultSet rs, int rowNum) throws SQLException {
+			String serializedContext = null;
+			if (rs.getMetaData().getColumnCount() > 1) {
+				serializedContext = LOB_HANDLER.getClobAsString(rs, 2);
+			}
+			return serializedContext == null ? rs.getString(1) : serializedContext;
+		}
+	};
+
+	private static final String FIND_PARAMS_FROM_IDS = "SELECT JOB_EXECUTION_ID, KEY_NAME, TYPE_CD, STRING_VAL, DATE_VAL, "
+			+ "LONG_VAL, DOUBLE_VAL, IDENTIFYING from %PREFIX%JOB_EXECUTION_PARAMS where JOB_EXECUTION_ID in (%IDS%)";
+
+	/**
+	 * Maximum number of ids bound in a single IN clause (Oracle rejects lists
+	 * longer than 1000 expressions).
+	 */
+	static final int MAX_IN_CLAUSE_SIZE = 1000;
+
+	/**
+	 * Number of job executions read by each transaction of a stream.
+	 */
+	private static final int STREAM_CHUNK_SIZE = MAX_IN_CLAUSE_SIZE;
+
 	private PagingQueryProvider allExecutionsPagingQueryProvider;
 
+	private PagingQueryProvider allExecutionsAscendingPagingQueryProvider;
+
 	private PagingQueryProvider byJobNamePagingQueryProvider;
 
+	private String durationExpression;
+
+	private String varianceFunction;
+
+	private TransactionTemplate readOnlyTransactionTemplate;
+
 	private DataSource dataSource;
 
 	/**
@@ -91,7 +185,13 @@ public class JdbcSearchableJobExecutionDao extends JdbcJobExecutionDao implement
 		});
 
 		allExecutionsPagingQueryProvider = getPagingQueryProvider();
+		allExecutionsAscendingPagingQueryProvider = getPagingQueryProvider(null, null, Order.ASCENDING);
 		byJobNamePagingQueryProvider = getPagingQueryProvider("I.JOB_NAME=?");
+		DatabaseType databaseType = getDatabaseType(dataSource);
+		durationExpression = getDurationExpression(databaseType, "E.START_TIME", "E.END_TIME");
+		varianceFunction = getVarianceFunction(databaseType);
+		readOnlyTransactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+		readOnlyTransactionTemplate.setReadOnly(true);
 
 		super.afterPropertiesSet();
 
@@ -120,13 +220,23 @@ public class JdbcSearchableJobExecutionDao extends JdbcJobExecutionDao implement
 	 * @throws Exception
 	 */
 	private PagingQueryProvider getPagingQueryProvider(String fromClause, String whereClause) throws Exception {
+		return getPagingQueryProvider(fromClause, whereClause, Order.DESCENDING);
+	}
+
+	/**
+	 * @return a {@link PagingQueryProvider} with a where clause to narrow the
+	 * query, sorted by job execution id in the given order
+	 * @throws Exception
+	 */
+	private PagingQueryProvider getPagingQueryProvider(String fromClause, String whereClause, Order order)
+			throws Exception {
 		SqlPagingQueryProviderFactoryBean factory = new SqlPagingQueryProviderFactoryBean();
 		factory.setDataSource(dataSource);
 		fromClause = "%PREFIX%JOB_EXECUTION E, %PREFIX%JOB_INSTANCE I" + (fromClause == null ? "" : ", " + fromClause);
 		factory.setFromClause(getQuery(fromClause));
 		factory.setSelectClause(FIELDS);
 		Map<String, Order> sortKeys = new HashMap<String, Order>();
-		sortKeys.put("JOB_EXECUTION_ID", Order.DESCENDING);
+		sortKeys.put("JOB_EXECUTION_ID", order);
 		factory.setSortKeys(sortKeys);
 		whereClause = "E.JOB_INSTANCE_ID=I.JOB_INSTANCE_ID" + (whereClause == null ? "" : " and " + whereClause);
 		factory.setWhereClause(whereClause);
@@ -150,12 +260,76 @@ public class JdbcSearchableJobExecutionDao extends JdbcJobExecutionDao implement
 		return getJdbcTemplate().queryForObject(getQuery(GET_COUNT_BY_JOB_NAME), Integer.class, jobName);
 	}
 
+	/**
+	 * @see SearchableJobExecutionDao#countJobExecutionsByJobName(long)
+	 */
+	@Override
+	public List<JobCount> countJobExecutionsByJobName(long afterJobExecutionId) {
+		return getJdbcTemplate().query(getQuery(COUNT_BY_JOB_NAME_AFTER_ID), JobCount.ROW_MAPPER,
+				afterJobExecutionId);
+	}
+
+	/**
+	 * @see SearchableJobExecutionDao#getJobSummaries(Collection)
+	 */
+	@Override
+	public List<JobSummary> getJobSummaries(Collection<String> jobNames) {
+		List<String> names = new ArrayList<String>(jobNames);
+		List<JobSummary> summaries = new ArrayList<JobSummary>();
+		for (int i = 0; i < names.size(); i += MAX_IN_CLAUSE_SIZE) {
+			List<String> chunk = names.subList(i, Math.min(i + MAX_IN_CLAUSE_SIZE, names.size()));
+			summaries.addAll(getJdbcTemplate().query(
+					getQuery(GET_JOB_SUMMARIES).replace("%NAMES%", getPlaceholders(chunk.size())),
+					JobSummary.ROW_MAPPER, chunk.toArray()));
+		}
+		return summaries;
+	}
+
+	/**
+	 * @see SearchableJobExecutionDao#getExecutionStates(Date)
+	 */
+	@Override
+	public List<ExecutionState> getExecutionStates(Date updatedSince) {
+		ExecutionStateCallbackHandler handler = new ExecutionStateCallbackHandler();
+		if (updatedSince == null) {
+			getJdbcTemplate().query(getQuery(GET_EXECUTION_STATES).replace("%UPDATED_SINCE%", ""), handler);
+		}
+		else {
+			getJdbcTemplate().query(
+					getQuery(GET_EXECUTION_STATES).replace("%UPDATED_SINCE%", " or E.LAST_UPDATED >= ?"), handler,
+					updatedSince);
+		}
+		return handler.states;
+	}
+
+	/**
+	 * @see SearchableJobExecutionDao#getJobExecutionStates(Long)
+	 */
+	@Override
+	public List<ExecutionState> getJobExecutionStates(Long jobExecutionId) {
+		ExecutionStateCallbackHandler handler = new ExecutionStateCallbackHandler();
+		getJdbcTemplate().query(getQuery(GET_EXECUTION_STATES_BY_ID), handler, jobExecutionId);
+		return handler.states;
+	}
+
+	/**
+	 * @see SearchableJobExecutionDao#getSerializedExecutionContext(Long,
+	 * boolean)
+	 */
+	@Override
+	public String getSerializedExecutionContext(Long jobExecutionId, boolean shortContext) {
+		List<String> contexts = getJdbcTemplate().query(
+				getQuery(shortContext ? GET_SHORT_CONTEXT : GET_SERIALIZED_CONTEXT), SERIALIZED_CONTEXT_ROW_MAPPER,
+				jobExecutionId);
+		return contexts.isEmpty() ? null : contexts.get(0);
+	}
+
 	/**
 	 * @see SearchableJobExecutionDao#getRunningJobExecutions()
 	 */
 	@Override
 	public Collection<JobExecution> getRunningJobExecutions() {
-		return getJdbcTemplate().query(getQuery(GET_RUNNING_EXECUTIONS), new JobExecutionRowMapper());
+		return queryJobExecutions(getQuery(GET_RUNNING_EXECUTIONS));
 	}
 
 	/**
@@ -164,14 +338,13 @@ public class JdbcSearchableJobExecutionDao extends JdbcJobExecutionDao implement
 	@Override
 	public List<JobExecution> getJobExecutions(String jobName, int start, int count) {
 		if (start <= 0) {
-			return getJdbcTemplate().query(byJobNamePagingQueryProvider.generateFirstPageQuery(count),
-					new JobExecutionRowMapper(), jobName);
+			return queryJobExecutions(byJobNamePagingQueryProvider.generateFirstPageQuery(count), jobName);
 		}
 		try {
 			Long startAfterValue = getJdbcTemplate().queryForObject(
 					byJobNamePagingQueryProvider.generateJumpToItemQuery(start, count), Long.class, jobName);
-			return getJdbcTemplate().query(byJobNamePagingQueryProvider.generateRemainingPagesQuery(count),
-					new JobExecutionRowMapper(), jobName, startAfterValue);
+			return queryJobExecutions(byJobNamePagingQueryProvider.generateRemainingPagesQuery(count), jobName,
+					startAfterValue);
 		}
 		catch (IncorrectResultSizeDataAccessException e) {
 			return Collections.emptyList();
@@ -184,20 +357,338 @@ public class JdbcSearchableJobExecutionDao extends JdbcJobExecutionDao implement
 	@Override
 	public List<JobExecution> getJobExecutions(int start, int count) {
 		if (start <= 0) {
-			return getJdbcTemplate().query(allExecutionsPagingQueryProvider.generateFirstPageQuery(count),
-					new JobExecutionRowMapper());
+			return queryJobExecutions(allExecutionsPagingQueryProvider.generateFirstPageQuery(count));
 		}
 		try {
 			Long startAfterValue = getJdbcTemplate().queryForObject(
 					allExecutionsPagingQueryProvider.generateJumpToItemQuery(start, count), Long.class);
-			return getJdbcTemplate().query(allExecutionsPagingQueryProvider.generateRemainingPagesQuery(count),
-					new JobExecutionRowMapper(), startAfterValue);
+			return queryJobExecutions(allExecutionsPagingQueryProvider.generateRemainingPagesQuery(count),
+					startAfterValue);
 		}
 		catch (IncorrectResultSizeDataAccessException e) {
 			return Collections.emptyList();
 		}
 	}
 
+	/**
+	 * @see SearchableJobExecutionDao#getJobExecutionsAfter(long, int)
+	 */
+	@Override
+	public List<JobExecution> getJobExecutionsAfter(long afterExecutionId, int count) {
+		return queryJobExecutions(allExecutionsPagingQueryProvider.generateRemainingPagesQuery(count),
+				afterExecutionId);
+	}
+
+	/**
+	 * @see SearchableJobExecutionDao#getJobExecutionsBefore(long, int)
+	 */
+	@Override
+	public List<JobExecution> getJobExecutionsBefore(long beforeExecutionId, int count) {
+		List<JobExecution> jobExecutions = new ArrayList<JobExecution>(queryJobExecutions(
+				allExecutionsAscendingPagingQueryProvider.generateRemainingPagesQuery(count), beforeExecutionId));
+		Collections.reverse(jobExecutions);
+		return jobExecutions;
+	}
+
+	/**
+	 * @see SearchableJobExecutionDao#getJobExecutionsWithStepExecutions(String, int)
+	 */
+	@Override
+	public List<JobExecution> getJobExecutionsWithStepExecutions(String jobName, int count) {
+		final List<JobExecution> jobExecutions = new ArrayList<JobExecution>();
+		streamJobExecutions(jobName, count, true, new ExecutionCallback<JobExecution>() {
+			@Override
+			public void handle(JobExecution jobExecution) {
+				jobExecutions.add(jobExecution);
+			}
+		});
+		return jobExecutions;
+	}
+
+	/**
+	 * @see SearchableJobExecutionDao#streamJobExecutions(String, int, boolean,
+	 * ExecutionCallback)
+	 */
+	@Override
+	public void streamJobExecutions(final String jobName, int count, final boolean withStepExecutions,
+			ExecutionCallback<JobExecution> callback) {
+		Long lastId = null;
+		int remaining = count;
+		while (remaining > 0) {
+			final Long afterId = lastId;
+			final int size = Math.min(STREAM_CHUNK_SIZE, remaining);
+			// the connection is released before the callback writes to a
+			// possibly slow client
+			List<JobExecution> chunk = readOnlyTransactionTemplate
+					.execute(new TransactionCallback<List<JobExecution>>() {
+						@Override
+						public List<JobExecution> doInTransaction(TransactionStatus status) {
+							return getJobExecutionChunk(jobName, afterId, size, withStepExecutions);
+						}
+					});
+			for (JobExecution jobExecution : chunk) {
+				callback.handle(jobExecution);
+			}
+			if (chunk.size() < size) {
+				return;
+			}
+			remaining -= size;
+			lastId = chunk.get(size - 1).getId();
+		}
+	}
+
+	/**
+	 * Read a chunk of a stream of job executions, seeking past the last
+	 * execution of the previous chunk.
+	 *
+	 * @param afterId the id of the last execution of the previous chunk, or
+	 * null for the first chunk
+	 */
+	private List<JobExecution> getJobExecutionChunk(String jobName, Long afterId, int count,
+			boolean withStepExecutions) {
+		List<JobExecution> jobExecutions;
+		if (afterId == null) {
+			jobExecutions = queryJobExecutions(byJobNamePagingQueryProvider.generateFirstPageQuery(count), jobName);
+		}
+		else {
+			jobExecutions = queryJobExecutions(byJobNamePagingQueryProvider.generateRemainingPagesQuery(count),
+					jobName, afterId);
+		}
+		if (withStepExecutions && !jobExecutions.isEmpty()) {
+			addStepExecutionSummaries(jobExecutions);
+		}
+		return jobExecutions;
+	}
+
+	/**
+	 * Add to job executions their step executions, with only their name,
+	 * status and exit status, with a single IN-list query.
+	 */
+	private void addStepExecutionSummaries(List<JobExecution> jobExecutions) {
+		final Map<Long, JobExecution> jobExecutionsById = new HashMap<Long, JobExecution>();
+		for (JobExecution jobExecution : jobExecutions) {
+			jobExecutionsById.put(jobExecution.getId(), jobExecution);
+		}
+		final Map<Long, List<StepExecution>> stepExecutions = new LinkedHashMap<Long, List<StepExecution>>();
+		getJdbcTemplate().query(
+				getQuery(GET_STEP_SUMMARIES_FROM_IDS).replace("%IDS%", getPlaceholders(jobExecutionsById.size())),
+				new RowCallbackHandler() {
+					@Override
+					public void processRow(ResultSet rs) throws SQLException {
+						Long jobExecutionId = rs.getLong(1);
+						StepExecution stepExecution = new StepExecution(rs.getString(3),
+								jobExecutionsById.get(jobExecutionId));
+						stepExecution.setId(rs.getLong(2));
+						stepExecution.setStatus(BatchStatus.valueOf(rs.getString(4)));
+						stepExecution.setExitStatus(new ExitStatus(rs.getString(5), rs.getString(6)));
+						List<StepExecution> jobStepExecutions = stepExecutions.get(jobExecutionId);
+						if (jobStepExecutions == null) {
+							jobStepExecutions = new ArrayList<StepExecution>();
+							stepExecutions.put(jobExecutionId, jobStepExecutions);
+						}
+						jobStepExecutions.add(stepExecution);
+					}
+				}, jobExecutionsById.keySet().toArray());
+		for (Map.Entry<Long, List<StepExecution>> entry : stepExecutions.entrySet()) {
+			jobExecutionsById.get(entry.getKey()).addStepExecutions(entry.getValue());
+		}
+	}
+
+	/**
+	 * Run a query for {@link JobExecution JobExecutions} and attach their
+	 * {@link JobParameters} with one IN-list query per chunk of executions
+	 * instead of one query per row.
+	 *
+	 * @param sql the query selecting the job execution fields
+	 * @param args the query arguments
+	 * @return the job executions with their parameters
+	 */
+	private List<JobExecution> queryJobExecutions(String sql, Object... args) {
+		return addJobParameters(getJdbcTemplate().query(sql, new JobExecutionRowMapper(false), args));
+	}
+
+	/**
+	 * @param jobExecutions job executions mapped without their parameters
+	 * @return copies of the job executions with their parameters
+	 */
+	private List<JobExecution> addJobParameters(List<JobExecution> jobExecutions) {
+		if (jobExecutions.isEmpty()) {
+			return jobExecutions;
+		}
+
+		List<Long> ids = new ArrayList<Long>(jobExecutions.size());
+		for (JobExecution jobExecution : jobExecutions) {
+			ids.add(jobExecution.getId());
+		}
+		Map<Long, JobParameters> jobParameters = findJobParameters(ids);
+
+		List<JobExecution> result = new ArrayList<JobExecution>(jobExecutions.size());
+		for (JobExecution jobExecution : jobExecutions) {
+			JobParameters parameters = jobParameters.get(jobExecution.getId());
+			result.add(copyJobExecution(jobExecution, parameters == null ? new JobParameters() : parameters));
+		}
+		return result;
+	}
+
+	/**
+	 * Load the {@link JobParameters} of several job executions at once.
+	 *
+	 * @param executionIds the ids of the job executions
+	 * @return the job parameters keyed by job execution id (executions
+	 * without parameters are absent)
+	 */
+	protected Map<Long, JobParameters> findJobParameters(List<Long> executionIds) {
+		final Map<Long, Map<String, JobParameter>> parameters = new HashMap<Long, Map<String, JobParameter>>();
+		RowCallbackHandler handler = new RowCallbackHandler() {
+			@Override
+			public void processRow(ResultSet rs) throws SQLException {
+				Long id = rs.getLong(1);
+				ParameterType type = ParameterType.valueOf(rs.getString(3));
+				boolean identifying = "Y".equalsIgnoreCase(rs.getString(8));
+				JobParameter value;
+				if (type == ParameterType.STRING) {
+					value = new JobParameter(rs.getString(4), identifying);
+				}
+				else if (type == ParameterType.LONG) {
+					value = new JobParameter(rs.getLong(6), identifying);
+				}
+				else if (type == ParameterType.DOUBLE) {
+					value = new JobParameter(rs.getDouble(7), identifying);
+				}
+				else {
+					value = new JobParameter(rs.getTimestamp(5), identifying);
+				}
+				Map<String, JobParameter> map = parameters.get(id);
+				if (map == null) {
+					map = new LinkedHashMap<String, JobParameter>();
+					parameters.put(id, map);
+				}
+				map.put(rs.getString(2), value);
+			}
+		};
+
+		for (int i = 0; i < executionIds.size(); i += MAX_IN_CLAUSE_SIZE) {
+			List<Long> chunk = executionIds.subList(i, Math.min(i + MAX_IN_CLAUSE_SIZE, executionIds.size()));
+			getJdbcTemplate().query(getQuery(FIND_PARAMS_FROM_IDS).replace("%IDS%", getPlaceholders(chunk.size())),
+					handler, chunk.toArray());
+		}
+
+		Map<Long, JobParameters> result = new HashMap<Long, JobParameters>();
+		for (Map.Entry<Long, Map<String, JobParameter>> entry : parameters.entrySet()) {
+			result.put(entry.getKey(), new JobParameters(entry.getValue()));
+		}
+		return result;
+	}
+
+	/**
+	 * @see SearchableJobExecutionDao#getJobExecutionHistory(String)
+	 */
+	@Override
+	public JobExecutionHistory getJobExecutionHistory(final String jobName) {
+		if (durationExpression == null) {
+			return null;
+		}
+		return getJdbcTemplate().queryForObject(
+				getQuery(JOB_DURATION_HISTORY).replace("%DURATION%", durationExpression).replace("%VAR_POP%",
+						varianceFunction),
+				new RowMapper<JobExecutionHistory>() {
+					@Override
+					public JobExecutionHistory mapRow(ResultSet rs, int rowNum) throws SQLException {
+						return new JobExecutionHistory(jobName, new CumulativeHistory(rs.getInt(1), rs.getDouble(2),
+								rs.getDouble(3), rs.getDouble(4), rs.getDouble(5)));
+					}
+				}, jobName);
+	}
+
+	/**
+	 * @param dataSource the data source
+	 * @return the type of the database, or null if it is unknown
+	 */
+	static DatabaseType getDatabaseType(DataSource dataSource) {
+		try {
+			return DatabaseType.fromMetaData(dataSource);
+		}
+		catch (MetaDataAccessException e) {
+			return null;
+		}
+		catch (IllegalArgumentException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * @param databaseType the type of the database
+	 * @param startColumn the start time column
+	 * @param endColumn the end time column
+	 * @return an SQL expression computing the number of milliseconds between
+	 * the two timestamps, or null if it is not supported for this database
+	 */
+	static String getDurationExpression(DatabaseType databaseType, String startColumn, String endColumn) {
+		if (databaseType == null) {
+			return null;
+		}
+		switch (databaseType) {
+		case HSQL:
+		case H2:
+			return "DATEDIFF('ms', " + startColumn + ", " + endColumn + ")";
+		case MYSQL:
+			return "FLOOR(TIMESTAMPDIFF(MICROSECOND, " + startColumn + ", " + endColumn + ") / 1000)";
+		case POSTGRES:
+			return "FLOOR(EXTRACT(EPOCH FROM (" + endColumn + " - " + startColumn + ")) * 1000)";
+		case ORACLE:
+			String interval = "(" + endColumn + " - " + startColumn + ")";
+			return "FLOOR(EXTRACT(DAY FROM " + interval + ") * 86400000 + EXTRACT(HOUR FROM " + interval
+					+ ") * 3600000 + EXTRACT(MINUTE FROM " + interval + ") * 60000 + EXTRACT(SECOND FROM "
+					+ interval + ") * 1000)";
+		case SQLSERVER:
+			return "DATEDIFF(millisecond, " + startColumn + ", " + endColumn + ")";
+		default:
+			return null;
+		}
+	}
+
+	/**
+	 * @param databaseType the type of the database
+	 * @return the aggregate function computing the population variance,
+	 * which the database computes without the cancellation of a sum of
+	 * squares
+	 */
+	static String getVarianceFunction(DatabaseType databaseType) {
+		return databaseType == DatabaseType.SQLSERVER ? "VARP" : "VAR_POP";
+	}
+
+	/**
+	 * @param count the number of bind variables
+	 * @return a comma separated list of <code>count</code> placeholders
+	 */
+	static String getPlaceholders(int count) {
+		StringBuilder placeholders = new StringBuilder(count * 2);
+		for (int i = 0; i < count; i++) {
+			if (i > 0) {
+				placeholders.append(',');
+			}
+			placeholders.append('?');
+		}
+		return placeholders.toString();
+	}
+
+	/**
+	 * {@link JobParameters} can only be given at construction time so the
+	 * executions mapped without parameters are copied once they are known.
+	 */
+	private JobExecution copyJobExecution(JobExecution source, JobParameters jobParameters) {
+		JobExecution jobExecution = new JobExecution(source.getJobInstance(), jobParameters);
+		jobExecution.setId(source.getId());
+		jobExecution.setStartTime(source.getStartTime());
+		jobExecution.setEndTime(source.getEndTime());
+		jobExecution.setStatus(source.getStatus());
+		jobExecution.setExitStatus(source.getExitStatus());
+		jobExecution.setCreateTime(source.getCreateTime());
+		jobExecution.setLastUpdated(source.getLastUpdated());
+		jobExecution.setVersion(source.getVersion());
+		return jobExecution;
+	}
+
 	@Override
 	public void saveJobExecution(JobExecution jobExecution) {
 		throw new UnsupportedOperationException("SearchableJobExecutionDao is read only");
@@ -221,7 +712,18 @@ public class JdbcSearchableJobExecutionDao extends JdbcJobExecutionDao implement
 	 */
 	protected class JobExecutionRowMapper implements RowMapper<JobExecution> {
 
+		private final boolean loadJobParameters;
+
 		public JobExecutionRowMapper() {
+			this(true);
+		}
+
+		/**
+		 * @param loadJobParameters false to leave the parameters empty so that
+		 * they can be loaded for a whole page at once
+		 */
+		public JobExecutionRowMapper(boolean loadJobParameters) {
+			this.loadJobParameters = loadJobParameters;
 		}
 
 		@Override
@@ -229,7 +731,7 @@ public class JdbcSearchableJobExecutionDao extends JdbcJobExecutionDao implement
 			Long id = rs.getLong(1);
 			JobExecution jobExecution;
 			
-			JobParameters jobParameters = getJobParameters(id);
+			JobParameters jobParameters = loadJobParameters ? getJobParameters(id) : new JobParameters();
 
 			JobInstance jobInstance = new JobInstance(rs.getLong(10), rs.getString(11));
 			jobExecution = new JobExecution(jobInstance, jobParameters);
@@ -246,4 +748,32 @@ public class JdbcSearchableJobExecutionDao extends JdbcJobExecutionDao implement
 		}
 
 	}
+
+	/**
+	 * Collects the states of job executions, each followed by the states of
+	 * its step executions, from the rows of {@link #GET_EXECUTION_STATES}.
+	 */
+	private static class ExecutionStateCallbackHandler implements RowCallbackHandler {
+
+		private final List<ExecutionState> states = new ArrayList<ExecutionState>();
+
+		@Override
+		public void processRow(ResultSet rs) throws SQLException {
+			Long jobExecutionId = rs.getLong(1);
+			if (states.isEmpty() || !jobExecutionId.equals(states.get(states.size() - 1).getJobExecutionId())) {
+				states.add(new ExecutionState(jobExecutionId, null, rs.getString(2), rs.getInt(3),
+						BatchStatus.valueOf(rs.getString(4)), rs.getString(5), rs.getTimestamp(6),
+						rs.getTimestamp(7), rs.getTimestamp(8), 0, 0, 0, 0, 0, 0));
+			}
+			long stepExecutionId = rs.getLong(9);
+			if (!rs.wasNull()) {
+				states.add(new ExecutionState(jobExecutionId, stepExecutionId, rs.getString(10), rs.getInt(11),
+						BatchStatus.valueOf(rs.getString(12)), rs.getString(13), rs.getTimestamp(14),
+						rs.getTimestamp(15), rs.getTimestamp(16), rs.getInt(17), rs.getInt(18), rs.getInt(19),
+						rs.getInt(20), rs.getInt(21), rs.getInt(22)));
+			}
+		}
+
+	}
+
 }
@@ -15,6 +15,8 @@
  */
 package org.springframework.batch.admin.service;
 
+import java.util.List;
+
 import org.springframework.batch.core.repository.dao.JdbcJobExecutionDao;
 import org.springframework.batch.core.repository.dao.JdbcJobInstanceDao;
 import org.springframework.jdbc.support.incrementer.AbstractDataFieldMaxValueIncrementer;
@@ -28,6 +30,9 @@ public class JdbcSearchableJobInstanceDao extends JdbcJobInstanceDao implements
 	private static final String GET_COUNT_BY_JOB_NAME = "SELECT COUNT(1) from %PREFIX%JOB_INSTANCE "
 			+ "where JOB_NAME=?";
 
+	private static final String COUNT_BY_JOB_NAME_AFTER_ID = "SELECT JOB_NAME, COUNT(1), MAX(JOB_INSTANCE_ID) "
+			+ "from %PREFIX%JOB_INSTANCE where JOB_INSTANCE_ID > ? group by JOB_NAME";
+
 	/**
 	 * @see JdbcJobExecutionDao#afterPropertiesSet()
 	 */
@@ -53,4 +58,12 @@ public class JdbcSearchableJobInstanceDao extends JdbcJobInstanceDao implements
 		return getJdbcTemplate().queryForObject(getQuery(GET_COUNT_BY_JOB_NAME), Integer.class, name);
 	}
 
+	/**
+	 * @see SearchableJobInstanceDao#countJobInstancesByJobName(long)
+	 */
+	public List<JobCount> countJobInstancesByJobName(long afterJobInstanceId) {
+		return getJdbcTemplate().query(getQuery(COUNT_BY_JOB_NAME_AFTER_ID), JobCount.ROW_MAPPER,
+				afterJobInstanceId);
+	}
+
 }
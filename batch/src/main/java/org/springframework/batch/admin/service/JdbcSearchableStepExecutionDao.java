@@ -17,8 +17,11 @@ package org.springframework.batch.admin.service;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Date;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
@@ -28,19 +31,30 @@ import java.util.Set;
 
 import javax.sql.DataSource;
 
+import org.springframework.batch.admin.history.CumulativeHistory;
+import org.springframework.batch.admin.history.QuantileSketch;
+import org.springframework.batch.admin.history.StepExecutionHistory;
 import org.springframework.batch.core.BatchStatus;
 import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobInstance;
 import org.springframework.batch.core.StepExecution;
 import org.springframework.batch.core.repository.dao.JdbcJobExecutionDao;
 import org.springframework.batch.core.repository.dao.JdbcStepExecutionDao;
 import org.springframework.batch.item.database.Order;
 import org.springframework.batch.item.database.PagingQueryProvider;
 import org.springframework.batch.item.database.support.SqlPagingQueryProviderFactoryBean;
+import org.springframework.batch.support.DatabaseType;
 import org.springframework.batch.support.PatternMatcher;
 import org.springframework.dao.IncorrectResultSizeDataAccessException;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
 import org.springframework.jdbc.support.incrementer.AbstractDataFieldMaxValueIncrementer;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.util.Assert;
 
 /**
@@ -63,8 +77,47 @@ public class JdbcSearchableStepExecutionDao extends JdbcStepExecutionDao impleme
 			+ " S.READ_COUNT, S.FILTER_COUNT, S.WRITE_COUNT, S.EXIT_CODE, S.EXIT_MESSAGE, S.READ_SKIP_COUNT, S.WRITE_SKIP_COUNT,"
 			+ " S.PROCESS_SKIP_COUNT, S.ROLLBACK_COUNT, S.LAST_UPDATED, S.VERSION";
 
+	private static final String STEP_EXECUTIONS_FOR_JOB_EXECUTIONS = "SELECT " + FIELDS + ", S.JOB_EXECUTION_ID"
+			+ " from %PREFIX%STEP_EXECUTION S where S.JOB_EXECUTION_ID in (%IDS%) order by S.STEP_EXECUTION_ID";
+
+	private static final String STEP_EXECUTIONS_FROM_IDS = "SELECT " + FIELDS
+			+ " from %PREFIX%STEP_EXECUTION S where S.STEP_EXECUTION_ID in (%IDS%)";
+
+	private static final String GET_SHORT_CONTEXT = "SELECT C.SHORT_CONTEXT from %PREFIX%STEP_EXECUTION_CONTEXT C,"
+			+ " %PREFIX%STEP_EXECUTION S where C.STEP_EXECUTION_ID = S.STEP_EXECUTION_ID"
+			+ " AND S.JOB_EXECUTION_ID = ? AND S.STEP_EXECUTION_ID = ?";
+
+	private static final String GET_SERIALIZED_CONTEXT = "SELECT C.SHORT_CONTEXT, C.SERIALIZED_CONTEXT"
+			+ " from %PREFIX%STEP_EXECUTION_CONTEXT C, %PREFIX%STEP_EXECUTION S"
+			+ " where C.STEP_EXECUTION_ID = S.STEP_EXECUTION_ID AND S.JOB_EXECUTION_ID = ? AND S.STEP_EXECUTION_ID = ?";
+
+	private static final String STEP_EXECUTION_JOINS = " from %PREFIX%STEP_EXECUTION S, %PREFIX%JOB_EXECUTION J, %PREFIX%JOB_INSTANCE I"
+			+ " where S.JOB_EXECUTION_ID = J.JOB_EXECUTION_ID AND J.JOB_INSTANCE_ID = I.JOB_INSTANCE_ID AND ";
+
+	private static final String FINISHED_UP_TO_ID = " AND S.STEP_EXECUTION_ID <= ?"
+			+ " AND S.START_TIME is not NULL AND S.END_TIME is not NULL";
+
+	private static final String EXPORT_FIELDS = FIELDS + ", S.JOB_EXECUTION_ID, I.JOB_INSTANCE_ID, I.JOB_NAME";
+
+	private static final int EXPORT_CHUNK_SIZE = 1000;
+
+	private static final String[] HISTORY_COUNT_COLUMNS = { "S.COMMIT_COUNT", "S.ROLLBACK_COUNT", "S.READ_COUNT",
+			"S.WRITE_COUNT", "S.FILTER_COUNT", "S.READ_SKIP_COUNT", "S.WRITE_SKIP_COUNT", "S.PROCESS_SKIP_COUNT" };
+
+	private String stepHistorySelectClause;
+
+	private String durationExpression;
+
+	private String durationPerReadExpression;
+
+	private String lnFunction;
+
+	private String varianceFunction;
+
 	private DataSource dataSource;
 
+	private TransactionTemplate readOnlyTransactionTemplate;
+
 	/**
 	 * @param dataSource the dataSource to set
 	 */
@@ -83,6 +136,8 @@ public class JdbcSearchableStepExecutionDao extends JdbcStepExecutionDao impleme
 		if (getJdbcTemplate() == null) {
 			setJdbcTemplate(new JdbcTemplate(dataSource));
 		}
+		readOnlyTransactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+		readOnlyTransactionTemplate.setReadOnly(true);
 		setStepExecutionIncrementer(new AbstractDataFieldMaxValueIncrementer() {
 			@Override
 			protected long getNextKey() {
@@ -90,6 +145,17 @@ public class JdbcSearchableStepExecutionDao extends JdbcStepExecutionDao impleme
 			}
 		});
 
+		DatabaseType databaseType = JdbcSearchableJobExecutionDao.getDatabaseType(dataSource);
+		durationExpression = JdbcSearchableJobExecutionDao.getDurationExpression(databaseType, "S.START_TIME",
+				"S.END_TIME");
+		if (durationExpression != null) {
+			durationPerReadExpression = "CASE WHEN S.READ_COUNT > 0 THEN FLOOR(" + durationExpression
+					+ " / S.READ_COUNT) END";
+			varianceFunction = JdbcSearchableJobExecutionDao.getVarianceFunction(databaseType);
+			stepHistorySelectClause = getStepHistorySelectClause(durationExpression, durationPerReadExpression);
+			lnFunction = databaseType == DatabaseType.SQLSERVER ? "LOG" : "LN";
+		}
+
 		super.afterPropertiesSet();
 
 	}
@@ -116,23 +182,9 @@ public class JdbcSearchableStepExecutionDao extends JdbcStepExecutionDao impleme
 
 	public Collection<StepExecution> findStepExecutions(String jobName, String stepName, int start, int count) {
 
-		String whereClause;
-
-		if (jobName.contains("*")) {
-			whereClause = "JOB_NAME like ?";
-			jobName = jobName.replace("*", "%");
-		}
-		else {
-			whereClause = "JOB_NAME = ?";
-		}
-
-		if (stepName.contains("*")) {
-			whereClause = whereClause + " AND STEP_NAME like ?";
-			stepName = stepName.replace("*", "%");
-		}
-		else {
-			whereClause = whereClause + " AND STEP_NAME = ?";
-		}
+		String whereClause = getWhereClause(jobName, stepName);
+		jobName = jobName.replace("*", "%");
+		stepName = stepName.replace("*", "%");
 
 		PagingQueryProvider queryProvider = getPagingQueryProvider(whereClause);
 
@@ -157,6 +209,25 @@ public class JdbcSearchableStepExecutionDao extends JdbcStepExecutionDao impleme
 
 	}
 
+	public List<StepExecution> findStepExecutionsAfter(String jobName, String stepName, long afterStepExecutionId,
+			int count) {
+		PagingQueryProvider queryProvider = getPagingQueryProvider(getWhereClause(jobName, stepName), Order.ASCENDING);
+		return getJdbcTemplate().query(queryProvider.generateRemainingPagesQuery(count), new StepExecutionRowMapper(),
+				jobName.replace("*", "%"), stepName.replace("*", "%"), afterStepExecutionId);
+	}
+
+	public List<StepExecution> getStepExecutions(Collection<Long> stepExecutionIds) {
+		List<Long> ids = new ArrayList<Long>(stepExecutionIds);
+		List<StepExecution> stepExecutions = new ArrayList<StepExecution>(ids.size());
+		for (int i = 0; i < ids.size(); i += JdbcSearchableJobExecutionDao.MAX_IN_CLAUSE_SIZE) {
+			List<Long> chunk = ids.subList(i, Math.min(i + JdbcSearchableJobExecutionDao.MAX_IN_CLAUSE_SIZE, ids.size()));
+			String query = getQuery(STEP_EXECUTIONS_FROM_IDS).replace("%IDS%",
+					JdbcSearchableJobExecutionDao.getPlaceholders(chunk.size()));
+			stepExecutions.addAll(getJdbcTemplate().query(query, new StepExecutionRowMapper(), chunk.toArray()));
+		}
+		return stepExecutions;
+	}
+
 	public int countStepExecutions(String jobName, String stepName) {
 		if (stepName.contains("*")) {
 			return getJdbcTemplate().queryForObject(getQuery(COUNT_STEP_EXECUTIONS_FOR_STEP_PATTERN), Integer.class, jobName,
@@ -165,18 +236,253 @@ public class JdbcSearchableStepExecutionDao extends JdbcStepExecutionDao impleme
 		return getJdbcTemplate().queryForObject(getQuery(COUNT_STEP_EXECUTIONS_FOR_STEP), Integer.class, jobName, stepName);
 	}
 
+	/**
+	 * @see SearchableStepExecutionDao#getSerializedExecutionContext(Long, Long,
+	 * boolean)
+	 */
+	@Override
+	public String getSerializedExecutionContext(Long jobExecutionId, Long stepExecutionId, boolean shortContext) {
+		List<String> contexts = getJdbcTemplate().query(
+				getQuery(shortContext ? GET_SHORT_CONTEXT : GET_SERIALIZED_CONTEXT),
+				JdbcSearchableJobExecutionDao.SERIALIZED_CONTEXT_ROW_MAPPER, jobExecutionId, stepExecutionId);
+		return contexts.isEmpty() ? null : contexts.get(0);
+	}
+
+	/**
+	 * @see SearchableStepExecutionDao#streamStepExecutions(String, String,
+	 * Date, Date, ExecutionCallback)
+	 */
+	@Override
+	public void streamStepExecutions(String jobName, String stepName, Date startedAfter, Date startedBefore,
+			ExecutionCallback<StepExecution> callback) {
+		StringBuilder whereClause = new StringBuilder(getWhereClause(jobName, stepName));
+		List<Object> parameters = new ArrayList<Object>();
+		parameters.add(jobName.replace("*", "%"));
+		parameters.add(stepName.replace("*", "%"));
+		if (startedAfter != null) {
+			whereClause.append(" AND S.START_TIME >= ?");
+			parameters.add(new Timestamp(startedAfter.getTime()));
+		}
+		if (startedBefore != null) {
+			whereClause.append(" AND S.START_TIME < ?");
+			parameters.add(new Timestamp(startedBefore.getTime()));
+		}
+		PagingQueryProvider queryProvider = getPagingQueryProvider(EXPORT_FIELDS, whereClause.toString(),
+				Order.ASCENDING);
+		final String firstChunkQuery = queryProvider.generateFirstPageQuery(EXPORT_CHUNK_SIZE);
+		final String nextChunkQuery = queryProvider.generateRemainingPagesQuery(EXPORT_CHUNK_SIZE);
+
+		Long lastId = null;
+		while (true) {
+			final String query;
+			final Object[] chunkParameters;
+			if (lastId == null) {
+				query = firstChunkQuery;
+				chunkParameters = parameters.toArray();
+			}
+			else {
+				query = nextChunkQuery;
+				chunkParameters = parameters.toArray(new Object[parameters.size() + 1]);
+				chunkParameters[parameters.size()] = lastId;
+			}
+			// the connection is released before the callback writes to a
+			// possibly slow client
+			List<StepExecution> chunk = readOnlyTransactionTemplate
+					.execute(new TransactionCallback<List<StepExecution>>() {
+						@Override
+						public List<StepExecution> doInTransaction(TransactionStatus status) {
+							return getJdbcTemplate().query(query, new ExportRowMapper(), chunkParameters);
+						}
+					});
+			for (StepExecution stepExecution : chunk) {
+				callback.handle(stepExecution);
+			}
+			if (chunk.size() < EXPORT_CHUNK_SIZE) {
+				return;
+			}
+			lastId = chunk.get(EXPORT_CHUNK_SIZE - 1).getId();
+		}
+	}
+
+	/**
+	 * Reads the step executions with one query per chunk of
+	 * {@link JdbcSearchableJobExecutionDao#MAX_IN_CLAUSE_SIZE} job executions.
+	 * 
+	 * @see SearchableStepExecutionDao#addStepExecutions(Collection)
+	 */
+	@Override
+	public void addStepExecutions(Collection<JobExecution> jobExecutions) {
+
+		Map<Long, JobExecution> jobExecutionsById = new HashMap<Long, JobExecution>();
+		for (JobExecution jobExecution : jobExecutions) {
+			jobExecutionsById.put(jobExecution.getId(), jobExecution);
+		}
+
+		List<Long> ids = new ArrayList<Long>(jobExecutionsById.keySet());
+		Map<Long, List<StepExecution>> stepExecutionsById = new HashMap<Long, List<StepExecution>>();
+		StepExecutionRowMapper rowMapper = new StepExecutionRowMapper(jobExecutionsById);
+		for (int i = 0; i < ids.size(); i += JdbcSearchableJobExecutionDao.MAX_IN_CLAUSE_SIZE) {
+			List<Long> chunk = ids.subList(i, Math.min(i + JdbcSearchableJobExecutionDao.MAX_IN_CLAUSE_SIZE, ids.size()));
+			String query = getQuery(STEP_EXECUTIONS_FOR_JOB_EXECUTIONS).replace("%IDS%",
+					JdbcSearchableJobExecutionDao.getPlaceholders(chunk.size()));
+			for (StepExecution stepExecution : getJdbcTemplate().query(query, rowMapper, chunk.toArray())) {
+				List<StepExecution> stepExecutions = stepExecutionsById.get(stepExecution.getJobExecutionId());
+				if (stepExecutions == null) {
+					stepExecutions = new ArrayList<StepExecution>();
+					stepExecutionsById.put(stepExecution.getJobExecutionId(), stepExecutions);
+				}
+				stepExecutions.add(stepExecution);
+			}
+		}
+
+		for (Map.Entry<Long, List<StepExecution>> entry : stepExecutionsById.entrySet()) {
+			jobExecutionsById.get(entry.getKey()).addStepExecutions(entry.getValue());
+		}
+
+	}
+
+	public long getMaxStepExecutionId(String jobName, String stepName) {
+		Long max = getJdbcTemplate().queryForObject(
+				getQuery("SELECT MAX(S.STEP_EXECUTION_ID)" + STEP_EXECUTION_JOINS + getWhereClause(jobName, stepName)),
+				Long.class, jobName.replace("*", "%"), stepName.replace("*", "%"));
+		return max == null ? -1 : max;
+	}
+
+	public List<Long> findUnfinishedStepExecutionIds(String jobName, String stepName, long maxStepExecutionId) {
+		return getJdbcTemplate().queryForList(
+				getQuery("SELECT S.STEP_EXECUTION_ID" + STEP_EXECUTION_JOINS + getWhereClause(jobName, stepName)
+						+ " AND S.STEP_EXECUTION_ID <= ? AND S.END_TIME is NULL"), Long.class,
+				jobName.replace("*", "%"), stepName.replace("*", "%"), maxStepExecutionId);
+	}
+
+	public StepExecutionHistory getStepExecutionHistory(String jobName, final String stepName,
+			long maxStepExecutionId) {
+		if (stepHistorySelectClause == null) {
+			return null;
+		}
+		StepExecutionHistory history = getJdbcTemplate().queryForObject(
+				getQuery(stepHistorySelectClause + STEP_EXECUTION_JOINS + getWhereClause(jobName, stepName)
+						+ FINISHED_UP_TO_ID),
+				new RowMapper<StepExecutionHistory>() {
+					public StepExecutionHistory mapRow(ResultSet rs, int rowNum) throws SQLException {
+						int count = rs.getInt(1);
+						CumulativeHistory[] histories = new CumulativeHistory[HISTORY_COUNT_COLUMNS.length + 1];
+						for (int i = 0; i < histories.length; i++) {
+							int column = 2 + i * 4;
+							histories[i] = new CumulativeHistory(count, rs.getDouble(column),
+									rs.getDouble(column + 1), rs.getDouble(column + 2), rs.getDouble(column + 3));
+						}
+						int column = 2 + histories.length * 4;
+						CumulativeHistory durationPerRead = new CumulativeHistory(rs.getInt(column),
+								rs.getDouble(column + 1), rs.getDouble(column + 2), rs.getDouble(column + 3),
+								rs.getDouble(column + 4));
+						return new StepExecutionHistory(stepName, count, histories[0], histories[1], histories[2],
+								histories[3], histories[4], histories[5], histories[6], histories[7], histories[8],
+								durationPerRead);
+					}
+				}, jobName.replace("*", "%"), stepName.replace("*", "%"), maxStepExecutionId);
+
+		history.getDuration().setSketch(getSketch(durationExpression, jobName, stepName, maxStepExecutionId,
+				history.getDuration().getCount()));
+		history.getDurationPerRead().setSketch(getSketch(durationPerReadExpression, jobName, stepName,
+				maxStepExecutionId, history.getDurationPerRead().getCount()));
+		return history;
+	}
+
+	/**
+	 * Build a {@link QuantileSketch} from the histogram of the values computed
+	 * by the database, grouping them by bucket index.
+	 *
+	 * @param valueExpression the SQL expression of the values
+	 * @param valueCount the number of values, including those lower than or
+	 * equal to 0 which have no bucket
+	 */
+	private QuantileSketch getSketch(String valueExpression, String jobName, String stepName,
+			long maxStepExecutionId, long valueCount) {
+		final QuantileSketch sketch = new QuantileSketch();
+		double logGamma = Math.log(QuantileSketch.getGamma(QuantileSketch.DEFAULT_RELATIVE_ACCURACY));
+		String index = "-FLOOR(-" + lnFunction + "(" + valueExpression + ") / " + logGamma + ")";
+		final long[] bucketed = new long[1];
+		getJdbcTemplate().query(
+				getQuery("SELECT H.BUCKET, COUNT(*) from (SELECT " + index + " BUCKET" + STEP_EXECUTION_JOINS
+						+ getWhereClause(jobName, stepName) + FINISHED_UP_TO_ID + " AND " + valueExpression
+						+ " > 0) H group by H.BUCKET"), new RowCallbackHandler() {
+					public void processRow(ResultSet rs) throws SQLException {
+						long bucketCount = rs.getLong(2);
+						sketch.add(rs.getInt(1), bucketCount);
+						bucketed[0] += bucketCount;
+					}
+				}, jobName.replace("*", "%"), stepName.replace("*", "%"), maxStepExecutionId);
+		sketch.addZeros(Math.max(0, valueCount - bucketed[0]));
+		return sketch;
+	}
+
+	/**
+	 * @param durationExpression the SQL expression computing the duration of
+	 * a step execution in milliseconds
+	 * @param durationPerRead the SQL expression computing the duration per
+	 * read of a step execution
+	 * @return the select clause aggregating the counts, the duration and the
+	 * duration per read of the step executions, as
+	 * {@link StepExecutionHistory} appends them: the number of rows, then the
+	 * sum, sum of squared differences from the mean, min and max of each count
+	 * and of the duration, then the number of values, sum, sum of squared
+	 * differences from the mean, min and max of the duration per read
+	 */
+	private String getStepHistorySelectClause(String durationExpression, String durationPerRead) {
+		StringBuilder select = new StringBuilder("SELECT COUNT(*)");
+		for (String column : HISTORY_COUNT_COLUMNS) {
+			appendAggregates(select, column);
+		}
+		appendAggregates(select, durationExpression);
+		select.append(", COUNT(").append(durationPerRead).append(")");
+		appendAggregates(select, durationPerRead);
+		return select.toString();
+	}
+
+	private void appendAggregates(StringBuilder select, String expression) {
+		select.append(", SUM(").append(expression).append("), ").append(varianceFunction).append("(")
+				.append(expression).append(") * COUNT(").append(expression).append("), MIN(").append(expression)
+				.append("), MAX(").append(expression).append(")");
+	}
+
+	/**
+	 * @return a where clause matching the job name and step name, with
+	 * wildcards specified as '*'
+	 */
+	private String getWhereClause(String jobName, String stepName) {
+		String whereClause = jobName.contains("*") ? "JOB_NAME like ?" : "JOB_NAME = ?";
+		return whereClause + (stepName.contains("*") ? " AND STEP_NAME like ?" : " AND STEP_NAME = ?");
+	}
+
 	/**
 	 * @return a {@link PagingQueryProvider} with a where clause to narrow the
 	 * query
 	 * @throws Exception
 	 */
 	private PagingQueryProvider getPagingQueryProvider(String whereClause) {
+		return getPagingQueryProvider(whereClause, Order.DESCENDING);
+	}
+
+	/**
+	 * @return a {@link PagingQueryProvider} with a where clause to narrow the
+	 * query, sorted by id in the given order
+	 */
+	private PagingQueryProvider getPagingQueryProvider(String whereClause, Order order) {
+		return getPagingQueryProvider(FIELDS, whereClause, order);
+	}
+
+	/**
+	 * @return a {@link PagingQueryProvider} of the given fields with a where
+	 * clause to narrow the query, sorted by id in the given order
+	 */
+	private PagingQueryProvider getPagingQueryProvider(String selectClause, String whereClause, Order order) {
 		SqlPagingQueryProviderFactoryBean factory = new SqlPagingQueryProviderFactoryBean();
 		factory.setDataSource(dataSource);
 		factory.setFromClause(getQuery("%PREFIX%STEP_EXECUTION S, %PREFIX%JOB_EXECUTION J, %PREFIX%JOB_INSTANCE I"));
-		factory.setSelectClause(FIELDS);
+		factory.setSelectClause(selectClause);
 		Map<String, Order> sortKeys = new HashMap<String, Order>();
-		sortKeys.put("STEP_EXECUTION_ID", Order.DESCENDING);
+		sortKeys.put("STEP_EXECUTION_ID", order);
 		factory.setSortKeys(sortKeys);
 		if (whereClause != null) {
 			factory.setWhereClause(whereClause
@@ -190,10 +496,48 @@ public class JdbcSearchableStepExecutionDao extends JdbcStepExecutionDao impleme
 		}
 	}
 
+	/**
+	 * Maps the exported rows, with job executions carrying only their id and
+	 * job instance, shared by the consecutive rows of a job execution.
+	 */
+	private static class ExportRowMapper implements RowMapper<StepExecution> {
+
+		private final Map<Long, JobExecution> jobExecutions = new HashMap<Long, JobExecution>();
+
+		private final StepExecutionRowMapper rowMapper = new StepExecutionRowMapper(jobExecutions);
+
+		public StepExecution mapRow(ResultSet rs, int rowNum) throws SQLException {
+			Long jobExecutionId = rs.getLong(18);
+			if (!jobExecutions.containsKey(jobExecutionId)) {
+				// only the job execution of the current row is kept
+				jobExecutions.clear();
+				jobExecutions.put(jobExecutionId, new JobExecution(new JobInstance(rs.getLong(19), rs.getString(20)),
+						jobExecutionId, null, null));
+			}
+			return rowMapper.mapRow(rs, rowNum);
+		}
+
+	}
+
 	private static class StepExecutionRowMapper implements RowMapper<StepExecution> {
 
+		private final Map<Long, JobExecution> jobExecutions;
+
+		public StepExecutionRowMapper() {
+			this(null);
+		}
+
+		/**
+		 * @param jobExecutions the parent job executions by id, looked up with
+		 * the JOB_EXECUTION_ID column selected after the step fields
+		 */
+		public StepExecutionRowMapper(Map<Long, JobExecution> jobExecutions) {
+			this.jobExecutions = jobExecutions;
+		}
+
 		public StepExecution mapRow(ResultSet rs, int rowNum) throws SQLException {
-			StepExecution stepExecution = new StepExecution(rs.getString(2), null);
+			JobExecution jobExecution = jobExecutions == null ? null : jobExecutions.get(rs.getLong(18));
+			StepExecution stepExecution = new StepExecution(rs.getString(2), jobExecution);
 			stepExecution.setId(rs.getLong(1));
 			stepExecution.setStartTime(rs.getTimestamp(3));
 			stepExecution.setEndTime(rs.getTimestamp(4));
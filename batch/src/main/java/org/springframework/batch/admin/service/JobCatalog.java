@@ -0,0 +1,205 @@
+/*
+ * Copyright 2006-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.batch.admin.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * In-memory catalog of the job names found in the repository, with the
+ * number of instances and executions of each job. The catalog remembers the
+ * highest job instance and job execution ids already counted (the
+ * watermarks), so that a refresh only counts the rows created since the
+ * previous one, and it is refreshed at most once per refresh interval.
+ *
+ * Rows committed out of id order or deleted from the repository are only
+ * taken into account by a full reload, done every full refresh interval.
+ *
+ */
+public class JobCatalog {
+
+	/**
+	 * Default minimum time between two refreshes, in milliseconds.
+	 */
+	public static final long DEFAULT_REFRESH_INTERVAL = 1000;
+
+	/**
+	 * Default time between two full reloads, in milliseconds.
+	 */
+	public static final long DEFAULT_FULL_REFRESH_INTERVAL = 5 * 60 * 1000;
+
+	private final SearchableJobInstanceDao jobInstanceDao;
+
+	private final SearchableJobExecutionDao jobExecutionDao;
+
+	private long refreshInterval = DEFAULT_REFRESH_INTERVAL;
+
+	private long fullRefreshInterval = DEFAULT_FULL_REFRESH_INTERVAL;
+
+	private final Map<String, int[]> counts = new TreeMap<String, int[]>();
+
+	private long jobInstanceWatermark = -1;
+
+	private long jobExecutionWatermark = -1;
+
+	private volatile long lastRefresh;
+
+	private long lastFullRefresh;
+
+	private volatile Snapshot snapshot;
+
+	/**
+	 * @param jobInstanceDao the dao counting the job instances
+	 * @param jobExecutionDao the dao counting the job executions
+	 */
+	public JobCatalog(SearchableJobInstanceDao jobInstanceDao, SearchableJobExecutionDao jobExecutionDao) {
+		this.jobInstanceDao = jobInstanceDao;
+		this.jobExecutionDao = jobExecutionDao;
+	}
+
+	/**
+	 * @param refreshInterval the minimum time between two refreshes, in
+	 * milliseconds, 0 refreshing the catalog on each call
+	 */
+	public void setRefreshInterval(long refreshInterval) {
+		this.refreshInterval = refreshInterval;
+	}
+
+	/**
+	 * @param fullRefreshInterval the time between two full reloads, in
+	 * milliseconds
+	 */
+	public void setFullRefreshInterval(long fullRefreshInterval) {
+		this.fullRefreshInterval = fullRefreshInterval;
+	}
+
+	/**
+	 * @return the names of the jobs with instances in the repository, sorted
+	 */
+	public List<String> getJobNames() {
+		return getSnapshot().jobNames;
+	}
+
+	/**
+	 * @return an index of the job names, built once per refresh that changed
+	 * them
+	 */
+	public JobNameIndex getJobNameIndex() {
+		return getSnapshot().getJobNameIndex();
+	}
+
+	/**
+	 * @param jobName the name of a job
+	 * @return the number of instances of the job, or -1 if it has none
+	 */
+	public int getJobInstanceCount(String jobName) {
+		int[] jobCounts = getSnapshot().counts.get(jobName);
+		return jobCounts == null ? -1 : jobCounts[0];
+	}
+
+	/**
+	 * @param jobName the name of a job
+	 * @return the number of executions of the job, or -1 if it has no
+	 * instance
+	 */
+	public int getJobExecutionCount(String jobName) {
+		int[] jobCounts = getSnapshot().counts.get(jobName);
+		return jobCounts == null ? -1 : jobCounts[1];
+	}
+
+	private Snapshot getSnapshot() {
+		Snapshot current = snapshot;
+		if (current == null || System.currentTimeMillis() - lastRefresh >= refreshInterval) {
+			current = refresh();
+		}
+		return current;
+	}
+
+	private synchronized Snapshot refresh() {
+		long now = System.currentTimeMillis();
+		if (snapshot != null && now - lastRefresh < refreshInterval) {
+			// refreshed by another thread meanwhile
+			return snapshot;
+		}
+		boolean changed = false;
+		if (now - lastFullRefresh >= fullRefreshInterval) {
+			counts.clear();
+			jobInstanceWatermark = -1;
+			jobExecutionWatermark = -1;
+			lastFullRefresh = now;
+			changed = true;
+		}
+		for (JobCount jobCount : jobInstanceDao.countJobInstancesByJobName(jobInstanceWatermark)) {
+			getCounts(jobCount.getJobName())[0] += jobCount.getCount();
+			jobInstanceWatermark = Math.max(jobInstanceWatermark, jobCount.getMaxId());
+			changed = true;
+		}
+		for (JobCount jobCount : jobExecutionDao.countJobExecutionsByJobName(jobExecutionWatermark)) {
+			getCounts(jobCount.getJobName())[1] += jobCount.getCount();
+			jobExecutionWatermark = Math.max(jobExecutionWatermark, jobCount.getMaxId());
+			changed = true;
+		}
+		if (changed || snapshot == null) {
+			snapshot = new Snapshot(counts);
+		}
+		lastRefresh = now;
+		return snapshot;
+	}
+
+	private int[] getCounts(String jobName) {
+		int[] jobCounts = counts.get(jobName);
+		if (jobCounts == null) {
+			jobCounts = new int[2];
+			counts.put(jobName, jobCounts);
+		}
+		return jobCounts;
+	}
+
+	/**
+	 * Immutable copy of the catalog read without locking.
+	 */
+	private static class Snapshot {
+
+		private final List<String> jobNames;
+
+		private final Map<String, int[]> counts = new HashMap<String, int[]>();
+
+		private volatile JobNameIndex jobNameIndex;
+
+		Snapshot(Map<String, int[]> counts) {
+			for (Map.Entry<String, int[]> entry : counts.entrySet()) {
+				this.counts.put(entry.getKey(), entry.getValue().clone());
+			}
+			this.jobNames = Collections.unmodifiableList(new ArrayList<String>(counts.keySet()));
+		}
+
+		JobNameIndex getJobNameIndex() {
+			JobNameIndex index = jobNameIndex;
+			if (index == null) {
+				// built at most a few times concurrently, the last one wins
+				index = new JobNameIndex(jobNames);
+				jobNameIndex = index;
+			}
+			return index;
+		}
+
+	}
+
+}
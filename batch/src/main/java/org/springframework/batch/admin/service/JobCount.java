@@ -0,0 +1,61 @@
+/*
+ * Copyright 2006-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.batch.admin.service;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import org.springframework.jdbc.core.RowMapper;
+
+/**
+ * Number of job instances or executions of a job created after a given id, and
+ * the largest id among them.
+ *
+ */
+public class JobCount {
+
+	static final RowMapper<JobCount> ROW_MAPPER = new RowMapper<JobCount>() {
+		@Override
+		public JobCount mapRow(ResultSet rs, int rowNum) throws SQLException {
+			return new JobCount(rs.getString(1), rs.getInt(2), rs.getLong(3));
+		}
+	};
+
+	private final String jobName;
+
+	private final int count;
+
+	private final long maxId;
+
+	public JobCount(String jobName, int count, long maxId) {
+		this.jobName = jobName;
+		this.count = count;
+		this.maxId = maxId;
+	}
+
+	public String getJobName() {
+		return jobName;
+	}
+
+	public int getCount() {
+		return count;
+	}
+
+	public long getMaxId() {
+		return maxId;
+	}
+
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright 2006-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.batch.admin.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Immutable index of job names for case insensitive substring searches. Each
+ * name is split into its trigrams (sequences of three characters), and a search
+ * only checks the names sharing all the trigrams of the searched text, starting
+ * from the rarest one. Searches shorter than a trigram scan all the names.
+ *
+ */
+public class JobNameIndex {
+
+	private static final int GRAM = 3;
+
+	private final List<String> jobNames;
+
+	private final String[] lowerCaseNames;
+
+	private final Map<String, int[]> positionsByTrigram = new HashMap<String, int[]>();
+
+	/**
+	 * @param jobNames the names to index, in the order of the search results
+	 */
+	public JobNameIndex(List<String> jobNames) {
+		this.jobNames = new ArrayList<String>(jobNames);
+		this.lowerCaseNames = new String[jobNames.size()];
+		Map<String, List<Integer>> positions = new HashMap<String, List<Integer>>();
+		for (int i = 0; i < lowerCaseNames.length; i++) {
+			lowerCaseNames[i] = toLowerCase(this.jobNames.get(i));
+			for (int j = 0; j + GRAM <= lowerCaseNames[i].length(); j++) {
+				String trigram = lowerCaseNames[i].substring(j, j + GRAM);
+				List<Integer> trigramPositions = positions.get(trigram);
+				if (trigramPositions == null) {
+					trigramPositions = new ArrayList<Integer>();
+					positions.put(trigram, trigramPositions);
+				}
+				// names are visited in order, so the positions stay sorted
+				if (trigramPositions.isEmpty() || trigramPositions.get(trigramPositions.size() - 1) != i) {
+					trigramPositions.add(i);
+				}
+			}
+		}
+		for (Map.Entry<String, List<Integer>> entry : positions.entrySet()) {
+			List<Integer> trigramPositions = entry.getValue();
+			int[] array = new int[trigramPositions.size()];
+			for (int i = 0; i < array.length; i++) {
+				array[i] = trigramPositions.get(i);
+			}
+			positionsByTrigram.put(entry.getKey(), array);
+		}
+	}
+
+	/**
+	 * @return the number of names indexed
+	 */
+	public int size() {
+		return jobNames.size();
+	}
+
+	/**
+	 * @param text the text searched, ignoring case
+	 * @return the names containing the text, in the order they were indexed
+	 */
+	public List<String> search(String text) {
+		String lowerCaseText = toLowerCase(text);
+		if (lowerCaseText.length() < GRAM) {
+			List<String> result = new ArrayList<String>();
+			for (int i = 0; i < lowerCaseNames.length; i++) {
+				if (lowerCaseNames[i].contains(lowerCaseText)) {
+					result.add(jobNames.get(i));
+				}
+			}
+			return result;
+		}
+		int[][] candidates = new int[lowerCaseText.length() - GRAM + 1][];
+		for (int j = 0; j < candidates.length; j++) {
+			int[] positions = positionsByTrigram.get(lowerCaseText.substring(j, j + GRAM));
+			if (positions == null) {
+				return Collections.emptyList();
+			}
+			candidates[j] = positions;
+		}
+		int[] rarest = candidates[0];
+		for (int[] positions : candidates) {
+			if (positions.length < rarest.length) {
+				rarest = positions;
+			}
+		}
+		List<String> result = new ArrayList<String>();
+		for (int position : rarest) {
+			if (containsAll(candidates, position) && lowerCaseNames[position].contains(lowerCaseText)) {
+				result.add(jobNames.get(position));
+			}
+		}
+		return result;
+	}
+
+	private static boolean containsAll(int[][] candidates, int position) {
+		for (int[] positions : candidates) {
+			if (Arrays.binarySearch(positions, position) < 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @param jobName a job name
+	 * @param text the text searched
+	 * @return true if the job name contains the text, ignoring case
+	 */
+	public static boolean matches(String jobName, String text) {
+		return toLowerCase(jobName).contains(toLowerCase(text));
+	}
+
+	private static String toLowerCase(String value) {
+		return value.toLowerCase(Locale.ENGLISH);
+	}
+
+}
@@ -16,7 +16,11 @@
 package org.springframework.batch.admin.service;
 
 import java.util.Collection;
+import java.util.Date;
+import java.util.List;
 
+import org.springframework.batch.admin.history.JobExecutionHistory;
+import org.springframework.batch.admin.history.StepExecutionHistory;
 import org.springframework.batch.core.Job;
 import org.springframework.batch.core.JobExecution;
 import org.springframework.batch.core.JobInstance;
@@ -152,6 +156,48 @@ public interface JobService {
 	 */
 	int countJobs();
 
+	/**
+	 * Summarize the jobs returned by {@link #listJobs(int, int)}, in the same
+	 * order, with their instance and execution counts and their last
+	 * execution.
+	 * 
+	 * @param start the start index of the jobs to return
+	 * @param count the maximum number of jobs to return
+	 * @return a collection of job summaries
+	 */
+	Collection<JobSummary> listJobSummaries(int start, int count);
+
+	/**
+	 * Query the job names containing a text, ignoring case, launchable ones
+	 * first.
+	 * 
+	 * @param text the text searched in the job names
+	 * @param start the start index of the job names to return
+	 * @param count the maximum number of job names to return
+	 * @return a collection of job names
+	 */
+	Collection<String> listJobs(String text, int start, int count);
+
+	/**
+	 * Count the total number of jobs that can be returned by
+	 * {@link #listJobs(String, int, int)}.
+	 * 
+	 * @param text the text searched in the job names
+	 * @return the total number of jobs found
+	 */
+	int countJobs(String text);
+
+	/**
+	 * Summarize the jobs returned by {@link #listJobs(String, int, int)}, in
+	 * the same order.
+	 * 
+	 * @param text the text searched in the job names
+	 * @param start the start index of the jobs to return
+	 * @param count the maximum number of jobs to return
+	 * @return a collection of job summaries
+	 */
+	Collection<JobSummary> listJobSummaries(String text, int start, int count);
+
 	/**
 	 * Get a {@link JobInstance job instance} by id.
 	 * 
@@ -195,6 +241,48 @@ public interface JobService {
 	 */
 	Collection<JobExecution> listJobExecutionsForJob(String jobName, int start, int count) throws NoSuchJobException;
 
+	/**
+	 * List the most recent {@link JobExecution job executions} for a job in
+	 * descending order of creation, optionally with their step executions
+	 * (including the known steps which did not run, with status
+	 * {@link org.springframework.batch.core.BatchStatus#UNKNOWN}). The step
+	 * executions only carry their name, status and exit status.
+	 * 
+	 * @param jobName the job name
+	 * @param count the maximum number of executions to return
+	 * @param withStepExecutions true to load the step executions as well
+	 * @return a collection of {@link JobExecution}
+	 * @throws NoSuchJobException
+	 */
+	Collection<JobExecution> listJobExecutionTree(String jobName, int count, boolean withStepExecutions)
+			throws NoSuchJobException;
+
+	/**
+	 * Same as {@link #listJobExecutionTree(String, int, boolean)}, but the job
+	 * executions are passed to the callback as they are read instead of being
+	 * collected in memory.
+	 * 
+	 * @param jobName the job name
+	 * @param count the maximum number of executions to read
+	 * @param withStepExecutions true to load the step executions as well
+	 * @param callback the callback receiving the job executions
+	 * @throws NoSuchJobException
+	 */
+	void streamJobExecutionTree(String jobName, int count, boolean withStepExecutions,
+			ExecutionCallback<JobExecution> callback) throws NoSuchJobException;
+
+	/**
+	 * Read all the {@link JobExecution job executions} for a job in descending
+	 * order of creation and pass them to the callback as they are read. The
+	 * step executions only carry their name, status and exit status.
+	 * 
+	 * @param jobName the job name
+	 * @param callback the callback receiving the job executions
+	 * @throws NoSuchJobException
+	 */
+	void streamJobExecutionsForJob(String jobName, ExecutionCallback<JobExecution> callback)
+			throws NoSuchJobException;
+
 	/**
 	 * Count the job executions in the repository for a job.
 	 * 
@@ -227,6 +315,28 @@ public interface JobService {
 	 */
 	Collection<JobExecution> listJobExecutions(int start, int count);
 
+	/**
+	 * List the {@link JobExecution job executions} following the given one in
+	 * descending order of creation. The execution id is used as a cursor, so
+	 * unlike {@link #listJobExecutions(int, int)} the cost of a page does not
+	 * depend on its position.
+	 * 
+	 * @param afterExecutionId the id of the last execution already seen
+	 * @param count the maximum number of executions
+	 * @return a collection of {@link JobExecution}
+	 */
+	Collection<JobExecution> listJobExecutionsAfter(long afterExecutionId, int count);
+
+	/**
+	 * List the {@link JobExecution job executions} preceding the given one in
+	 * descending order of creation (the result keeps that order).
+	 * 
+	 * @param beforeExecutionId the id of the first execution already seen
+	 * @param count the maximum number of executions
+	 * @return a collection of {@link JobExecution}
+	 */
+	Collection<JobExecution> listJobExecutionsBefore(long beforeExecutionId, int count);
+
 	/**
 	 * Count the maximum number of executions that could be returned by
 	 * {@link #listJobExecutions(int, int)}.
@@ -245,6 +355,32 @@ public interface JobService {
 	 */
 	JobExecution getJobExecution(Long jobExecutionId) throws NoSuchJobExecutionException;
 
+	/**
+	 * Get a {@link JobExecution} by id, optionally without deserializing its
+	 * execution context.
+	 * 
+	 * @param jobExecutionId the job execution id
+	 * @param loadContext false to leave the execution context empty
+	 * @return the {@link JobExecution}
+	 * 
+	 * @throws NoSuchJobExecutionException
+	 */
+	JobExecution getJobExecution(Long jobExecutionId, boolean loadContext) throws NoSuchJobExecutionException;
+
+	/**
+	 * Get the serialized execution context of a {@link JobExecution}, without
+	 * deserializing it.
+	 * 
+	 * @param jobExecutionId the job execution id
+	 * @param shortContext true to get only the short context, truncated by the
+	 * job repository when the context is long
+	 * @return the serialized context, or null if there is none
+	 * 
+	 * @throws NoSuchJobExecutionException
+	 */
+	String getSerializedExecutionContext(Long jobExecutionId, boolean shortContext)
+			throws NoSuchJobExecutionException;
+
 	/**
 	 * Get the {@link StepExecution step executions} for a given job execution
 	 * (by id).
@@ -282,6 +418,75 @@ public interface JobService {
 	 */
 	int countStepExecutionsForStep(String jobName, String stepName) throws NoSuchStepException;
 
+	/**
+	 * Get the history of the finished executions of a step (or pattern),
+	 * maintained incrementally so that only the step executions created or
+	 * finished since the previous call are read from the repository.
+	 * @param jobName the job name (or a pattern with wildcards)
+	 * @param stepName the step name (or a pattern with wildcards)
+	 * 
+	 * @return the step execution history
+	 */
+	StepExecutionHistory getStepExecutionHistory(String jobName, String stepName);
+
+	/**
+	 * Get the duration history of the finished executions of a job, computed
+	 * by the database when it can.
+	 * @param jobName the job name
+	 * 
+	 * @return the job execution history
+	 * @throws NoSuchJobException
+	 */
+	JobExecutionHistory getJobExecutionHistory(String jobName) throws NoSuchJobException;
+
+	/**
+	 * Get the size of the cache of finished executions and its hit, miss and
+	 * eviction counts, to choose its bounds.
+	 * 
+	 * @return the cache statistics
+	 */
+	ExecutionCacheStatistics getExecutionCacheStatistics();
+
+	/**
+	 * Remove a job execution and its step executions from the cache of
+	 * finished executions, so that they are read again from the repository,
+	 * when a copy older than their states was found.
+	 * 
+	 * @param jobExecutionId the id of the job execution
+	 */
+	void evictJobExecution(Long jobExecutionId);
+
+	/**
+	 * Get the lightweight states of the running job executions and of the job
+	 * executions updated since a date, with their step executions, to detect
+	 * their changes.
+	 * 
+	 * @param updatedSince the date after which the finished job executions
+	 * are read too, or null to read only the running job executions
+	 * @return the states ordered by job execution id and step execution id
+	 * @see ExecutionChangeDetector
+	 */
+	Collection<ExecutionState> getExecutionStates(Date updatedSince);
+
+	/**
+	 * Get the detector of the execution changes shared by all the consumers
+	 * of the changes, so that the repository is polled once whatever their
+	 * number.
+	 * 
+	 * @return the shared detector
+	 */
+	ExecutionChangeDetector getExecutionChangeDetector();
+
+	/**
+	 * Get the lightweight state of a job execution followed by the states of
+	 * its step executions, to check if it changed without loading it.
+	 * 
+	 * @param jobExecutionId the id of the job execution
+	 * @return the states ordered by step execution id
+	 * @throws NoSuchJobExecutionException if there is no such job execution
+	 */
+	List<ExecutionState> getJobExecutionStates(Long jobExecutionId) throws NoSuchJobExecutionException;
+
 	/**
 	 * Locate a {@link StepExecution} from its id and that of its parent
 	 * {@link JobExecution}.
@@ -296,6 +501,55 @@ public interface JobService {
 	StepExecution getStepExecution(Long jobExecutionId, Long stepExecutionId) throws NoSuchStepExecutionException,
 	NoSuchJobExecutionException;
 
+	/**
+	 * Locate a {@link StepExecution} from its id and that of its parent
+	 * {@link JobExecution}, optionally without deserializing the execution
+	 * contexts.
+	 * 
+	 * @param jobExecutionId the job execution id
+	 * @param stepExecutionId the step execution id
+	 * @param loadContext false to leave the execution contexts of the step
+	 * execution and of its job execution empty
+	 * @return the {@link StepExecution}
+	 * 
+	 * @throws NoSuchStepExecutionException
+	 * @throws NoSuchJobExecutionException
+	 */
+	StepExecution getStepExecution(Long jobExecutionId, Long stepExecutionId, boolean loadContext)
+			throws NoSuchStepExecutionException, NoSuchJobExecutionException;
+
+	/**
+	 * Get the serialized execution context of a {@link StepExecution}, without
+	 * deserializing it.
+	 * 
+	 * @param jobExecutionId the job execution id
+	 * @param stepExecutionId the step execution id
+	 * @param shortContext true to get only the short context, truncated by the
+	 * job repository when the context is long
+	 * @return the serialized context
+	 * 
+	 * @throws NoSuchStepExecutionException if the step execution has no context
+	 */
+	String getSerializedExecutionContext(Long jobExecutionId, Long stepExecutionId, boolean shortContext)
+			throws NoSuchStepExecutionException;
+
+	/**
+	 * Read the {@link StepExecution step executions} of a job and step name,
+	 * or name pattern (with wildcards specified as '*'), started in a time
+	 * range, in ascending order of id, and pass them to the callback as they
+	 * are read, for exporting whole histories. The step executions have no
+	 * execution context and their job execution only carries its id and job
+	 * instance.
+	 * 
+	 * @param jobName the job name or pattern
+	 * @param stepName the step name or pattern
+	 * @param startedAfter the lowest start time, inclusive, or null
+	 * @param startedBefore the highest start time, exclusive, or null
+	 * @param callback the callback receiving the step executions
+	 */
+	void streamStepExecutions(String jobName, String stepName, Date startedAfter, Date startedBefore,
+			ExecutionCallback<StepExecution> callback);
+
 	/**
 	 * Send a stop signal to all running job executions.
 	 * 
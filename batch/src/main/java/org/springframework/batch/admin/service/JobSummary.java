@@ -0,0 +1,148 @@
+/*
+ * Copyright 2006-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.batch.admin.service;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Date;
+
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.jdbc.core.RowMapper;
+
+/**
+ * Summary of a job for the jobs list: its instance and execution counts, the
+ * status and times of its last execution, and whether it can be launched from
+ * the job registry.
+ *
+ */
+public class JobSummary {
+
+	static final RowMapper<JobSummary> ROW_MAPPER = new RowMapper<JobSummary>() {
+		@Override
+		public JobSummary mapRow(ResultSet rs, int rowNum) throws SQLException {
+			Long lastExecutionId = rs.getLong(4);
+			if (rs.wasNull()) {
+				lastExecutionId = null;
+			}
+			String status = rs.getString(5);
+			BatchStatus lastExecutionStatus = status == null ? null : BatchStatus.valueOf(status);
+			return new JobSummary(rs.getString(1), rs.getInt(2), rs.getInt(3), lastExecutionId, lastExecutionStatus,
+					rs.getTimestamp(6), rs.getTimestamp(7), false, false);
+		}
+	};
+
+	private final String jobName;
+
+	private final int instanceCount;
+
+	private final int executionCount;
+
+	private final Long lastExecutionId;
+
+	private final BatchStatus lastExecutionStatus;
+
+	private final Date lastExecutionStartTime;
+
+	private final Date lastExecutionEndTime;
+
+	private final boolean launchable;
+
+	private final boolean incrementable;
+
+	/**
+	 * Summary of a job without any instance in the repository.
+	 *
+	 * @param jobName the name of the job
+	 * @param launchable whether the job is in the job registry
+	 * @param incrementable whether the job has a parameters incrementer
+	 */
+	public JobSummary(String jobName, boolean launchable, boolean incrementable) {
+		this(jobName, 0, 0, null, null, null, null, launchable, incrementable);
+	}
+
+	/**
+	 * Copy of a summary read from the repository, with the flags of the job
+	 * registry.
+	 *
+	 * @param summary the summary read from the repository
+	 * @param launchable whether the job is in the job registry
+	 * @param incrementable whether the job has a parameters incrementer
+	 */
+	public JobSummary(JobSummary summary, boolean launchable, boolean incrementable) {
+		this(summary.jobName, summary.instanceCount, summary.executionCount, summary.lastExecutionId,
+				summary.lastExecutionStatus, summary.lastExecutionStartTime, summary.lastExecutionEndTime, launchable,
+				incrementable);
+	}
+
+	public JobSummary(String jobName, int instanceCount, int executionCount, Long lastExecutionId,
+			BatchStatus lastExecutionStatus, Date lastExecutionStartTime, Date lastExecutionEndTime,
+			boolean launchable, boolean incrementable) {
+		this.jobName = jobName;
+		this.instanceCount = instanceCount;
+		this.executionCount = executionCount;
+		this.lastExecutionId = lastExecutionId;
+		this.lastExecutionStatus = lastExecutionStatus;
+		this.lastExecutionStartTime = lastExecutionStartTime;
+		this.lastExecutionEndTime = lastExecutionEndTime;
+		this.launchable = launchable;
+		this.incrementable = incrementable;
+	}
+
+	public String getJobName() {
+		return jobName;
+	}
+
+	public int getInstanceCount() {
+		return instanceCount;
+	}
+
+	public int getExecutionCount() {
+		return executionCount;
+	}
+
+	/**
+	 * @return the id of the last execution, or null if the job never ran
+	 */
+	public Long getLastExecutionId() {
+		return lastExecutionId;
+	}
+
+	public BatchStatus getLastExecutionStatus() {
+		return lastExecutionStatus;
+	}
+
+	public Date getLastExecutionStartTime() {
+		return lastExecutionStartTime;
+	}
+
+	public Date getLastExecutionEndTime() {
+		return lastExecutionEndTime;
+	}
+
+	public boolean isLaunchable() {
+		return launchable;
+	}
+
+	public boolean isIncrementable() {
+		return incrementable;
+	}
+
+	@Override
+	public String toString() {
+		return jobName;
+	}
+
+}
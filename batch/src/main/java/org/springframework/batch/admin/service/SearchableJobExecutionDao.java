@@ -16,8 +16,10 @@
 package org.springframework.batch.admin.service;
 
 import java.util.Collection;
+import java.util.Date;
 import java.util.List;
 
+import org.springframework.batch.admin.history.JobExecutionHistory;
 import org.springframework.batch.core.JobExecution;
 import org.springframework.batch.core.repository.dao.JobExecutionDao;
 
@@ -53,6 +55,58 @@ public interface SearchableJobExecutionDao extends JobExecutionDao {
 	 */
 	List<JobExecution> getJobExecutions(int start, int count);
 
+	/**
+	 * Get the {@link JobExecution JobExecutions} that come after the given one
+	 * in reverse order of creation, i.e. the older ones. The execution id acts
+	 * as a cursor so the cost of a page does not grow with its depth.
+	 *
+	 * @param afterExecutionId the id of the last execution of the previous page
+	 * @param count the maximum number of instances to return
+	 * @return the {@link JobExecution} instances requested
+	 */
+	List<JobExecution> getJobExecutionsAfter(long afterExecutionId, int count);
+
+	/**
+	 * Get the {@link JobExecution JobExecutions} that come before the given
+	 * one in reverse order of creation, i.e. the more recent ones, still in
+	 * reverse order of creation.
+	 *
+	 * @param beforeExecutionId the id of the first execution of the page
+	 * already seen
+	 * @param count the maximum number of instances to return
+	 * @return the {@link JobExecution} instances requested
+	 */
+	List<JobExecution> getJobExecutionsBefore(long beforeExecutionId, int count);
+
+	/**
+	 * Get the most recent {@link JobExecution JobExecutions} of a job, in
+	 * reverse order of creation, with a summary of their step executions
+	 * (name, status and exit status) read with one query per chunk of job
+	 * executions.
+	 *
+	 * @param jobName the name of the job
+	 * @param count the maximum number of job executions to return
+	 * @return the {@link JobExecution} instances requested
+	 */
+	List<JobExecution> getJobExecutionsWithStepExecutions(String jobName, int count);
+
+	/**
+	 * Read the most recent {@link JobExecution JobExecutions} of a job, in
+	 * reverse order of creation, and pass them to the callback as they are
+	 * read, so that the whole history of a job can be processed without
+	 * loading it in memory. The executions are read in chunks, each in a short
+	 * read-only transaction, and no database connection is held while the
+	 * callback runs.
+	 *
+	 * @param jobName the name of the job
+	 * @param count the maximum number of job executions to read
+	 * @param withStepExecutions true to read a summary of the step executions
+	 * (name, status and exit status) with each chunk
+	 * @param callback the callback receiving the job executions
+	 */
+	void streamJobExecutions(String jobName, int count, boolean withStepExecutions,
+			ExecutionCallback<JobExecution> callback);
+
 	/**
 	 * @param jobName the name of a job
 	 * @return the number of {@link JobExecution JobExecutions} belonging to
@@ -60,6 +114,57 @@ public interface SearchableJobExecutionDao extends JobExecutionDao {
 	 */
 	int countJobExecutions(String jobName);
 
+	/**
+	 * Count the job executions of each job created after a given id, to
+	 * maintain the counts incrementally.
+	 * 
+	 * @param afterJobExecutionId the id after which the executions are counted
+	 * (-1 for all the executions)
+	 * @return the counts of the jobs with such executions
+	 */
+	List<JobCount> countJobExecutionsByJobName(long afterJobExecutionId);
+
+	/**
+	 * Summarize the executions of some jobs with a single aggregate query.
+	 * 
+	 * @param jobNames the names of the jobs
+	 * @return the summaries of the jobs found in the repository, not
+	 * launchable
+	 */
+	List<JobSummary> getJobSummaries(Collection<String> jobNames);
+
+	/**
+	 * Read the states of the running job executions and of the job executions
+	 * updated since a date, each followed by the states of its step
+	 * executions, without loading the parameters nor the execution contexts.
+	 * 
+	 * @param updatedSince the date after which the finished job executions
+	 * are read too, or null to read only the running job executions
+	 * @return the states ordered by job execution id and step execution id
+	 */
+	List<ExecutionState> getExecutionStates(Date updatedSince);
+
+	/**
+	 * Read the state of a job execution followed by the states of its step
+	 * executions, as a cheap probe of its changes.
+	 * 
+	 * @param jobExecutionId the id of the job execution
+	 * @return the states ordered by step execution id, empty if there is no
+	 * such job execution
+	 */
+	List<ExecutionState> getJobExecutionStates(Long jobExecutionId);
+
+	/**
+	 * Read the serialized execution context of a job execution, without
+	 * deserializing it.
+	 * 
+	 * @param jobExecutionId the id of the job execution
+	 * @param shortContext true to read only the short context, truncated by
+	 * the job repository when the context is long
+	 * @return the serialized context, or null if there is none
+	 */
+	String getSerializedExecutionContext(Long jobExecutionId, boolean shortContext);
+
 	/**
 	 * Find all the running executions (status less than STOPPING).
 	 *
@@ -67,4 +172,13 @@ public interface SearchableJobExecutionDao extends JobExecutionDao {
 	 */
 	Collection<JobExecution> getRunningJobExecutions();
 
+	/**
+	 * Compute the duration statistics of the finished executions of a job
+	 * in the database, without reading the executions.
+	 *
+	 * @param jobName the name of the job
+	 * @return the history, or null if the database cannot compute it
+	 */
+	JobExecutionHistory getJobExecutionHistory(String jobName);
+
 }
@@ -15,6 +15,8 @@
  */
 package org.springframework.batch.admin.service;
 
+import java.util.List;
+
 import org.springframework.batch.core.repository.dao.JobInstanceDao;
 
 /**
@@ -29,4 +31,14 @@ public interface SearchableJobInstanceDao extends JobInstanceDao {
 	 */
 	int countJobInstances(String name);
 
+	/**
+	 * Count the job instances of each job created after a given id, to
+	 * maintain the counts incrementally.
+	 * 
+	 * @param afterJobInstanceId the id after which the instances are counted
+	 * (-1 for all the instances)
+	 * @return the counts of the jobs with such instances
+	 */
+	List<JobCount> countJobInstancesByJobName(long afterJobInstanceId);
+
 }
@@ -16,7 +16,11 @@
 package org.springframework.batch.admin.service;
 
 import java.util.Collection;
+import java.util.Date;
+import java.util.List;
 
+import org.springframework.batch.admin.history.StepExecutionHistory;
+import org.springframework.batch.core.JobExecution;
 import org.springframework.batch.core.StepExecution;
 import org.springframework.batch.core.repository.dao.StepExecutionDao;
 
@@ -59,6 +63,62 @@ public interface SearchableStepExecutionDao extends StepExecutionDao {
 	Collection<StepExecution> findStepExecutions(String jobName, String stepName,
 												 int start, int count);
 	
+	/**
+	 * Find the step executions for a given step name, or step name pattern
+	 * (with wildcards specified as '*'), created after a given step execution,
+	 * sorted in ascending order of id.
+	 * @param jobName the job name or pattern
+	 * @param stepName the step name or pattern
+	 * @param afterStepExecutionId the id of the last step execution already
+	 * known
+	 * @param count the maximum number of step executions to return
+	 * 
+	 * @return a list of step executions
+	 */
+	List<StepExecution> findStepExecutionsAfter(String jobName, String stepName, long afterStepExecutionId,
+			int count);
+
+	/**
+	 * Get step executions by id, without their job execution.
+	 * 
+	 * @param stepExecutionIds the ids of the step executions
+	 * @return the step executions found, in no particular order
+	 */
+	List<StepExecution> getStepExecutions(Collection<Long> stepExecutionIds);
+
+	/**
+	 * Get the highest id of the step executions for a given step name, or step
+	 * name pattern (with wildcards specified as '*').
+	 * @param jobName the job name or pattern
+	 * @param stepName the step name or pattern
+	 * 
+	 * @return the highest step execution id, or -1 if there is none
+	 */
+	long getMaxStepExecutionId(String jobName, String stepName);
+
+	/**
+	 * Find the ids of the unfinished step executions for a given step name, or
+	 * step name pattern (with wildcards specified as '*').
+	 * @param jobName the job name or pattern
+	 * @param stepName the step name or pattern
+	 * @param maxStepExecutionId the highest step execution id to consider
+	 * 
+	 * @return the ids of the step executions without end time
+	 */
+	List<Long> findUnfinishedStepExecutionIds(String jobName, String stepName, long maxStepExecutionId);
+
+	/**
+	 * Compute the history of the finished step executions for a given step
+	 * name, or step name pattern (with wildcards specified as '*'), in the
+	 * database, without reading the step executions.
+	 * @param jobName the job name or pattern
+	 * @param stepName the step name or pattern
+	 * @param maxStepExecutionId the highest step execution id to consider
+	 * 
+	 * @return the history, or null if the database cannot compute it
+	 */
+	StepExecutionHistory getStepExecutionHistory(String jobName, String stepName, long maxStepExecutionId);
+
 	/**
 	 * Count all the step executions for a given step name pattern.
 	 * @param jobName the job name pattern
@@ -67,4 +127,43 @@ public interface SearchableStepExecutionDao extends StepExecutionDao {
 	 * @return the total number of step executions in the repository matching the pattern
 	 */
 	int countStepExecutions(String jobName, String stepName);
+
+	/**
+	 * Retrieve the step executions of several job executions and add them to
+	 * their respective job execution, as {@link #addStepExecutions(JobExecution)}
+	 * does for a single one, but without a query per job execution.
+	 * 
+	 * @param jobExecutions the parent job executions
+	 */
+	void addStepExecutions(Collection<JobExecution> jobExecutions);
+
+	/**
+	 * Read the serialized execution context of a step execution, without
+	 * deserializing it.
+	 * 
+	 * @param jobExecutionId the id of the job execution
+	 * @param stepExecutionId the id of the step execution
+	 * @param shortContext true to read only the short context, truncated by
+	 * the job repository when the context is long
+	 * @return the serialized context, or null if there is none
+	 */
+	String getSerializedExecutionContext(Long jobExecutionId, Long stepExecutionId, boolean shortContext);
+
+	/**
+	 * Read the step executions for a given job and step name, or name pattern
+	 * (with wildcards specified as '*'), started in a time range, in
+	 * ascending order of id, and pass them to the callback as they are read.
+	 * The step executions are read in chunks, each in a short read-only
+	 * transaction, and no database connection is held while the callback
+	 * runs. The job execution of each step execution only carries its id and
+	 * job instance.
+	 * 
+	 * @param jobName the job name or pattern
+	 * @param stepName the step name or pattern
+	 * @param startedAfter the lowest start time, inclusive, or null
+	 * @param startedBefore the highest start time, exclusive, or null
+	 * @param callback the callback receiving the step executions
+	 */
+	void streamStepExecutions(String jobName, String stepName, Date startedAfter, Date startedBefore,
+			ExecutionCallback<StepExecution> callback);
 }
@@ -17,6 +17,9 @@ package org.springframework.batch.admin.service;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.springframework.batch.admin.history.HistoryPolicy;
+import org.springframework.batch.admin.history.JobExecutionHistory;
+import org.springframework.batch.admin.history.StepExecutionHistory;
 import org.springframework.batch.core.BatchStatus;
 import org.springframework.batch.core.Job;
 import org.springframework.batch.core.JobExecution;
@@ -45,10 +48,12 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Implementation of {@link JobService} that delegates most of its work to other
@@ -79,8 +84,16 @@ public class SimpleJobService implements JobService, DisposableBean {
 
 	private final ExecutionContextDao executionContextDao;
 
+	private final StepExecutionHistoryStore stepExecutionHistoryStore;
+
+	private ExecutionCache executionCache = new ExecutionCache();
+
+	private JobCatalog jobCatalog;
+
 	private Collection<JobExecution> activeExecutions = Collections.synchronizedList(new ArrayList<JobExecution>());
 
+	private final ExecutionChangeDetector executionChangeDetector = new ExecutionChangeDetector(this);
+
 	private int shutdownTimeout = DEFAULT_SHUTDOWN_TIMEOUT;
 
 	/**
@@ -92,6 +105,56 @@ public class SimpleJobService implements JobService, DisposableBean {
 		this.shutdownTimeout = shutdownTimeout;
 	}
 
+	/**
+	 * Statistics kept in the step execution histories used to estimate the
+	 * progress of the steps.
+	 *
+	 * @param historyPolicy the policy of the steps without a specific one
+	 * (default cumulative)
+	 */
+	public void setHistoryPolicy(HistoryPolicy historyPolicy) {
+		stepExecutionHistoryStore.setDefaultPolicy(historyPolicy);
+	}
+
+	/**
+	 * @param historyPolicies the policies of specific steps, by
+	 * <code>jobName/stepName</code>
+	 */
+	public void setHistoryPolicies(Map<String, HistoryPolicy> historyPolicies) {
+		stepExecutionHistoryStore.setPolicies(historyPolicies);
+	}
+
+	/**
+	 * @param historyMaxEntries the maximum number of step execution histories
+	 * kept in memory (default
+	 * {@link StepExecutionHistoryStore#DEFAULT_MAX_ENTRIES})
+	 */
+	public void setHistoryMaxEntries(int historyMaxEntries) {
+		stepExecutionHistoryStore.setMaxEntries(historyMaxEntries);
+	}
+
+	/**
+	 * Cache of the completed and abandoned executions, which do not change any
+	 * more.
+	 *
+	 * @param executionCache the cache (default an {@link ExecutionCache} with
+	 * its default bounds)
+	 */
+	public void setExecutionCache(ExecutionCache executionCache) {
+		this.executionCache = executionCache;
+	}
+
+	/**
+	 * Catalog of the job names and of their instance and execution counts,
+	 * used instead of querying the repository each time they are listed or
+	 * counted.
+	 *
+	 * @param jobCatalog the catalog (default none)
+	 */
+	public void setJobCatalog(JobCatalog jobCatalog) {
+		this.jobCatalog = jobCatalog;
+	}
+
 	public SimpleJobService(SearchableJobInstanceDao jobInstanceDao, SearchableJobExecutionDao jobExecutionDao,
 			SearchableStepExecutionDao stepExecutionDao, JobRepository jobRepository, JobLauncher jobLauncher,
 			ListableJobLocator jobLocator, ExecutionContextDao executionContextDao) {
@@ -103,6 +166,7 @@ public class SimpleJobService implements JobService, DisposableBean {
 		this.jobLauncher = jobLauncher;
 		this.jobLocator = jobLocator;
 		this.executionContextDao = executionContextDao;
+		this.stepExecutionHistoryStore = new StepExecutionHistoryStore(stepExecutionDao);
 	}
 
 	@Override
@@ -116,38 +180,7 @@ public class SimpleJobService implements JobService, DisposableBean {
 		stepExecutionDao.addStepExecutions(jobExecution);
 
 		String jobName = jobExecution.getJobInstance() == null ? jobInstanceDao.getJobInstance(jobExecution).getJobName() : jobExecution.getJobInstance().getJobName();
-		Collection<String> missingStepNames = new LinkedHashSet<String>();
-
-		if (jobName != null) {
-			missingStepNames.addAll(stepExecutionDao.findStepNamesForJobExecution(jobName, "*:partition*"));
-			logger.debug("Found step executions in repository: " + missingStepNames);
-		}
-
-		Job job = null;
-		try {
-			job = jobLocator.getJob(jobName);
-		}
-		catch (NoSuchJobException e) {
-			// expected
-		}
-		if (job instanceof StepLocator) {
-			Collection<String> stepNames = ((StepLocator) job).getStepNames();
-			missingStepNames.addAll(stepNames);
-			logger.debug("Added step executions from job: " + missingStepNames);
-		}
-
-		for (StepExecution stepExecution : jobExecution.getStepExecutions()) {
-			String stepName = stepExecution.getStepName();
-			if (missingStepNames.contains(stepName)) {
-				missingStepNames.remove(stepName);
-			}
-			logger.debug("Removed step executions from job execution: " + missingStepNames);
-		}
-
-		for (String stepName : missingStepNames) {
-			StepExecution stepExecution = jobExecution.createStepExecution(stepName);
-			stepExecution.setStatus(BatchStatus.UNKNOWN);
-		}
+		addMissingStepExecutions(jobExecution, findStepNames(jobName));
 
 		return jobExecution.getStepExecutions();
 
@@ -160,9 +193,12 @@ public class SimpleJobService implements JobService, DisposableBean {
 
 	@Override
 	public boolean isIncrementable(String jobName) {
+		return jobLocator.getJobNames().contains(jobName) && hasIncrementer(jobName);
+	}
+
+	private boolean hasIncrementer(String jobName) {
 		try {
-			return jobLocator.getJobNames().contains(jobName)
-					&& jobLocator.getJob(jobName).getJobParametersIncrementer() != null;
+			return jobLocator.getJob(jobName).getJobParametersIncrementer() != null;
 		}
 		catch (NoSuchJobException e) {
 			// Should not happen
@@ -241,6 +277,16 @@ public class SimpleJobService implements JobService, DisposableBean {
 		return jobExecutionDao.getJobExecutions(start, count);
 	}
 
+	@Override
+	public Collection<JobExecution> listJobExecutionsAfter(long afterExecutionId, int count) {
+		return jobExecutionDao.getJobExecutionsAfter(afterExecutionId, count);
+	}
+
+	@Override
+	public Collection<JobExecution> listJobExecutionsBefore(long beforeExecutionId, int count) {
+		return jobExecutionDao.getJobExecutionsBefore(beforeExecutionId, count);
+	}
+
 	@Override
 	public int countJobExecutions() {
 		return jobExecutionDao.countJobExecutions();
@@ -250,7 +296,7 @@ public class SimpleJobService implements JobService, DisposableBean {
 	public Collection<String> listJobs(int start, int count) {
 		Collection<String> jobNames = new LinkedHashSet<String>(jobLocator.getJobNames());
 		if (start + count > jobNames.size()) {
-			jobNames.addAll(jobInstanceDao.getJobNames());
+			jobNames.addAll(getJobNames());
 		}
 		if (start >= jobNames.size()) {
 			start = jobNames.size();
@@ -261,13 +307,60 @@ public class SimpleJobService implements JobService, DisposableBean {
 		return new ArrayList<String>(jobNames).subList(start, start + count);
 	}
 
+	@Override
+	public Collection<String> listJobs(String text, int start, int count) {
+		List<String> jobNames = searchJobNames(text);
+		if (start >= jobNames.size()) {
+			return Collections.emptyList();
+		}
+		return new ArrayList<String>(jobNames.subList(start, Math.min(start + count, jobNames.size())));
+	}
+
+	@Override
+	public Collection<JobSummary> listJobSummaries(int start, int count) {
+		return getJobSummaries(listJobs(start, count));
+	}
+
+	@Override
+	public Collection<JobSummary> listJobSummaries(String text, int start, int count) {
+		return getJobSummaries(listJobs(text, start, count));
+	}
+
+	private Collection<JobSummary> getJobSummaries(Collection<String> jobNames) {
+		Map<String, JobSummary> found = new HashMap<String, JobSummary>();
+		if (!jobNames.isEmpty()) {
+			for (JobSummary summary : jobExecutionDao.getJobSummaries(jobNames)) {
+				found.put(summary.getJobName(), summary);
+			}
+		}
+		Collection<String> registered = jobLocator.getJobNames();
+		List<JobSummary> summaries = new ArrayList<JobSummary>();
+		for (String jobName : jobNames) {
+			boolean launchable = registered.contains(jobName);
+			boolean incrementable = launchable && hasIncrementer(jobName);
+			JobSummary summary = found.get(jobName);
+			if (summary == null) {
+				summaries.add(new JobSummary(jobName, launchable, incrementable));
+			}
+			else {
+				summaries.add(new JobSummary(summary, launchable, incrementable));
+			}
+		}
+		return summaries;
+	}
+
 	@Override
 	public int countJobs() {
 		Collection<String> names = new HashSet<String>(jobLocator.getJobNames());
-		names.addAll(jobInstanceDao.getJobNames());
+		names.addAll(getJobNames());
 		return names.size();
 	}
 
+	@Override
+	public int countJobs(String text) {
+		return searchJobNames(text).size();
+	}
+
 	@Override
 	public int stopAll() {
 		Collection<JobExecution> result = jobExecutionDao.getRunningJobExecutions();
@@ -281,7 +374,9 @@ public class SimpleJobService implements JobService, DisposableBean {
 	@Override
 	public JobExecution stop(Long jobExecutionId) throws NoSuchJobExecutionException, JobExecutionNotRunningException {
 
-		JobExecution jobExecution = getJobExecution(jobExecutionId);
+		// the cached execution is shared, so a fresh one is changed
+		executionCache.evictJobExecution(jobExecutionId);
+		JobExecution jobExecution = loadJobExecution(jobExecutionId, true);
 		if (!jobExecution.isRunning()) {
 			throw new JobExecutionNotRunningException("JobExecution is not running and therefore cannot be stopped");
 		}
@@ -297,7 +392,9 @@ public class SimpleJobService implements JobService, DisposableBean {
 	public JobExecution abandon(Long jobExecutionId) throws NoSuchJobExecutionException,
 	JobExecutionAlreadyRunningException {
 
-		JobExecution jobExecution = getJobExecution(jobExecutionId);
+		// the cached execution is shared, so a fresh one is changed
+		executionCache.evictJobExecution(jobExecutionId);
+		JobExecution jobExecution = loadJobExecution(jobExecutionId, true);
 		if (jobExecution.getStatus().isLessThan(BatchStatus.STOPPING)) {
 			throw new JobExecutionAlreadyRunningException(
 					"JobExecution is running or complete and therefore cannot be aborted");
@@ -313,27 +410,62 @@ public class SimpleJobService implements JobService, DisposableBean {
 
 	@Override
 	public int countJobExecutionsForJob(String name) throws NoSuchJobException {
+		if (jobCatalog != null) {
+			int count = jobCatalog.getJobExecutionCount(name);
+			if (count >= 0) {
+				return count;
+			}
+		}
 		checkJobExists(name);
 		return jobExecutionDao.countJobExecutions(name);
 	}
 
 	@Override
 	public int countJobInstances(String name) throws NoSuchJobException {
+		if (jobCatalog != null) {
+			int count = jobCatalog.getJobInstanceCount(name);
+			if (count >= 0) {
+				return count;
+			}
+		}
 		return jobInstanceDao.countJobInstances(name);
 	}
 
 	@Override
 	public JobExecution getJobExecution(Long jobExecutionId) throws NoSuchJobExecutionException {
+		return getJobExecution(jobExecutionId, true);
+	}
+
+	@Override
+	public JobExecution getJobExecution(Long jobExecutionId, boolean loadContext) throws NoSuchJobExecutionException {
+		JobExecution jobExecution = executionCache.getJobExecution(jobExecutionId, loadContext);
+		if (jobExecution != null) {
+			return jobExecution;
+		}
+		jobExecution = loadJobExecution(jobExecutionId, loadContext);
+		// only completed and abandoned executions are cached
+		executionCache.putJobExecution(jobExecution, loadContext);
+		return jobExecution;
+	}
+
+	/**
+	 * Read a job execution with its instance and step executions from the
+	 * repository, bypassing the cache.
+	 */
+	private JobExecution loadJobExecution(Long jobExecutionId, boolean loadContext)
+			throws NoSuchJobExecutionException {
 		JobExecution jobExecution = jobExecutionDao.getJobExecution(jobExecutionId);
 		if (jobExecution == null) {
 			throw new NoSuchJobExecutionException("There is no JobExecution with id=" + jobExecutionId);
 		}
 		jobExecution.setJobInstance(jobInstanceDao.getJobInstance(jobExecution));
-		try {
-			jobExecution.setExecutionContext(executionContextDao.getExecutionContext(jobExecution));
-		}
-		catch (Exception e) {
-			logger.info("Cannot load execution context for job execution: " + jobExecution);
+		if (loadContext) {
+			try {
+				jobExecution.setExecutionContext(executionContextDao.getExecutionContext(jobExecution));
+			}
+			catch (Exception e) {
+				logger.info("Cannot load execution context for job execution: " + jobExecution);
+			}
 		}
 		stepExecutionDao.addStepExecutions(jobExecution);
 		return jobExecution;
@@ -345,41 +477,124 @@ public class SimpleJobService implements JobService, DisposableBean {
 		checkJobExists(name);
 		List<JobExecution> jobExecutions = jobExecutionDao.findJobExecutions(jobInstanceDao
 				.getJobInstance(jobInstanceId));
-		for (JobExecution jobExecution : jobExecutions) {
-			stepExecutionDao.addStepExecutions(jobExecution);
-		}
+		stepExecutionDao.addStepExecutions(jobExecutions);
 		return jobExecutions;
 	}
 
 	@Override
 	public StepExecution getStepExecution(Long jobExecutionId, Long stepExecutionId)
 			throws NoSuchJobExecutionException, NoSuchStepExecutionException {
-		JobExecution jobExecution = getJobExecution(jobExecutionId);
+		return getStepExecution(jobExecutionId, stepExecutionId, true);
+	}
+
+	@Override
+	public StepExecution getStepExecution(Long jobExecutionId, Long stepExecutionId, boolean loadContext)
+			throws NoSuchJobExecutionException, NoSuchStepExecutionException {
+		StepExecution cached = executionCache.getStepExecution(stepExecutionId);
+		if (cached != null && jobExecutionId.equals(cached.getJobExecutionId())) {
+			return cached;
+		}
+		JobExecution jobExecution = getJobExecution(jobExecutionId, loadContext);
+		if (!loadContext) {
+			// the step executions of the job execution are read without context
+			for (StepExecution stepExecution : jobExecution.getStepExecutions()) {
+				if (stepExecutionId.equals(stepExecution.getId())) {
+					return stepExecution;
+				}
+			}
+		}
 		StepExecution stepExecution = stepExecutionDao.getStepExecution(jobExecution, stepExecutionId);
 		if (stepExecution == null) {
 			throw new NoSuchStepExecutionException("There is no StepExecution with jobExecutionId=" + jobExecutionId
 					+ " and id=" + stepExecutionId);
 		}
-		try {
-			stepExecution.setExecutionContext(executionContextDao.getExecutionContext(stepExecution));
-		}
-		catch (Exception e) {
-			logger.info("Cannot load execution context for step execution: " + stepExecution);
+		if (loadContext) {
+			try {
+				stepExecution.setExecutionContext(executionContextDao.getExecutionContext(stepExecution));
+			}
+			catch (Exception e) {
+				logger.info("Cannot load execution context for step execution: " + stepExecution);
+			}
+			executionCache.putStepExecution(stepExecution);
 		}
 		return stepExecution;
 	}
 
+	@Override
+	public String getSerializedExecutionContext(Long jobExecutionId, boolean shortContext)
+			throws NoSuchJobExecutionException {
+		String context = jobExecutionDao.getSerializedExecutionContext(jobExecutionId, shortContext);
+		if (context == null && jobExecutionDao.getJobExecution(jobExecutionId) == null) {
+			throw new NoSuchJobExecutionException("There is no JobExecution with id=" + jobExecutionId);
+		}
+		return context;
+	}
+
+	@Override
+	public String getSerializedExecutionContext(Long jobExecutionId, Long stepExecutionId, boolean shortContext)
+			throws NoSuchStepExecutionException {
+		String context = stepExecutionDao.getSerializedExecutionContext(jobExecutionId, stepExecutionId,
+				shortContext);
+		if (context == null) {
+			throw new NoSuchStepExecutionException("There is no StepExecution context with jobExecutionId="
+					+ jobExecutionId + " and id=" + stepExecutionId);
+		}
+		return context;
+	}
+
+	@Override
+	public void streamStepExecutions(String jobName, String stepName, Date startedAfter, Date startedBefore,
+			ExecutionCallback<StepExecution> callback) {
+		stepExecutionDao.streamStepExecutions(jobName, stepName, startedAfter, startedBefore, callback);
+	}
+
 	@Override
 	public Collection<JobExecution> listJobExecutionsForJob(String jobName, int start, int count)
 			throws NoSuchJobException {
 		checkJobExists(jobName);
 		List<JobExecution> jobExecutions = jobExecutionDao.getJobExecutions(jobName, start, count);
-		for (JobExecution jobExecution : jobExecutions) {
-			stepExecutionDao.addStepExecutions(jobExecution);
-		}
+		stepExecutionDao.addStepExecutions(jobExecutions);
+		return jobExecutions;
+	}
+
+	@Override
+	public Collection<JobExecution> listJobExecutionTree(String jobName, int count, boolean withStepExecutions)
+			throws NoSuchJobException {
+		final List<JobExecution> jobExecutions = new ArrayList<JobExecution>();
+		streamJobExecutionTree(jobName, count, withStepExecutions, new ExecutionCallback<JobExecution>() {
+			@Override
+			public void handle(JobExecution jobExecution) {
+				jobExecutions.add(jobExecution);
+			}
+		});
 		return jobExecutions;
 	}
 
+	@Override
+	public void streamJobExecutionTree(String jobName, int count, boolean withStepExecutions,
+			final ExecutionCallback<JobExecution> callback) throws NoSuchJobException {
+		checkJobExists(jobName);
+		if (!withStepExecutions) {
+			jobExecutionDao.streamJobExecutions(jobName, count, false, callback);
+			return;
+		}
+		final Collection<String> stepNames = findStepNames(jobName);
+		jobExecutionDao.streamJobExecutions(jobName, count, true, new ExecutionCallback<JobExecution>() {
+			@Override
+			public void handle(JobExecution jobExecution) {
+				addMissingStepExecutions(jobExecution, stepNames);
+				callback.handle(jobExecution);
+			}
+		});
+	}
+
+	@Override
+	public void streamJobExecutionsForJob(String jobName, ExecutionCallback<JobExecution> callback)
+			throws NoSuchJobException {
+		checkJobExists(jobName);
+		jobExecutionDao.streamJobExecutions(jobName, Integer.MAX_VALUE, true, callback);
+	}
+
 	@Override
 	public Collection<StepExecution> listStepExecutionsForStep(String jobName, String stepName, int start, int count)
 			throws NoSuchStepException {
@@ -394,6 +609,59 @@ public class SimpleJobService implements JobService, DisposableBean {
 		return stepExecutionDao.countStepExecutions(jobName, stepName);
 	}
 
+	@Override
+	public StepExecutionHistory getStepExecutionHistory(String jobName, String stepName) {
+		return stepExecutionHistoryStore.getStepExecutionHistory(jobName, stepName);
+	}
+
+	@Override
+	public JobExecutionHistory getJobExecutionHistory(String jobName) throws NoSuchJobException {
+		checkJobExists(jobName);
+		JobExecutionHistory jobExecutionHistory = jobExecutionDao.getJobExecutionHistory(jobName);
+		if (jobExecutionHistory == null) {
+			// the database cannot aggregate the durations
+			final JobExecutionHistory history = new JobExecutionHistory(jobName);
+			jobExecutionDao.streamJobExecutions(jobName, Integer.MAX_VALUE, false,
+					new ExecutionCallback<JobExecution>() {
+						@Override
+						public void handle(JobExecution jobExecution) {
+							history.append(jobExecution);
+						}
+					});
+			jobExecutionHistory = history;
+		}
+		return jobExecutionHistory;
+	}
+
+	@Override
+	public ExecutionCacheStatistics getExecutionCacheStatistics() {
+		return executionCache.getStatistics();
+	}
+
+	@Override
+	public void evictJobExecution(Long jobExecutionId) {
+		executionCache.evictJobExecution(jobExecutionId);
+	}
+
+	@Override
+	public Collection<ExecutionState> getExecutionStates(Date updatedSince) {
+		return jobExecutionDao.getExecutionStates(updatedSince);
+	}
+
+	@Override
+	public ExecutionChangeDetector getExecutionChangeDetector() {
+		return executionChangeDetector;
+	}
+
+	@Override
+	public List<ExecutionState> getJobExecutionStates(Long jobExecutionId) throws NoSuchJobExecutionException {
+		List<ExecutionState> states = jobExecutionDao.getJobExecutionStates(jobExecutionId);
+		if (states.isEmpty()) {
+			throw new NoSuchJobExecutionException("There is no JobExecution with id=" + jobExecutionId);
+		}
+		return states;
+	}
+
 	@Override
 	public JobInstance getJobInstance(long jobInstanceId) throws NoSuchJobInstanceException {
 		JobInstance jobInstance = jobInstanceDao.getJobInstance(jobInstanceId);
@@ -429,10 +697,97 @@ public class SimpleJobService implements JobService, DisposableBean {
 		return Collections.unmodifiableList(new ArrayList<String>(stepNames));
 	}
 
+	/**
+	 * @param jobName the job name
+	 * @return the names of the steps found in the repository for this job and
+	 * in the job definition, if it is registered
+	 */
+	private Collection<String> findStepNames(String jobName) {
+		Collection<String> stepNames = new LinkedHashSet<String>();
+
+		if (jobName != null) {
+			stepNames.addAll(stepExecutionDao.findStepNamesForJobExecution(jobName, "*:partition*"));
+			logger.debug("Found step executions in repository: " + stepNames);
+		}
+
+		Job job = null;
+		try {
+			job = jobLocator.getJob(jobName);
+		}
+		catch (NoSuchJobException e) {
+			// expected
+		}
+		if (job instanceof StepLocator) {
+			stepNames.addAll(((StepLocator) job).getStepNames());
+			logger.debug("Added step executions from job: " + stepNames);
+		}
+		return stepNames;
+	}
+
+	/**
+	 * Add a step execution with status {@link BatchStatus#UNKNOWN} for each
+	 * step that did not run in the job execution.
+	 * 
+	 * @param jobExecution the job execution with its step executions
+	 * @param stepNames the step names of the job
+	 */
+	private void addMissingStepExecutions(JobExecution jobExecution, Collection<String> stepNames) {
+		Collection<String> missingStepNames = new LinkedHashSet<String>(stepNames);
+		for (StepExecution stepExecution : jobExecution.getStepExecutions()) {
+			missingStepNames.remove(stepExecution.getStepName());
+		}
+		logger.debug("Removed step executions from job execution: " + missingStepNames);
+
+		for (String stepName : missingStepNames) {
+			StepExecution stepExecution = jobExecution.createStepExecution(stepName);
+			stepExecution.setStatus(BatchStatus.UNKNOWN);
+		}
+	}
+
+	private Collection<String> getJobNames() {
+		return jobCatalog == null ? jobInstanceDao.getJobNames() : jobCatalog.getJobNames();
+	}
+
+	/**
+	 * Search the names of the launchable jobs, then of the jobs found in the
+	 * repository only, the latter with the index of the job catalog if any.
+	 */
+	private List<String> searchJobNames(String text) {
+		Collection<String> registered = jobLocator.getJobNames();
+		List<String> jobNames = new ArrayList<String>();
+		for (String jobName : registered) {
+			if (JobNameIndex.matches(jobName, text)) {
+				jobNames.add(jobName);
+			}
+		}
+		Collection<String> found;
+		if (jobCatalog != null) {
+			found = jobCatalog.getJobNameIndex().search(text);
+		}
+		else {
+			found = new ArrayList<String>();
+			for (String jobName : jobInstanceDao.getJobNames()) {
+				if (JobNameIndex.matches(jobName, text)) {
+					found.add(jobName);
+				}
+			}
+		}
+		Collection<String> launchable = new HashSet<String>(registered);
+		for (String jobName : found) {
+			if (!launchable.contains(jobName)) {
+				jobNames.add(jobName);
+			}
+		}
+		return jobNames;
+	}
+
 	private void checkJobExists(String jobName) throws NoSuchJobException {
 		if (jobLocator.getJobNames().contains(jobName)) {
 			return;
 		}
+		if (jobCatalog != null && jobCatalog.getJobInstanceCount(jobName) > 0) {
+			return;
+		}
 		if (jobInstanceDao.countJobInstances(jobName) > 0) {
 			return;
 		}
@@ -481,21 +836,31 @@ public class SimpleJobService implements JobService, DisposableBean {
 
 	/**
 	 * Check all the active executions and see if they are still actually
-	 * running. Remove the ones that have completed.
+	 * running. Remove the ones that have completed, from their lightweight
+	 * states instead of loading each of them.
 	 */
 	@Scheduled(fixedDelay = 60000)
 	public void removeInactiveExecutions() {
 
-		for (Iterator<JobExecution> iterator = activeExecutions.iterator(); iterator.hasNext();) {
-			JobExecution jobExecution = iterator.next();
-			try {
-				jobExecution = getJobExecution(jobExecution.getId());
-			}
-			catch (NoSuchJobExecutionException e) {
-				logger.error("Unexpected exception loading JobExecution", e);
+		if (activeExecutions.isEmpty()) {
+			return;
+		}
+		Map<Long, ExecutionState> states = new HashMap<Long, ExecutionState>();
+		executionChangeDetector.detectChanges();
+		for (ExecutionState state : executionChangeDetector.getStates()) {
+			if (state.isJobExecution()) {
+				states.put(state.getJobExecutionId(), state);
 			}
-			if (!jobExecution.isRunning()) {
-				iterator.remove();
+		}
+
+		synchronized (activeExecutions) {
+			for (Iterator<JobExecution> iterator = activeExecutions.iterator(); iterator.hasNext();) {
+				ExecutionState state = states.get(iterator.next().getId());
+				// the executions which are neither running nor updated since
+				// the previous check are not read any more
+				if (state == null || state.getEndTime() != null) {
+					iterator.remove();
+				}
 			}
 		}
 
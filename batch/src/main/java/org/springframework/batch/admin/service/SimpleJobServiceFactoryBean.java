@@ -17,6 +17,7 @@ package org.springframework.batch.admin.service;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.springframework.batch.admin.history.HistoryPolicy;
 import org.springframework.batch.core.configuration.JobLocator;
 import org.springframework.batch.core.configuration.ListableJobLocator;
 import org.springframework.batch.core.launch.JobLauncher;
@@ -42,6 +43,9 @@ import org.springframework.util.StringUtils;
 
 import javax.sql.DataSource;
 import java.sql.Types;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
 
 import static org.springframework.batch.support.DatabaseType.SYBASE;
 
@@ -55,6 +59,17 @@ import static org.springframework.batch.support.DatabaseType.SYBASE;
 public class SimpleJobServiceFactoryBean implements FactoryBean<JobService>, InitializingBean {
 	private static final Log logger = LogFactory.getLog(SimpleJobServiceFactoryBean.class);
 
+	/**
+	 * Name of the default context serializer, reading the contexts with
+	 * XStream.
+	 */
+	public static final String XSTREAM_CONTEXT_SERIALIZER = "xstream";
+
+	/**
+	 * Name of the context serializer reading the contexts with Jackson.
+	 */
+	public static final String JACKSON_CONTEXT_SERIALIZER = "jackson";
+
 	private DataSource dataSource;
 
 	private JdbcOperations jdbcTemplate;
@@ -77,6 +92,20 @@ public class SimpleJobServiceFactoryBean implements FactoryBean<JobService>, Ini
 
 	private ExecutionContextSerializer serializer;
 
+	private String contextSerializer = XSTREAM_CONTEXT_SERIALIZER;
+
+	private String historyPolicy;
+
+	private Properties historyPolicies;
+
+	private int historyMaxEntries = StepExecutionHistoryStore.DEFAULT_MAX_ENTRIES;
+
+	private int executionCacheMaxEntries = ExecutionCache.DEFAULT_MAX_ENTRIES;
+
+	private long executionCacheMaxWeight = ExecutionCache.DEFAULT_MAX_WEIGHT;
+
+	private long jobCatalogRefreshInterval = JobCatalog.DEFAULT_REFRESH_INTERVAL;
+
 	/**
 	 * A special handler for large objects. The default is usually fine, except
 	 * for some (usually older) versions of Oracle. The default is determined
@@ -178,6 +207,69 @@ public class SimpleJobServiceFactoryBean implements FactoryBean<JobService>, Ini
 		this.serializer = serializer;
 	}
 
+	/**
+	 * The statistics kept in the step execution histories: cumulative,
+	 * window:N (last N executions) or ewma:A (exponentially weighted).
+	 *
+	 * @param historyPolicy the policy of the steps without a specific one
+	 */
+	public void setHistoryPolicy(String historyPolicy) {
+		this.historyPolicy = historyPolicy;
+	}
+
+	/**
+	 * @param historyPolicies the policies of specific steps, by
+	 * <code>jobName/stepName</code>
+	 */
+	public void setHistoryPolicies(Properties historyPolicies) {
+		this.historyPolicies = historyPolicies;
+	}
+
+	/**
+	 * @param historyMaxEntries the maximum number of step execution histories
+	 * kept in memory, the least recently used being dropped
+	 */
+	public void setHistoryMaxEntries(int historyMaxEntries) {
+		this.historyMaxEntries = historyMaxEntries;
+	}
+
+	/**
+	 * @param executionCacheMaxEntries the maximum number of finished
+	 * executions cached, 0 disabling the cache
+	 */
+	public void setExecutionCacheMaxEntries(int executionCacheMaxEntries) {
+		this.executionCacheMaxEntries = executionCacheMaxEntries;
+	}
+
+	/**
+	 * @param executionCacheMaxWeight the maximum estimated size of the
+	 * finished executions cached, in bytes
+	 */
+	public void setExecutionCacheMaxWeight(long executionCacheMaxWeight) {
+		this.executionCacheMaxWeight = executionCacheMaxWeight;
+	}
+
+	/**
+	 * @param jobCatalogRefreshInterval the minimum time between two refreshes
+	 * of the job names and counts, in milliseconds, a negative value
+	 * disabling the job catalog
+	 */
+	public void setJobCatalogRefreshInterval(long jobCatalogRefreshInterval) {
+		this.jobCatalogRefreshInterval = jobCatalogRefreshInterval;
+	}
+
+	/**
+	 * The serializer used when none is injected: xstream (the default) or
+	 * jackson, reading the contexts with the
+	 * {@link JacksonExecutionContextStringSerializer} and writing them with
+	 * XStream.
+	 *
+	 * @param contextSerializer the name of the context serializer
+	 */
+	public void setContextSerializer(String contextSerializer) {
+		this.contextSerializer = contextSerializer;
+	}
+
 	public void afterPropertiesSet() throws Exception {
 
 		Assert.notNull(dataSource, "DataSource must not be null.");
@@ -204,7 +296,15 @@ public class SimpleJobServiceFactoryBean implements FactoryBean<JobService>, Ini
 			XStreamExecutionContextStringSerializer defaultSerializer = new XStreamExecutionContextStringSerializer();
 			defaultSerializer.afterPropertiesSet();
 
-			serializer = defaultSerializer;
+			if (JACKSON_CONTEXT_SERIALIZER.equalsIgnoreCase(contextSerializer)) {
+				serializer = new JacksonExecutionContextStringSerializer(defaultSerializer);
+			}
+			else {
+				Assert.isTrue(XSTREAM_CONTEXT_SERIALIZER.equalsIgnoreCase(contextSerializer), "'" + contextSerializer
+						+ "' is an unsupported context serializer.  The supported context serializers are "
+						+ XSTREAM_CONTEXT_SERIALIZER + "," + JACKSON_CONTEXT_SERIALIZER);
+				serializer = defaultSerializer;
+			}
 		}
 
 		Assert.isTrue(incrementerFactory.isSupportedIncrementerType(databaseType), "'" + databaseType
@@ -276,8 +376,28 @@ public class SimpleJobServiceFactoryBean implements FactoryBean<JobService>, Ini
 	 * @see FactoryBean#getObject()
 	 */
 	public JobService getObject() throws Exception {
-		return new SimpleJobService(createJobInstanceDao(), createJobExecutionDao(), createStepExecutionDao(),
+		SearchableJobInstanceDao jobInstanceDao = createJobInstanceDao();
+		SearchableJobExecutionDao jobExecutionDao = createJobExecutionDao();
+		SimpleJobService jobService = new SimpleJobService(jobInstanceDao, jobExecutionDao, createStepExecutionDao(),
 				jobRepository, jobLauncher, jobLocator, createExecutionContextDao());
+		if (StringUtils.hasText(historyPolicy)) {
+			jobService.setHistoryPolicy(HistoryPolicy.valueOf(historyPolicy));
+		}
+		if (historyPolicies != null) {
+			Map<String, HistoryPolicy> policies = new HashMap<String, HistoryPolicy>();
+			for (String step : historyPolicies.stringPropertyNames()) {
+				policies.put(step, HistoryPolicy.valueOf(historyPolicies.getProperty(step)));
+			}
+			jobService.setHistoryPolicies(policies);
+		}
+		jobService.setHistoryMaxEntries(historyMaxEntries);
+		jobService.setExecutionCache(new ExecutionCache(executionCacheMaxEntries, executionCacheMaxWeight));
+		if (jobCatalogRefreshInterval >= 0) {
+			JobCatalog jobCatalog = new JobCatalog(jobInstanceDao, jobExecutionDao);
+			jobCatalog.setRefreshInterval(jobCatalogRefreshInterval);
+			jobService.setJobCatalog(jobCatalog);
+		}
+		return jobService;
 	}
 
 	/**
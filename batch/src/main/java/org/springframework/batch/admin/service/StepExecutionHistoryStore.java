@@ -0,0 +1,252 @@
+/*
+ * Copyright 2006-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.batch.admin.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.batch.admin.history.HistoryPolicy;
+import org.springframework.batch.admin.history.StepExecutionHistory;
+import org.springframework.batch.core.StepExecution;
+
+/**
+ * Maintains a {@link StepExecutionHistory} per step (or step name pattern)
+ * incrementally. Each history remembers the highest step execution id already
+ * read (the watermark), so that a refresh only reads the step executions
+ * created since the previous one. Step executions which were still running
+ * when they were read are kept aside by id and folded in once they have
+ * finished.
+ *
+ * The statistics kept for each step are chosen by a {@link HistoryPolicy}.
+ * The histories are kept in memory, the least recently used ones being
+ * dropped beyond a maximum number of histories. The first request for a step
+ * starts from the aggregates computed by the database, or reads the whole
+ * history once if the database cannot compute them.
+ *
+ * Step executions committed out of id order below the watermark or deleted
+ * from the repository are only taken into account when the history is seeded
+ * again, every reseed interval.
+ *
+ */
+public class StepExecutionHistoryStore {
+
+	/**
+	 * Default maximum number of histories kept in memory.
+	 */
+	public static final int DEFAULT_MAX_ENTRIES = 1000;
+
+	/**
+	 * Default time between two seeds of a history, in milliseconds.
+	 */
+	public static final long DEFAULT_RESEED_INTERVAL = 10 * 60 * 1000;
+
+	private static final int PAGE_SIZE = 1000;
+
+	private final SearchableStepExecutionDao stepExecutionDao;
+
+	private int maxEntries = DEFAULT_MAX_ENTRIES;
+
+	private long reseedInterval = DEFAULT_RESEED_INTERVAL;
+
+	/**
+	 * The histories by job name and step name, which may be patterns taken
+	 * from requests, in access order.
+	 */
+	private final Map<List<String>, Entry> entries = new LinkedHashMap<List<String>, Entry>(16, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<List<String>, Entry> eldest) {
+			return size() > maxEntries;
+		}
+	};
+
+	private HistoryPolicy defaultPolicy = HistoryPolicy.CUMULATIVE;
+
+	private Map<String, HistoryPolicy> policies = Collections.emptyMap();
+
+	/**
+	 * @param stepExecutionDao the dao used to read the step executions
+	 */
+	public StepExecutionHistoryStore(SearchableStepExecutionDao stepExecutionDao) {
+		this.stepExecutionDao = stepExecutionDao;
+	}
+
+	/**
+	 * @param defaultPolicy the policy of the steps without a specific one
+	 * (default {@link HistoryPolicy#CUMULATIVE})
+	 */
+	public void setDefaultPolicy(HistoryPolicy defaultPolicy) {
+		this.defaultPolicy = defaultPolicy;
+	}
+
+	/**
+	 * @param policies the policies of specific steps, by
+	 * <code>jobName/stepName</code>
+	 */
+	public void setPolicies(Map<String, HistoryPolicy> policies) {
+		this.policies = new HashMap<String, HistoryPolicy>(policies);
+	}
+
+	/**
+	 * @param maxEntries the maximum number of histories kept in memory
+	 * (default {@link #DEFAULT_MAX_ENTRIES})
+	 */
+	public void setMaxEntries(int maxEntries) {
+		this.maxEntries = Math.max(1, maxEntries);
+	}
+
+	/**
+	 * @param reseedInterval the time between two seeds of a history, in
+	 * milliseconds (default {@link #DEFAULT_RESEED_INTERVAL})
+	 */
+	public void setReseedInterval(long reseedInterval) {
+		this.reseedInterval = reseedInterval;
+	}
+
+	/**
+	 * Fold the step executions created or finished since the previous call
+	 * into the history of the step and return it.
+	 *
+	 * @param jobName the job name (or a pattern with wildcards)
+	 * @param stepName the step name (or a pattern with wildcards)
+	 * @return a snapshot of the history, which is not changed by later calls
+	 */
+	public StepExecutionHistory getStepExecutionHistory(String jobName, String stepName) {
+		List<String> key = Arrays.asList(jobName, stepName);
+		Entry entry;
+		synchronized (entries) {
+			entry = entries.get(key);
+			if (entry == null) {
+				HistoryPolicy policy = policies.get(jobName + "/" + stepName);
+				entry = new Entry(jobName, stepName, policy == null ? defaultPolicy : policy);
+				entries.put(key, entry);
+			}
+		}
+		return entry.refresh();
+	}
+
+	private class Entry {
+
+		private final String jobName;
+
+		private final String stepName;
+
+		private final HistoryPolicy policy;
+
+		private StepExecutionHistory history;
+
+		private final Set<Long> unfinished = new HashSet<Long>();
+
+		private long watermark;
+
+		private long lastSeed;
+
+		private StepExecutionHistory snapshot;
+
+		Entry(String jobName, String stepName, HistoryPolicy policy) {
+			this.jobName = jobName;
+			this.stepName = stepName;
+			this.policy = policy;
+		}
+
+		synchronized StepExecutionHistory refresh() {
+			boolean changed = false;
+
+			long now = System.currentTimeMillis();
+			if (snapshot == null || now - lastSeed >= reseedInterval) {
+				history = new StepExecutionHistory(stepName, policy);
+				unfinished.clear();
+				watermark = -1;
+				seed();
+				lastSeed = now;
+				changed = true;
+			}
+			else if (!unfinished.isEmpty()) {
+				List<StepExecution> previouslyUnfinished = stepExecutionDao.getStepExecutions(new HashSet<Long>(
+						unfinished));
+				// step executions deleted from the repository are forgotten
+				unfinished.clear();
+				for (StepExecution stepExecution : previouslyUnfinished) {
+					changed |= append(stepExecution);
+				}
+			}
+
+			List<StepExecution> stepExecutions;
+			do {
+				stepExecutions = stepExecutionDao.findStepExecutionsAfter(jobName, stepName, watermark, PAGE_SIZE);
+				for (StepExecution stepExecution : stepExecutions) {
+					changed |= append(stepExecution);
+					watermark = Math.max(watermark, stepExecution.getId());
+				}
+			}
+			while (stepExecutions.size() == PAGE_SIZE);
+
+			if (changed) {
+				snapshot = new StepExecutionHistory(history);
+			}
+			return snapshot;
+		}
+
+		/**
+		 * Start from the most recent step executions if the policy only
+		 * depends on them, or from the history aggregated by the database
+		 * when it can, instead of reading all the step executions.
+		 */
+		private void seed() {
+			if (policy.getDepth() != Integer.MAX_VALUE) {
+				List<StepExecution> recent = new ArrayList<StepExecution>(stepExecutionDao.findStepExecutions(jobName,
+						stepName, 0, policy.getDepth()));
+				Collections.reverse(recent);
+				for (StepExecution stepExecution : recent) {
+					append(stepExecution);
+					watermark = Math.max(watermark, stepExecution.getId());
+				}
+				return;
+			}
+			long maxStepExecutionId = stepExecutionDao.getMaxStepExecutionId(jobName, stepName);
+			if (maxStepExecutionId < 0) {
+				return;
+			}
+			StepExecutionHistory aggregated = stepExecutionDao.getStepExecutionHistory(jobName, stepName,
+					maxStepExecutionId);
+			if (aggregated == null) {
+				return;
+			}
+			history = aggregated;
+			unfinished.addAll(stepExecutionDao.findUnfinishedStepExecutionIds(jobName, stepName, maxStepExecutionId));
+			watermark = maxStepExecutionId;
+		}
+
+		private boolean append(StepExecution stepExecution) {
+			if (stepExecution.getEndTime() == null) {
+				unfinished.add(stepExecution.getId());
+				return false;
+			}
+			history.append(stepExecution);
+			return true;
+		}
+
+	}
+
+}
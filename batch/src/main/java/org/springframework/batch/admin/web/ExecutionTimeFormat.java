@@ -0,0 +1,164 @@
+/*
+ * Copyright 2009-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.batch.admin.web;
+
+import java.util.Date;
+import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Immutable and thread-safe formatter of the dates (yyyy-MM-dd), times
+ * (HH:mm:ss) and durations (HH:mm:ss) displayed for the executions, shared
+ * by all the executions displayed in a time zone instead of creating
+ * {@link java.text.SimpleDateFormat} instances for each of them. The fields
+ * are computed from the epoch milliseconds, in the proleptic Gregorian
+ * calendar.
+ *
+ */
+public final class ExecutionTimeFormat {
+
+	private static final long MILLIS_PER_DAY = 24L * 60 * 60 * 1000;
+
+	private static final ExecutionTimeFormat GMT = new ExecutionTimeFormat(TimeZone.getTimeZone("GMT"));
+
+	private static final ConcurrentMap<String, ExecutionTimeFormat> FORMATS = new ConcurrentHashMap<String, ExecutionTimeFormat>();
+
+	private final TimeZone timeZone;
+
+	private ExecutionTimeFormat(TimeZone timeZone) {
+		// copied, a time zone being mutable
+		this.timeZone = (TimeZone) timeZone.clone();
+	}
+
+	/**
+	 * @param timeZone the time zone of the dates and times
+	 * @return the shared format of the time zone
+	 */
+	public static ExecutionTimeFormat getInstance(TimeZone timeZone) {
+		String id = timeZone.getID();
+		ExecutionTimeFormat format = FORMATS.get(id);
+		if (format == null) {
+			FORMATS.putIfAbsent(id, new ExecutionTimeFormat(timeZone));
+			format = FORMATS.get(id);
+		}
+		if (!format.timeZone.hasSameRules(timeZone)) {
+			// a custom time zone reusing the id of another one, not shared
+			return new ExecutionTimeFormat(timeZone);
+		}
+		return format;
+	}
+
+	/**
+	 * @return the shared format of the default time zone of the JVM
+	 */
+	public static ExecutionTimeFormat getDefault() {
+		return getInstance(TimeZone.getDefault());
+	}
+
+	/**
+	 * @return the shared format of GMT
+	 */
+	public static ExecutionTimeFormat getGmt() {
+		return GMT;
+	}
+
+	public TimeZone getTimeZone() {
+		return (TimeZone) timeZone.clone();
+	}
+
+	/**
+	 * @param date a date
+	 * @return the date as yyyy-MM-dd
+	 */
+	public String formatDate(Date date) {
+		long days = floorDiv(toLocalMillis(date), MILLIS_PER_DAY);
+		// civil date from the days since 1970-01-01, in 400 years eras
+		long shifted = days + 719468;
+		long era = floorDiv(shifted, 146097);
+		long dayOfEra = shifted - era * 146097;
+		long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+		long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+		long shiftedMonth = (5 * dayOfYear + 2) / 153;
+		int day = (int) (dayOfYear - (153 * shiftedMonth + 2) / 5 + 1);
+		int month = (int) (shiftedMonth < 10 ? shiftedMonth + 3 : shiftedMonth - 9);
+		long year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+
+		StringBuilder builder = new StringBuilder(10);
+		appendDigits(builder, (int) year, 4);
+		builder.append('-');
+		appendDigits(builder, month, 2);
+		builder.append('-');
+		appendDigits(builder, day, 2);
+		return builder.toString();
+	}
+
+	/**
+	 * @param date a date
+	 * @return the time of the date as HH:mm:ss
+	 */
+	public String formatTime(Date date) {
+		return formatTimeOfDay(toLocalMillis(date));
+	}
+
+	/**
+	 * @param durationMillis a duration in milliseconds
+	 * @return the duration as HH:mm:ss, the hours wrapping at 24 as in the
+	 * time of the duration since the epoch in GMT
+	 */
+	public static String formatDuration(long durationMillis) {
+		return formatTimeOfDay(durationMillis);
+	}
+
+	private long toLocalMillis(Date date) {
+		long millis = date.getTime();
+		return millis + timeZone.getOffset(millis);
+	}
+
+	private static String formatTimeOfDay(long millis) {
+		int seconds = (int) (floorMod(millis, MILLIS_PER_DAY) / 1000);
+		char[] chars = new char[8];
+		writeDigits(chars, 0, seconds / 3600);
+		chars[2] = ':';
+		writeDigits(chars, 3, seconds / 60 % 60);
+		chars[5] = ':';
+		writeDigits(chars, 6, seconds % 60);
+		return new String(chars);
+	}
+
+	private static void writeDigits(char[] chars, int offset, int value) {
+		chars[offset] = (char) ('0' + value / 10);
+		chars[offset + 1] = (char) ('0' + value % 10);
+	}
+
+	private static void appendDigits(StringBuilder builder, int value, int digits) {
+		String text = Integer.toString(value);
+		for (int i = text.length(); i < digits; i++) {
+			builder.append('0');
+		}
+		builder.append(text);
+	}
+
+	private static long floorDiv(long x, long y) {
+		long quotient = x / y;
+		return (x % y != 0 && (x ^ y) < 0) ? quotient - 1 : quotient;
+	}
+
+	private static long floorMod(long x, long y) {
+		return x - floorDiv(x, y) * y;
+	}
+
+}
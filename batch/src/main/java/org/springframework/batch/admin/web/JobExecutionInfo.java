@@ -18,26 +18,17 @@
  */
 package org.springframework.batch.admin.web;
 
-import java.text.SimpleDateFormat;
-import java.util.Date;
 import java.util.Properties;
 import java.util.TimeZone;
 
-import org.springframework.batch.admin.web.JobParametersExtractor;
 import org.springframework.batch.core.BatchStatus;
 import org.springframework.batch.core.ExitStatus;
 import org.springframework.batch.core.JobExecution;
 import org.springframework.batch.core.JobInstance;
-import org.springframework.batch.core.converter.DefaultJobParametersConverter;
-import org.springframework.batch.core.converter.JobParametersConverter;
 
 public class JobExecutionInfo {
 
-	private SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd");
-
-	private SimpleDateFormat timeFormat = new SimpleDateFormat("HH:mm:ss");
-
-	private SimpleDateFormat durationFormat = new SimpleDateFormat("HH:mm:ss");
+	private static final JobParametersExtractor JOB_PARAMETERS_EXTRACTOR = new JobParametersExtractor();
 
 	private Long id;
 
@@ -67,8 +58,6 @@ public class JobExecutionInfo {
 
 	private boolean stoppable = false;
 
-	private JobParametersConverter converter = new DefaultJobParametersConverter();
-
 	private final TimeZone timeZone;
 
 	public JobExecutionInfo(JobExecution jobExecution, TimeZone timeZone) {
@@ -79,8 +68,8 @@ public class JobExecutionInfo {
 		this.id = jobExecution.getId();
 		this.jobId = jobExecution.getJobId();
 		this.stepExecutionCount = jobExecution.getStepExecutions().size();
-		this.jobParameters = converter.getProperties(jobExecution.getJobParameters());
-		this.jobParametersString = new JobParametersExtractor().fromJobParameters(jobExecution.getJobParameters());
+		this.jobParameters = JOB_PARAMETERS_EXTRACTOR.toProperties(jobExecution.getJobParameters());
+		this.jobParametersString = JOB_PARAMETERS_EXTRACTOR.fromProperties(jobParameters);
 
 		JobInstance jobInstance = jobExecution.getJobInstance();
 		if (jobInstance != null) {
@@ -94,16 +83,13 @@ public class JobExecutionInfo {
 			this.jobName = "?";
 		}
 
-		// Duration is always in GMT
-		durationFormat.setTimeZone(TimeZone.getTimeZone("GMT"));
-		// The others can be localized
-		timeFormat.setTimeZone(timeZone);
-		dateFormat.setTimeZone(timeZone);
 		if (jobExecution.getStartTime() != null) {
-			this.startDate = dateFormat.format(jobExecution.getStartTime());
-			this.startTime = timeFormat.format(jobExecution.getStartTime());
-			Date endTime = jobExecution.getEndTime() != null ? jobExecution.getEndTime() : new Date();
-			this.duration = durationFormat.format(new Date(endTime.getTime() - jobExecution.getStartTime().getTime()));
+			// Duration is always in GMT, the others can be localized
+			ExecutionTimeFormat timeFormat = ExecutionTimeFormat.getInstance(timeZone);
+			this.startDate = timeFormat.formatDate(jobExecution.getStartTime());
+			this.startTime = timeFormat.formatTime(jobExecution.getStartTime());
+			long endTime = jobExecution.getEndTime() != null ? jobExecution.getEndTime().getTime() : System.currentTimeMillis();
+			this.duration = ExecutionTimeFormat.formatDuration(endTime - jobExecution.getStartTime().getTime());
 		}
 
 	}
@@ -18,6 +18,11 @@
  */
 package org.springframework.batch.admin.web;
 
+import java.util.Date;
+
+import org.springframework.batch.admin.service.JobSummary;
+import org.springframework.batch.core.BatchStatus;
+
 public class JobInfo {
 	private final String name;
 
@@ -29,6 +34,14 @@ public class JobInfo {
 
 	private final Long jobInstanceId;
 
+	private int instanceCount;
+
+	private BatchStatus lastExecutionStatus;
+
+	private Date lastExecutionStartTime;
+
+	private Date lastExecutionEndTime;
+
 	public JobInfo(String name, int executionCount) {
 		this(name, executionCount, false);
 	}
@@ -50,6 +63,14 @@ public class JobInfo {
 		this.incrementable = incrementable;
 	}
 
+	public JobInfo(JobSummary summary) {
+		this(summary.getJobName(), summary.getExecutionCount(), null, summary.isLaunchable(), summary.isIncrementable());
+		this.instanceCount = summary.getInstanceCount();
+		this.lastExecutionStatus = summary.getLastExecutionStatus();
+		this.lastExecutionStartTime = summary.getLastExecutionStartTime();
+		this.lastExecutionEndTime = summary.getLastExecutionEndTime();
+	}
+
 	public String getName() {
 		return name;
 	}
@@ -62,6 +83,22 @@ public class JobInfo {
 		return jobInstanceId;
 	}
 	
+	public int getInstanceCount() {
+		return instanceCount;
+	}
+
+	public BatchStatus getLastExecutionStatus() {
+		return lastExecutionStatus;
+	}
+
+	public Date getLastExecutionStartTime() {
+		return lastExecutionStartTime;
+	}
+
+	public Date getLastExecutionEndTime() {
+		return lastExecutionEndTime;
+	}
+	
 	public boolean isLaunchable() {
 		return launchable;
 	}
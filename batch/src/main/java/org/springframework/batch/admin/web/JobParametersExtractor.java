@@ -32,7 +32,16 @@ import org.springframework.batch.support.PropertiesConverter;
  */
 public class JobParametersExtractor {
 
-	private JobParametersConverter converter = new DefaultJobParametersConverter();
+	/**
+	 * The converter formats the dates and numbers with non thread-safe
+	 * formats, so each thread has its own.
+	 */
+	private static final ThreadLocal<JobParametersConverter> CONVERTER = new ThreadLocal<JobParametersConverter>() {
+		@Override
+		protected JobParametersConverter initialValue() {
+			return new DefaultJobParametersConverter();
+		}
+	};
 
 	private static final String LINE_SEPARATOR = System.getProperty("line.separator");
 
@@ -42,8 +51,24 @@ public class JobParametersExtractor {
 	 * last instance
 	 */
 	public String fromJobParameters(JobParameters oldParameters) {
+		return fromProperties(toProperties(oldParameters));
+	}
+
+	/**
+	 * @param jobParameters some job parameters
+	 * @return the job parameters as properties
+	 */
+	public Properties toProperties(JobParameters jobParameters) {
+		return CONVERTER.get().getProperties(jobParameters);
+	}
+
+	/**
+	 * @param jobParameters the job parameters as properties
+	 * @return a String representation for rendering the job parameters
+	 */
+	public String fromProperties(Properties jobParameters) {
 
-		String properties = PropertiesConverter.propertiesToString(converter.getProperties(oldParameters));
+		String properties = PropertiesConverter.propertiesToString(jobParameters);
 		if (properties.startsWith("#")) {
 			properties = properties.substring(properties.indexOf(LINE_SEPARATOR) + LINE_SEPARATOR.length());
 		}
@@ -54,7 +79,7 @@ public class JobParametersExtractor {
 
 	public JobParameters fromString(String params) {
 		Properties properties = PropertiesConverter.stringToProperties(params);
-		return converter.getJobParameters(properties);
+		return CONVERTER.get().getJobParameters(properties);
 	}
 
 
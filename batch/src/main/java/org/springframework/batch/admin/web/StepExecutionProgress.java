@@ -17,8 +17,8 @@ package org.springframework.batch.admin.web;
 
 import java.util.Date;
 
-import org.springframework.batch.admin.history.CumulativeHistory;
 import org.springframework.batch.admin.history.StepExecutionHistory;
+import org.springframework.batch.admin.history.ValueHistory;
 import org.springframework.batch.core.StepExecution;
 import org.springframework.context.MessageSourceResolvable;
 import org.springframework.context.support.DefaultMessageSourceResolvable;
@@ -117,7 +117,7 @@ public class StepExecutionProgress {
 			return 0.5;
 		}
 
-		CumulativeHistory readHistory = stepExecutionHistory.getReadCount();
+		ValueHistory readHistory = stepExecutionHistory.getReadCount();
 
 		if (readHistory.getMean() == 0) {
 			percentCompleteBasis = PercentCompleteBasis.DURATION;
@@ -131,7 +131,7 @@ public class StepExecutionProgress {
 
 	private double getDurationBasedEstimate(double duration) {
 
-		CumulativeHistory durationHistory = stepExecutionHistory.getDuration();
+		ValueHistory durationHistory = stepExecutionHistory.getDuration();
 		if (durationHistory.getMean() == 0) {
 			percentCompleteBasis = PercentCompleteBasis.NOINFORMATION;
 			return 0.5;
@@ -0,0 +1,364 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.monitoring.batch.fixtures;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.util.DigestUtils;
+
+import javax.sql.DataSource;
+import java.nio.charset.Charset;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Bulk-inserts synthetic Spring Batch metadata with JDBC batch inserts, to reproduce the volumes of a production job
+ * repository in load tests and benchmarks.
+ * <p>
+ * The generated data follows the shapes seen in real repositories: a few jobs run much more often than the others
+ * (the job of each instance is drawn from a Zipf distribution), some executions fail on a random step and are
+ * restarted, and the durations and item counts of each step follow a log-normal distribution around a median
+ * specific to the step. Ids start after the largest ids already present; the id sequences of the repository are not
+ * advanced.
+ */
+public class BatchMetadataGenerator {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private static final String JOB_CONTEXT = "{\"map\":{\"entry\":{\"string\":[\"inputFolder\",\"\\/data\\/in\\/\"]}}}";
+
+    private static final String STEP_CONTEXT =
+            "{\"map\":{\"entry\":{\"string\":\"MultiResourceItemReader.resourceIndex\",\"int\":1}}}";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private String tablePrefix = "BATCH_";
+
+    private int jobs = 10;
+
+    private int instances = 1000;
+
+    private int stepsPerJob = 5;
+
+    private int parametersPerExecution = 2;
+
+    private double failureRate = 0.05;
+
+    private int maxRestarts = 3;
+
+    private boolean contexts = true;
+
+    private int commitInterval = 100;
+
+    private int batchSize = 1000;
+
+    private long startTime = Timestamp.valueOf("2015-01-01 00:00:00").getTime();
+
+    private long seed = 42;
+
+    private Random random;
+
+    private long[] stepMedianDurations;
+
+    private long[] stepMedianReadCounts;
+
+    private double[] jobWeights;
+
+    /**
+     * @param dataSource the data source of the job repository, whose tables must exist
+     */
+    public BatchMetadataGenerator(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    /**
+     * @param tablePrefix the prefix of the metadata tables (default <code>BATCH_</code>)
+     */
+    public void setTablePrefix(String tablePrefix) {
+        this.tablePrefix = tablePrefix;
+    }
+
+    /**
+     * @param jobs the number of distinct job names (default 10)
+     */
+    public void setJobs(int jobs) {
+        this.jobs = jobs;
+    }
+
+    /**
+     * @param instances the number of job instances, spread over the jobs (default 1000)
+     */
+    public void setInstances(int instances) {
+        this.instances = instances;
+    }
+
+    /**
+     * @param stepsPerJob the number of steps of each job (default 5)
+     */
+    public void setStepsPerJob(int stepsPerJob) {
+        this.stepsPerJob = stepsPerJob;
+    }
+
+    /**
+     * @param parametersPerExecution the number of job parameters of each execution, up to 3 (default 2)
+     */
+    public void setParametersPerExecution(int parametersPerExecution) {
+        this.parametersPerExecution = parametersPerExecution;
+    }
+
+    /**
+     * @param failureRate the probability of each execution to fail (default 0.05)
+     */
+    public void setFailureRate(double failureRate) {
+        this.failureRate = failureRate;
+    }
+
+    /**
+     * @param maxRestarts the maximum number of restarts of a failed instance (default 3)
+     */
+    public void setMaxRestarts(int maxRestarts) {
+        this.maxRestarts = maxRestarts;
+    }
+
+    /**
+     * @param contexts whether job and step execution contexts are inserted (default true)
+     */
+    public void setContexts(boolean contexts) {
+        this.contexts = contexts;
+    }
+
+    /**
+     * @param batchSize the number of rows sent to the database in each JDBC batch (default 1000)
+     */
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * @param startTime the start time of the first execution, in milliseconds since the epoch
+     */
+    public void setStartTime(long startTime) {
+        this.startTime = startTime;
+    }
+
+    /**
+     * @param seed the seed of the random values, the same seed generating the same metadata
+     */
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * @param job the index of a job
+     * @return the name of the job
+     */
+    public String getJobName(int job) {
+        return String.format("job%02d", job);
+    }
+
+    /**
+     * @param job  the index of a job
+     * @param step the index of a step of the job
+     * @return the name of the step
+     */
+    public String getStepName(int job, int step) {
+        return String.format("job%02dStep%02d", job, step);
+    }
+
+    /**
+     * Inserts the metadata.
+     *
+     * @return the number of step executions inserted
+     */
+    public long generate() {
+        random = new Random(seed);
+        initDistributions();
+
+        Batch jobInstanceBatch = new Batch("INSERT INTO %PREFIX%JOB_INSTANCE (JOB_INSTANCE_ID, VERSION, JOB_NAME, "
+                + "JOB_KEY) VALUES (?, ?, ?, ?)", Types.BIGINT, Types.BIGINT, Types.VARCHAR, Types.VARCHAR);
+        Batch jobExecutionBatch = new Batch("INSERT INTO %PREFIX%JOB_EXECUTION (JOB_EXECUTION_ID, VERSION, "
+                + "JOB_INSTANCE_ID, CREATE_TIME, START_TIME, END_TIME, STATUS, EXIT_CODE, EXIT_MESSAGE, LAST_UPDATED, "
+                + "JOB_CONFIGURATION_LOCATION) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", Types.BIGINT, Types.BIGINT,
+                Types.BIGINT, Types.TIMESTAMP, Types.TIMESTAMP, Types.TIMESTAMP, Types.VARCHAR, Types.VARCHAR,
+                Types.VARCHAR, Types.TIMESTAMP, Types.VARCHAR);
+        Batch jobParameterBatch = new Batch("INSERT INTO %PREFIX%JOB_EXECUTION_PARAMS (JOB_EXECUTION_ID, TYPE_CD, "
+                + "KEY_NAME, STRING_VAL, DATE_VAL, LONG_VAL, DOUBLE_VAL, IDENTIFYING) VALUES (?, ?, ?, ?, ?, ?, ?, ?)",
+                Types.BIGINT, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.TIMESTAMP, Types.BIGINT,
+                Types.DOUBLE, Types.CHAR);
+        Batch jobContextBatch = new Batch("INSERT INTO %PREFIX%JOB_EXECUTION_CONTEXT (JOB_EXECUTION_ID, "
+                + "SHORT_CONTEXT, SERIALIZED_CONTEXT) VALUES (?, ?, ?)", Types.BIGINT, Types.VARCHAR, Types.CLOB);
+        Batch stepExecutionBatch = new Batch("INSERT INTO %PREFIX%STEP_EXECUTION (STEP_EXECUTION_ID, VERSION, "
+                + "STEP_NAME, JOB_EXECUTION_ID, START_TIME, END_TIME, STATUS, COMMIT_COUNT, READ_COUNT, "
+                + "FILTER_COUNT, WRITE_COUNT, READ_SKIP_COUNT, WRITE_SKIP_COUNT, PROCESS_SKIP_COUNT, ROLLBACK_COUNT, "
+                + "EXIT_CODE, EXIT_MESSAGE, LAST_UPDATED) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)",
+                Types.BIGINT, Types.BIGINT, Types.VARCHAR, Types.BIGINT, Types.TIMESTAMP, Types.TIMESTAMP,
+                Types.VARCHAR, Types.BIGINT, Types.BIGINT, Types.BIGINT, Types.BIGINT, Types.BIGINT, Types.BIGINT,
+                Types.BIGINT, Types.BIGINT, Types.VARCHAR, Types.VARCHAR, Types.TIMESTAMP);
+        Batch stepContextBatch = new Batch("INSERT INTO %PREFIX%STEP_EXECUTION_CONTEXT (STEP_EXECUTION_ID, "
+                + "SHORT_CONTEXT, SERIALIZED_CONTEXT) VALUES (?, ?, ?)", Types.BIGINT, Types.VARCHAR, Types.CLOB);
+        // Flushed in this order to satisfy the foreign keys
+        Batch[] batches = {jobInstanceBatch, jobExecutionBatch, jobParameterBatch, jobContextBatch,
+                stepExecutionBatch, stepContextBatch};
+
+        long jobInstanceId = getMaxId("JOB_INSTANCE", "JOB_INSTANCE_ID");
+        long jobExecutionId = getMaxId("JOB_EXECUTION", "JOB_EXECUTION_ID");
+        long stepExecutionId = getMaxId("STEP_EXECUTION", "STEP_EXECUTION_ID");
+        long stepExecutions = 0;
+        long time = startTime;
+
+        for (int i = 0; i < instances; i++) {
+            int job = nextJob();
+            jobInstanceId++;
+            jobInstanceBatch.add(jobInstanceId, 0L, getJobName(job),
+                    DigestUtils.md5DigestAsHex(String.valueOf(jobInstanceId).getBytes(UTF_8)));
+
+            boolean failed = true;
+            int firstStep = 0;
+            for (int restart = 0; failed && restart <= maxRestarts; restart++) {
+                jobExecutionId++;
+                time += 1000L + (long) (random.nextDouble() * 60000L);
+                long executionStart = time;
+                failed = random.nextDouble() < failureRate;
+                // a restart resumes at the step which failed
+                int failedStep = failed ? firstStep + random.nextInt(stepsPerJob - firstStep) : -1;
+
+                for (int step = firstStep; step < stepsPerJob && (failedStep < 0 || step <= failedStep); step++) {
+                    stepExecutionId++;
+                    stepExecutions++;
+                    int stepIndex = job * stepsPerJob + step;
+                    long duration = logNormal(stepMedianDurations[stepIndex]);
+                    long readCount = logNormal(stepMedianReadCounts[stepIndex]);
+                    long filterCount = (long) (readCount * 0.01 * random.nextDouble());
+                    long readSkipCount = random.nextDouble() < 0.1 ? random.nextInt(5) : 0;
+                    long processSkipCount = random.nextDouble() < 0.1 ? random.nextInt(5) : 0;
+                    long writeCount = Math.max(0, readCount - filterCount - processSkipCount);
+                    boolean stepFailed = step == failedStep;
+                    String status = stepFailed ? "FAILED" : "COMPLETED";
+                    Timestamp stepStart = new Timestamp(time);
+                    time += duration;
+                    Timestamp stepEnd = new Timestamp(time);
+                    stepExecutionBatch.add(stepExecutionId, 3L, getStepName(job, step), jobExecutionId, stepStart,
+                            stepEnd, status, (readCount + commitInterval - 1) / commitInterval, readCount,
+                            filterCount, writeCount, readSkipCount, 0L, processSkipCount, stepFailed ? 1L : 0L, status,
+                            stepFailed ? "org.springframework.batch.item.ItemStreamException: Failed to read item"
+                                    : "", stepEnd);
+                    if (contexts) {
+                        stepContextBatch.add(stepExecutionId, step % 2 == 0 ? "{\"map\":\"\"}" : STEP_CONTEXT, null);
+                    }
+                }
+
+                String status = failed ? "FAILED" : "COMPLETED";
+                Timestamp end = new Timestamp(time);
+                jobExecutionBatch.add(jobExecutionId, 2L, jobInstanceId, new Timestamp(executionStart),
+                        new Timestamp(executionStart), end, status, status, "", end, null);
+                addParameters(jobParameterBatch, jobExecutionId, jobInstanceId, executionStart);
+                if (contexts) {
+                    jobContextBatch.add(jobExecutionId, JOB_CONTEXT, null);
+                }
+                firstStep = Math.max(failedStep, 0);
+                if (stepExecutionBatch.size() >= batchSize || jobExecutionBatch.size() >= batchSize) {
+                    flush(batches);
+                }
+            }
+        }
+        flush(batches);
+        return stepExecutions;
+    }
+
+    private void initDistributions() {
+        stepMedianDurations = new long[jobs * stepsPerJob];
+        stepMedianReadCounts = new long[jobs * stepsPerJob];
+        for (int i = 0; i < stepMedianDurations.length; i++) {
+            // from a second to ten minutes, and up to a hundred thousand items
+            stepMedianDurations[i] = (long) Math.pow(10, 3 + random.nextDouble() * 2.8);
+            stepMedianReadCounts[i] = (long) Math.pow(10, random.nextDouble() * 5);
+        }
+        jobWeights = new double[jobs];
+        double total = 0;
+        for (int i = 0; i < jobs; i++) {
+            total += 1.0 / (i + 1);
+            jobWeights[i] = total;
+        }
+        for (int i = 0; i < jobs; i++) {
+            jobWeights[i] /= total;
+        }
+    }
+
+    private int nextJob() {
+        double value = random.nextDouble();
+        for (int i = 0; i < jobs - 1; i++) {
+            if (value < jobWeights[i]) {
+                return i;
+            }
+        }
+        return jobs - 1;
+    }
+
+    private long logNormal(long median) {
+        return (long) (median * Math.exp(0.5 * random.nextGaussian()));
+    }
+
+    private void addParameters(Batch batch, long jobExecutionId, long jobInstanceId, long time) {
+        if (parametersPerExecution > 0) {
+            batch.add(jobExecutionId, "LONG", "run.id", "", new Timestamp(0), jobInstanceId, 0d, "Y");
+        }
+        if (parametersPerExecution > 1) {
+            batch.add(jobExecutionId, "DATE", "date", "", new Timestamp(time), 0L, 0d, "Y");
+        }
+        if (parametersPerExecution > 2) {
+            batch.add(jobExecutionId, "STRING", "input", "/data/in/" + jobInstanceId + ".csv", new Timestamp(0), 0L,
+                    0d, "N");
+        }
+    }
+
+    private long getMaxId(String table, String column) {
+        Long maxId = jdbcTemplate.queryForObject("SELECT MAX(" + column + ") FROM " + tablePrefix + table,
+                Long.class);
+        return maxId == null ? 0 : maxId;
+    }
+
+    private void flush(Batch[] batches) {
+        for (Batch batch : batches) {
+            batch.flush();
+        }
+    }
+
+    /**
+     * Rows waiting to be inserted in a table.
+     */
+    private class Batch {
+
+        private final String sql;
+
+        private final int[] types;
+
+        private final List<Object[]> rows = new ArrayList<Object[]>();
+
+        Batch(String sql, int... types) {
+            this.sql = sql.replace("%PREFIX%", tablePrefix);
+            this.types = types;
+        }
+
+        void add(Object... row) {
+            rows.add(row);
+        }
+
+        int size() {
+            return rows.size();
+        }
+
+        void flush() {
+            if (!rows.isEmpty()) {
+                jdbcTemplate.batchUpdate(sql, rows, types);
+                rows.clear();
+            }
+        }
+    }
+}
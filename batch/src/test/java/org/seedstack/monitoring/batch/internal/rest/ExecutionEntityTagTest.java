@@ -0,0 +1,209 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.monitoring.batch.internal.rest;
+
+import org.easymock.EasyMock;
+import org.junit.Test;
+import org.springframework.batch.admin.service.ExecutionState;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.Entity;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.StepExecution;
+
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Request;
+import javax.ws.rs.core.Response;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ExecutionEntityTagTest {
+
+    private static final Date STARTED = new Date(1000L);
+
+    private static final Date ENDED = new Date(2000L);
+
+    private final ResponsePolicy policy = new ResponsePolicy();
+
+    @Test
+    public void testCompletedExecutionIsCached() {
+        Response response = ExecutionEntityTag.of(createStates(BatchStatus.COMPLETED, BatchStatus.COMPLETED))
+                .ok("entity", policy).build();
+        assertNotNull(response.getEntityTag());
+        assertEquals(ENDED, response.getLastModified());
+        assertEquals("private, max-age=3600", response.getHeaderString(HttpHeaders.CACHE_CONTROL));
+    }
+
+    @Test
+    public void testAbandonedExecutionIsCached() {
+        Response response = ExecutionEntityTag.of(createStates(BatchStatus.ABANDONED, BatchStatus.ABANDONED))
+                .ok("entity", policy).build();
+        assertNotNull(response.getEntityTag());
+        assertEquals("private, max-age=3600", response.getHeaderString(HttpHeaders.CACHE_CONTROL));
+    }
+
+    @Test
+    public void testFailedAndStoppedExecutionsAreRevalidated() {
+        // they can still be abandoned
+        for (BatchStatus status : Arrays.asList(BatchStatus.FAILED, BatchStatus.STOPPED, BatchStatus.UNKNOWN)) {
+            Response response = ExecutionEntityTag.of(createStates(status, BatchStatus.COMPLETED))
+                    .ok("entity", policy).build();
+            assertNotNull(response.getEntityTag());
+            assertEquals("private, no-cache", response.getHeaderString(HttpHeaders.CACHE_CONTROL));
+        }
+    }
+
+    @Test
+    public void testCompletedStepOfFailedExecutionIsCached() {
+        Response response = ExecutionEntityTag.of(createStates(BatchStatus.FAILED, BatchStatus.COMPLETED)
+                .subList(1, 2)).ok("entity", policy).build();
+        assertEquals("private, max-age=3600", response.getHeaderString(HttpHeaders.CACHE_CONTROL));
+    }
+
+    @Test
+    public void testCountedRepresentationIsRevalidated() {
+        List<ExecutionState> states = createStates(BatchStatus.COMPLETED, BatchStatus.COMPLETED);
+        Response response = ExecutionEntityTag.of(states).withCount(10).ok("entity", policy).build();
+        assertEquals("private, no-cache", response.getHeaderString(HttpHeaders.CACHE_CONTROL));
+
+        EntityTag entityTag = response.getEntityTag();
+        assertEquals(entityTag, ExecutionEntityTag.of(states).withCount(10).ok("entity", policy).build()
+                .getEntityTag());
+        assertFalse(entityTag.equals(ExecutionEntityTag.of(states).withCount(11).ok("entity", policy).build()
+                .getEntityTag()));
+        assertFalse(entityTag.equals(ExecutionEntityTag.of(states).ok("entity", policy).build().getEntityTag()));
+    }
+
+    @Test
+    public void testNoMaxAge() {
+        policy.setFinishedMaxAge(0);
+        Response response = ExecutionEntityTag.of(createStates(BatchStatus.COMPLETED, BatchStatus.COMPLETED))
+                .ok("entity", policy).build();
+        assertNotNull(response.getEntityTag());
+        assertEquals("private, no-cache", response.getHeaderString(HttpHeaders.CACHE_CONTROL));
+    }
+
+    @Test
+    public void testFinishedExecutionHasValidators() {
+        Response response = ExecutionEntityTag.of(createStates(BatchStatus.FAILED, BatchStatus.COMPLETED))
+                .ok("entity", policy).build();
+        assertNotNull(response.getEntityTag());
+        assertTrue(response.getEntityTag().isWeak());
+        assertEquals(ENDED, response.getLastModified());
+    }
+
+    @Test
+    public void testVariantsChangeTheEntityTag() {
+        List<ExecutionState> states = createStates(BatchStatus.COMPLETED, BatchStatus.COMPLETED);
+        EntityTag entityTag = ExecutionEntityTag.of(states, 10).ok("entity", policy).build().getEntityTag();
+        assertEquals(entityTag, ExecutionEntityTag.of(states, 10).ok("entity", policy).build().getEntityTag());
+        assertFalse(entityTag.equals(ExecutionEntityTag.of(states, 11).ok("entity", policy).build().getEntityTag()));
+        assertFalse(entityTag.equals(ExecutionEntityTag.of(states).ok("entity", policy).build().getEntityTag()));
+        assertFalse(entityTag.equals(ExecutionEntityTag.of(createStates(BatchStatus.ABANDONED,
+                BatchStatus.COMPLETED), 10).ok("entity", policy).build().getEntityTag()));
+    }
+
+    @Test
+    public void testRunningExecutionHasNoValidators() {
+        List<ExecutionState> states = Collections.singletonList(new ExecutionState(1L, null, "job", 1,
+                BatchStatus.STARTED, "UNKNOWN", STARTED, null, STARTED, 0, 0, 0, 0, 0, 0));
+        ExecutionEntityTag entityTag = ExecutionEntityTag.of(states);
+        Response response = entityTag.ok("entity", policy).build();
+        assertNull(response.getEntityTag());
+        assertNull(response.getHeaderString(HttpHeaders.CACHE_CONTROL));
+        assertNull(entityTag.withCount(10).ok("entity", policy).build().getEntityTag());
+
+        Request request = EasyMock.createMock(Request.class);
+        EasyMock.replay(request);
+        assertNull(entityTag.evaluate(request, policy));
+        EasyMock.verify(request);
+    }
+
+    @Test
+    public void testMissingExecutionHasNoValidators() {
+        assertNull(ExecutionEntityTag.of(Collections.<ExecutionState>emptyList()).ok("entity", policy).build()
+                .getEntityTag());
+    }
+
+    @Test
+    public void testNotModified() {
+        ExecutionEntityTag entityTag = ExecutionEntityTag.of(createStates(BatchStatus.COMPLETED,
+                BatchStatus.COMPLETED));
+        EntityTag tag = entityTag.ok("entity", policy).build().getEntityTag();
+        Request request = EasyMock.createMock(Request.class);
+        EasyMock.expect(request.evaluatePreconditions(ENDED, tag)).andReturn(Response.notModified(tag));
+        EasyMock.replay(request);
+
+        Response response = entityTag.evaluate(request, policy);
+        assertEquals(304, response.getStatus());
+        assertEquals("private, max-age=3600", response.getHeaderString(HttpHeaders.CACHE_CONTROL));
+        EasyMock.verify(request);
+    }
+
+    @Test
+    public void testModified() {
+        ExecutionEntityTag entityTag = ExecutionEntityTag.of(createStates(BatchStatus.FAILED,
+                BatchStatus.COMPLETED));
+        Request request = EasyMock.createMock(Request.class);
+        EasyMock.expect(request.evaluatePreconditions(EasyMock.eq(ENDED), EasyMock.anyObject(EntityTag.class)))
+                .andReturn(null);
+        EasyMock.replay(request);
+        assertNull(entityTag.evaluate(request, policy));
+        EasyMock.verify(request);
+    }
+
+    @Test
+    public void testVersionOfExecutions() {
+        ExecutionEntityTag entityTag = ExecutionEntityTag.of(createStates(BatchStatus.ABANDONED,
+                BatchStatus.COMPLETED));
+        JobExecution jobExecution = new JobExecution(1L);
+        jobExecution.setVersion(2);
+        StepExecution stepExecution = new StepExecution("step", jobExecution, 10L);
+        stepExecution.setVersion(3);
+        // a step execution without id, added for a step not executed
+        new StepExecution("missing", jobExecution);
+        List<Entity> executions = new ArrayList<Entity>(jobExecution.getStepExecutions());
+        executions.add(jobExecution);
+        assertTrue(entityTag.isVersionOf(executions));
+        assertTrue(entityTag.isVersionOf(Collections.singletonList(stepExecution)));
+
+        // read from a cache before being abandoned
+        jobExecution.setVersion(1);
+        assertFalse(entityTag.isVersionOf(executions));
+        assertTrue(entityTag.isVersionOf(Collections.singletonList(stepExecution)));
+        // not in the states
+        assertFalse(entityTag.isVersionOf(Collections.singletonList(new StepExecution("step", jobExecution, 11L))));
+        // the step execution has the id of the job execution
+        assertFalse(entityTag.isVersionOf(Collections.singletonList(new StepExecution("step", jobExecution, 1L))));
+    }
+
+    @Test
+    public void testVersionOfRunningExecutions() {
+        ExecutionEntityTag entityTag = ExecutionEntityTag.of(Collections.singletonList(new ExecutionState(1L, null,
+                "job", 1, BatchStatus.STARTED, "UNKNOWN", STARTED, null, STARTED, 0, 0, 0, 0, 0, 0)));
+        // not tagged, so sent whatever its version
+        assertTrue(entityTag.isVersionOf(Collections.singletonList(new JobExecution(1L))));
+    }
+
+    private static List<ExecutionState> createStates(BatchStatus jobStatus, BatchStatus stepStatus) {
+        return Arrays.asList(
+                new ExecutionState(1L, null, "job", 2, jobStatus, jobStatus.name(), STARTED, ENDED, ENDED,
+                        0, 0, 0, 0, 0, 0),
+                new ExecutionState(1L, 10L, "step", 3, stepStatus, stepStatus.name(), STARTED, ENDED, ENDED,
+                        100, 100, 1, 0, 0, 0));
+    }
+}
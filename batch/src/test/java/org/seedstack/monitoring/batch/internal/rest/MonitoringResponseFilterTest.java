@@ -0,0 +1,171 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.monitoring.batch.internal.rest;
+
+import org.easymock.Capture;
+import org.easymock.EasyMock;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.ws.rs.HttpMethod;
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerResponseContext;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedHashMap;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.core.UriInfo;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class MonitoringResponseFilterTest {
+
+    private static final String PATH = "seed-monitoring/jobs/executions";
+
+    private final MonitoringResponseFilter filter = new MonitoringResponseFilter();
+
+    private final ResponsePolicy policy = new ResponsePolicy();
+
+    private MultivaluedMap<String, Object> headers;
+
+    @Before
+    public void setUp() {
+        ReflectionTestUtils.setField(filter, "policy", policy);
+        headers = new MultivaluedHashMap<String, Object>();
+    }
+
+    @Test
+    public void testSelectContentCoding() {
+        assertEquals("gzip", filter("gzip"));
+        assertEquals("gzip", filter("gzip, deflate, br"));
+        assertEquals("gzip", filter("deflate, gzip"));
+        assertEquals("gzip", filter("x-gzip"));
+        assertEquals("gzip", filter("GZIP"));
+        assertEquals("gzip", filter(" gzip ; q=0.5 "));
+        assertEquals("gzip", filter("*"));
+        assertEquals("deflate", filter("deflate"));
+        assertEquals("deflate", filter("br, deflate;q=0.1"));
+        assertNull(filter(null));
+        assertNull(filter(""));
+        assertNull(filter("identity"));
+        assertNull(filter("br, compress"));
+    }
+
+    @Test
+    public void testRefusedContentCoding() {
+        assertEquals("deflate", filter("gzip;q=0, deflate"));
+        assertEquals("deflate", filter("gzip; q=0.0, deflate"));
+        assertEquals("deflate", filter("gzip;q=0.000, deflate;q=0.001"));
+        assertNull(filter("gzip;q=0, deflate;q=0"));
+        assertNull(filter("*;q=0"));
+        // an invalid quality is taken as a refusal
+        assertNull(filter("gzip;q=high"));
+        assertEquals("gzip", filter("gzip;level=1;q=1"));
+    }
+
+    @Test
+    public void testVaryOnAcceptEncoding() {
+        filter("gzip");
+        assertEquals("Accept-Encoding", headers.getFirst("Vary"));
+        headers.clear();
+        filter(null);
+        assertEquals("Accept-Encoding", headers.getFirst("Vary"));
+    }
+
+    @Test
+    public void testCompressibleMediaTypes() {
+        assertEquals("gzip", filter(PATH, HttpMethod.GET, "gzip", MediaType.APPLICATION_JSON_TYPE, true));
+        assertEquals("gzip", filter(PATH, HttpMethod.GET, "gzip",
+                MediaType.valueOf("application/vnd.seedstack.batch.compact+json"), true));
+        assertEquals("gzip", filter(PATH, HttpMethod.GET, "gzip", MediaType.TEXT_PLAIN_TYPE, true));
+        assertEquals("gzip", filter(PATH, HttpMethod.GET, "gzip", MediaType.APPLICATION_XML_TYPE, true));
+        assertNull(filter(PATH, HttpMethod.GET, "gzip", MediaType.valueOf("application/gzip"), true));
+        assertNull(filter(PATH, HttpMethod.GET, "gzip", MediaType.APPLICATION_OCTET_STREAM_TYPE, true));
+        assertNull(filter(PATH, HttpMethod.GET, "gzip", null, true));
+        assertNull(filter(PATH, HttpMethod.GET, "gzip", MediaType.APPLICATION_JSON_TYPE, false));
+    }
+
+    @Test
+    public void testEventStreamIsNotCompressed() {
+        assertNull(filter(PATH, HttpMethod.GET, "gzip", MediaType.valueOf("text/event-stream"), true));
+        assertFalse(headers.containsKey("Vary"));
+    }
+
+    @Test
+    public void testAlreadyEncodedResponseIsNotCompressed() {
+        headers.putSingle("Content-Encoding", "gzip");
+        assertNull(filter("gzip"));
+        assertFalse(headers.containsKey("Vary"));
+    }
+
+    @Test
+    public void testCompressionDisabled() {
+        policy.setCompressionThreshold(-1);
+        assertNull(filter("gzip"));
+        assertFalse(headers.containsKey("Vary"));
+    }
+
+    @Test
+    public void testOtherPathsAreIgnored() {
+        assertNull(filter("other/resource", HttpMethod.GET, "gzip", MediaType.APPLICATION_JSON_TYPE, true));
+        assertTrue(headers.isEmpty());
+        assertEquals("gzip", filter("/" + PATH, HttpMethod.GET, "gzip", MediaType.APPLICATION_JSON_TYPE, true));
+    }
+
+    @Test
+    public void testResponsesAreRevalidatedByDefault() {
+        filter(PATH, HttpMethod.GET, null, MediaType.APPLICATION_JSON_TYPE, true);
+        assertEquals("private, no-cache", headers.getFirst(HttpHeaders.CACHE_CONTROL));
+        headers.clear();
+        filter(PATH, HttpMethod.HEAD, null, MediaType.APPLICATION_JSON_TYPE, false);
+        assertEquals("private, no-cache", headers.getFirst(HttpHeaders.CACHE_CONTROL));
+        headers.clear();
+        filter(PATH, HttpMethod.DELETE, null, MediaType.APPLICATION_JSON_TYPE, true);
+        assertFalse(headers.containsKey(HttpHeaders.CACHE_CONTROL));
+    }
+
+    @Test
+    public void testCachingSetByResourceIsKept() {
+        headers.putSingle(HttpHeaders.CACHE_CONTROL, "private, max-age=3600");
+        filter(PATH, HttpMethod.GET, null, MediaType.APPLICATION_JSON_TYPE, true);
+        assertEquals("private, max-age=3600", headers.getFirst(HttpHeaders.CACHE_CONTROL));
+    }
+
+    private String filter(String acceptEncoding) {
+        return filter(PATH, HttpMethod.GET, acceptEncoding, MediaType.APPLICATION_JSON_TYPE, true);
+    }
+
+    /**
+     * @return the content coding selected for the response
+     */
+    private String filter(String path, String method, String acceptEncoding, MediaType mediaType,
+                          boolean hasEntity) {
+        UriInfo uriInfo = EasyMock.createNiceMock(UriInfo.class);
+        EasyMock.expect(uriInfo.getPath()).andReturn(path).anyTimes();
+        ContainerRequestContext requestContext = EasyMock.createNiceMock(ContainerRequestContext.class);
+        EasyMock.expect(requestContext.getUriInfo()).andReturn(uriInfo).anyTimes();
+        EasyMock.expect(requestContext.getMethod()).andReturn(method).anyTimes();
+        EasyMock.expect(requestContext.getHeaderString("Accept-Encoding")).andReturn(acceptEncoding).anyTimes();
+        Capture<Object> contentCoding = new Capture<Object>();
+        requestContext.setProperty(EasyMock.eq(MonitoringResponseFilter.CONTENT_CODING_PROPERTY),
+                EasyMock.capture(contentCoding));
+        EasyMock.expectLastCall().anyTimes();
+        ContainerResponseContext responseContext = EasyMock.createNiceMock(ContainerResponseContext.class);
+        EasyMock.expect(responseContext.getHeaders()).andReturn(headers).anyTimes();
+        EasyMock.expect(responseContext.hasEntity()).andReturn(hasEntity).anyTimes();
+        EasyMock.expect(responseContext.getMediaType()).andReturn(mediaType).anyTimes();
+        EasyMock.replay(uriInfo, requestContext, responseContext);
+
+        filter.filter(requestContext, responseContext);
+        return contentCoding.hasCaptured() ? (String) contentCoding.getValue() : null;
+    }
+}
@@ -0,0 +1,173 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.monitoring.batch.internal.rest;
+
+import org.easymock.Capture;
+import org.easymock.EasyMock;
+import org.easymock.IAnswer;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.StreamUtils;
+
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MultivaluedHashMap;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.ext.WriterInterceptorContext;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.zip.CRC32;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+public class ResponseCompressionInterceptorTest {
+
+    private final ResponseCompressionInterceptor interceptor = new ResponseCompressionInterceptor();
+
+    private final ResponsePolicy policy = new ResponsePolicy();
+
+    private final MultivaluedMap<String, Object> headers = new MultivaluedHashMap<String, Object>();
+
+    private final ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+    @Before
+    public void setUp() {
+        ReflectionTestUtils.setField(interceptor, "policy", policy);
+        policy.setCompressionThreshold(100);
+        headers.putSingle(HttpHeaders.CONTENT_LENGTH, "1000");
+    }
+
+    @Test
+    public void testNoContentCoding() throws Exception {
+        byte[] entity = createEntity(1000);
+        write(null, entity, 1000);
+        assertArrayEquals(entity, output.toByteArray());
+        assertNull(headers.getFirst("Content-Encoding"));
+        assertEquals("1000", headers.getFirst(HttpHeaders.CONTENT_LENGTH));
+    }
+
+    @Test
+    public void testBelowThreshold() throws Exception {
+        byte[] entity = createEntity(99);
+        write(MonitoringResponseFilter.GZIP, entity, 10);
+        assertArrayEquals(entity, output.toByteArray());
+        assertNull(headers.getFirst("Content-Encoding"));
+        assertEquals("1000", headers.getFirst(HttpHeaders.CONTENT_LENGTH));
+    }
+
+    @Test
+    public void testAtThreshold() throws Exception {
+        byte[] entity = createEntity(100);
+        write(MonitoringResponseFilter.GZIP, entity, 10);
+        assertEquals("gzip", headers.getFirst("Content-Encoding"));
+        assertFalse(headers.containsKey(HttpHeaders.CONTENT_LENGTH));
+        assertArrayEquals(entity, gunzip(output.toByteArray()));
+    }
+
+    @Test
+    public void testThresholdReachedByBytes() throws Exception {
+        byte[] entity = createEntity(150);
+        write(MonitoringResponseFilter.GZIP, entity, 1);
+        assertEquals("gzip", headers.getFirst("Content-Encoding"));
+        assertArrayEquals(entity, gunzip(output.toByteArray()));
+    }
+
+    @Test
+    public void testNoThreshold() throws Exception {
+        policy.setCompressionThreshold(0);
+        write(MonitoringResponseFilter.GZIP, new byte[]{'a'}, 10);
+        assertEquals("gzip", headers.getFirst("Content-Encoding"));
+        assertArrayEquals(new byte[]{'a'}, gunzip(output.toByteArray()));
+    }
+
+    @Test
+    public void testGzipTrailer() throws Exception {
+        byte[] entity = createEntity(100000);
+        write(MonitoringResponseFilter.GZIP, entity, 777);
+        byte[] bytes = output.toByteArray();
+        assertArrayEquals(entity, gunzip(bytes));
+
+        // CRC-32 and size modulo 2^32 of the uncompressed entity, little-endian
+        CRC32 crc = new CRC32();
+        crc.update(entity);
+        assertEquals(crc.getValue(), readInt(bytes, bytes.length - 8));
+        assertEquals(entity.length, readInt(bytes, bytes.length - 4));
+    }
+
+    @Test
+    public void testDeflate() throws Exception {
+        byte[] entity = createEntity(10000);
+        write(MonitoringResponseFilter.DEFLATE, entity, 100);
+        assertEquals("deflate", headers.getFirst("Content-Encoding"));
+        assertArrayEquals(entity, StreamUtils.copyToByteArray(new InflaterInputStream(
+                new ByteArrayInputStream(output.toByteArray()))));
+    }
+
+    /**
+     * Writes the entity through the interceptor, in chunks of the given size.
+     */
+    private void write(String contentCoding, final byte[] entity, final int chunkSize) throws IOException {
+        WriterInterceptorContext context = EasyMock.createNiceMock(WriterInterceptorContext.class);
+        EasyMock.expect(context.getProperty(MonitoringResponseFilter.CONTENT_CODING_PROPERTY))
+                .andReturn(contentCoding).anyTimes();
+        EasyMock.expect(context.getHeaders()).andReturn(headers).anyTimes();
+        EasyMock.expect(context.getOutputStream()).andReturn(output).anyTimes();
+        final Capture<OutputStream> outputStream = new Capture<OutputStream>();
+        context.setOutputStream(EasyMock.capture(outputStream));
+        EasyMock.expectLastCall().anyTimes();
+        context.proceed();
+        EasyMock.expectLastCall().andAnswer(new IAnswer<Void>() {
+            @Override
+            public Void answer() throws Throwable {
+                OutputStream target = outputStream.hasCaptured() ? outputStream.getValue() : output;
+                if (chunkSize == 1) {
+                    for (byte b : entity) {
+                        target.write(b);
+                    }
+                } else {
+                    for (int i = 0; i < entity.length; i += chunkSize) {
+                        target.write(entity, i, Math.min(chunkSize, entity.length - i));
+                        target.flush();
+                    }
+                }
+                return null;
+            }
+        });
+        EasyMock.replay(context);
+        interceptor.aroundWriteTo(context);
+        EasyMock.verify(context);
+    }
+
+    private static byte[] createEntity(int size) {
+        // half text, half random, to have both compressible and incompressible parts
+        byte[] entity = new byte[size];
+        Arrays.fill(entity, 0, size / 2, (byte) 'a');
+        byte[] random = new byte[size - size / 2];
+        new Random(42).nextBytes(random);
+        System.arraycopy(random, 0, entity, size / 2, random.length);
+        return entity;
+    }
+
+    private static byte[] gunzip(byte[] bytes) throws IOException {
+        return StreamUtils.copyToByteArray(new GZIPInputStream(new ByteArrayInputStream(bytes)));
+    }
+
+    private static long readInt(byte[] bytes, int offset) {
+        return (bytes[offset] & 0xffL) | (bytes[offset + 1] & 0xffL) << 8 | (bytes[offset + 2] & 0xffL) << 16
+                | (bytes[offset + 3] & 0xffL) << 24;
+    }
+}
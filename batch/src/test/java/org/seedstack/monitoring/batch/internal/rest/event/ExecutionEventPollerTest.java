@@ -0,0 +1,157 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.monitoring.batch.internal.rest.event;
+
+import org.easymock.EasyMock;
+import org.easymock.IAnswer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.batch.admin.service.ExecutionChangeDetector;
+import org.springframework.batch.admin.service.ExecutionState;
+import org.springframework.batch.admin.service.JobService;
+import org.springframework.batch.core.BatchStatus;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class ExecutionEventPollerTest {
+
+    private static final Date STARTED = new Date(1000L);
+
+    private final JobService jobService = EasyMock.createMock(JobService.class);
+
+    private final ExecutionChangeDetector detector = new ExecutionChangeDetector(jobService);
+
+    private final ExecutionEventPoller poller = new ExecutionEventPoller(jobService);
+
+    private volatile List<ExecutionState> states = Collections.emptyList();
+
+    @Before
+    public void setUp() {
+        EasyMock.expect(jobService.getExecutionChangeDetector()).andReturn(detector).anyTimes();
+        EasyMock.expect(jobService.getExecutionStates(EasyMock.<Date>anyObject())).andAnswer(
+                new IAnswer<Collection<ExecutionState>>() {
+                    @Override
+                    public Collection<ExecutionState> answer() {
+                        return states;
+                    }
+                }).anyTimes();
+        EasyMock.replay(jobService);
+    }
+
+    @After
+    public void tearDown() {
+        poller.expireSubscriptions(Long.MAX_VALUE);
+    }
+
+    @Test
+    public void testSubscriptionReceivesChanges() throws Exception {
+        ExecutionState running = createState(1);
+        states = Arrays.asList(running);
+        ExecutionEventPoller.Subscription subscription = poller.subscribe(10);
+        assertSame(running, subscription.poll(5000));
+
+        // a detection triggered by another consumer of the shared detector
+        ExecutionState updated = createState(2);
+        states = Arrays.asList(updated);
+        detector.detectChanges();
+        assertSame(updated, subscription.poll(5000));
+        assertNull(subscription.poll());
+    }
+
+    @Test
+    public void testLaterSubscriptionReceivesCurrentStates() throws Exception {
+        ExecutionState running = createState(1);
+        states = Arrays.asList(running);
+        ExecutionEventPoller.Subscription first = poller.subscribe(10);
+        assertSame(running, first.poll(5000));
+
+        ExecutionEventPoller.Subscription second = poller.subscribe(10);
+        assertSame(running, second.poll());
+        assertNull(first.poll());
+    }
+
+    @Test
+    public void testSubscriptionsAreBounded() throws Exception {
+        ExecutionEventPoller.Subscription first = poller.subscribe(2);
+        ExecutionEventPoller.Subscription second = poller.subscribe(2);
+        assertNotNull(first);
+        assertNotNull(second);
+        assertNull(poller.subscribe(2));
+
+        poller.unsubscribe(first);
+        assertTrue(first.isClosed());
+        assertFalse(second.isClosed());
+        assertEquals(1, poller.getSubscriptionCount());
+        assertNotNull(poller.subscribe(2));
+    }
+
+    @Test
+    public void testUnsubscribedSubscriptionReceivesNothing() throws Exception {
+        ExecutionEventPoller.Subscription subscription = poller.subscribe(10);
+        poller.unsubscribe(subscription);
+        assertEquals(0, poller.getSubscriptionCount());
+
+        states = Arrays.asList(createState(1));
+        detector.detectChanges();
+        assertNull(subscription.poll());
+    }
+
+    @Test
+    public void testSubscriptionNotPolledExpires() throws Exception {
+        ExecutionEventPoller.Subscription subscription = poller.subscribe(1);
+        poller.expireSubscriptions(System.currentTimeMillis());
+        assertEquals(1, poller.getSubscriptionCount());
+
+        poller.expireSubscriptions(System.currentTimeMillis() + ExecutionEventPoller.SUBSCRIPTION_TIMEOUT + 1000);
+        assertEquals(0, poller.getSubscriptionCount());
+        assertTrue(subscription.isClosed());
+        assertNotNull(poller.subscribe(1));
+    }
+
+    @Test
+    public void testSubscriptionOverflows() throws Exception {
+        ExecutionEventPoller.Subscription subscription = new ExecutionEventPoller.Subscription();
+        List<ExecutionState> changes = new ArrayList<ExecutionState>();
+        for (int i = 0; i <= ExecutionEventPoller.SUBSCRIPTION_CAPACITY; i++) {
+            changes.add(createState(i));
+        }
+        subscription.onChanges(changes.subList(0, 1));
+        assertFalse(subscription.isOverflowed());
+
+        subscription.onChanges(changes);
+        assertTrue(subscription.isOverflowed());
+        assertTrue(subscription.isClosed());
+        int count = 0;
+        while (subscription.poll() != null) {
+            count++;
+        }
+        assertEquals(ExecutionEventPoller.SUBSCRIPTION_CAPACITY, count);
+
+        // the changes are not received any more
+        subscription.onChanges(changes.subList(0, 1));
+        assertNull(subscription.poll());
+    }
+
+    private static ExecutionState createState(int version) {
+        return new ExecutionState(1L, null, "job", version, BatchStatus.STARTED, "UNKNOWN", STARTED, null,
+                new Date(STARTED.getTime() + version), 0, 0, 0, 0, 0, 0);
+    }
+}
@@ -0,0 +1,62 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.monitoring.batch.internal.rest.event;
+
+import org.junit.Test;
+import org.springframework.batch.admin.service.ExecutionState;
+import org.springframework.batch.core.BatchStatus;
+
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.Date;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ExecutionEventResourceTest {
+
+    @Test
+    public void testWriteEvents() throws Exception {
+        Date started = new Date(1000L);
+        ExecutionEventPoller.Subscription subscription = new ExecutionEventPoller.Subscription();
+        subscription.onChanges(Arrays.asList(
+                new ExecutionState(1L, null, "job", 1, BatchStatus.STARTED, "UNKNOWN", started, null, started,
+                        0, 0, 0, 0, 0, 0),
+                new ExecutionState(1L, 10L, "step", 2, BatchStatus.STARTED, "EXECUTING", started, null, started,
+                        100, 90, 1, 0, 0, 10)));
+        StringWriter writer = new StringWriter();
+        ExecutionEventResource.writeEvents(writer, subscription, System.currentTimeMillis() + 1000);
+
+        String[] events = writer.toString().split("\n\n");
+        assertTrue(events.length >= 3);
+        assertEquals("retry: 3000", events[0]);
+        assertTrue(events[1], events[1].startsWith("event: job-execution\ndata: {"));
+        assertTrue(events[1], events[1].contains("\"jobExecutionId\":1"));
+        assertTrue(events[1], events[1].contains("\"status\":\"STARTED\""));
+        assertTrue(events[2], events[2].startsWith("event: step-execution\ndata: {"));
+        assertTrue(events[2], events[2].contains("\"stepExecutionId\":10"));
+        assertTrue(events[2], events[2].contains("\"readCount\":100"));
+    }
+
+    @Test
+    public void testWriteHeartbeatWhenNothingChanged() throws Exception {
+        ExecutionEventPoller.Subscription subscription = new ExecutionEventPoller.Subscription();
+        StringWriter writer = new StringWriter();
+        ExecutionEventResource.writeEvents(writer, subscription, System.currentTimeMillis() + 1000);
+        assertTrue(writer.toString().startsWith("retry: 3000\n\n:\n\n"));
+    }
+
+    @Test
+    public void testWriteEventsStopsWhenSubscriptionIsClosed() throws Exception {
+        ExecutionEventPoller.Subscription subscription = new ExecutionEventPoller.Subscription();
+        subscription.close();
+        StringWriter writer = new StringWriter();
+        ExecutionEventResource.writeEvents(writer, subscription, System.currentTimeMillis() + 60000);
+        assertEquals("retry: 3000\n\n", writer.toString());
+    }
+}
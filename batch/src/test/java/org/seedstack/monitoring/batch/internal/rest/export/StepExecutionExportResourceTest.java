@@ -0,0 +1,161 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.monitoring.batch.internal.rest.export;
+
+import org.easymock.EasyMock;
+import org.easymock.IAnswer;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.batch.admin.service.ExecutionCallback;
+import org.springframework.batch.admin.service.JobService;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobInstance;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.StreamUtils;
+
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.Assert.assertEquals;
+
+public class StepExecutionExportResourceTest {
+
+    private static final String HEADER = "stepExecutionId,jobExecutionId,jobName,stepName,status,exitCode,"
+            + "startTime,endTime,duration,readCount,writeCount,filterCount,commitCount,rollbackCount,"
+            + "readSkipCount,writeSkipCount,processSkipCount,lastUpdated\n";
+
+    private final JobService jobService = EasyMock.createMock(JobService.class);
+
+    private final StepExecutionExportResource resource = new StepExecutionExportResource();
+
+    @Before
+    public void setUp() {
+        ReflectionTestUtils.setField(resource, "jobService", jobService);
+    }
+
+    @Test
+    public void testExportRows() throws Exception {
+        StepExecution stepExecution = createStepExecution("job", "step", "COMPLETED");
+        stepExecution.setStatus(BatchStatus.COMPLETED);
+        stepExecution.setStartTime(new Date(1000L));
+        stepExecution.setEndTime(new Date(3500L));
+        stepExecution.setLastUpdated(new Date(3600L));
+        stepExecution.setReadCount(10);
+        stepExecution.setWriteCount(8);
+        stepExecution.setFilterCount(1);
+        stepExecution.setCommitCount(2);
+        stepExecution.setRollbackCount(3);
+        stepExecution.setReadSkipCount(4);
+        stepExecution.setWriteSkipCount(5);
+        stepExecution.setProcessSkipCount(6);
+        StepExecution running = createStepExecution("job", "other", "EXECUTING");
+        running.setStartTime(new Date(4000L));
+        running.setStatus(BatchStatus.STARTED);
+        expectStepExecutions("job", "*", null, null, stepExecution, running);
+
+        assertEquals(HEADER
+                + "1,7,job,step,COMPLETED,COMPLETED,1000,3500,2500,10,8,1,2,3,4,5,6,3600\n"
+                + "1,7,job,other,STARTED,EXECUTING,4000,,,0,0,0,0,0,0,0,0,\n", export("job", "*", null, null));
+        EasyMock.verify(jobService);
+    }
+
+    @Test
+    public void testExportEscapesText() throws Exception {
+        expectStepExecutions("*", "*", null, null,
+                createStepExecution("job,with,commas", "step \"quoted\"", "FAILED\nwith line\r\nbreaks"),
+                createStepExecution("plain", "'single' and ; semicolon", ""));
+
+        String csv = export("*", "*", null, null);
+        String[] rows = csv.substring(HEADER.length()).split("\n(?=1,7,)");
+        assertEquals(2, rows.length);
+        assertEquals("1,7,\"job,with,commas\",\"step \"\"quoted\"\"\",STARTING,\"FAILED\nwith line\r\nbreaks\","
+                + ",,,0,0,0,0,0,0,0,0,", rows[0]);
+        assertEquals("1,7,plain,'single' and ; semicolon,STARTING,,,,,0,0,0,0,0,0,0,0,\n", rows[1]);
+        EasyMock.verify(jobService);
+    }
+
+    @Test
+    public void testExportTimeRange() throws Exception {
+        expectStepExecutions("job*", "step", new Date(1000L), new Date(2000L));
+        assertEquals(HEADER, export("job*", "step", 1000L, 2000L));
+        EasyMock.verify(jobService);
+    }
+
+    @Test
+    public void testExportIsGzipped() throws Exception {
+        StepExecution[] stepExecutions = new StepExecution[5000];
+        StringBuilder expected = new StringBuilder(HEADER);
+        for (int i = 0; i < stepExecutions.length; i++) {
+            stepExecutions[i] = createStepExecution("job", "step" + i, "COMPLETED");
+            expected.append("1,7,job,step").append(i).append(",STARTING,COMPLETED,,,,0,0,0,0,0,0,0,0,\n");
+        }
+        expectStepExecutions("*", "*", null, null, stepExecutions);
+
+        byte[] bytes = write(resource.export("*", "*", null, null));
+        // the gzip magic number, and a stream read to its end, trailer checked
+        assertEquals(0x1f, bytes[0] & 0xff);
+        assertEquals(0x8b, bytes[1] & 0xff);
+        assertEquals(expected.toString(), gunzip(bytes));
+        EasyMock.verify(jobService);
+    }
+
+    private void expectStepExecutions(String jobName, String stepName, Date startedAfter, Date startedBefore,
+                                      StepExecution... stepExecutions) {
+        final List<StepExecution> rows = Arrays.asList(stepExecutions);
+        jobService.streamStepExecutions(EasyMock.eq(jobName), EasyMock.eq(stepName), EasyMock.eq(startedAfter),
+                EasyMock.eq(startedBefore), EasyMock.<ExecutionCallback<StepExecution>>anyObject());
+        EasyMock.expectLastCall().andAnswer(new IAnswer<Void>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public Void answer() throws Throwable {
+                ExecutionCallback<StepExecution> callback =
+                        (ExecutionCallback<StepExecution>) EasyMock.getCurrentArguments()[4];
+                for (StepExecution row : rows) {
+                    callback.handle(row);
+                }
+                return null;
+            }
+        });
+        EasyMock.replay(jobService);
+    }
+
+    private String export(String jobName, String stepName, Long from, Long to) throws IOException {
+        return gunzip(write(resource.export(jobName, stepName, from, to)));
+    }
+
+    private static StepExecution createStepExecution(String jobName, String stepName, String exitCode) {
+        JobExecution jobExecution = new JobExecution(new JobInstance(3L, jobName), 7L, null, null);
+        StepExecution stepExecution = new StepExecution(stepName, jobExecution, 1L);
+        stepExecution.setExitStatus(new ExitStatus(exitCode));
+        stepExecution.setStartTime(null);
+        stepExecution.setLastUpdated(null);
+        return stepExecution;
+    }
+
+    private static byte[] write(Response response) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ((StreamingOutput) response.getEntity()).write(output);
+        return output.toByteArray();
+    }
+
+    private static String gunzip(byte[] bytes) throws IOException {
+        return new String(StreamUtils.copyToByteArray(new GZIPInputStream(new ByteArrayInputStream(bytes))),
+                Charset.forName("UTF-8"));
+    }
+}
@@ -0,0 +1,183 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.monitoring.batch.internal.rest.job;
+
+import org.easymock.EasyMock;
+import org.junit.Before;
+import org.junit.Test;
+import org.seedstack.monitoring.batch.internal.rest.jobexecution.CompactJobExecutionRepresentation;
+import org.seedstack.monitoring.batch.internal.rest.jobexecution.JobExecutionRepresentation;
+import org.springframework.batch.admin.service.JobService;
+import org.springframework.batch.admin.web.JobExecutionInfo;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.test.MetaDataInstanceFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class JobResourceTest {
+
+    private final JobService jobService = EasyMock.createMock(JobService.class);
+
+    private final JobResource jobResource = new JobResource();
+
+    @Before
+    public void setUp() {
+        ReflectionTestUtils.setField(jobResource, "jobService", jobService);
+    }
+
+    @Test
+    public void testJobExecutionsVaryOnAccept() {
+        expectJobExecutions(0, 21, 1L);
+        Response response = jobResource.jobExecutions(1, 20, null, null, null, MediaType.APPLICATION_JSON);
+        assertEquals(HttpHeaders.ACCEPT, response.getHeaderString(HttpHeaders.VARY));
+        EasyMock.verify(jobService);
+    }
+
+    @Test
+    public void testCompactJobExecutionsVaryOnAccept() {
+        expectJobExecutions(0, 21, 1L);
+        Response response = jobResource.jobExecutions(1, 20, null, null, null,
+                CompactJobExecutionRepresentation.MEDIA_TYPE);
+        assertEquals(HttpHeaders.ACCEPT, response.getHeaderString(HttpHeaders.VARY));
+        EasyMock.verify(jobService);
+    }
+
+    @Test
+    public void testFirstPageHasNoPreviousCursor() {
+        expectJobExecutions(0, 3, 10L, 9L, 8L);
+        JobExecutionRepresentation page = getJobExecutions(1, null, null);
+        assertEquals(Arrays.asList(10L, 9L), getIds(page));
+        assertNull(page.getPreviousCursor());
+        assertEquals(Long.valueOf(9L), page.getNextCursor());
+        EasyMock.verify(jobService);
+    }
+
+    @Test
+    public void testFullLastPageHasNoNextCursor() {
+        expectJobExecutions(2, 3, 8L, 7L);
+        JobExecutionRepresentation page = getJobExecutions(2, null, null);
+        assertEquals(Arrays.asList(8L, 7L), getIds(page));
+        assertEquals(Long.valueOf(8L), page.getPreviousCursor());
+        assertNull(page.getNextCursor());
+        EasyMock.verify(jobService);
+    }
+
+    @Test
+    public void testPageAfterCursor() {
+        EasyMock.expect(jobService.listJobExecutionsAfter(9L, 3)).andReturn(createJobExecutions(8L, 7L, 6L));
+        EasyMock.expect(jobService.listJobExecutionsBefore(8L, 1)).andReturn(createJobExecutions(9L));
+        expectCount();
+        JobExecutionRepresentation page = getJobExecutions(1, 9L, null);
+        assertEquals(Arrays.asList(8L, 7L), getIds(page));
+        assertEquals(Long.valueOf(8L), page.getPreviousCursor());
+        assertEquals(Long.valueOf(7L), page.getNextCursor());
+        EasyMock.verify(jobService);
+    }
+
+    @Test
+    public void testLastPageAfterCursor() {
+        EasyMock.expect(jobService.listJobExecutionsAfter(7L, 3)).andReturn(createJobExecutions(6L));
+        EasyMock.expect(jobService.listJobExecutionsBefore(6L, 1)).andReturn(createJobExecutions(7L));
+        expectCount();
+        JobExecutionRepresentation page = getJobExecutions(1, 7L, null);
+        assertEquals(Arrays.asList(6L), getIds(page));
+        assertEquals(Long.valueOf(6L), page.getPreviousCursor());
+        assertNull(page.getNextCursor());
+        EasyMock.verify(jobService);
+    }
+
+    @Test
+    public void testPageBeforeCursor() {
+        // the most recent execution read is beyond the page
+        EasyMock.expect(jobService.listJobExecutionsBefore(8L, 3)).andReturn(createJobExecutions(11L, 10L, 9L));
+        EasyMock.expect(jobService.listJobExecutionsAfter(9L, 1)).andReturn(createJobExecutions(8L));
+        expectCount();
+        JobExecutionRepresentation page = getJobExecutions(1, null, 8L);
+        assertEquals(Arrays.asList(10L, 9L), getIds(page));
+        assertEquals(Long.valueOf(10L), page.getPreviousCursor());
+        assertEquals(Long.valueOf(9L), page.getNextCursor());
+        EasyMock.verify(jobService);
+    }
+
+    @Test
+    public void testFirstPageBeforeCursor() {
+        EasyMock.expect(jobService.listJobExecutionsBefore(8L, 3)).andReturn(createJobExecutions(10L, 9L));
+        EasyMock.expect(jobService.listJobExecutionsAfter(9L, 1)).andReturn(createJobExecutions(8L));
+        expectCount();
+        JobExecutionRepresentation page = getJobExecutions(1, null, 8L);
+        assertEquals(Arrays.asList(10L, 9L), getIds(page));
+        assertNull(page.getPreviousCursor());
+        assertEquals(Long.valueOf(9L), page.getNextCursor());
+        EasyMock.verify(jobService);
+    }
+
+    @Test
+    public void testOnlyPageBeforeCursor() {
+        // a cursor older than all the executions
+        EasyMock.expect(jobService.listJobExecutionsBefore(0L, 3)).andReturn(createJobExecutions(2L, 1L));
+        EasyMock.expect(jobService.listJobExecutionsAfter(1L, 1)).andReturn(Collections.<JobExecution>emptyList());
+        expectCount();
+        JobExecutionRepresentation page = getJobExecutions(1, null, 0L);
+        assertEquals(Arrays.asList(2L, 1L), getIds(page));
+        assertNull(page.getPreviousCursor());
+        assertNull(page.getNextCursor());
+        EasyMock.verify(jobService);
+    }
+
+    @Test
+    public void testEmptyPageHasNoCursors() {
+        EasyMock.expect(jobService.listJobExecutionsAfter(1L, 3)).andReturn(Collections.<JobExecution>emptyList());
+        expectCount();
+        JobExecutionRepresentation page = getJobExecutions(1, 1L, null);
+        assertEquals(0, page.getResults().size());
+        assertNull(page.getPreviousCursor());
+        assertNull(page.getNextCursor());
+        EasyMock.verify(jobService);
+    }
+
+    private void expectJobExecutions(int start, int count, Long... ids) {
+        EasyMock.expect(jobService.listJobExecutions(start, count)).andReturn(createJobExecutions(ids));
+        expectCount();
+    }
+
+    private void expectCount() {
+        EasyMock.expect(jobService.countJobExecutions()).andReturn(100);
+        EasyMock.replay(jobService);
+    }
+
+    private JobExecutionRepresentation getJobExecutions(int pageIndex, Long afterCursor, Long beforeCursor) {
+        return (JobExecutionRepresentation) jobResource.jobExecutions(pageIndex, 2, afterCursor, beforeCursor, null,
+                MediaType.APPLICATION_JSON).getEntity();
+    }
+
+    private static List<JobExecution> createJobExecutions(Long... ids) {
+        List<JobExecution> jobExecutions = new ArrayList<JobExecution>();
+        for (Long id : ids) {
+            jobExecutions.add(MetaDataInstanceFactory.createJobExecution(id));
+        }
+        return jobExecutions;
+    }
+
+    private static List<Long> getIds(JobExecutionRepresentation page) {
+        List<Long> ids = new ArrayList<Long>();
+        for (Object result : page.getResults()) {
+            ids.add(((JobExecutionInfo) result).getId());
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,168 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.monitoring.batch.internal.rest.jobexecution;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.PropertyNamingStrategy;
+import org.easymock.EasyMock;
+import org.easymock.IAnswer;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.batch.admin.service.ExecutionCallback;
+import org.seedstack.monitoring.batch.internal.rest.ResponsePolicy;
+import org.springframework.batch.admin.service.ExecutionState;
+import org.springframework.batch.admin.service.JobService;
+import org.springframework.batch.admin.web.JobExecutionInfo;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.test.MetaDataInstanceFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Request;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
+import javax.ws.rs.ext.ContextResolver;
+import javax.ws.rs.ext.Providers;
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class JobExecutionResourceTest {
+
+    private final JobService jobService = EasyMock.createMock(JobService.class);
+
+    private final JobExecutionResource jobExecutionResource = new JobExecutionResource();
+
+    @Before
+    public void setUp() {
+        ReflectionTestUtils.setField(jobExecutionResource, "jobService", jobService);
+        ReflectionTestUtils.setField(jobExecutionResource, "policy", new ResponsePolicy());
+    }
+
+    @Test
+    public void testJobExecutionsByJobNameVaryOnAccept() throws Exception {
+        JobExecution jobExecution = MetaDataInstanceFactory.createJobExecution();
+        EasyMock.expect(jobService.countJobExecutionsForJob("job")).andReturn(1);
+        EasyMock.expect(jobService.listJobExecutionsForJob("job", 0, 1000))
+                .andReturn(Collections.singletonList(jobExecution));
+        EasyMock.replay(jobService);
+
+        Response response = jobExecutionResource.jobExecutionsByJobName("job", 1, 1000, false, null,
+                CompactJobExecutionRepresentation.MEDIA_TYPE);
+        assertEquals(HttpHeaders.ACCEPT, response.getHeaderString(HttpHeaders.VARY));
+        EasyMock.verify(jobService);
+    }
+
+    @Test
+    public void testStreamedJobExecutionsByJobNameVaryOnAccept() throws Exception {
+        EasyMock.expect(jobService.countJobExecutionsForJob("job")).andReturn(1);
+        EasyMock.replay(jobService);
+
+        Response response = jobExecutionResource.jobExecutionsByJobName("job", 1, 1000, true, null,
+                MediaType.APPLICATION_JSON);
+        assertEquals(HttpHeaders.ACCEPT, response.getHeaderString(HttpHeaders.VARY));
+        EasyMock.verify(jobService);
+    }
+
+    @Test
+    public void testStreamedJobExecutionsAreWrittenLikePagedOnes() throws Exception {
+        final ObjectMapper objectMapper = new ObjectMapper()
+                .setPropertyNamingStrategy(PropertyNamingStrategy.CAMEL_CASE_TO_LOWER_CASE_WITH_UNDERSCORES);
+        Providers providers = EasyMock.createMock(Providers.class);
+        EasyMock.expect(providers.getContextResolver(ObjectMapper.class, MediaType.APPLICATION_JSON_TYPE))
+                .andReturn(new ContextResolver<ObjectMapper>() {
+                    @Override
+                    public ObjectMapper getContext(Class<?> type) {
+                        return objectMapper;
+                    }
+                }).anyTimes();
+        EasyMock.replay(providers);
+        ReflectionTestUtils.setField(jobExecutionResource, "providers", providers);
+
+        final List<JobExecution> jobExecutions = Arrays.asList(
+                MetaDataInstanceFactory.createJobExecution("job", 1L, 1L),
+                MetaDataInstanceFactory.createJobExecution("job", 1L, 2L));
+        EasyMock.expect(jobService.countJobExecutionsForJob("job")).andReturn(2).times(4);
+        EasyMock.expect(jobService.listJobExecutionsForJob("job", 0, 1000)).andReturn(jobExecutions).times(2);
+        jobService.streamJobExecutionsForJob(EasyMock.eq("job"), EasyMock.<ExecutionCallback<JobExecution>>anyObject());
+        EasyMock.expectLastCall().andAnswer(new IAnswer<Void>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public Void answer() throws Throwable {
+                ExecutionCallback<JobExecution> callback =
+                        (ExecutionCallback<JobExecution>) EasyMock.getCurrentArguments()[1];
+                for (JobExecution jobExecution : jobExecutions) {
+                    callback.handle(jobExecution);
+                }
+                return null;
+            }
+        }).times(2);
+        EasyMock.replay(jobService);
+
+        for (String view : new String[]{null, "compact"}) {
+            Response paged = jobExecutionResource.jobExecutionsByJobName("job", 1, 1000, false, view, null);
+            JsonNode pagedResults = objectMapper.readTree(objectMapper.writeValueAsBytes(paged.getEntity()))
+                    .get("results");
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            ((StreamingOutput) jobExecutionResource.jobExecutionsByJobName("job", 1, 1000, true, view, null)
+                    .getEntity()).write(output);
+            JsonNode streamedResults = objectMapper.readTree(output.toByteArray()).get("results");
+
+            assertEquals(2, pagedResults.size());
+            // the application mapper is used by both, down to its naming strategy
+            assertTrue(pagedResults.get(0).has("step_execution_count"));
+            assertEquals(pagedResults, streamedResults);
+        }
+        EasyMock.verify(jobService);
+    }
+
+    @Test
+    public void testStaleCachedJobExecutionIsReadAgainUntagged() throws Exception {
+        Date ended = new Date(2000L);
+        EasyMock.expect(jobService.countJobExecutions()).andReturn(5);
+        EasyMock.expect(jobService.getJobExecutionStates(1L)).andReturn(Collections.singletonList(
+                new ExecutionState(1L, null, "job", 2, BatchStatus.ABANDONED, "FAILED", new Date(1000L), ended, ended,
+                        0, 0, 0, 0, 0, 0)));
+        Request request = EasyMock.createMock(Request.class);
+        EasyMock.expect(request.evaluatePreconditions(EasyMock.eq(ended), EasyMock.anyObject(EntityTag.class)))
+                .andReturn(null);
+        // failed when cached, abandoned since then
+        EasyMock.expect(jobService.getJobExecution(1L, false)).andReturn(createJobExecution(1, BatchStatus.FAILED));
+        jobService.evictJobExecution(1L);
+        EasyMock.expect(jobService.getJobExecution(1L, false)).andReturn(createJobExecution(2, BatchStatus.ABANDONED));
+        EasyMock.replay(jobService, request);
+
+        Response response = jobExecutionResource.jobExecutionById(1L, request);
+        JobExecutionInfo jobExecutionInfo = (JobExecutionInfo) ((JobExecutionRepresentation) response.getEntity())
+                .getResults().get(0);
+        assertFalse(jobExecutionInfo.isAbandonable());
+        // the body was not read at the version of the states, so it is not tagged nor cached
+        assertNull(response.getEntityTag());
+        assertNull(response.getHeaderString(HttpHeaders.CACHE_CONTROL));
+        EasyMock.verify(jobService, request);
+    }
+
+    private static JobExecution createJobExecution(int version, BatchStatus status) {
+        JobExecution jobExecution = MetaDataInstanceFactory.createJobExecution("job", 1L, 1L);
+        jobExecution.setVersion(version);
+        jobExecution.setStatus(status);
+        jobExecution.setEndTime(new Date(2000L));
+        return jobExecution;
+    }
+}
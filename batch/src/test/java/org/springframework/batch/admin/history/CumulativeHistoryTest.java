@@ -0,0 +1,173 @@
+/*
+ * Copyright 2006-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.batch.admin.history;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+public class CumulativeHistoryTest {
+
+	@Test
+	public void testStatistics() {
+		CumulativeHistory history = new CumulativeHistory();
+		for (double value : new double[] { 2, 4, 4, 4, 5, 5, 7, 9 }) {
+			history.append(value);
+		}
+		assertEquals(8, history.getCount());
+		assertEquals(5, history.getMean(), 1e-12);
+		assertEquals(2, history.getStandardDeviation(), 1e-12);
+		assertEquals(2, history.getMin(), 0);
+		assertEquals(9, history.getMax(), 0);
+		assertNull(history.getPercentiles());
+	}
+
+	@Test
+	public void testEmpty() {
+		CumulativeHistory history = new CumulativeHistory();
+		assertEquals(0, history.getCount());
+		assertEquals(0, history.getMean(), 0);
+		assertEquals(0, history.getStandardDeviation(), 0);
+	}
+
+	@Test
+	public void testPrecisionWithLargeValues() {
+		// a sum of squares of such values loses all the digits of the variance
+		CumulativeHistory history = new CumulativeHistory();
+		double[] values = randomValues(new Random(42), 100000, 1e12, 1000);
+		for (double value : values) {
+			history.append(value);
+		}
+		assertEquals(mean(values), history.getMean(), 1e-3);
+		double standardDeviation = standardDeviation(values);
+		assertEquals(standardDeviation, history.getStandardDeviation(), standardDeviation * 1e-6);
+	}
+
+	@Test
+	public void testFromAggregates() {
+		CumulativeHistory history = new CumulativeHistory(2, 3e12 + 3000, 500000, 1e12 + 1000, 2e12 + 2000);
+		assertEquals(2, history.getCount());
+		assertEquals(1.5e12 + 1500, history.getMean(), 1e-3);
+		assertEquals(500, history.getStandardDeviation(), 1e-9);
+		history.append(1.5e12 + 1500);
+		assertEquals(3, history.getCount());
+		assertEquals(1.5e12 + 1500, history.getMean(), 1e-3);
+		assertEquals(Math.sqrt(500000.0 / 3), history.getStandardDeviation(), 1e-6);
+	}
+
+	@Test
+	public void testMergeEqualsAppendingAllValues() {
+		CumulativeHistory expected = new CumulativeHistory();
+		CumulativeHistory[] partitions = { new CumulativeHistory(), new CumulativeHistory(), new CumulativeHistory() };
+		double[] values = randomValues(new Random(7), 30000, 1e9, 100000);
+		for (int i = 0; i < values.length; i++) {
+			// partitions of different sizes and means
+			double value = i % 7 == 0 ? values[i] + 5000 : values[i];
+			expected.append(value);
+			partitions[i % 7 == 0 ? 0 : i % 2 + 1].append(value);
+		}
+		CumulativeHistory merged = new CumulativeHistory();
+		for (CumulativeHistory partition : partitions) {
+			merged.merge(partition);
+		}
+		assertEquals(expected.getCount(), merged.getCount());
+		assertEquals(expected.getMean(), merged.getMean(), 1e-3);
+		assertEquals(expected.getStandardDeviation(), merged.getStandardDeviation(),
+				expected.getStandardDeviation() * 1e-9);
+		assertEquals(expected.getMin(), merged.getMin(), 0);
+		assertEquals(expected.getMax(), merged.getMax(), 0);
+	}
+
+	@Test
+	public void testMergeWithEmptyHistories() {
+		CumulativeHistory history = new CumulativeHistory();
+		history.append(10);
+		history.append(20);
+		history.merge(new CumulativeHistory());
+		assertEquals(2, history.getCount());
+		assertEquals(15, history.getMean(), 0);
+
+		CumulativeHistory empty = new CumulativeHistory();
+		empty.merge(history);
+		assertEquals(2, empty.getCount());
+		assertEquals(15, empty.getMean(), 0);
+		assertEquals(5, empty.getStandardDeviation(), 0);
+		assertEquals(10, empty.getMin(), 0);
+		assertEquals(20, empty.getMax(), 0);
+	}
+
+	@Test
+	public void testMergeSketches() {
+		CumulativeHistory history = new CumulativeHistory();
+		history.setSketch(new QuantileSketch());
+		CumulativeHistory other = new CumulativeHistory();
+		other.setSketch(new QuantileSketch());
+		for (int i = 1; i <= 100; i++) {
+			(i % 2 == 0 ? history : other).append(i);
+		}
+		history.merge(other);
+		assertEquals(50, history.getQuantile(0.5), 0.5);
+		assertEquals(99, history.getPercentiles().get("p99"), 1);
+	}
+
+	@Test
+	public void testViewOfSharedState() {
+		double[] state = new double[2 * CumulativeHistory.SIZE];
+		CumulativeHistory first = new CumulativeHistory(state, 0);
+		CumulativeHistory second = new CumulativeHistory(state, CumulativeHistory.SIZE);
+		CumulativeHistory.append(state, CumulativeHistory.SIZE, 3);
+		CumulativeHistory.append(state, CumulativeHistory.SIZE, 5);
+		assertEquals(0, first.getCount());
+		assertEquals(2, second.getCount());
+		assertEquals(4, second.getMean(), 0);
+		CumulativeHistory copy = second.copy();
+		second.append(10);
+		assertEquals(2, copy.getCount());
+	}
+
+	private static double[] randomValues(Random random, int count, double base, int spread) {
+		double[] values = new double[count];
+		for (int i = 0; i < count; i++) {
+			values[i] = base + random.nextInt(spread);
+		}
+		return values;
+	}
+
+	/**
+	 * @return the mean, summing the differences from the first value so that
+	 * the reference is not less precise than the history
+	 */
+	private static double mean(double[] values) {
+		double sum = 0;
+		for (double value : values) {
+			sum += value - values[0];
+		}
+		return values[0] + sum / values.length;
+	}
+
+	private static double standardDeviation(double[] values) {
+		double mean = mean(values);
+		double m2 = 0;
+		for (double value : values) {
+			m2 += (value - mean) * (value - mean);
+		}
+		return Math.sqrt(m2 / values.length);
+	}
+
+}
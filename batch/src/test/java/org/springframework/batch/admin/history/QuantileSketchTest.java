@@ -0,0 +1,191 @@
+/*
+ * Copyright 2006-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.batch.admin.history;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class QuantileSketchTest {
+
+	private static final double[] QUANTILES = { 0, 0.01, 0.1, 0.25, 0.5, 0.75, 0.9, 0.95, 0.99, 0.999, 1 };
+
+	@Test
+	public void testRelativeAccuracy() {
+		QuantileSketch sketch = new QuantileSketch();
+		Random random = new Random(42);
+		double[] values = new double[100000];
+		for (int i = 0; i < values.length; i++) {
+			// durations from 1 ms to about 1 hour
+			values[i] = Math.exp(random.nextDouble() * 15);
+			sketch.add(values[i]);
+		}
+		assertEquals(values.length, sketch.getCount());
+		assertWithinRelativeAccuracy(values, sketch, QuantileSketch.DEFAULT_RELATIVE_ACCURACY);
+	}
+
+	@Test
+	public void testRelativeAccuracyOfIntegerDurations() {
+		QuantileSketch sketch = new QuantileSketch();
+		Random random = new Random(7);
+		double[] values = new double[10000];
+		for (int i = 0; i < values.length; i++) {
+			values[i] = 1 + random.nextInt(100000);
+			sketch.add(values[i]);
+		}
+		assertWithinRelativeAccuracy(values, sketch, QuantileSketch.DEFAULT_RELATIVE_ACCURACY);
+	}
+
+	@Test
+	public void testZerosAndNegativeValues() {
+		QuantileSketch sketch = new QuantileSketch();
+		sketch.add(0);
+		sketch.add(-5);
+		sketch.add(100);
+		assertEquals(3, sketch.getCount());
+		assertEquals(0, sketch.getQuantile(0), 0);
+		assertEquals(0, sketch.getQuantile(0.5), 0);
+		assertEquals(100, sketch.getQuantile(1), 1);
+	}
+
+	@Test
+	public void testEmpty() {
+		assertTrue(Double.isNaN(new QuantileSketch().getQuantile(0.5)));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidQuantile() {
+		new QuantileSketch().getQuantile(1.5);
+	}
+
+	@Test
+	public void testCollapseOfLowestBuckets() {
+		QuantileSketch sketch = new QuantileSketch();
+		double gamma = QuantileSketch.getGamma(QuantileSketch.DEFAULT_RELATIVE_ACCURACY);
+		int buckets = QuantileSketch.DEFAULT_MAX_BUCKETS + 952;
+		for (int index = 0; index < buckets; index++) {
+			sketch.add(index, 1);
+		}
+		assertEquals(buckets, sketch.getCount());
+		// the 953 lowest buckets are collapsed into the lowest one kept
+		double lowest = 2 * Math.pow(gamma, 952) / (1 + gamma);
+		assertEquals(lowest, sketch.getQuantile(0), lowest * 1e-9);
+		assertEquals(lowest, sketch.getQuantile(952.0 / (buckets - 1)), lowest * 1e-9);
+		// the other buckets are kept
+		double next = 2 * Math.pow(gamma, 953) / (1 + gamma);
+		assertEquals(next, sketch.getQuantile(953.0 / (buckets - 1)), next * 1e-9);
+		double highest = 2 * Math.pow(gamma, buckets - 1) / (1 + gamma);
+		assertEquals(highest, sketch.getQuantile(1), highest * 1e-9);
+	}
+
+	@Test
+	public void testCollapseKeepsHighQuantiles() {
+		QuantileSketch sketch = new QuantileSketch(0.01, 16);
+		double[] values = new double[1000];
+		for (int i = 0; i < values.length; i++) {
+			values[i] = i + 1;
+			sketch.add(values[i]);
+		}
+		// 16 buckets of 2% only cover the values above about 1000 / 1.02^16
+		for (double quantile : new double[] { 0.9, 0.95, 0.99, 1 }) {
+			double exact = values[(int) (quantile * (values.length - 1))];
+			assertEquals(exact, sketch.getQuantile(quantile), exact * 0.01);
+		}
+		// the lower values are counted in the lowest bucket kept
+		assertTrue(sketch.getQuantile(0) > 1000 / Math.pow(QuantileSketch.getGamma(0.01), 16));
+	}
+
+	@Test
+	public void testMergeEqualsSketchOfAllValues() {
+		QuantileSketch all = new QuantileSketch();
+		QuantileSketch first = new QuantileSketch();
+		QuantileSketch second = new QuantileSketch();
+		Random random = new Random(3);
+		double[] values = new double[20000];
+		for (int i = 0; i < values.length; i++) {
+			// partitions with different distributions
+			values[i] = i % 2 == 0 ? random.nextInt(1000) : 1000 + random.nextInt(100000);
+			all.add(values[i]);
+			(i % 2 == 0 ? first : second).add(values[i]);
+		}
+		first.merge(second);
+		assertEquals(all.getCount(), first.getCount());
+		for (double quantile : QUANTILES) {
+			assertEquals(all.getQuantile(quantile), first.getQuantile(quantile), 0);
+		}
+		assertWithinRelativeAccuracy(values, first, QuantileSketch.DEFAULT_RELATIVE_ACCURACY);
+	}
+
+	@Test
+	public void testMergeIntoEmptySketch() {
+		QuantileSketch sketch = new QuantileSketch();
+		QuantileSketch other = new QuantileSketch();
+		other.add(0);
+		other.add(10);
+		sketch.merge(other);
+		assertEquals(2, sketch.getCount());
+		assertEquals(0, sketch.getQuantile(0), 0);
+		assertEquals(10, sketch.getQuantile(1), 0.1);
+	}
+
+	@Test
+	public void testMergeRespectsMaxBuckets() {
+		QuantileSketch low = new QuantileSketch(0.01, 10);
+		QuantileSketch high = new QuantileSketch(0.01, 10);
+		for (int index = 0; index < 10; index++) {
+			low.add(index, 1);
+			high.add(100 + index, 1);
+		}
+		low.merge(high);
+		assertEquals(20, low.getCount());
+		// all the low buckets are collapsed into the lowest bucket kept
+		double gamma = QuantileSketch.getGamma(0.01);
+		double lowest = 2 * Math.pow(gamma, 100) / (1 + gamma);
+		assertEquals(lowest, low.getQuantile(0), lowest * 1e-9);
+		assertEquals(lowest, low.getQuantile(10.0 / 19), lowest * 1e-9);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testMergeWithDifferentAccuracies() {
+		new QuantileSketch(0.01, 100).merge(new QuantileSketch(0.02, 100));
+	}
+
+	@Test
+	public void testCopyIsIndependent() {
+		QuantileSketch sketch = new QuantileSketch();
+		sketch.add(10);
+		QuantileSketch copy = new QuantileSketch(sketch);
+		sketch.add(1000);
+		assertEquals(1, copy.getCount());
+		assertEquals(10, copy.getQuantile(1), 0.1);
+	}
+
+	private static void assertWithinRelativeAccuracy(double[] values, QuantileSketch sketch, double accuracy) {
+		double[] sorted = values.clone();
+		Arrays.sort(sorted);
+		for (double quantile : QUANTILES) {
+			double exact = sorted[(int) (quantile * (sorted.length - 1))];
+			double estimated = sketch.getQuantile(quantile);
+			assertTrue("quantile " + quantile + ": " + estimated + " instead of " + exact,
+					Math.abs(estimated - exact) <= accuracy * exact * (1 + 1e-9));
+		}
+	}
+
+}
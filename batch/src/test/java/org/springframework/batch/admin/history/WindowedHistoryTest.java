@@ -0,0 +1,99 @@
+/*
+ * Copyright 2006-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.batch.admin.history;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+public class WindowedHistoryTest {
+
+	@Test
+	public void testKeepsLastValues() {
+		WindowedHistory history = new WindowedHistory(3);
+		for (int i = 1; i <= 5; i++) {
+			history.append(i);
+		}
+		assertEquals(3, history.getCount());
+		assertEquals(4, history.getMean(), 1e-12);
+		assertEquals(Math.sqrt(2.0 / 3), history.getStandardDeviation(), 1e-12);
+		assertEquals(3, history.getMin(), 0);
+		assertEquals(5, history.getMax(), 0);
+	}
+
+	@Test
+	public void testPartialWindow() {
+		WindowedHistory history = new WindowedHistory(10);
+		history.append(2);
+		history.append(4);
+		assertEquals(2, history.getCount());
+		assertEquals(3, history.getMean(), 1e-12);
+		assertEquals(1, history.getStandardDeviation(), 1e-12);
+	}
+
+	@Test
+	public void testVarianceOfLargeValuesWithinAWindow() {
+		WindowedHistory history = new WindowedHistory(100);
+		Random random = new Random(42);
+		double[] window = new double[100];
+		// appending 1050 values leaves the window half renewed since the last
+		// exact recomputation
+		for (int i = 0; i < 1050; i++) {
+			double value = 1e9 + random.nextInt(1000);
+			history.append(value);
+			window[i % 100] = value;
+		}
+		double mean = 0;
+		for (double value : window) {
+			mean += value / window.length;
+		}
+		double m2 = 0;
+		for (double value : window) {
+			m2 += (value - mean) * (value - mean);
+		}
+		assertEquals(mean, history.getMean(), 1e-3);
+		assertEquals(Math.sqrt(m2 / window.length), history.getStandardDeviation(), 1e-3);
+	}
+
+	@Test
+	public void testQuantilesOfTheWindowOnly() {
+		WindowedHistory history = new WindowedHistory(10);
+		history.setSketch(new QuantileSketch());
+		for (int i = 0; i < 1000; i++) {
+			history.append(1000);
+		}
+		for (int i = 1; i <= 10; i++) {
+			history.append(i);
+		}
+		assertEquals(5, history.getQuantile(0.5), 0);
+		assertEquals(9, history.getPercentiles().get("p99"), 0);
+		assertEquals(10, history.getQuantile(1), 0);
+	}
+
+	@Test
+	public void testCopyIsIndependent() {
+		WindowedHistory history = new WindowedHistory(2);
+		history.append(1);
+		WindowedHistory copy = history.copy();
+		history.append(3);
+		assertEquals(1, copy.getCount());
+		assertEquals(1, copy.getMean(), 0);
+		assertEquals(2, history.getMean(), 0);
+	}
+
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright 2006-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.batch.admin.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.Date;
+
+import org.junit.Test;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.test.MetaDataInstanceFactory;
+
+public class ExecutionCacheTest {
+
+	@Test
+	public void testEvictJobExecutionRemovesItsStepExecutions() throws Exception {
+		ExecutionCache cache = new ExecutionCache();
+		JobExecution first = createJobExecution(1L, 10L, 11L);
+		JobExecution second = createJobExecution(2L, 20L);
+		cache.putJobExecution(first, true);
+		cache.putJobExecution(first, false);
+		for (StepExecution stepExecution : first.getStepExecutions()) {
+			cache.putStepExecution(stepExecution);
+		}
+		cache.putStepExecution(second.getStepExecutions().iterator().next());
+		assertEquals(5, cache.getStatistics().getEntries());
+
+		cache.evictJobExecution(1L);
+		assertNull(cache.getJobExecution(1L, true));
+		assertNull(cache.getJobExecution(1L, false));
+		assertNull(cache.getStepExecution(10L));
+		assertNull(cache.getStepExecution(11L));
+		assertNotNull(cache.getStepExecution(20L));
+		assertEquals(1, cache.getStatistics().getEntries());
+	}
+
+	@Test
+	public void testEvictJobExecutionAfterLeastRecentlyUsedEviction() throws Exception {
+		ExecutionCache cache = new ExecutionCache(2, ExecutionCache.DEFAULT_MAX_WEIGHT);
+		JobExecution first = createJobExecution(1L, 10L, 11L);
+		JobExecution second = createJobExecution(2L, 20L);
+		for (StepExecution stepExecution : first.getStepExecutions()) {
+			cache.putStepExecution(stepExecution);
+		}
+		cache.putStepExecution(second.getStepExecutions().iterator().next());
+		assertEquals(1, cache.getStatistics().getEvictions());
+		long weight = cache.getStatistics().getWeight();
+
+		cache.evictJobExecution(1L);
+		assertNull(cache.getStepExecution(11L));
+		assertNotNull(cache.getStepExecution(20L));
+		assertEquals(1, cache.getStatistics().getEntries());
+		assertEquals(weight / 2, cache.getStatistics().getWeight());
+	}
+
+	@Test
+	public void testJobExecutionWithoutContextIsCachedApart() throws Exception {
+		ExecutionCache cache = new ExecutionCache();
+		JobExecution jobExecution = createJobExecution(1L);
+		cache.putJobExecution(jobExecution, false);
+		assertNull(cache.getJobExecution(1L, true));
+		assertSame(jobExecution, cache.getJobExecution(1L, false));
+	}
+
+	@Test
+	public void testStepExecutionOfRunningJobExecutionIsNotCached() throws Exception {
+		ExecutionCache cache = new ExecutionCache();
+		JobExecution jobExecution = createJobExecution(1L, 10L);
+		jobExecution.setEndTime(null);
+		cache.putJobExecution(jobExecution, true);
+		cache.putStepExecution(jobExecution.getStepExecutions().iterator().next());
+		assertEquals(0, cache.getStatistics().getEntries());
+	}
+
+	@Test
+	public void testOnlyCompletedOrAbandonedJobExecutionIsCached() throws Exception {
+		ExecutionCache cache = new ExecutionCache();
+		// failed and stopped executions may still be abandoned
+		for (BatchStatus status : BatchStatus.values()) {
+			JobExecution jobExecution = createJobExecution(1L, 10L);
+			jobExecution.setStatus(status);
+			cache.putJobExecution(jobExecution, true);
+			cache.putStepExecution(jobExecution.getStepExecutions().iterator().next());
+			boolean cached = status == BatchStatus.COMPLETED || status == BatchStatus.ABANDONED;
+			assertEquals(status.toString(), cached, cache.getJobExecution(1L, true) != null);
+			assertEquals(status.toString(), cached, cache.getStepExecution(10L) != null);
+			cache.clear();
+		}
+	}
+
+	private JobExecution createJobExecution(Long id, Long... stepExecutionIds) {
+		JobExecution jobExecution = MetaDataInstanceFactory.createJobExecution(id);
+		jobExecution.setStatus(BatchStatus.COMPLETED);
+		jobExecution.setEndTime(new Date());
+		for (Long stepExecutionId : stepExecutionIds) {
+			StepExecution stepExecution = MetaDataInstanceFactory.createStepExecution(jobExecution, "step"
+					+ stepExecutionId, stepExecutionId);
+			stepExecution.setEndTime(new Date());
+		}
+		return jobExecution;
+	}
+
+}
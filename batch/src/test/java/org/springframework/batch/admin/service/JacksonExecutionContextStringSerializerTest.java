@@ -0,0 +1,212 @@
+/*
+ * Copyright 2006-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.batch.admin.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.batch.core.repository.ExecutionContextSerializer;
+import org.springframework.batch.core.repository.dao.XStreamExecutionContextStringSerializer;
+
+/**
+ * Checks that the contexts written by the XStream serializer of Spring Batch
+ * are read by Jackson exactly as XStream reads them, and that only the
+ * contexts with values of other types are left to XStream.
+ */
+public class JacksonExecutionContextStringSerializerTest {
+
+	private XStreamExecutionContextStringSerializer xstream = new XStreamExecutionContextStringSerializer();
+
+	private CountingSerializer fallback = new CountingSerializer();
+
+	private JacksonExecutionContextStringSerializer jackson = new JacksonExecutionContextStringSerializer(fallback);
+
+	@Before
+	public void setUp() throws Exception {
+		xstream.afterPropertiesSet();
+	}
+
+	@Test
+	public void testEmptyContext() throws Exception {
+		assertReadByJackson(new HashMap<String, Object>());
+	}
+
+	@Test
+	public void testSingleEntryOfEachType() throws Exception {
+		for (Object value : Arrays.<Object> asList("foo", 1, -2L, 1.5d, 2.5f, true, false, (short) 3, (byte) 4,
+				new BigDecimal("12.340"), new BigInteger("123456789012345678901234567890"))) {
+			assertReadByJackson(Collections.<String, Object> singletonMap("key", value));
+		}
+	}
+
+	@Test
+	public void testMultipleEntries() throws Exception {
+		Map<String, Object> context = new LinkedHashMap<String, Object>();
+		context.put("string", "foo");
+		context.put("int", 1);
+		context.put("long", Long.MAX_VALUE);
+		context.put("double", Math.PI);
+		context.put("float", 0.1f);
+		context.put("boolean", true);
+		context.put("short", Short.MIN_VALUE);
+		context.put("byte", Byte.MAX_VALUE);
+		context.put("bigDecimal", new BigDecimal("-0.000001"));
+		context.put("bigInteger", BigInteger.TEN.pow(30));
+		assertReadByJackson(context);
+	}
+
+	@Test
+	public void testStringsLookingLikeOtherValues() throws Exception {
+		for (String value : Arrays.asList("", " ", "123", "0123", "1.50", "1e3", "-0", "true", "null", "NaN",
+				"[1]", "{\"a\":1}", "<b>&amp;</b>", "\"quoted\"", "line\nbreak", "tab\t", "café €",
+				"😀")) {
+			assertReadByJackson(Collections.<String, Object> singletonMap("key", value));
+		}
+	}
+
+	@Test
+	public void testSpecialKeys() throws Exception {
+		Map<String, Object> context = new LinkedHashMap<String, Object>();
+		context.put("", "empty");
+		context.put("123", "numeric");
+		context.put("with.dots-and spaces", "spaces");
+		context.put("@class", "annotation");
+		context.put("map", "map");
+		assertReadByJackson(context);
+	}
+
+	@Test
+	public void testSpecialNumbers() throws Exception {
+		for (Object value : Arrays.<Object> asList(0, Integer.MIN_VALUE, Long.MIN_VALUE, -0.0d, 1e-300d, 1e300d,
+				Double.MIN_VALUE, Double.MAX_VALUE, Float.MAX_VALUE, new BigDecimal("1E+3"), BigDecimal.ZERO)) {
+			assertReadByJackson(Collections.<String, Object> singletonMap("key", value));
+		}
+	}
+
+	@Test
+	public void testFallbackForDates() throws Exception {
+		Map<String, Object> context = new LinkedHashMap<String, Object>();
+		context.put("date", new Date(1234567890123L));
+		context.put("string", "foo");
+		assertReadByFallback(context);
+	}
+
+	@Test
+	public void testFallbackForNestedObjects() throws Exception {
+		Map<String, Object> context = new LinkedHashMap<String, Object>();
+		context.put("list", Arrays.asList("a", "b"));
+		context.put("map", Collections.singletonMap("a", 1));
+		context.put("long", 1L);
+		assertReadByFallback(context);
+	}
+
+	@Test
+	public void testFallbackForNullValues() throws Exception {
+		Map<String, Object> context = new LinkedHashMap<String, Object>();
+		context.put("null", null);
+		context.put("string", "foo");
+		assertReadByFallback(context);
+	}
+
+	@Test
+	public void testFallbackForOtherLayouts() throws Exception {
+		// plain JSON objects do not name the types of their numbers
+		final Map<String, Object> context = Collections.<String, Object> singletonMap("long", 5L);
+		JacksonExecutionContextStringSerializer serializer = new JacksonExecutionContextStringSerializer(
+				new ExecutionContextSerializer() {
+					@Override
+					public void serialize(Map<String, Object> context, OutputStream out) {
+						throw new UnsupportedOperationException();
+					}
+
+					@Override
+					public Map<String, Object> deserialize(InputStream in) {
+						return context;
+					}
+				});
+		for (String serialized : Arrays.asList("{\"long\":5}", "{\"@class\":\"java.util.HashMap\",\"long\":5}",
+				"{\"map\":[{\"entry\":[{\"string\":\"long\",\"long\":5}]}],\"other\":1}", "[5]", "5")) {
+			assertEquals(serialized, context,
+					serializer.deserialize(new ByteArrayInputStream(serialized.getBytes("UTF-8"))));
+		}
+	}
+
+	private void assertReadByJackson(Map<String, Object> context) throws Exception {
+		String message = assertEquivalent(context);
+		assertFalse(message, fallback.used);
+	}
+
+	private void assertReadByFallback(Map<String, Object> context) throws Exception {
+		String message = assertEquivalent(context);
+		assertTrue(message, fallback.used);
+	}
+
+	/**
+	 * @return the serialized context
+	 */
+	private String assertEquivalent(Map<String, Object> context) throws Exception {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		// copied in a hash map as the job repository does
+		jackson.serialize(new HashMap<String, Object>(context), out);
+		byte[] serialized = out.toByteArray();
+		Map<String, Object> expected = xstream.deserialize(new ByteArrayInputStream(serialized));
+		fallback.used = false;
+		Map<String, Object> actual = jackson.deserialize(new ByteArrayInputStream(serialized));
+		String message = new String(serialized, "UTF-8");
+		assertEquals(message, expected, actual);
+		for (Map.Entry<String, Object> entry : expected.entrySet()) {
+			Object value = actual.get(entry.getKey());
+			assertEquals(message, entry.getValue() == null ? null : entry.getValue().getClass(),
+					value == null ? null : value.getClass());
+		}
+		return message;
+	}
+
+	private class CountingSerializer implements ExecutionContextSerializer {
+
+		private boolean used;
+
+		@Override
+		public void serialize(Map<String, Object> context, OutputStream out) throws IOException {
+			xstream.serialize(context, out);
+		}
+
+		@Override
+		public Map<String, Object> deserialize(InputStream in) throws IOException {
+			used = true;
+			return xstream.deserialize(in);
+		}
+
+	}
+
+}
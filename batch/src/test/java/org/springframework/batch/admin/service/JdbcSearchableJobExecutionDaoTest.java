@@ -0,0 +1,262 @@
+/*
+ * Copyright 2006-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.batch.admin.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParameter;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+public class JdbcSearchableJobExecutionDaoTest {
+
+	private static final long TIME = Timestamp.valueOf("2017-01-01 00:00:00").getTime();
+
+	private EmbeddedDatabase dataSource;
+
+	private JdbcTemplate jdbcTemplate;
+
+	private JdbcSearchableJobExecutionDao dao = new JdbcSearchableJobExecutionDao();
+
+	private long lastJobExecutionId;
+
+	@Before
+	public void setUp() throws Exception {
+		dataSource = new EmbeddedDatabaseBuilder().setType(EmbeddedDatabaseType.HSQL)
+				.addScript("classpath:/org/springframework/batch/core/schema-hsqldb.sql").build();
+		jdbcTemplate = new JdbcTemplate(dataSource);
+		dao.setDataSource(dataSource);
+		dao.afterPropertiesSet();
+	}
+
+	@After
+	public void tearDown() {
+		dataSource.shutdown();
+	}
+
+	@Test
+	public void testFindJobParametersInChunks() {
+		// more than a chunk, an execution in four without parameters
+		List<Long> ids = insertJobExecutions("job", 2500);
+
+		Map<Long, JobParameters> jobParameters = dao.findJobParameters(ids);
+		assertEquals(1875, jobParameters.size());
+		for (Long id : ids) {
+			if (id % 4 == 0) {
+				assertFalse(jobParameters.containsKey(id));
+			}
+			else {
+				assertEquals(String.valueOf(id), getExpectedParameters(id), jobParameters.get(id));
+			}
+		}
+	}
+
+	@Test
+	public void testFindJobParametersOfEachType() {
+		List<Long> ids = insertJobExecutions("job", 4);
+
+		Map<Long, JobParameters> jobParameters = dao.findJobParameters(ids);
+		JobParameters string = jobParameters.get(ids.get(0));
+		assertEquals("/data/in/1.csv", string.getString("input"));
+		assertFalse(string.getParameters().get("input").isIdentifying());
+		JobParameters longAndDouble = jobParameters.get(ids.get(1));
+		assertEquals(Long.valueOf(2L), longAndDouble.getLong("run.id"));
+		assertEquals(Double.valueOf(0.5d), longAndDouble.getDouble("ratio"));
+		assertTrue(longAndDouble.getParameters().get("run.id").isIdentifying());
+		JobParameters date = jobParameters.get(ids.get(2));
+		assertEquals(TIME + 3, date.getDate("date").getTime());
+		assertNull(jobParameters.get(ids.get(3)));
+	}
+
+	@Test
+	public void testJobExecutionsHaveTheirParameters() {
+		List<Long> ids = insertJobExecutions("job", 2500);
+		insertJobExecutions("other", 10);
+
+		List<JobExecution> jobExecutions = dao.getJobExecutions("job", 0, 2500);
+		assertEquals(2500, jobExecutions.size());
+		for (JobExecution jobExecution : jobExecutions) {
+			assertTrue(ids.contains(jobExecution.getId()));
+			assertEquals(getExpectedParameters(jobExecution.getId()), jobExecution.getJobParameters());
+			assertEquals("job", jobExecution.getJobInstance().getJobName());
+		}
+		// the executions without parameters have empty ones
+		assertTrue(jobExecutions.get(0).getJobParameters().isEmpty());
+	}
+
+	@Test
+	public void testJobExecutionsAfter() {
+		insertJobExecutions("job", 5);
+		insertJobExecutions("other", 5);
+
+		// the older ones, of all the jobs
+		assertEquals(Arrays.asList(6L, 5L, 4L), getIds(dao.getJobExecutionsAfter(7L, 3)));
+		assertEquals(Arrays.asList(1L), getIds(dao.getJobExecutionsAfter(2L, 3)));
+		assertTrue(dao.getJobExecutionsAfter(1L, 3).isEmpty());
+		assertEquals(10, dao.getJobExecutionsAfter(Long.MAX_VALUE, 20).size());
+	}
+
+	@Test
+	public void testJobExecutionsBefore() {
+		insertJobExecutions("job", 5);
+		insertJobExecutions("other", 5);
+
+		// the more recent ones, still in reverse order of creation
+		assertEquals(Arrays.asList(7L, 6L, 5L), getIds(dao.getJobExecutionsBefore(4L, 3)));
+		assertEquals(Arrays.asList(10L, 9L), getIds(dao.getJobExecutionsBefore(8L, 3)));
+		assertEquals(Arrays.asList(3L, 2L, 1L), getIds(dao.getJobExecutionsBefore(0L, 3)));
+		assertTrue(dao.getJobExecutionsBefore(10L, 3).isEmpty());
+	}
+
+	@Test
+	public void testJobExecutionsWithStepExecutionsInChunks() {
+		// more than a chunk, an execution in three without steps
+		List<Long> ids = insertJobExecutions("job", 1500);
+		insertJobExecutions("other", 5);
+		List<Object[]> stepExecutionRows = new ArrayList<Object[]>();
+		for (Long id : ids) {
+			for (int step = 0; step < id % 3; step++) {
+				stepExecutionRows.add(new Object[] { id * 10 + step, "step" + step, id,
+						new Timestamp(TIME + id * 1000) });
+			}
+		}
+		jdbcTemplate.batchUpdate("INSERT INTO BATCH_STEP_EXECUTION (STEP_EXECUTION_ID, VERSION, STEP_NAME, "
+				+ "JOB_EXECUTION_ID, START_TIME, STATUS, EXIT_CODE, EXIT_MESSAGE) "
+				+ "VALUES (?, 1, ?, ?, ?, 'COMPLETED', 'COMPLETED', 'done')", stepExecutionRows);
+
+		// the most recent ones, bounded by the count
+		List<JobExecution> jobExecutions = dao.getJobExecutionsWithStepExecutions("job", 1200);
+		assertEquals(1200, jobExecutions.size());
+		long expectedId = 1500;
+		for (JobExecution jobExecution : jobExecutions) {
+			assertEquals(Long.valueOf(expectedId--), jobExecution.getId());
+			List<StepExecution> stepExecutions = new ArrayList<StepExecution>(jobExecution.getStepExecutions());
+			assertEquals(jobExecution.getId() % 3, stepExecutions.size());
+			for (int step = 0; step < stepExecutions.size(); step++) {
+				StepExecution stepExecution = stepExecutions.get(step);
+				assertEquals(Long.valueOf(jobExecution.getId() * 10 + step), stepExecution.getId());
+				assertEquals("step" + step, stepExecution.getStepName());
+				assertEquals(BatchStatus.COMPLETED, stepExecution.getStatus());
+				assertEquals(new ExitStatus("COMPLETED", "done"), stepExecution.getExitStatus());
+				assertSame(jobExecution, stepExecution.getJobExecution());
+			}
+		}
+		assertEquals(1500, dao.getJobExecutionsWithStepExecutions("job", 2000).size());
+
+		final List<JobExecution> streamed = new ArrayList<JobExecution>();
+		dao.streamJobExecutions("job", 1001, false, new ExecutionCallback<JobExecution>() {
+			@Override
+			public void handle(JobExecution jobExecution) {
+				streamed.add(jobExecution);
+			}
+		});
+		assertEquals(1001, streamed.size());
+		assertEquals(Long.valueOf(500), streamed.get(1000).getId());
+		for (JobExecution jobExecution : streamed) {
+			assertTrue(jobExecution.getStepExecutions().isEmpty());
+		}
+	}
+
+	/**
+	 * Insert job executions of a job, each in its own instance, with the
+	 * parameters given by {@link #getExpectedParameters(long)}.
+	 *
+	 * @return the ids of the job executions, in ascending order
+	 */
+	private List<Long> insertJobExecutions(String jobName, int count) {
+		List<Object[]> instances = new ArrayList<Object[]>();
+		List<Object[]> executions = new ArrayList<Object[]>();
+		List<Object[]> parameters = new ArrayList<Object[]>();
+		List<Long> ids = new ArrayList<Long>();
+		for (int i = 0; i < count; i++) {
+			long id = ++lastJobExecutionId;
+			Timestamp time = new Timestamp(TIME + id * 1000);
+			instances.add(new Object[] { id, jobName, "key" + id });
+			executions.add(new Object[] { id, id, time, time, time, time });
+			for (Map.Entry<String, JobParameter> parameter : getExpectedParameters(id).getParameters().entrySet()) {
+				JobParameter value = parameter.getValue();
+				parameters.add(new Object[] { id, value.getType().name(), parameter.getKey(),
+						value.getType() == JobParameter.ParameterType.STRING ? value.getValue() : "",
+						value.getType() == JobParameter.ParameterType.DATE ? value.getValue() : new Timestamp(0),
+						value.getType() == JobParameter.ParameterType.LONG ? value.getValue() : 0L,
+						value.getType() == JobParameter.ParameterType.DOUBLE ? value.getValue() : 0d,
+						value.isIdentifying() ? "Y" : "N" });
+			}
+			ids.add(id);
+		}
+		jdbcTemplate.batchUpdate("INSERT INTO BATCH_JOB_INSTANCE (JOB_INSTANCE_ID, VERSION, JOB_NAME, JOB_KEY) "
+				+ "VALUES (?, 0, ?, ?)", instances);
+		jdbcTemplate.batchUpdate("INSERT INTO BATCH_JOB_EXECUTION (JOB_EXECUTION_ID, VERSION, JOB_INSTANCE_ID, "
+				+ "CREATE_TIME, START_TIME, END_TIME, STATUS, EXIT_CODE, EXIT_MESSAGE, LAST_UPDATED) "
+				+ "VALUES (?, 2, ?, ?, ?, ?, 'COMPLETED', 'COMPLETED', '', ?)", executions);
+		jdbcTemplate.batchUpdate("INSERT INTO BATCH_JOB_EXECUTION_PARAMS (JOB_EXECUTION_ID, TYPE_CD, KEY_NAME, "
+				+ "STRING_VAL, DATE_VAL, LONG_VAL, DOUBLE_VAL, IDENTIFYING) VALUES (?, ?, ?, ?, ?, ?, ?, ?)",
+				parameters);
+		return ids;
+	}
+
+	private static List<Long> getIds(List<JobExecution> jobExecutions) {
+		List<Long> ids = new ArrayList<Long>();
+		for (JobExecution jobExecution : jobExecutions) {
+			ids.add(jobExecution.getId());
+		}
+		return ids;
+	}
+
+	/**
+	 * @return a string, long and double, date or no parameters, in turn
+	 */
+	private static JobParameters getExpectedParameters(long jobExecutionId) {
+		Map<String, JobParameter> parameters = new LinkedHashMap<String, JobParameter>();
+		switch ((int) (jobExecutionId % 4)) {
+		case 1:
+			parameters.put("input", new JobParameter("/data/in/" + jobExecutionId + ".csv", false));
+			break;
+		case 2:
+			parameters.put("run.id", new JobParameter(jobExecutionId));
+			parameters.put("ratio", new JobParameter(jobExecutionId / 4d));
+			break;
+		case 3:
+			parameters.put("date", new JobParameter(new Timestamp(TIME + jobExecutionId)));
+			break;
+		default:
+			break;
+		}
+		return new JobParameters(parameters);
+	}
+
+}
@@ -0,0 +1,190 @@
+/*
+ * Copyright 2006-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.batch.admin.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.seedstack.monitoring.batch.fixtures.BatchMetadataGenerator;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+public class JdbcSearchableStepExecutionDaoTest {
+
+	private EmbeddedDatabase dataSource;
+
+	private JdbcTemplate jdbcTemplate;
+
+	private JdbcSearchableStepExecutionDao dao = new JdbcSearchableStepExecutionDao();
+
+	@Before
+	public void setUp() throws Exception {
+		dataSource = new EmbeddedDatabaseBuilder().setType(EmbeddedDatabaseType.HSQL)
+				.addScript("classpath:/org/springframework/batch/core/schema-hsqldb.sql").build();
+		jdbcTemplate = new JdbcTemplate(dataSource);
+		dao.setDataSource(dataSource);
+		dao.afterPropertiesSet();
+	}
+
+	@After
+	public void tearDown() {
+		dataSource.shutdown();
+	}
+
+	@Test
+	public void testAddStepExecutionsInChunks() {
+		// more than a chunk of job executions, an execution in three without
+		// steps
+		List<Object[]> instanceRows = new ArrayList<Object[]>();
+		List<Object[]> jobExecutionRows = new ArrayList<Object[]>();
+		List<Object[]> stepExecutionRows = new ArrayList<Object[]>();
+		List<JobExecution> jobExecutions = new ArrayList<JobExecution>();
+		Timestamp time = new Timestamp(0);
+		long stepExecutionId = 0;
+		for (long id = 1; id <= 2500; id++) {
+			instanceRows.add(new Object[] { id, "key" + id });
+			jobExecutionRows.add(new Object[] { id, id, time, time });
+			for (int step = 0; step < id % 3; step++) {
+				stepExecutionRows.add(new Object[] { ++stepExecutionId, "step" + step, id, time, time });
+			}
+			jobExecutions.add(new JobExecution(id));
+		}
+		jdbcTemplate.batchUpdate("INSERT INTO BATCH_JOB_INSTANCE (JOB_INSTANCE_ID, VERSION, JOB_NAME, JOB_KEY) "
+				+ "VALUES (?, 0, 'job', ?)", instanceRows);
+		jdbcTemplate.batchUpdate("INSERT INTO BATCH_JOB_EXECUTION (JOB_EXECUTION_ID, VERSION, JOB_INSTANCE_ID, "
+				+ "CREATE_TIME, START_TIME, STATUS, LAST_UPDATED) VALUES (?, 1, ?, ?, ?, 'STARTED', NULL)",
+				jobExecutionRows);
+		jdbcTemplate.batchUpdate("INSERT INTO BATCH_STEP_EXECUTION (STEP_EXECUTION_ID, VERSION, STEP_NAME, "
+				+ "JOB_EXECUTION_ID, START_TIME, STATUS, EXIT_CODE, LAST_UPDATED) "
+				+ "VALUES (?, 1, ?, ?, ?, 'STARTED', 'EXECUTING', ?)", stepExecutionRows);
+
+		dao.addStepExecutions(jobExecutions);
+		stepExecutionId = 0;
+		for (JobExecution jobExecution : jobExecutions) {
+			List<StepExecution> stepExecutions = new ArrayList<StepExecution>(jobExecution.getStepExecutions());
+			assertEquals(jobExecution.getId() % 3, stepExecutions.size());
+			for (int step = 0; step < stepExecutions.size(); step++) {
+				StepExecution stepExecution = stepExecutions.get(step);
+				assertEquals(Long.valueOf(++stepExecutionId), stepExecution.getId());
+				assertEquals("step" + step, stepExecution.getStepName());
+				assertSame(jobExecution, stepExecution.getJobExecution());
+			}
+		}
+	}
+
+	@Test
+	public void testStreamStepExecutionsInChunks() {
+		generate();
+		List<Long> expected = jdbcTemplate.queryForList("SELECT S.STEP_EXECUTION_ID FROM BATCH_STEP_EXECUTION S, "
+				+ "BATCH_JOB_EXECUTION J, BATCH_JOB_INSTANCE I WHERE S.JOB_EXECUTION_ID = J.JOB_EXECUTION_ID "
+				+ "AND J.JOB_INSTANCE_ID = I.JOB_INSTANCE_ID AND I.JOB_NAME = 'job00' "
+				+ "ORDER BY S.STEP_EXECUTION_ID", Long.class);
+		// more than a chunk
+		assertTrue(expected.size() > 1000);
+
+		List<StepExecution> stepExecutions = stream("job00", "*", null, null);
+		assertEquals(expected, getIds(stepExecutions));
+		for (StepExecution stepExecution : stepExecutions) {
+			assertEquals("job00", stepExecution.getJobExecution().getJobInstance().getJobName());
+			assertTrue(stepExecution.getStepName().startsWith("job00Step"));
+		}
+	}
+
+	@Test
+	public void testStreamStepExecutionsOfStepPattern() {
+		generate();
+		List<Long> expected = jdbcTemplate.queryForList("SELECT STEP_EXECUTION_ID FROM BATCH_STEP_EXECUTION "
+				+ "WHERE STEP_NAME LIKE '%Step01' ORDER BY STEP_EXECUTION_ID", Long.class);
+		assertEquals(expected, getIds(stream("*", "*Step01", null, null)));
+	}
+
+	@Test
+	public void testStreamStepExecutionsStartedInTimeRange() {
+		generate();
+		List<Timestamp> startTimes = jdbcTemplate.queryForList(
+				"SELECT START_TIME FROM BATCH_STEP_EXECUTION ORDER BY START_TIME", Timestamp.class);
+		Date from = startTimes.get(500);
+		Date to = startTimes.get(2500);
+		List<Long> expected = jdbcTemplate.queryForList("SELECT STEP_EXECUTION_ID FROM BATCH_STEP_EXECUTION "
+				+ "WHERE START_TIME >= ? AND START_TIME < ? ORDER BY STEP_EXECUTION_ID", Long.class, from, to);
+		assertEquals(2000, expected.size());
+
+		List<StepExecution> stepExecutions = stream("*", "*", from, to);
+		assertEquals(expected, getIds(stepExecutions));
+		// the lower bound is inclusive, the upper one exclusive
+		assertEquals(from.getTime(), stepExecutions.get(0).getStartTime().getTime());
+		for (StepExecution stepExecution : stepExecutions) {
+			assertTrue(stepExecution.getStartTime().getTime() < to.getTime());
+		}
+
+		assertEquals(expected.subList(0, 1500), getIds(stream("*", "*", from, startTimes.get(2000))));
+		assertEquals(jdbcTemplate.queryForList("SELECT STEP_EXECUTION_ID FROM BATCH_STEP_EXECUTION "
+				+ "WHERE START_TIME >= ? ORDER BY STEP_EXECUTION_ID", Long.class, to),
+				getIds(stream("*", "*", to, null)));
+	}
+
+	@Test
+	public void testStreamNoStepExecutions() {
+		assertTrue(stream("unknown", "*", null, null).isEmpty());
+	}
+
+	private void generate() {
+		BatchMetadataGenerator generator = new BatchMetadataGenerator(dataSource);
+		generator.setJobs(2);
+		generator.setInstances(1000);
+		generator.setStepsPerJob(3);
+		generator.setContexts(false);
+		generator.generate();
+	}
+
+	private List<StepExecution> stream(String jobName, String stepName, Date startedAfter, Date startedBefore) {
+		final List<StepExecution> stepExecutions = new ArrayList<StepExecution>();
+		dao.streamStepExecutions(jobName, stepName, startedAfter, startedBefore,
+				new ExecutionCallback<StepExecution>() {
+					@Override
+					public void handle(StepExecution stepExecution) {
+						// no connection held while the rows are handled
+						assertNull(TransactionSynchronizationManager.getResource(dataSource));
+						stepExecutions.add(stepExecution);
+					}
+				});
+		return stepExecutions;
+	}
+
+	private static List<Long> getIds(List<StepExecution> stepExecutions) {
+		List<Long> ids = new ArrayList<Long>();
+		for (StepExecution stepExecution : stepExecutions) {
+			ids.add(stepExecution.getId());
+		}
+		return ids;
+	}
+
+}
@@ -18,6 +18,7 @@ package org.springframework.batch.admin.service;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 import java.util.ArrayList;
@@ -28,7 +29,11 @@ import java.util.Date;
 import java.util.List;
 
 import org.easymock.EasyMock;
+import org.easymock.IAnswer;
 import org.junit.Test;
+import org.springframework.batch.admin.history.CumulativeHistory;
+import org.springframework.batch.admin.history.HistoryPolicy;
+import org.springframework.batch.admin.history.StepExecutionHistory;
 import org.springframework.batch.core.BatchStatus;
 import org.springframework.batch.core.Job;
 import org.springframework.batch.core.JobExecution;
@@ -39,6 +44,7 @@ import org.springframework.batch.core.StepExecution;
 import org.springframework.batch.core.configuration.ListableJobLocator;
 import org.springframework.batch.core.job.SimpleJob;
 import org.springframework.batch.core.launch.JobLauncher;
+import org.springframework.batch.core.launch.NoSuchJobExecutionException;
 import org.springframework.batch.core.launch.support.RunIdIncrementer;
 import org.springframework.batch.core.repository.JobRepository;
 import org.springframework.batch.core.repository.dao.ExecutionContextDao;
@@ -250,6 +256,75 @@ public class SimpleJobServiceTest {
 		EasyMock.verify(jobLocator, jobInstanceDao);
 	}
 
+	/**
+	 * Test method for {@link SimpleJobService#listJobSummaries(int, int)}.
+	 */
+	@Test
+	public void testListJobSummaries() throws Exception {
+		EasyMock.expect(jobLocator.getJobNames()).andReturn(Arrays.asList("job1", "job2")).times(2);
+		EasyMock.expect(jobInstanceDao.getJobNames()).andReturn(Arrays.asList("job2", "job3"));
+		EasyMock.expect(jobLocator.getJob("job1")).andReturn(new JobSupport("job1", new RunIdIncrementer()));
+		EasyMock.expect(jobLocator.getJob("job2")).andReturn(new JobSupport("job2"));
+		EasyMock.expect(jobExecutionDao.getJobSummaries(Arrays.asList("job1", "job2", "job3"))).andReturn(
+				Arrays.asList(new JobSummary("job2", 2, 3, 12L, BatchStatus.FAILED, new Date(), new Date(), false,
+						false), new JobSummary("job3", 1, 1, 7L, BatchStatus.COMPLETED, new Date(), new Date(),
+						false, false)));
+		EasyMock.replay(jobLocator, jobInstanceDao, jobExecutionDao);
+		List<JobSummary> summaries = new ArrayList<JobSummary>(service.listJobSummaries(0, 4));
+		assertEquals(3, summaries.size());
+		assertEquals("job1", summaries.get(0).getJobName());
+		assertEquals(0, summaries.get(0).getExecutionCount());
+		assertTrue(summaries.get(0).isIncrementable());
+		assertEquals("job2", summaries.get(1).getJobName());
+		assertEquals(3, summaries.get(1).getExecutionCount());
+		assertEquals(BatchStatus.FAILED, summaries.get(1).getLastExecutionStatus());
+		assertTrue(summaries.get(1).isLaunchable());
+		assertFalse(summaries.get(1).isIncrementable());
+		assertFalse(summaries.get(2).isLaunchable());
+		EasyMock.verify(jobLocator, jobInstanceDao, jobExecutionDao);
+	}
+
+	/**
+	 * Test method for {@link SimpleJobService#listJobs(String, int, int)}.
+	 */
+	@Test
+	public void testListJobsSearched() throws Exception {
+		JobCatalog jobCatalog = new JobCatalog(jobInstanceDao, jobExecutionDao);
+		jobCatalog.setRefreshInterval(Long.MAX_VALUE);
+		service.setJobCatalog(jobCatalog);
+		EasyMock.expect(jobLocator.getJobNames()).andReturn(Arrays.asList("importOrders", "exportOrders")).times(3);
+		EasyMock.expect(jobInstanceDao.countJobInstancesByJobName(-1)).andReturn(
+				Arrays.asList(new JobCount("purgeOrders", 4, 10L), new JobCount("importOrders", 1, 7L),
+						new JobCount("purgeLogs", 1, 8L)));
+		EasyMock.expect(jobExecutionDao.countJobExecutionsByJobName(-1)).andReturn(Collections.<JobCount> emptyList());
+		EasyMock.replay(jobLocator, jobInstanceDao, jobExecutionDao);
+		assertEquals(3, service.countJobs("ORDERS"));
+		assertEquals(Arrays.asList("exportOrders", "purgeOrders"), service.listJobs("orders", 1, 2));
+		assertEquals(Arrays.asList("purgeLogs"), service.listJobs("gel", 0, 20));
+		EasyMock.verify(jobLocator, jobInstanceDao, jobExecutionDao);
+	}
+
+	/**
+	 * Test method for {@link SimpleJobService#setJobCatalog(JobCatalog)}.
+	 */
+	@Test
+	public void testCountJobsWithCatalog() throws Exception {
+		JobCatalog jobCatalog = new JobCatalog(jobInstanceDao, jobExecutionDao);
+		jobCatalog.setRefreshInterval(Long.MAX_VALUE);
+		service.setJobCatalog(jobCatalog);
+		EasyMock.expect(jobLocator.getJobNames()).andReturn(Arrays.asList("job1", "job2")).times(2);
+		EasyMock.expect(jobInstanceDao.countJobInstancesByJobName(-1)).andReturn(
+				Arrays.asList(new JobCount("job3", 4, 10L), new JobCount("job2", 1, 7L)));
+		EasyMock.expect(jobExecutionDao.countJobExecutionsByJobName(-1)).andReturn(
+				Arrays.asList(new JobCount("job3", 6, 20L), new JobCount("job2", 1, 12L)));
+		EasyMock.replay(jobLocator, jobInstanceDao, jobExecutionDao);
+		assertEquals(3, service.countJobs());
+		assertEquals(3, service.listJobs(0, 4).size());
+		assertEquals(6, service.countJobExecutionsForJob("job3"));
+		assertEquals(4, service.countJobInstances("job3"));
+		EasyMock.verify(jobLocator, jobInstanceDao, jobExecutionDao);
+	}
+
 	/**
 	 * Test method for {@link SimpleJobService#abandon(Long)}.
 	 */
@@ -334,8 +409,7 @@ public class SimpleJobServiceTest {
 				Arrays.asList(MetaDataInstanceFactory.createJobExecutionWithStepExecutions(123L, Arrays.asList("foo",
 						"bar")), MetaDataInstanceFactory.createJobExecutionWithStepExecutions(124L, Arrays
 								.asList("bar"))));
-		stepExecutionDao.addStepExecutions(EasyMock.isA(JobExecution.class));
-		stepExecutionDao.addStepExecutions(EasyMock.isA(JobExecution.class));
+		stepExecutionDao.addStepExecutions(EasyMock.<Collection<JobExecution>> anyObject());
 		EasyMock.replay(jobLocator, stepExecutionDao, jobExecutionDao, jobInstanceDao, executionContextDao);
 		Collection<String> result = service.getStepNamesForJob("job");
 		assertNotNull(result);
@@ -374,6 +448,182 @@ public class SimpleJobServiceTest {
 		EasyMock.verify(stepExecutionDao, jobExecutionDao, jobInstanceDao, executionContextDao);
 	}
 
+	@Test
+	public void testGetJobExecutionIsCachedWhenCompleted() throws Exception {
+		JobExecution jobExecution = MetaDataInstanceFactory.createJobExecution(123L);
+		jobExecution.setStatus(BatchStatus.COMPLETED);
+		jobExecution.setEndTime(new Date());
+		EasyMock.expect(jobExecutionDao.getJobExecution(123L)).andReturn(jobExecution);
+		EasyMock.expect(jobInstanceDao.getJobInstance(jobExecution)).andReturn(jobExecution.getJobInstance());
+		EasyMock.expect(executionContextDao.getExecutionContext(jobExecution)).andReturn(new ExecutionContext());
+		stepExecutionDao.addStepExecutions(jobExecution);
+		EasyMock.replay(stepExecutionDao, jobExecutionDao, jobInstanceDao, executionContextDao);
+
+		assertSame(jobExecution, service.getJobExecution(123L));
+		assertSame(jobExecution, service.getJobExecution(123L));
+		ExecutionCacheStatistics statistics = service.getExecutionCacheStatistics();
+		assertEquals(1, statistics.getEntries());
+		assertEquals(1, statistics.getHits());
+		assertEquals(1, statistics.getMisses());
+		assertEquals(0.5, statistics.getHitRate(), 0.001);
+
+		EasyMock.verify(stepExecutionDao, jobExecutionDao, jobInstanceDao, executionContextDao);
+	}
+
+	@Test
+	public void testGetJobExecutionIsNotCachedWhenFailed() throws Exception {
+		JobExecution failed = MetaDataInstanceFactory.createJobExecution(123L);
+		failed.setStatus(BatchStatus.FAILED);
+		failed.setEndTime(new Date());
+		EasyMock.expect(jobExecutionDao.getJobExecution(123L)).andReturn(failed);
+		EasyMock.expect(jobInstanceDao.getJobInstance(failed)).andReturn(failed.getJobInstance());
+		EasyMock.expect(executionContextDao.getExecutionContext(failed)).andReturn(new ExecutionContext());
+		stepExecutionDao.addStepExecutions(failed);
+		// abandoned by another process, then cached
+		JobExecution abandoned = MetaDataInstanceFactory.createJobExecution(123L);
+		abandoned.setStatus(BatchStatus.ABANDONED);
+		abandoned.setEndTime(new Date());
+		EasyMock.expect(jobExecutionDao.getJobExecution(123L)).andReturn(abandoned);
+		EasyMock.expect(jobInstanceDao.getJobInstance(abandoned)).andReturn(abandoned.getJobInstance());
+		EasyMock.expect(executionContextDao.getExecutionContext(abandoned)).andReturn(new ExecutionContext());
+		stepExecutionDao.addStepExecutions(abandoned);
+		EasyMock.replay(stepExecutionDao, jobExecutionDao, jobInstanceDao, executionContextDao);
+
+		assertSame(failed, service.getJobExecution(123L));
+		assertEquals(0, service.getExecutionCacheStatistics().getEntries());
+		assertSame(abandoned, service.getJobExecution(123L));
+		assertSame(abandoned, service.getJobExecution(123L));
+
+		EasyMock.verify(stepExecutionDao, jobExecutionDao, jobInstanceDao, executionContextDao);
+	}
+
+	@Test
+	public void testAbandonReadsFreshJobExecution() throws Exception {
+		JobExecution jobExecution = MetaDataInstanceFactory.createJobExecution(123L);
+		jobExecution.setStatus(BatchStatus.FAILED);
+		jobExecution.setEndTime(new Date());
+		EasyMock.expect(jobExecutionDao.getJobExecution(123L)).andReturn(jobExecution);
+		EasyMock.expect(jobInstanceDao.getJobInstance(jobExecution)).andReturn(jobExecution.getJobInstance());
+		EasyMock.expect(executionContextDao.getExecutionContext(jobExecution)).andReturn(new ExecutionContext());
+		stepExecutionDao.addStepExecutions(jobExecution);
+		// a fresh execution is read to be abandoned, then cached once abandoned
+		JobExecution abandoned = MetaDataInstanceFactory.createJobExecution(123L);
+		abandoned.setStatus(BatchStatus.FAILED);
+		abandoned.setEndTime(new Date());
+		EasyMock.expect(jobExecutionDao.getJobExecution(123L)).andReturn(abandoned).times(2);
+		EasyMock.expect(jobInstanceDao.getJobInstance(abandoned)).andReturn(abandoned.getJobInstance()).times(2);
+		EasyMock.expect(executionContextDao.getExecutionContext(abandoned)).andReturn(new ExecutionContext())
+				.times(2);
+		stepExecutionDao.addStepExecutions(abandoned);
+		EasyMock.expectLastCall().times(2);
+		jobRepository.update(abandoned);
+		EasyMock.replay(stepExecutionDao, jobExecutionDao, jobInstanceDao, executionContextDao, jobRepository);
+
+		assertSame(jobExecution, service.getJobExecution(123L));
+		service.abandon(123L);
+		// the instance handed out before is left untouched
+		assertEquals(BatchStatus.FAILED, jobExecution.getStatus());
+		assertEquals(BatchStatus.ABANDONED, service.getJobExecution(123L).getStatus());
+		assertSame(abandoned, service.getJobExecution(123L));
+
+		EasyMock.verify(stepExecutionDao, jobExecutionDao, jobInstanceDao, executionContextDao, jobRepository);
+	}
+
+	@Test
+	public void testGetJobExecutionWithoutContextIsCachedWhenCompleted() throws Exception {
+		JobExecution jobExecution = MetaDataInstanceFactory.createJobExecutionWithStepExecutions(123L,
+				Arrays.asList("step"));
+		jobExecution.setStatus(BatchStatus.COMPLETED);
+		jobExecution.setEndTime(new Date());
+		StepExecution stepExecution = jobExecution.getStepExecutions().iterator().next();
+		stepExecution.setEndTime(new Date());
+		EasyMock.expect(jobExecutionDao.getJobExecution(123L)).andReturn(jobExecution);
+		EasyMock.expect(jobInstanceDao.getJobInstance(jobExecution)).andReturn(jobExecution.getJobInstance());
+		stepExecutionDao.addStepExecutions(jobExecution);
+		EasyMock.replay(stepExecutionDao, jobExecutionDao, jobInstanceDao, executionContextDao);
+
+		assertSame(jobExecution, service.getJobExecution(123L, false));
+		assertSame(jobExecution, service.getJobExecution(123L, false));
+		// the step execution is found in the cached job execution
+		assertSame(stepExecution, service.getStepExecution(123L, stepExecution.getId(), false));
+		assertEquals(2, service.getExecutionCacheStatistics().getHits());
+
+		EasyMock.verify(stepExecutionDao, jobExecutionDao, jobInstanceDao, executionContextDao);
+	}
+
+	@Test
+	public void testGetJobExecutionIsNotCachedWhenRunning() throws Exception {
+		JobExecution jobExecution = MetaDataInstanceFactory.createJobExecution(123L);
+		EasyMock.expect(jobExecutionDao.getJobExecution(123L)).andReturn(jobExecution).times(2);
+		EasyMock.expect(jobInstanceDao.getJobInstance(jobExecution)).andReturn(jobExecution.getJobInstance())
+				.times(2);
+		EasyMock.expect(executionContextDao.getExecutionContext(jobExecution)).andReturn(new ExecutionContext())
+				.times(2);
+		stepExecutionDao.addStepExecutions(jobExecution);
+		EasyMock.expectLastCall().times(2);
+		EasyMock.replay(stepExecutionDao, jobExecutionDao, jobInstanceDao, executionContextDao);
+
+		service.getJobExecution(123L);
+		service.getJobExecution(123L);
+		assertEquals(0, service.getExecutionCacheStatistics().getEntries());
+
+		EasyMock.verify(stepExecutionDao, jobExecutionDao, jobInstanceDao, executionContextDao);
+	}
+
+	/**
+	 * Test method for {@link SimpleJobService#removeInactiveExecutions()}.
+	 */
+	@Test
+	public void testRemoveInactiveExecutions() throws Exception {
+		JobParameters jobParameters = new JobParameters();
+		Job job = new JobSupport("job");
+		JobExecution jobExecution = MetaDataInstanceFactory.createJobExecution(123L);
+		Date started = new Date(1000L);
+		EasyMock.expect(jobLocator.getJob("job")).andReturn(job);
+		EasyMock.expect(jobRepository.getLastJobExecution("job", jobParameters)).andReturn(null);
+		EasyMock.expect(jobLauncher.run(job, jobParameters)).andReturn(jobExecution);
+		EasyMock.expect(jobExecutionDao.getExecutionStates(null)).andReturn(
+				Arrays.asList(new ExecutionState(123L, null, "job", 1, BatchStatus.STARTED, "UNKNOWN", started, null,
+						started, 0, 0, 0, 0, 0, 0)));
+		EasyMock.expect(jobExecutionDao.getExecutionStates(started)).andReturn(Collections.<ExecutionState> emptyList());
+		EasyMock.replay(jobLocator, jobRepository, jobLauncher, jobExecutionDao);
+		service.launch("job", jobParameters);
+		service.removeInactiveExecutions();
+		// finished before the second check, without being loaded
+		service.removeInactiveExecutions();
+		// no more active execution to check
+		service.removeInactiveExecutions();
+		EasyMock.verify(jobLocator, jobRepository, jobLauncher, jobExecutionDao);
+	}
+
+	/**
+	 * Test method for {@link ExecutionChangeDetector#detectChanges()}.
+	 */
+	@Test
+	public void testDetectExecutionChanges() throws Exception {
+		Date started = new Date(1000L);
+		Date updated = new Date(2000L);
+		Date finished = new Date(3000L);
+		ExecutionState running = new ExecutionState(1L, null, "job", 1, BatchStatus.STARTED, "UNKNOWN", started,
+				null, started, 0, 0, 0, 0, 0, 0);
+		ExecutionState step = new ExecutionState(1L, 10L, "step", 2, BatchStatus.STARTED, "EXECUTING", started,
+				null, started, 100, 100, 1, 0, 0, 0);
+		ExecutionState stepUpdated = new ExecutionState(1L, 10L, "step", 3, BatchStatus.STARTED, "EXECUTING",
+				started, null, updated, 200, 200, 2, 0, 0, 0);
+		ExecutionState completed = new ExecutionState(1L, null, "job", 2, BatchStatus.COMPLETED, "COMPLETED",
+				started, finished, finished, 0, 0, 0, 0, 0, 0);
+		EasyMock.expect(jobExecutionDao.getExecutionStates(null)).andReturn(Arrays.asList(running, step));
+		EasyMock.expect(jobExecutionDao.getExecutionStates(started)).andReturn(Arrays.asList(running, stepUpdated));
+		EasyMock.expect(jobExecutionDao.getExecutionStates(updated)).andReturn(Arrays.asList(completed, stepUpdated));
+		EasyMock.replay(jobExecutionDao);
+		ExecutionChangeDetector detector = new ExecutionChangeDetector(service);
+		assertEquals(Arrays.asList(running, step), detector.detectChanges());
+		assertEquals(Arrays.asList(stepUpdated), detector.detectChanges());
+		assertEquals(Arrays.asList(completed), detector.detectChanges());
+		assertEquals(2, detector.getStates().size());
+		EasyMock.verify(jobExecutionDao);
+	}
+
 	/**
 	 * Test method for {@link SimpleJobService#getJobExecutionsForJobInstance(String, Long)}.
 	 */
@@ -387,7 +637,7 @@ public class SimpleJobServiceTest {
 		EasyMock.expect(jobInstanceDao.getJobInstance(jobInstanceId)).andReturn(jobInstance);
 		JobExecution jobExecution = MetaDataInstanceFactory.createJobExecution();
 		EasyMock.expect(jobExecutionDao.findJobExecutions(jobInstance)).andReturn(Arrays.asList(jobExecution));
-		stepExecutionDao.addStepExecutions(jobExecution);
+		stepExecutionDao.addStepExecutions(Arrays.asList(jobExecution));
 		EasyMock.expectLastCall();
 		EasyMock.replay(jobLocator, jobInstanceDao, stepExecutionDao, jobExecutionDao);
 		assertEquals(1, service.getJobExecutionsForJobInstance("job", jobInstance.getId()).size());
@@ -414,6 +664,48 @@ public class SimpleJobServiceTest {
 		EasyMock.verify(jobExecutionDao, stepExecutionDao, executionContextDao, jobInstanceDao);
 	}
 
+	/**
+	 * Test method for {@link SimpleJobService#getStepExecution(Long, Long, boolean)}.
+	 */
+	@Test
+	public void testGetStepExecutionWithoutContext() throws Exception {
+		JobExecution jobExecution = MetaDataInstanceFactory.createJobExecutionWithStepExecutions(123L, Arrays
+				.asList("step1"));
+		EasyMock.expect(jobExecutionDao.getJobExecution(123L)).andReturn(jobExecution).times(2);
+		EasyMock.expect(jobInstanceDao.getJobInstance(jobExecution)).andReturn(null).times(2);
+		stepExecutionDao.addStepExecutions(jobExecution);
+		EasyMock.expectLastCall().times(2);
+		StepExecution stepExecution = jobExecution.getStepExecutions().iterator().next();
+		Long stepExecutionId = stepExecution.getId();
+		EasyMock.replay(jobExecutionDao, stepExecutionDao, executionContextDao, jobInstanceDao);
+		// taken from its job execution, read again each time while it is running
+		assertSame(stepExecution, service.getStepExecution(123L, stepExecutionId, false));
+		assertSame(stepExecution, service.getStepExecution(123L, stepExecutionId, false));
+		EasyMock.verify(jobExecutionDao, stepExecutionDao, executionContextDao, jobInstanceDao);
+	}
+
+	/**
+	 * Test method for {@link SimpleJobService#getSerializedExecutionContext(Long, Long, boolean)}.
+	 */
+	@Test
+	public void testGetSerializedStepExecutionContext() throws Exception {
+		EasyMock.expect(stepExecutionDao.getSerializedExecutionContext(123L, 1234L, true)).andReturn("{\"map\":\"\"}");
+		EasyMock.replay(stepExecutionDao, executionContextDao);
+		assertEquals("{\"map\":\"\"}", service.getSerializedExecutionContext(123L, 1234L, true));
+		EasyMock.verify(stepExecutionDao, executionContextDao);
+	}
+
+	/**
+	 * Test method for {@link SimpleJobService#getJobExecutionStates(Long)}.
+	 */
+	@Test(expected = NoSuchJobExecutionException.class)
+	public void testGetJobExecutionStatesWithoutExecution() throws Exception {
+		EasyMock.expect(jobExecutionDao.getJobExecutionStates(123L)).andReturn(
+				Collections.<ExecutionState> emptyList());
+		EasyMock.replay(jobExecutionDao);
+		service.getJobExecutionStates(123L);
+	}
+
 	@Test
 	public void testGetStepExecutionWithUnserializableExecutionContent() throws Exception {
 		JobExecution jobExecution = MetaDataInstanceFactory.createJobExecutionWithStepExecutions(123L, Arrays
@@ -463,12 +755,59 @@ public class SimpleJobServiceTest {
 		String jobName = "job";
 		EasyMock.expect(jobLocator.getJobNames()).andReturn(Collections.<String> emptyList());
 		EasyMock.expect(jobInstanceDao.countJobInstances(jobName)).andReturn(1);
-		EasyMock.expect(jobExecutionDao.getJobExecutions("job", 0, 4)).andReturn(
-				Arrays.asList(MetaDataInstanceFactory.createJobExecution(123L), MetaDataInstanceFactory
-						.createJobExecution(124L)));
-		EasyMock.replay(jobLocator, jobInstanceDao, jobExecutionDao);
+		List<JobExecution> jobExecutions = Arrays.asList(MetaDataInstanceFactory.createJobExecution(123L),
+				MetaDataInstanceFactory.createJobExecution(124L));
+		EasyMock.expect(jobExecutionDao.getJobExecutions("job", 0, 4)).andReturn(jobExecutions);
+		stepExecutionDao.addStepExecutions(jobExecutions);
+		EasyMock.expectLastCall().once();
+		EasyMock.replay(jobLocator, jobInstanceDao, jobExecutionDao, stepExecutionDao);
 		assertEquals(2, service.listJobExecutionsForJob("job", 0, 4).size());
-		EasyMock.verify(jobLocator, jobInstanceDao, jobExecutionDao);
+		EasyMock.verify(jobLocator, jobInstanceDao, jobExecutionDao, stepExecutionDao);
+	}
+
+	/**
+	 * Test method for {@link SimpleJobService#listJobExecutionTree(String, int, boolean)}.
+	 */
+	@Test
+	public void testListJobExecutionTreeAddsMissingSteps() throws Exception {
+		EasyMock.expect(jobLocator.getJobNames()).andReturn(Arrays.asList("job"));
+		EasyMock.expect(jobLocator.getJob("job")).andReturn(new JobSupport("job"));
+		EasyMock.expect(stepExecutionDao.findStepNamesForJobExecution("job", "*:partition*")).andReturn(
+				Arrays.asList("step1", "step2"));
+		JobExecution withStep = MetaDataInstanceFactory.createJobExecution(124L);
+		withStep.createStepExecution("step1").setStatus(BatchStatus.COMPLETED);
+		JobExecution withoutSteps = MetaDataInstanceFactory.createJobExecution(123L);
+		expectStreamJobExecutions("job", 2, true, withStep, withoutSteps);
+		EasyMock.replay(jobLocator, jobExecutionDao, stepExecutionDao);
+
+		List<JobExecution> jobExecutions = new ArrayList<JobExecution>(service.listJobExecutionTree("job", 2, true));
+		assertEquals(Arrays.asList(withStep, withoutSteps), jobExecutions);
+		assertEquals(Arrays.asList("step1:COMPLETED", "step2:UNKNOWN"), getStepStatuses(withStep));
+		assertEquals(Arrays.asList("step1:UNKNOWN", "step2:UNKNOWN"), getStepStatuses(withoutSteps));
+		EasyMock.verify(jobLocator, jobExecutionDao, stepExecutionDao);
+	}
+
+	/**
+	 * Test method for {@link SimpleJobService#streamJobExecutionTree(String, int, boolean, ExecutionCallback)}.
+	 */
+	@Test
+	public void testStreamJobExecutionTreeWithoutSteps() throws Exception {
+		EasyMock.expect(jobLocator.getJobNames()).andReturn(Arrays.asList("job"));
+		JobExecution jobExecution = MetaDataInstanceFactory.createJobExecution(123L);
+		expectStreamJobExecutions("job", 5, false, jobExecution);
+		// no step names looked up
+		EasyMock.replay(jobLocator, jobExecutionDao, stepExecutionDao);
+
+		final List<JobExecution> jobExecutions = new ArrayList<JobExecution>();
+		service.streamJobExecutionTree("job", 5, false, new ExecutionCallback<JobExecution>() {
+			@Override
+			public void handle(JobExecution jobExecution) {
+				jobExecutions.add(jobExecution);
+			}
+		});
+		assertEquals(Arrays.asList(jobExecution), jobExecutions);
+		assertTrue(jobExecution.getStepExecutions().isEmpty());
+		EasyMock.verify(jobLocator, jobExecutionDao, stepExecutionDao);
 	}
 
 	/**
@@ -498,14 +837,13 @@ public class SimpleJobServiceTest {
 
 		testLaunch();
 
-		JobExecution jobExecution = MetaDataInstanceFactory.createJobExecution();
-		EasyMock.expect(jobExecutionDao.getJobExecution(123L)).andReturn(jobExecution);
-		EasyMock.expect(jobInstanceDao.getJobInstance(jobExecution)).andReturn(null);
-		EasyMock.expect(executionContextDao.getExecutionContext(jobExecution)).andReturn(new ExecutionContext());
-		stepExecutionDao.addStepExecutions(jobExecution);
+		// the state of the launched execution is read instead of the execution
+		EasyMock.expect(jobExecutionDao.getExecutionStates(null)).andReturn(Arrays.asList(createFinishedState(123L)));
 
 		EasyMock.replay(jobExecutionDao, stepExecutionDao, executionContextDao, jobInstanceDao);
 
+		service.removeInactiveExecutions();
+		// finished, so not checked any more
 		service.removeInactiveExecutions();
 
 		EasyMock.verify(jobExecutionDao, stepExecutionDao, executionContextDao, jobInstanceDao);
@@ -537,6 +875,7 @@ public class SimpleJobServiceTest {
 		.anyTimes();
 		stepExecutionDao.addStepExecutions(jobExecution);
 		EasyMock.expectLastCall().anyTimes();
+		EasyMock.expect(jobExecutionDao.getExecutionStates(null)).andReturn(Arrays.asList(createFinishedState(123L)));
 
 		EasyMock.replay(jobExecutionDao, stepExecutionDao, executionContextDao, jobInstanceDao);
 
@@ -546,4 +885,140 @@ public class SimpleJobServiceTest {
 
 	}
 
-}
\ No newline at end of file
+	@Test
+	public void testGetStepExecutionHistoryIsIncremental() throws Exception {
+
+		StepExecution finished = MetaDataInstanceFactory.createStepExecution("step", 1L);
+		finished.setStartTime(new Date(0L));
+		finished.setEndTime(new Date(1000L));
+		StepExecution running = MetaDataInstanceFactory.createStepExecution("step", 2L);
+		running.setStartTime(new Date(0L));
+		StepExecution runningFinished = MetaDataInstanceFactory.createStepExecution("step", 2L);
+		runningFinished.setStartTime(new Date(0L));
+		runningFinished.setEndTime(new Date(3000L));
+
+		EasyMock.expect(stepExecutionDao.getMaxStepExecutionId("job", "step")).andReturn(2L);
+		// database without aggregates support
+		EasyMock.expect(stepExecutionDao.getStepExecutionHistory("job", "step", 2L)).andReturn(null);
+		EasyMock.expect(stepExecutionDao.findStepExecutionsAfter("job", "step", -1L, 1000)).andReturn(
+				Arrays.asList(finished, running));
+		EasyMock.expect(stepExecutionDao.getStepExecutions(Collections.singleton(2L))).andReturn(
+				Arrays.asList(running));
+		EasyMock.expect(stepExecutionDao.findStepExecutionsAfter("job", "step", 2L, 1000)).andReturn(
+				Collections.<StepExecution> emptyList());
+		EasyMock.expect(stepExecutionDao.findStepExecutionsAfter("job", "step", 2L, 1000)).andReturn(
+				Collections.<StepExecution> emptyList());
+		EasyMock.expect(stepExecutionDao.getStepExecutions(Collections.singleton(2L))).andReturn(
+				Arrays.asList(runningFinished));
+		EasyMock.replay(stepExecutionDao);
+
+		assertEquals(1, service.getStepExecutionHistory("job", "step").getCount());
+		assertEquals(1, service.getStepExecutionHistory("job", "step").getCount());
+		StepExecutionHistory history = service.getStepExecutionHistory("job", "step");
+		assertEquals(2, history.getCount());
+		assertEquals(2000, history.getDuration().getMean(), 0.01);
+
+		EasyMock.verify(stepExecutionDao);
+
+	}
+
+	@Test
+	public void testGetStepExecutionHistoryFromAggregates() throws Exception {
+
+		StepExecutionHistory aggregated = new StepExecutionHistory("step", 2, new CumulativeHistory(),
+				new CumulativeHistory(), new CumulativeHistory(), new CumulativeHistory(), new CumulativeHistory(),
+				new CumulativeHistory(), new CumulativeHistory(), new CumulativeHistory(), new CumulativeHistory(2,
+						3000, 500000, 1000, 2000), new CumulativeHistory());
+		StepExecution runningFinished = MetaDataInstanceFactory.createStepExecution("step", 3L);
+		runningFinished.setStartTime(new Date(0L));
+		runningFinished.setEndTime(new Date(3000L));
+
+		EasyMock.expect(stepExecutionDao.getMaxStepExecutionId("job", "step")).andReturn(3L);
+		EasyMock.expect(stepExecutionDao.getStepExecutionHistory("job", "step", 3L)).andReturn(aggregated);
+		EasyMock.expect(stepExecutionDao.findUnfinishedStepExecutionIds("job", "step", 3L)).andReturn(
+				Arrays.asList(3L));
+		EasyMock.expect(stepExecutionDao.findStepExecutionsAfter("job", "step", 3L, 1000)).andReturn(
+				Collections.<StepExecution> emptyList());
+		EasyMock.expect(stepExecutionDao.getStepExecutions(Collections.singleton(3L))).andReturn(
+				Arrays.asList(runningFinished));
+		EasyMock.expect(stepExecutionDao.findStepExecutionsAfter("job", "step", 3L, 1000)).andReturn(
+				Collections.<StepExecution> emptyList());
+		EasyMock.replay(stepExecutionDao);
+
+		assertEquals(1500, service.getStepExecutionHistory("job", "step").getDuration().getMean(), 0.01);
+		StepExecutionHistory history = service.getStepExecutionHistory("job", "step");
+		assertEquals(3, history.getCount());
+		assertEquals(2000, history.getDuration().getMean(), 0.01);
+		assertEquals(3000, history.getDuration().getMax(), 0.01);
+
+		EasyMock.verify(stepExecutionDao);
+
+	}
+
+	@Test
+	public void testGetStepExecutionHistoryWithWindow() throws Exception {
+
+		List<StepExecution> stepExecutions = new ArrayList<StepExecution>();
+		for (long id = 1; id <= 3; id++) {
+			StepExecution stepExecution = MetaDataInstanceFactory.createStepExecution("step", id);
+			stepExecution.setStartTime(new Date(0L));
+			stepExecution.setEndTime(new Date(id * 1000L));
+			stepExecutions.add(stepExecution);
+		}
+
+		service.setHistoryPolicy(HistoryPolicy.window(2));
+		EasyMock.expect(stepExecutionDao.findStepExecutions("job", "step", 0, 2)).andReturn(
+				Arrays.asList(stepExecutions.get(1), stepExecutions.get(0)));
+		EasyMock.expect(stepExecutionDao.findStepExecutionsAfter("job", "step", 2L, 1000)).andReturn(
+				Arrays.asList(stepExecutions.get(2)));
+		EasyMock.replay(stepExecutionDao);
+
+		StepExecutionHistory history = service.getStepExecutionHistory("job", "step");
+		assertEquals(3, history.getCount());
+		assertEquals(2, history.getDuration().getCount());
+		assertEquals(2500, history.getDuration().getMean(), 0.01);
+		assertEquals(2000, history.getDuration().getMin(), 0.01);
+		// exact quantiles of the window, ranked as in the sketches
+		assertEquals(2000, history.getDuration().getQuantile(0.5), 0.01);
+		assertEquals(2000, history.getDuration().getQuantile(0.99), 0.01);
+		assertEquals(3000, history.getDuration().getQuantile(1), 0.01);
+
+		EasyMock.verify(stepExecutionDao);
+
+	}
+
+	private static ExecutionState createFinishedState(Long jobExecutionId) {
+		Date started = new Date(1000L);
+		Date finished = new Date(2000L);
+		return new ExecutionState(jobExecutionId, null, "job", 2, BatchStatus.COMPLETED, "COMPLETED", started,
+				finished, finished, 0, 0, 0, 0, 0, 0);
+	}
+
+	private void expectStreamJobExecutions(String jobName, int count, boolean withStepExecutions,
+			JobExecution... jobExecutions) {
+		final List<JobExecution> rows = Arrays.asList(jobExecutions);
+		jobExecutionDao.streamJobExecutions(EasyMock.eq(jobName), EasyMock.eq(count),
+				EasyMock.eq(withStepExecutions), EasyMock.<ExecutionCallback<JobExecution>> anyObject());
+		EasyMock.expectLastCall().andAnswer(new IAnswer<Void>() {
+			@Override
+			@SuppressWarnings("unchecked")
+			public Void answer() throws Throwable {
+				ExecutionCallback<JobExecution> callback = (ExecutionCallback<JobExecution>) EasyMock
+						.getCurrentArguments()[3];
+				for (JobExecution row : rows) {
+					callback.handle(row);
+				}
+				return null;
+			}
+		});
+	}
+
+	private static List<String> getStepStatuses(JobExecution jobExecution) {
+		List<String> statuses = new ArrayList<String>();
+		for (StepExecution stepExecution : jobExecution.getStepExecutions()) {
+			statuses.add(stepExecution.getStepName() + ":" + stepExecution.getStatus());
+		}
+		return statuses;
+	}
+
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright 2006-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.batch.admin.web;
+
+import static org.junit.Assert.assertEquals;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Random;
+import java.util.TimeZone;
+
+import org.junit.Test;
+
+/**
+ * Checks {@link ExecutionTimeFormat} against {@link SimpleDateFormat}.
+ */
+public class ExecutionTimeFormatTest {
+
+	private static final String[] TIME_ZONES = { "GMT", "UTC", "Europe/Paris", "America/New_York",
+			"America/Sao_Paulo", "Australia/Sydney", "Australia/Adelaide", "Asia/Kolkata", "Asia/Kathmandu",
+			"Australia/Lord_Howe", "Pacific/Chatham", "America/St_Johns", "Pacific/Apia", "Pacific/Kiritimati",
+			"Pacific/Pago_Pago", "Europe/Amsterdam", "Africa/Monrovia" };
+
+	private static final long MILLIS_PER_HOUR = 60L * 60 * 1000;
+
+	@Test
+	public void testEpoch() throws Exception {
+		assertSameAsSimpleDateFormat(0);
+		assertSameAsSimpleDateFormat(-1);
+		assertSameAsSimpleDateFormat(1);
+	}
+
+	@Test
+	public void testDaylightSavingTransitions() throws Exception {
+		// every quarter of an hour around the transitions of 2016, on both
+		// hemispheres and with the half hour shift of Lord Howe
+		String[] days = { "2016-03-13", "2016-03-27", "2016-04-03", "2016-10-02", "2016-10-16", "2016-10-30",
+				"2016-11-06", "2016-02-21" };
+		for (String day : days) {
+			long start = parse("yyyy-MM-dd HH:mm", day + " 00:00") - 24 * MILLIS_PER_HOUR;
+			for (long millis = start; millis < start + 72 * MILLIS_PER_HOUR; millis += MILLIS_PER_HOUR / 4) {
+				assertSameAsSimpleDateFormat(millis);
+			}
+		}
+	}
+
+	@Test
+	public void testAroundTransitionInstants() throws Exception {
+		// the last and first milliseconds of the offsets in Paris and Adelaide
+		long[] transitions = { parse("yyyy-MM-dd HH:mm", "2016-03-27 01:00"),
+				parse("yyyy-MM-dd HH:mm", "2016-10-30 01:00"), parse("yyyy-MM-dd HH:mm", "2016-04-02 16:30"),
+				parse("yyyy-MM-dd HH:mm", "2016-10-01 16:30") };
+		for (long transition : transitions) {
+			for (long delta = -1000; delta <= 1000; delta += 1) {
+				assertSameAsSimpleDateFormat(transition + delta);
+			}
+		}
+	}
+
+	@Test
+	public void testBefore1970() throws Exception {
+		String[] dates = { "1969-12-31 23:59:59", "1969-12-31 00:00:00", "1950-06-15 12:30:00",
+				"1937-06-30 23:59:59", "1900-01-01 00:00:00", "1900-03-01 00:00:00", "1883-11-18 12:00:00",
+				"1800-01-01 00:00:00", "1600-02-29 12:00:00" };
+		for (String date : dates) {
+			long millis = parse("yyyy-MM-dd HH:mm:ss", date);
+			for (long delta = -2 * MILLIS_PER_HOUR * 24; delta <= 2 * MILLIS_PER_HOUR * 24; delta += 997 * 61) {
+				assertSameAsSimpleDateFormat(millis + delta);
+			}
+		}
+	}
+
+	@Test
+	public void testLeapDays() throws Exception {
+		// leap years, centuries that are not and a 400 years one
+		String[] days = { "1904-02-28", "1900-02-28", "1996-02-28", "2000-02-28", "2015-02-28", "2016-02-28",
+				"2100-02-28", "2400-02-28", "2016-12-31", "2015-12-31" };
+		for (String day : days) {
+			long start = parse("yyyy-MM-dd HH:mm", day + " 00:00") - 24 * MILLIS_PER_HOUR;
+			for (long millis = start; millis < start + 96 * MILLIS_PER_HOUR; millis += MILLIS_PER_HOUR / 2) {
+				assertSameAsSimpleDateFormat(millis);
+			}
+		}
+	}
+
+	@Test
+	public void testRandomInstants() throws Exception {
+		Random random = new Random(42);
+		long min = parse("yyyy-MM-dd HH:mm", "1600-01-01 00:00");
+		long max = parse("yyyy-MM-dd HH:mm", "9999-01-01 00:00");
+		for (int i = 0; i < 2000; i++) {
+			long millis = min + (long) (random.nextDouble() * (max - min));
+			assertSameAsSimpleDateFormat(millis);
+		}
+	}
+
+	@Test
+	public void testDuration() throws Exception {
+		SimpleDateFormat format = createFormat("HH:mm:ss", TimeZone.getTimeZone("GMT"));
+		long[] durations = { 0, 999, 1000, 59999, 60000, 3599999, 3600000, 86399999, 86400000, 90061001 };
+		for (long duration : durations) {
+			assertEquals(String.valueOf(duration), format.format(new Date(duration)),
+					ExecutionTimeFormat.formatDuration(duration));
+		}
+	}
+
+	private void assertSameAsSimpleDateFormat(long millis) {
+		Date date = new Date(millis);
+		for (String id : TIME_ZONES) {
+			TimeZone timeZone = TimeZone.getTimeZone(id);
+			ExecutionTimeFormat format = ExecutionTimeFormat.getInstance(timeZone);
+			String message = id + " " + millis;
+			assertEquals(message, createFormat("yyyy-MM-dd", timeZone).format(date), format.formatDate(date));
+			assertEquals(message, createFormat("HH:mm:ss", timeZone).format(date), format.formatTime(date));
+		}
+	}
+
+	private static long parse(String pattern, String text) throws ParseException {
+		return createFormat(pattern, TimeZone.getTimeZone("GMT")).parse(text).getTime();
+	}
+
+	private static SimpleDateFormat createFormat(String pattern, TimeZone timeZone) {
+		SimpleDateFormat format = new SimpleDateFormat(pattern);
+		format.setTimeZone(timeZone);
+		return format;
+	}
+
+}
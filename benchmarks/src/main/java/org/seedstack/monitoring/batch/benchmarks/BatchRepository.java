@@ -0,0 +1,222 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.monitoring.batch.benchmarks;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.seedstack.monitoring.batch.fixtures.BatchMetadataGenerator;
+import org.springframework.batch.admin.service.JdbcSearchableJobExecutionDao;
+import org.springframework.batch.admin.service.JdbcSearchableStepExecutionDao;
+import org.springframework.batch.admin.service.JobService;
+import org.springframework.batch.admin.service.SimpleJobServiceFactoryBean;
+import org.springframework.batch.core.configuration.support.MapJobRegistry;
+import org.springframework.batch.core.launch.support.SimpleJobLauncher;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.repository.support.JobRepositoryFactoryBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.jdbc.support.incrementer.DefaultDataFieldMaxValueIncrementerFactory;
+
+import java.util.Collections;
+
+/**
+ * Embedded HSQLDB batch repository shared by the read path benchmarks. With the <code>mock</code> data it is loaded
+ * with the mock scripts of the integration tests, which are then copied with shifted ids until the repository holds
+ * the requested number of step executions. With the <code>generated</code> data it is filled by the
+ * {@link BatchMetadataGenerator}.
+ */
+@State(Scope.Benchmark)
+public class BatchRepository {
+
+    private static final int GENERATED_STEPS_PER_JOB = 5;
+
+    private static final String[] COPIES = {
+            "INSERT INTO BATCH_JOB_INSTANCE (JOB_INSTANCE_ID, VERSION, JOB_NAME, JOB_KEY) "
+                    + "SELECT JOB_INSTANCE_ID + :offset, VERSION, JOB_NAME, "
+                    + "SUBSTRING(JOB_KEY, 1, 12) || CAST(JOB_INSTANCE_ID + :offset AS VARCHAR(20)) "
+                    + "FROM BATCH_JOB_INSTANCE",
+            "INSERT INTO BATCH_JOB_EXECUTION (JOB_EXECUTION_ID, VERSION, JOB_INSTANCE_ID, CREATE_TIME, START_TIME, "
+                    + "END_TIME, STATUS, EXIT_CODE, EXIT_MESSAGE, LAST_UPDATED, JOB_CONFIGURATION_LOCATION) "
+                    + "SELECT JOB_EXECUTION_ID + :offset, VERSION, JOB_INSTANCE_ID + :offset, CREATE_TIME, START_TIME, "
+                    + "END_TIME, STATUS, EXIT_CODE, EXIT_MESSAGE, LAST_UPDATED, JOB_CONFIGURATION_LOCATION "
+                    + "FROM BATCH_JOB_EXECUTION",
+            "INSERT INTO BATCH_JOB_EXECUTION_PARAMS (JOB_EXECUTION_ID, TYPE_CD, KEY_NAME, STRING_VAL, DATE_VAL, "
+                    + "LONG_VAL, DOUBLE_VAL, IDENTIFYING) "
+                    + "SELECT JOB_EXECUTION_ID + :offset, TYPE_CD, KEY_NAME, STRING_VAL, DATE_VAL, LONG_VAL, "
+                    + "DOUBLE_VAL, IDENTIFYING FROM BATCH_JOB_EXECUTION_PARAMS",
+            "INSERT INTO BATCH_JOB_EXECUTION_CONTEXT (JOB_EXECUTION_ID, SHORT_CONTEXT, SERIALIZED_CONTEXT) "
+                    + "SELECT JOB_EXECUTION_ID + :offset, SHORT_CONTEXT, SERIALIZED_CONTEXT "
+                    + "FROM BATCH_JOB_EXECUTION_CONTEXT",
+            "INSERT INTO BATCH_STEP_EXECUTION (STEP_EXECUTION_ID, VERSION, STEP_NAME, JOB_EXECUTION_ID, START_TIME, "
+                    + "END_TIME, STATUS, COMMIT_COUNT, READ_COUNT, FILTER_COUNT, WRITE_COUNT, READ_SKIP_COUNT, "
+                    + "WRITE_SKIP_COUNT, PROCESS_SKIP_COUNT, ROLLBACK_COUNT, EXIT_CODE, EXIT_MESSAGE, LAST_UPDATED) "
+                    + "SELECT STEP_EXECUTION_ID + :offset, VERSION, STEP_NAME, JOB_EXECUTION_ID + :offset, START_TIME, "
+                    + "END_TIME, STATUS, COMMIT_COUNT, READ_COUNT, FILTER_COUNT, WRITE_COUNT, READ_SKIP_COUNT, "
+                    + "WRITE_SKIP_COUNT, PROCESS_SKIP_COUNT, ROLLBACK_COUNT, EXIT_CODE, EXIT_MESSAGE, LAST_UPDATED "
+                    + "FROM BATCH_STEP_EXECUTION",
+            "INSERT INTO BATCH_STEP_EXECUTION_CONTEXT (STEP_EXECUTION_ID, SHORT_CONTEXT, SERIALIZED_CONTEXT) "
+                    + "SELECT STEP_EXECUTION_ID + :offset, SHORT_CONTEXT, SERIALIZED_CONTEXT "
+                    + "FROM BATCH_STEP_EXECUTION_CONTEXT"
+    };
+
+    /**
+     * Minimum number of step executions in the repository, the mock scripts holding about two thousand.
+     */
+    @Param({"1000000"})
+    private int stepExecutions;
+
+    /**
+     * <code>mock</code> for the scaled up mock scripts, or <code>generated</code> for the synthetic metadata.
+     */
+    @Param({"mock"})
+    private String data;
+
+    private String jobName;
+
+    private String stepName;
+
+    private EmbeddedDatabase dataSource;
+
+    private JobService jobService;
+
+    private JdbcSearchableJobExecutionDao jobExecutionDao;
+
+    private JdbcSearchableStepExecutionDao stepExecutionDao;
+
+    private long lastJobExecutionId;
+
+    private int jobExecutionCount;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        EmbeddedDatabaseBuilder builder = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.HSQL)
+                .setName("benchmarks")
+                .addScript("classpath:/org/springframework/batch/core/schema-hsqldb.sql");
+        if ("generated".equals(data)) {
+            dataSource = builder.build();
+            BatchMetadataGenerator generator = new BatchMetadataGenerator(dataSource);
+            generator.setStepsPerJob(GENERATED_STEPS_PER_JOB);
+            generator.setInstances(stepExecutions / GENERATED_STEPS_PER_JOB);
+            generator.generate();
+            jobName = generator.getJobName(0);
+            stepName = generator.getStepName(0, 0);
+        } else {
+            dataSource = builder
+                    .addScript("classpath:/sql/mock-job-instance.sql")
+                    .addScript("classpath:/sql/mock-job-execution.sql")
+                    .addScript("classpath:/sql/mock-job-execution-context.sql")
+                    .addScript("classpath:/sql/mock-job-execution-params.sql")
+                    .addScript("classpath:/sql/mock-step-execution.sql")
+                    .addScript("classpath:/sql/mock-step-execution-context.sql")
+                    .build();
+            scaleUp(new JdbcTemplate(dataSource));
+            jobName = "jobDataTransferValorisationFather";
+            stepName = "stepDataTransferValorizationFatherManagingExcel";
+        }
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        lastJobExecutionId = jdbcTemplate.queryForObject("SELECT MAX(JOB_EXECUTION_ID) FROM BATCH_JOB_EXECUTION",
+                Long.class);
+        jobExecutionCount = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM BATCH_JOB_EXECUTION", Integer.class);
+
+        jobService = createJobService();
+        DefaultDataFieldMaxValueIncrementerFactory incrementerFactory = new DefaultDataFieldMaxValueIncrementerFactory(
+                dataSource);
+
+        jobExecutionDao = new JdbcSearchableJobExecutionDao();
+        jobExecutionDao.setDataSource(dataSource);
+        jobExecutionDao.setJobExecutionIncrementer(incrementerFactory.getIncrementer("HSQL",
+                "BATCH_JOB_EXECUTION_SEQ"));
+        jobExecutionDao.afterPropertiesSet();
+
+        stepExecutionDao = new JdbcSearchableStepExecutionDao();
+        stepExecutionDao.setDataSource(dataSource);
+        stepExecutionDao.setStepExecutionIncrementer(incrementerFactory.getIncrementer("HSQL",
+                "BATCH_STEP_EXECUTION_SEQ"));
+        stepExecutionDao.afterPropertiesSet();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        dataSource.shutdown();
+    }
+
+    /**
+     * Doubles the content of the repository until it holds enough step executions, shifting the ids of the copies
+     * past the largest id of the previous round and keeping the job keys unique.
+     */
+    private void scaleUp(JdbcTemplate jdbcTemplate) {
+        while (jdbcTemplate.queryForObject("SELECT COUNT(*) FROM BATCH_STEP_EXECUTION", Integer.class)
+                < stepExecutions) {
+            long offset = 1 + jdbcTemplate.queryForObject("SELECT MAX(ID) FROM ("
+                    + "SELECT MAX(JOB_INSTANCE_ID) AS ID FROM BATCH_JOB_INSTANCE "
+                    + "UNION ALL SELECT MAX(JOB_EXECUTION_ID) FROM BATCH_JOB_EXECUTION "
+                    + "UNION ALL SELECT MAX(STEP_EXECUTION_ID) FROM BATCH_STEP_EXECUTION)", Long.class);
+            NamedParameterJdbcTemplate namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+            for (String copy : COPIES) {
+                namedParameterJdbcTemplate.update(copy, Collections.singletonMap("offset", offset));
+            }
+        }
+    }
+
+    private JobService createJobService() throws Exception {
+        JobRepositoryFactoryBean jobRepositoryFactoryBean = new JobRepositoryFactoryBean();
+        jobRepositoryFactoryBean.setDataSource(dataSource);
+        jobRepositoryFactoryBean.setTransactionManager(new DataSourceTransactionManager(dataSource));
+        jobRepositoryFactoryBean.afterPropertiesSet();
+        JobRepository jobRepository = jobRepositoryFactoryBean.getObject();
+
+        SimpleJobLauncher jobLauncher = new SimpleJobLauncher();
+        jobLauncher.setJobRepository(jobRepository);
+        jobLauncher.afterPropertiesSet();
+
+        SimpleJobServiceFactoryBean jobServiceFactoryBean = new SimpleJobServiceFactoryBean();
+        jobServiceFactoryBean.setDataSource(dataSource);
+        jobServiceFactoryBean.setJobRepository(jobRepository);
+        jobServiceFactoryBean.setJobLauncher(jobLauncher);
+        jobServiceFactoryBean.setJobLocator(new MapJobRegistry());
+        jobServiceFactoryBean.afterPropertiesSet();
+        return jobServiceFactoryBean.getObject();
+    }
+
+    String getJobName() {
+        return jobName;
+    }
+
+    String getStepName() {
+        return stepName;
+    }
+
+    JobService getJobService() {
+        return jobService;
+    }
+
+    JdbcSearchableJobExecutionDao getJobExecutionDao() {
+        return jobExecutionDao;
+    }
+
+    JdbcSearchableStepExecutionDao getStepExecutionDao() {
+        return stepExecutionDao;
+    }
+
+    long getLastJobExecutionId() {
+        return lastJobExecutionId;
+    }
+
+    int getJobExecutionCount() {
+        return jobExecutionCount;
+    }
+}
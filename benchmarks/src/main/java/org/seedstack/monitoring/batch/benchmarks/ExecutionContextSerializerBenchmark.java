@@ -0,0 +1,86 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.monitoring.batch.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.batch.admin.service.JacksonExecutionContextStringSerializer;
+import org.springframework.batch.core.repository.ExecutionContextSerializer;
+import org.springframework.batch.core.repository.dao.XStreamExecutionContextStringSerializer;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of deserializing an execution context written by XStream, with the XStream serializer of Spring Batch
+ * and with the Jackson-based one.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ExecutionContextSerializerBenchmark {
+
+    @Param({"xstream", "jackson"})
+    private String serializerName;
+
+    @Param({"5", "100"})
+    private int entries;
+
+    private ExecutionContextSerializer serializer;
+
+    private byte[] serializedContext;
+
+    @Setup
+    public void setUp() throws Exception {
+        XStreamExecutionContextStringSerializer xStreamSerializer = new XStreamExecutionContextStringSerializer();
+        xStreamSerializer.afterPropertiesSet();
+        if ("jackson".equals(serializerName)) {
+            serializer = new JacksonExecutionContextStringSerializer(xStreamSerializer);
+        } else {
+            serializer = xStreamSerializer;
+        }
+
+        Map<String, Object> context = new HashMap<String, Object>();
+        for (int i = 0; i < entries; i++) {
+            switch (i % 3) {
+                case 0:
+                    context.put("reader.read.count." + i, (long) i * 1000);
+                    break;
+                case 1:
+                    context.put("reader.resource." + i, "/data/input/file-" + i + ".csv");
+                    break;
+                default:
+                    context.put("writer.written." + i, i);
+            }
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        xStreamSerializer.serialize(context, out);
+        serializedContext = out.toByteArray();
+    }
+
+    @Benchmark
+    public Map<String, Object> deserialize() throws IOException {
+        return serializer.deserialize(new ByteArrayInputStream(serializedContext));
+    }
+}
@@ -0,0 +1,105 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.monitoring.batch.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.seedstack.monitoring.batch.internal.rest.stepexecution.StepExecutionRepresentation;
+import org.springframework.batch.admin.web.ExecutionTimeFormat;
+import org.springframework.batch.admin.web.JobExecutionInfo;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobInstance;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.StepExecution;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of building the representation of one row of a page of job or step executions. Run with {@code -prof gc}
+ * to compare the bytes allocated per row by the shared {@link ExecutionTimeFormat} and by the three
+ * {@link SimpleDateFormat} instances formerly created for each row.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExecutionRepresentationBenchmark {
+
+    private final TimeZone timeZone = TimeZone.getDefault();
+
+    private JobExecution jobExecution;
+
+    private StepExecution stepExecution;
+
+    @Setup
+    public void createExecutions() {
+        jobExecution = new JobExecution(new JobInstance(1L, "job"), 1L, new JobParametersBuilder()
+                .addString("input", "/data/input.csv")
+                .addLong("run.id", 42L)
+                .addDate("date", new Date(1487000000000L))
+                .toJobParameters(), null);
+        jobExecution.setStartTime(new Date(1487000000000L));
+        jobExecution.setEndTime(new Date(1487000123456L));
+        stepExecution = jobExecution.createStepExecution("step");
+        stepExecution.setId(1L);
+        stepExecution.setStartTime(new Date(1487000000000L));
+        stepExecution.setEndTime(new Date(1487000123456L));
+        stepExecution.setLastUpdated(new Date(1487000123456L));
+    }
+
+    @Benchmark
+    public void formatWithSimpleDateFormats(Blackhole blackhole) {
+        SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd");
+        SimpleDateFormat timeFormat = new SimpleDateFormat("HH:mm:ss");
+        SimpleDateFormat durationFormat = new SimpleDateFormat("HH:mm:ss");
+        durationFormat.setTimeZone(TimeZone.getTimeZone("GMT"));
+        timeFormat.setTimeZone(timeZone);
+        dateFormat.setTimeZone(timeZone);
+        Date startTime = stepExecution.getStartTime();
+        Date endTime = stepExecution.getEndTime();
+        blackhole.consume(dateFormat.format(startTime));
+        blackhole.consume(timeFormat.format(startTime));
+        blackhole.consume(durationFormat.format(new Date(endTime.getTime() - startTime.getTime())));
+        blackhole.consume(timeFormat.format(endTime));
+    }
+
+    @Benchmark
+    public void formatWithExecutionTimeFormat(Blackhole blackhole) {
+        ExecutionTimeFormat timeFormat = ExecutionTimeFormat.getInstance(timeZone);
+        Date startTime = stepExecution.getStartTime();
+        Date endTime = stepExecution.getEndTime();
+        blackhole.consume(timeFormat.formatDate(startTime));
+        blackhole.consume(timeFormat.formatTime(startTime));
+        blackhole.consume(ExecutionTimeFormat.formatDuration(endTime.getTime() - startTime.getTime()));
+        blackhole.consume(timeFormat.formatTime(endTime));
+    }
+
+    @Benchmark
+    public JobExecutionInfo jobExecutionInfo() {
+        return new JobExecutionInfo(jobExecution, timeZone);
+    }
+
+    @Benchmark
+    public StepExecutionRepresentation stepExecutionRepresentation() {
+        return new StepExecutionRepresentation(stepExecution, timeZone);
+    }
+}
@@ -0,0 +1,74 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.monitoring.batch.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.batch.admin.history.StepExecutionHistory;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.StepExecution;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of the {@link org.springframework.batch.admin.service.JobService} calls behind the listing and history
+ * REST resources, on a repository holding millions of step executions.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class JobServiceBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+
+    @Benchmark
+    public Collection<JobExecution> listJobExecutionsFirstPage(BatchRepository repository) {
+        return repository.getJobService().listJobExecutions(0, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public Collection<JobExecution> listJobExecutionsLastPage(BatchRepository repository) {
+        return repository.getJobService().listJobExecutions(repository.getJobExecutionCount() - PAGE_SIZE, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public Collection<JobExecution> listJobExecutionsForJob(BatchRepository repository) throws Exception {
+        return repository.getJobService().listJobExecutionsForJob(repository.getJobName(), 0, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public Collection<StepExecution> getStepExecutions(BatchRepository repository) throws Exception {
+        return repository.getJobService().getStepExecutions(repository.getLastJobExecutionId());
+    }
+
+    /**
+     * History of a step already known to the service, which only reads the step executions created since the
+     * previous call.
+     */
+    @Benchmark
+    public StepExecutionHistory computeHistory(BatchRepository repository) {
+        return repository.getJobService().getStepExecutionHistory(repository.getJobName(), repository.getStepName());
+    }
+
+    /**
+     * History of a step requested for the first time, aggregated by the database.
+     */
+    @Benchmark
+    public StepExecutionHistory computeHistoryFirstTime(BatchRepository repository) {
+        return repository.getStepExecutionDao().getStepExecutionHistory(repository.getJobName(),
+                repository.getStepName(), Long.MAX_VALUE);
+    }
+}
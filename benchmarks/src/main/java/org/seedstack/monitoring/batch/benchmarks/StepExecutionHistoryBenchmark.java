@@ -0,0 +1,95 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.monitoring.batch.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.batch.admin.history.HistoryPolicy;
+import org.springframework.batch.admin.history.StepExecutionHistory;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.StepExecution;
+
+import java.util.Date;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of appending step executions to a {@link StepExecutionHistory} and of taking the snapshots returned
+ * to the REST resources, for each history policy.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StepExecutionHistoryBenchmark {
+
+    private static final int EXECUTIONS = 1024;
+
+    @Param({"cumulative", "window:100", "ewma:0.1"})
+    private String policy;
+
+    private StepExecution[] stepExecutions;
+
+    private StepExecutionHistory history;
+
+    private int next;
+
+    @Setup(Level.Trial)
+    public void createStepExecutions() {
+        Random random = new Random(42);
+        JobExecution jobExecution = new JobExecution(1L);
+        stepExecutions = new StepExecution[EXECUTIONS];
+        for (int i = 0; i < EXECUTIONS; i++) {
+            StepExecution stepExecution = new StepExecution("step", jobExecution, (long) i);
+            long start = 1000000000000L + i * 60000L;
+            stepExecution.setStartTime(new Date(start));
+            stepExecution.setEndTime(new Date(start + 1000 + random.nextInt(60000)));
+            stepExecution.setReadCount(random.nextInt(10000));
+            stepExecution.setWriteCount(stepExecution.getReadCount());
+            stepExecution.setCommitCount(stepExecution.getReadCount() / 100);
+            stepExecution.setFilterCount(random.nextInt(10));
+            stepExecutions[i] = stepExecution;
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void createHistory() {
+        history = new StepExecutionHistory("step", HistoryPolicy.valueOf(policy));
+        for (StepExecution stepExecution : stepExecutions) {
+            history.append(stepExecution);
+        }
+    }
+
+    @Benchmark
+    public StepExecutionHistory append() {
+        history.append(stepExecutions[next++ & (EXECUTIONS - 1)]);
+        return history;
+    }
+
+    @Benchmark
+    public StepExecutionHistory snapshot() {
+        return new StepExecutionHistory(history);
+    }
+
+    @Benchmark
+    public double snapshotDurationDeviation() {
+        return new StepExecutionHistory(history).getDuration().getStandardDeviation();
+    }
+}